@@ -271,6 +271,18 @@ public class AddWaypointActivity extends AppCompatActivity implements OnMapReady
         }
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        LocationTracker.subscribe(LocationTracker.DISPLAY);
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        LocationTracker.unsubscribe(LocationTracker.DISPLAY);
+    }
+
     @Override
     public void onMapReady(GoogleMap map) {
         googleMap = map;
@@ -0,0 +1,358 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
+
+/**
+ * Alerts defined by the rider, one rule per line of the prefAlertRules
+ * setting, for example:
+ * <pre>
+ * engine_temp > 110 for 10
+ * voltage < 12.0 hysteresis 0.3
+ * rear_speed / speed > 1.1 for 1
+ * </pre>
+ * A rule compares a signal, or the ratio of two, to a threshold. It fires
+ * once the comparison has held for the given seconds and is rearmed when
+ * the value comes back past the threshold by the hysteresis. Rules are
+ * indexed by the signals they read, so each parsed message only evaluates
+ * the rules of the signals it set.
+ */
+public class AlertRules {
+
+    private static final String TAG = "AlertRules";
+    public static final String PREFERENCE = "prefAlertRules";
+
+    // A parsed rule, only used while compiling
+    private static class Rule {
+        int left = -1;
+        int right = -1;
+        int op;
+        double threshold;
+        double hysteresis;
+        double seconds;
+    }
+
+    private static final int GREATER = 0;
+    private static final int LESS = 1;
+    private static final long MILLIS = 1000000L;
+
+    // Compiled rules, by rule index
+    private static String[] text = new String[0];
+    private static int[] left = new int[0];
+    private static int[] right = new int[0];
+    private static int[] op = new int[0];
+    private static double[] threshold = new double[0];
+    private static double[] hysteresis = new double[0];
+    private static long[] duration = new long[0];
+    private static Runnable[] checks = new Runnable[0];
+    // Rules reading each signal
+    private static int[][] bySignal = new int[Freshness.COUNT][0];
+
+    // Rule state, elapsed ns the condition started holding (0 if not) and fired
+    private static long[] since = new long[0];
+    private static boolean[] fired = new boolean[0];
+    // Evaluation each rule was last part of, so a ratio is evaluated once per message
+    private static int[] evaluated = new int[0];
+    private static int evaluation;
+
+    private static Handler handler;
+    private static SharedPreferences sharedPrefs;
+
+    private static final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            if (PREFERENCE.equals(key)) {
+                compile(sharedPreferences.getString(PREFERENCE, ""));
+            }
+        }
+    };
+
+    /**
+     * Compile the rules in the settings and follow changes to them. Called
+     * when BluetoothLeService is created.
+     */
+    public static synchronized void start(Context context) {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+            sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+            sharedPrefs.registerOnSharedPreferenceChangeListener(preferenceListener);
+        }
+        compile(sharedPrefs.getString(PREFERENCE, ""));
+    }
+
+    /**
+     * Evaluate the rules reading any of the signals.
+     * @param signals bits by Freshness signal, as returned by Freshness.endMessage
+     */
+    public static synchronized void evaluate(int signals) {
+        if (signals == 0 || text.length == 0) {
+            return;
+        }
+        evaluation++;
+        long now = SystemClock.elapsedRealtimeNanos();
+        while (signals != 0) {
+            int signal = Integer.numberOfTrailingZeros(signals);
+            signals &= signals - 1;
+            if (signal >= bySignal.length) {
+                continue;
+            }
+            for (int rule : bySignal[signal]) {
+                if (evaluated[rule] != evaluation) {
+                    evaluated[rule] = evaluation;
+                    evaluate(rule, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return null if the rules are valid, otherwise the first invalid line
+     */
+    public static String validate(String rules) {
+        for (String line : rules.split("\n")) {
+            if (!line.trim().isEmpty() && parse(line) == null) {
+                return line.trim();
+            }
+        }
+        return null;
+    }
+
+    private static void evaluate(int rule, long now) {
+        double value = getValue(left[rule]);
+        if (right[rule] >= 0) {
+            value /= getValue(right[rule]);
+        }
+        if (update(rule, value, now)) {
+            fire(text[rule]);
+        }
+    }
+
+    // Advance the state of a rule with its current value, true when it fires
+    static boolean update(int rule, double value, long now) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // Missing input, wait for it without changing state
+            return false;
+        }
+        boolean over;
+        boolean clear;
+        if (op[rule] == GREATER) {
+            over = value > threshold[rule];
+            clear = value <= threshold[rule] - hysteresis[rule];
+        } else {
+            over = value < threshold[rule];
+            clear = value >= threshold[rule] + hysteresis[rule];
+        }
+        // The hysteresis only delays rearming, the duration restarts whenever the condition breaks
+        if (clear) {
+            fired[rule] = false;
+        }
+        if (!over) {
+            since[rule] = 0;
+            return false;
+        }
+        if (fired[rule]) {
+            return false;
+        }
+        if (since[rule] == 0) {
+            since[rule] = now;
+            if (duration[rule] > 0) {
+                // Inputs may not change again, check once the window is over
+                if (handler != null) {
+                    handler.postDelayed(checks[rule], duration[rule] / MILLIS);
+                }
+                return false;
+            }
+        }
+        if (now - since[rule] >= duration[rule]) {
+            fired[rule] = true;
+            return true;
+        }
+        return false;
+    }
+
+    private static synchronized void check(int rule) {
+        if (rule < since.length && since[rule] != 0) {
+            evaluate(rule, SystemClock.elapsedRealtimeNanos());
+        }
+    }
+
+    private static void fire(final String rule) {
+        Log.d(TAG, "Alert: " + rule);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                Context context = MyApplication.getContext();
+                Intent alertIntent = new Intent(context, AlertActivity.class);
+                alertIntent.setFlags(FLAG_ACTIVITY_NEW_TASK);
+                alertIntent.putExtra("TYPE", 2);
+                alertIntent.putExtra("TITLE", context.getString(R.string.alert_title_rule));
+                alertIntent.putExtra("BODY", rule);
+                alertIntent.putExtra("BACKGROUND", "");
+                context.startActivity(alertIntent);
+            }
+        });
+    }
+
+    // Current value of a signal, NaN if it is missing or stale
+    private static double getValue(int signal) {
+        return Freshness.isStale(signal) ? Double.NaN : Data.getValue(signal);
+    }
+
+    static synchronized void compile(String rules) {
+        if (handler != null) {
+            for (Runnable check : checks) {
+                handler.removeCallbacks(check);
+            }
+        }
+        ArrayList<Rule> parsed = new ArrayList<>();
+        ArrayList<String> lines = new ArrayList<>();
+        for (String line : rules.split("\n")) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            Rule rule = parse(line);
+            if (rule == null) {
+                Log.d(TAG, "Ignoring invalid rule: " + line);
+                continue;
+            }
+            parsed.add(rule);
+            lines.add(line.trim());
+        }
+
+        int count = parsed.size();
+        text = lines.toArray(new String[0]);
+        left = new int[count];
+        right = new int[count];
+        op = new int[count];
+        threshold = new double[count];
+        hysteresis = new double[count];
+        duration = new long[count];
+        checks = new Runnable[count];
+        since = new long[count];
+        fired = new boolean[count];
+        evaluated = new int[count];
+        int[] references = new int[Freshness.COUNT];
+        for (int i = 0; i < count; i++) {
+            Rule rule = parsed.get(i);
+            left[i] = rule.left;
+            right[i] = rule.right;
+            op[i] = rule.op;
+            threshold[i] = rule.threshold;
+            hysteresis[i] = rule.hysteresis;
+            duration[i] = (long) (rule.seconds * 1000) * MILLIS;
+            final int index = i;
+            checks[i] = new Runnable() {
+                @Override
+                public void run() {
+                    check(index);
+                }
+            };
+            references[left[i]]++;
+            if (right[i] >= 0 && right[i] != left[i]) {
+                references[right[i]]++;
+            }
+        }
+        int[][] index = new int[Freshness.COUNT][];
+        for (int signal = 0; signal < Freshness.COUNT; signal++) {
+            index[signal] = new int[references[signal]];
+            references[signal] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            index[left[i]][references[left[i]]++] = i;
+            if (right[i] >= 0 && right[i] != left[i]) {
+                index[right[i]][references[right[i]]++] = i;
+            }
+        }
+        bySignal = index;
+        Log.d(TAG, "Compiled " + count + " rules");
+    }
+
+    // Parse one rule, null if it is not valid
+    private static Rule parse(String line) {
+        String[] tokens = line.trim().toLowerCase(Locale.US).split("\\s+");
+        Rule rule = new Rule();
+        int i = 0;
+        try {
+            rule.left = getSignal(tokens[i++]);
+            if (tokens[i].equals("/")) {
+                i++;
+                rule.right = getSignal(tokens[i++]);
+                if (rule.right < 0) {
+                    return null;
+                }
+            }
+            switch (tokens[i++]) {
+                case ">":
+                    rule.op = GREATER;
+                    break;
+                case "<":
+                    rule.op = LESS;
+                    break;
+                default:
+                    return null;
+            }
+            rule.threshold = Double.parseDouble(tokens[i++]);
+            while (i < tokens.length) {
+                String option = tokens[i++];
+                double value = Double.parseDouble(tokens[i++]);
+                if (value < 0) {
+                    return null;
+                }
+                if (option.equals("for")) {
+                    rule.seconds = value;
+                } else if (option.equals("hysteresis")) {
+                    rule.hysteresis = value;
+                } else {
+                    return null;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return null;
+        }
+        return rule.left < 0 ? null : rule;
+    }
+
+    // Signal a rule can compare, -1 if there is none with the name
+    private static int getSignal(String name) {
+        int signal = Freshness.getSignal(name);
+        if (signal == Freshness.VIN || signal == Freshness.NEXT_SERVICE_DATE) {
+            return -1;
+        }
+        return signal;
+    }
+}
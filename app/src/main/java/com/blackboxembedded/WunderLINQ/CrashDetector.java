@@ -0,0 +1,336 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener2;
+import android.hardware.SensorManager;
+import android.location.Location;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.preference.PreferenceManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
+
+import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
+
+/**
+ * Detects a crash or a fall of the bike from the accelerometer: an impact
+ * spike followed by the phone coming to rest tilted well away from how it
+ * sat before. Impacts only count if the bike was moving just before, so
+ * a phone knocked off a parked bike is ignored. The sensor is batched in
+ * its hardware FIFO, so the detector runs a few times a second rather than
+ * on every sample, and samples are kept in a small ring that is saved with
+ * the black box when it triggers.
+ */
+public class CrashDetector {
+
+    private static final String TAG = "CrashDetector";
+    public static final String PREFERENCE = "prefCrashDetection";
+
+    private static final long MILLIS = 1000000L;
+    // 100Hz, short enough to catch the spike of an impact
+    private static final int SAMPLING_PERIOD = 10000;
+    // Samples are delivered in batches of up to this latency
+    private static final int REPORT_LATENCY = 2000000;
+    // Impact, acceleration magnitude including gravity
+    private static final float IMPACT = 4.0f * SensorManager.GRAVITY_EARTH;
+    // At rest, magnitude within this of gravity
+    private static final float REST_TOLERANCE = 1.5f;
+    // Tilt from the riding orientation counted as lying down, cos(60)
+    private static final float TILT_COS = 0.5f;
+    // Lying still for this long after an impact triggers
+    private static final long LYING_TIME = 2000 * MILLIS;
+    // An impact not followed by lying down within this is forgotten
+    private static final long IMPACT_WINDOW = 10000 * MILLIS;
+    // Samples after the trigger included in the dump
+    private static final long POST_WINDOW = 5000;
+    // Smoothing of the riding and resting orientations
+    private static final float ALPHA = 0.02f;
+    // Bike or GPS speed in km/h counted as riding
+    private static final double MOVING_SPEED = 10.0;
+    // An impact counts if the bike was moving within this before it
+    private static final long MOVING_WINDOW = 5000 * MILLIS;
+    // Speed is checked at most this often, in sample time
+    private static final long SPEED_CHECK = 1000 * MILLIS;
+    // A GPS fix older than this says nothing about the speed
+    private static final long FIX_AGE = 5000 * MILLIS;
+
+    // Motion ring, x, y, z per sample, about 20s at 100Hz
+    private static final int CAPACITY = 2048;
+    private static final long[] times = new long[CAPACITY];
+    private static final float[] values = new float[CAPACITY * 3];
+    private static long samples;
+
+    // Orientation while riding, only followed before an impact
+    private static final float[] riding = new float[3];
+    private static boolean hasRiding;
+    // Orientation after an impact
+    private static final float[] resting = new float[3];
+    private static long impactTime;
+    // Elapsed ns the bike was last seen moving, and last checked
+    private static long movingTime;
+    private static long speedCheckTime;
+    private static long restingSince;
+    private static boolean dumpPending;
+
+    private static Handler handler;
+    private static SharedPreferences sharedPrefs;
+    private static SensorManager sensorManager;
+    private static Sensor accelerometer;
+    private static boolean registered;
+
+    private static final SensorEventListener2 listener = new SensorEventListener2() {
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            onSample(event.timestamp, event.values[0], event.values[1], event.values[2]);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        }
+
+        @Override
+        public void onFlushCompleted(Sensor sensor) {
+            // The samples after the trigger are all in the ring now
+            if (dumpPending) {
+                dumpPending = false;
+                dump();
+            }
+        }
+    };
+
+    private static final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            if (PREFERENCE.equals(key)) {
+                update();
+            }
+        }
+    };
+
+    /**
+     * Start detecting if enabled in the settings and follow changes to the
+     * setting. Called when BluetoothLeService is created.
+     */
+    public static synchronized void start(Context context) {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+            sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+            accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+            sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+            sharedPrefs.registerOnSharedPreferenceChangeListener(preferenceListener);
+        }
+        update();
+    }
+
+    public static synchronized void stop() {
+        if (sharedPrefs != null) {
+            sharedPrefs.unregisterOnSharedPreferenceChangeListener(preferenceListener);
+        }
+        unregister();
+        if (handler != null) {
+            handler.getLooper().quitSafely();
+            handler = null;
+        }
+    }
+
+    private static synchronized void update() {
+        if (sharedPrefs.getBoolean(PREFERENCE, false)) {
+            if (!registered && accelerometer != null) {
+                reset();
+                registered = sensorManager.registerListener(listener, accelerometer,
+                        SAMPLING_PERIOD, REPORT_LATENCY, handler);
+                if (registered) {
+                    // Recent fixes for isMoving when the bike sends no speed
+                    LocationTracker.subscribe(LocationTracker.MONITORING);
+                }
+                Log.d(TAG, "Batching " + accelerometer.getFifoMaxEventCount() + " samples");
+            }
+        } else {
+            unregister();
+        }
+    }
+
+    private static void unregister() {
+        if (registered) {
+            sensorManager.unregisterListener(listener);
+            registered = false;
+            LocationTracker.unsubscribe(LocationTracker.MONITORING);
+        }
+    }
+
+    private static void reset() {
+        samples = 0;
+        impactTime = 0;
+        restingSince = 0;
+        hasRiding = false;
+        movingTime = 0;
+        speedCheckTime = 0;
+    }
+
+    // Bike speed if the bike is sending it, otherwise the speed of a recent GPS fix
+    private static boolean isMoving() {
+        Double speed = Freshness.ifFresh(Freshness.SPEED, Data.getSpeed());
+        if (speed != null) {
+            return speed > MOVING_SPEED;
+        }
+        Location location = Data.getLastLocation();
+        return location != null && location.hasSpeed()
+                && SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos() < FIX_AGE
+                && location.getSpeed() * 3.6 > MOVING_SPEED;
+    }
+
+    // Called on the handler thread for each sample of a batch
+    private static void onSample(long time, float x, float y, float z) {
+        synchronized (times) {
+            int slot = (int) (samples % CAPACITY);
+            times[slot] = time;
+            values[slot * 3] = x;
+            values[slot * 3 + 1] = y;
+            values[slot * 3 + 2] = z;
+            samples++;
+        }
+
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        boolean still = Math.abs(magnitude - SensorManager.GRAVITY_EARTH) < REST_TOLERANCE;
+        if (impactTime == 0) {
+            if (time - speedCheckTime >= SPEED_CHECK) {
+                // Batches arrive late, so the speed is read after the samples but still near them
+                speedCheckTime = time;
+                if (isMoving()) {
+                    movingTime = time;
+                }
+            }
+            if (magnitude > IMPACT && hasRiding) {
+                if (movingTime == 0 || time - movingTime > MOVING_WINDOW) {
+                    Log.d(TAG, "Impact while not riding");
+                    return;
+                }
+                Log.d(TAG, "Impact of " + magnitude / SensorManager.GRAVITY_EARTH + "g");
+                impactTime = time;
+                restingSince = 0;
+                return;
+            }
+            if (still) {
+                if (hasRiding) {
+                    lowPass(riding, x, y, z);
+                } else {
+                    riding[0] = x;
+                    riding[1] = y;
+                    riding[2] = z;
+                    hasRiding = true;
+                }
+            }
+            return;
+        }
+
+        if (time - impactTime > IMPACT_WINDOW && restingSince == 0) {
+            // Rode on
+            impactTime = 0;
+            return;
+        }
+        if (!still) {
+            restingSince = 0;
+            return;
+        }
+        if (restingSince == 0) {
+            restingSince = time;
+            resting[0] = x;
+            resting[1] = y;
+            resting[2] = z;
+            return;
+        }
+        lowPass(resting, x, y, z);
+        if (time - restingSince >= LYING_TIME) {
+            impactTime = 0;
+            if (cosine(riding, resting) < TILT_COS) {
+                trigger();
+            } else {
+                // Upright again, a pothole or a dropped phone put back
+                Log.d(TAG, "Impact without a fall");
+            }
+        }
+    }
+
+    private static void trigger() {
+        Log.d(TAG, "Crash detected");
+        Context context = MyApplication.getContext();
+        Intent alertIntent = new Intent(context, AlertActivity.class);
+        alertIntent.setFlags(FLAG_ACTIVITY_NEW_TASK);
+        alertIntent.putExtra("TYPE", 2);
+        alertIntent.putExtra("TITLE", context.getString(R.string.alert_title_crash));
+        alertIntent.putExtra("BODY", context.getString(R.string.alert_label_crash));
+        alertIntent.putExtra("BACKGROUND", "");
+        context.startActivity(alertIntent);
+
+        // Dump once the samples after the fall have come out of the FIFO
+        handler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                dumpPending = true;
+                if (!registered || !sensorManager.flush(listener)) {
+                    dumpPending = false;
+                    dump();
+                }
+            }
+        }, POST_WINDOW);
+    }
+
+    private static void dump() {
+        long[] motionTimes;
+        float[] motion;
+        synchronized (times) {
+            int count = (int) Math.min(samples, CAPACITY);
+            motionTimes = new long[count];
+            motion = new float[count * 3];
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((samples - count + i) % CAPACITY);
+                motionTimes[i] = times[slot];
+                System.arraycopy(values, slot * 3, motion, i * 3, 3);
+            }
+        }
+        if (!FlightRecorder.dump(motionTimes, motion)) {
+            Log.d(TAG, "Black box not running, motion not saved");
+        }
+    }
+
+    private static void lowPass(float[] vector, float x, float y, float z) {
+        vector[0] += ALPHA * (x - vector[0]);
+        vector[1] += ALPHA * (y - vector[1]);
+        vector[2] += ALPHA * (z - vector[2]);
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        float dot = a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+        float length = (float) Math.sqrt((a[0] * a[0] + a[1] * a[1] + a[2] * a[2])
+                * (b[0] * b[0] + b[1] * b[1] + b[2] * b[2]));
+        return length == 0 ? 1 : dot / length;
+    }
+}
@@ -122,6 +122,8 @@ public class DashActivity extends AppCompatActivity implements View.OnTouchListe
         updateDashboard();
         startTimer();
         registerReceiver(mGattUpdateReceiver, makeGattUpdateIntentFilter());
+        SensorFusion.subscribe(SensorFusion.DISPLAY);
+        LocationTracker.subscribe(LocationTracker.DISPLAY);
     }
 
     @Override
@@ -131,6 +133,8 @@ public class DashActivity extends AppCompatActivity implements View.OnTouchListe
         editor.putInt("lastDashboard", currentDashboard);
         editor.apply();
         cancelTimer();
+        SensorFusion.unsubscribe(SensorFusion.DISPLAY);
+        LocationTracker.unsubscribe(LocationTracker.DISPLAY);
         try {
             unregisterReceiver(mGattUpdateReceiver);
         } catch (IllegalArgumentException e){
@@ -47,8 +47,6 @@ public class FaultActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        FaultStatus faults;
-        faults = (new FaultStatus(this));
         ListView faultList;
 
         sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
@@ -65,10 +63,15 @@ public class FaultActivity extends AppCompatActivity {
                 Intent backIntent = new Intent(FaultActivity.this, MainActivity.class);
                 startActivity(backIntent);
             }
+            @Override
+            public void onSwipeLeft() {
+                Intent historyIntent = new Intent(FaultActivity.this, FaultHistoryActivity.class);
+                startActivity(historyIntent);
+            }
         });
 
 
-        faultListData = faults.getallActiveDesc();
+        faultListData = FaultStatus.getDescriptions(this, FaultStatus.getActive());
 
         faultList.setAdapter(new ArrayAdapter<String>(this, R.layout.item_fault,faultListData));
 
@@ -109,7 +112,7 @@ public class FaultActivity extends AppCompatActivity {
         ImageButton backButton = findViewById(R.id.action_back);
         ImageButton forwardButton = findViewById(R.id.action_forward);
         backButton.setOnClickListener(mClickListener);
-        forwardButton.setVisibility(View.INVISIBLE);
+        forwardButton.setOnClickListener(mClickListener);
     }
 
     private View.OnClickListener mClickListener = new View.OnClickListener() {
@@ -121,6 +124,10 @@ public class FaultActivity extends AppCompatActivity {
                     Intent backIntent = new Intent(FaultActivity.this, MainActivity.class);
                     startActivity(backIntent);
                     break;
+                case R.id.action_forward:
+                    Intent historyIntent = new Intent(FaultActivity.this, FaultHistoryActivity.class);
+                    startActivity(historyIntent);
+                    break;
             }
         }
     };
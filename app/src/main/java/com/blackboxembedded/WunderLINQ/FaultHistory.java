@@ -0,0 +1,285 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.location.Location;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+/**
+ * Every fault raised or cleared, with the time, position and a few key
+ * signals when it happened. Events are kept in a fixed size ring file mapped
+ * into memory, so recording one is a copy into the mapping and the oldest
+ * events are overwritten once the file is full. Events are read back a page
+ * at a time, newest first.
+ */
+public class FaultHistory {
+
+    private static final String TAG = "FaultHistory";
+    private static final String FILE_NAME = "faults.history";
+    private static final int MAGIC = 0x574c5146; // "WLQF"
+    private static final int VERSION = 1;
+    // Events kept before the oldest are overwritten
+    private static final int CAPACITY = 4096;
+
+    // Header: magic, version, capacity, record size, events ever written
+    private static final int HEADER_SIZE = 32;
+    private static final int SEQUENCE = 16;
+
+    // Record fields, missing values are NaN
+    private static final int RECORD_SIZE = 64;
+    private static final int TIME = 0;
+    private static final int BIT = 8;
+    private static final int RAISED = 9;
+    private static final int GEAR = 10;
+    private static final int SPEED = 12;
+    private static final int RPM = 16;
+    private static final int ENGINE_TEMPERATURE = 20;
+    private static final int AMBIENT_TEMPERATURE = 24;
+    private static final int FRONT_TIRE_PRESSURE = 28;
+    private static final int REAR_TIRE_PRESSURE = 32;
+    private static final int VOLTAGE = 36;
+    private static final int THROTTLE_POSITION = 40;
+    private static final int LEAN_ANGLE_BIKE = 44;
+    private static final int LATITUDE = 48;
+    private static final int LONGITUDE = 56;
+
+    private static MappedByteBuffer buffer;
+    // Events ever written, the next one goes to sequence % CAPACITY
+    private static long sequence;
+    // Record being built, copied into the ring once per changed fault
+    private static final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private static final FaultStatus.Listener listener = new FaultStatus.Listener() {
+        @Override
+        public void onFaultsChanged(long raised, long cleared) {
+            add(raised, cleared);
+        }
+    };
+
+    public static class Event {
+        private final long time;
+        private final int bit;
+        private final boolean raised;
+        private final char gear;
+        private final float speed;
+        private final float rpm;
+        private final float engineTemperature;
+        private final float ambientTemperature;
+        private final float frontTirePressure;
+        private final float rearTirePressure;
+        private final float voltage;
+        private final float throttlePosition;
+        private final float leanAngleBike;
+        private final double latitude;
+        private final double longitude;
+
+        private Event(ByteBuffer buffer, int offset) {
+            time = buffer.getLong(offset + TIME);
+            bit = buffer.get(offset + BIT);
+            raised = buffer.get(offset + RAISED) != 0;
+            gear = buffer.getChar(offset + GEAR);
+            speed = buffer.getFloat(offset + SPEED);
+            rpm = buffer.getFloat(offset + RPM);
+            engineTemperature = buffer.getFloat(offset + ENGINE_TEMPERATURE);
+            ambientTemperature = buffer.getFloat(offset + AMBIENT_TEMPERATURE);
+            frontTirePressure = buffer.getFloat(offset + FRONT_TIRE_PRESSURE);
+            rearTirePressure = buffer.getFloat(offset + REAR_TIRE_PRESSURE);
+            voltage = buffer.getFloat(offset + VOLTAGE);
+            throttlePosition = buffer.getFloat(offset + THROTTLE_POSITION);
+            leanAngleBike = buffer.getFloat(offset + LEAN_ANGLE_BIKE);
+            latitude = buffer.getDouble(offset + LATITUDE);
+            longitude = buffer.getDouble(offset + LONGITUDE);
+        }
+
+        // Wall clock time in ms
+        public long getTime() {
+            return time;
+        }
+        // Bit number of the fault, see FaultStatus.getDescription
+        public int getBit() {
+            return bit;
+        }
+        public boolean isRaised() {
+            return raised;
+        }
+        public boolean hasLocation() {
+            return !Double.isNaN(latitude);
+        }
+        public double getLatitude() {
+            return latitude;
+        }
+        public double getLongitude() {
+            return longitude;
+        }
+        // Gear as shown on the bike, 0 if unknown
+        public char getGear() {
+            return gear;
+        }
+        public float getSpeed() {
+            return speed;
+        }
+        public float getRPM() {
+            return rpm;
+        }
+        public float getEngineTemperature() {
+            return engineTemperature;
+        }
+        public float getAmbientTemperature() {
+            return ambientTemperature;
+        }
+        public float getFrontTirePressure() {
+            return frontTirePressure;
+        }
+        public float getRearTirePressure() {
+            return rearTirePressure;
+        }
+        public float getVoltage() {
+            return voltage;
+        }
+        public float getThrottlePosition() {
+            return throttlePosition;
+        }
+        public float getLeanAngleBike() {
+            return leanAngleBike;
+        }
+    }
+
+    /**
+     * Map the history file and start recording fault changes. Called once
+     * from MyApplication.onCreate.
+     */
+    public static synchronized void start(Context context) {
+        if (buffer != null) {
+            return;
+        }
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        long size = HEADER_SIZE + (long) CAPACITY * RECORD_SIZE;
+        // The mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            if (raf.length() != size) {
+                raf.setLength(size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            Log.d(TAG, "Exception mapping fault history: " + e.toString());
+            return;
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(8) != CAPACITY || buffer.getInt(12) != RECORD_SIZE) {
+            Log.d(TAG, "Starting new fault history");
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, CAPACITY);
+            buffer.putInt(12, RECORD_SIZE);
+            buffer.putLong(SEQUENCE, 0);
+        }
+        sequence = buffer.getLong(SEQUENCE);
+        FaultStatus.addListener(listener);
+    }
+
+    // Number of events stored
+    public static synchronized int getCount() {
+        return (int) Math.min(sequence, CAPACITY);
+    }
+
+    // Sequence number the next event will get
+    public static synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Up to count events written before the given sequence number, newest
+     * first. Events already overwritten are skipped, so paging from
+     * getSequence() is not disturbed by events added meanwhile.
+     */
+    public static synchronized ArrayList<Event> read(long before, int count) {
+        long oldest = Math.max(sequence - CAPACITY, 0);
+        long end = Math.min(before, sequence);
+        long start = Math.max(end - count, oldest);
+        ArrayList<Event> events = new ArrayList<>((int) Math.max(end - start, 0));
+        for (long i = end - 1; i >= start; i--) {
+            events.add(new Event(buffer, offset(i)));
+        }
+        return events;
+    }
+
+    public static synchronized void clear() {
+        if (buffer == null) {
+            return;
+        }
+        sequence = 0;
+        buffer.putLong(SEQUENCE, sequence);
+    }
+
+    private static synchronized void add(long raised, long cleared) {
+        if (buffer == null) {
+            return;
+        }
+        // Signals shared by all the faults changed by this message
+        record.putLong(TIME, System.currentTimeMillis());
+        String gear = Freshness.ifFresh(Freshness.GEAR, Data.getGear());
+        record.putChar(GEAR, gear == null || gear.isEmpty() ? 0 : gear.charAt(0));
+        record.putFloat(SPEED, toFloat(Freshness.ifFresh(Freshness.SPEED, Data.getSpeed())));
+        Integer rpm = Freshness.ifFresh(Freshness.RPM, Data.getRPM());
+        record.putFloat(RPM, rpm == null ? Float.NaN : rpm);
+        record.putFloat(ENGINE_TEMPERATURE, toFloat(Freshness.ifFresh(Freshness.ENGINE_TEMPERATURE, Data.getEngineTemperature())));
+        record.putFloat(AMBIENT_TEMPERATURE, toFloat(Freshness.ifFresh(Freshness.AMBIENT_TEMPERATURE, Data.getAmbientTemperature())));
+        record.putFloat(FRONT_TIRE_PRESSURE, toFloat(Freshness.ifFresh(Freshness.FRONT_TIRE_PRESSURE, Data.getFrontTirePressure())));
+        record.putFloat(REAR_TIRE_PRESSURE, toFloat(Freshness.ifFresh(Freshness.REAR_TIRE_PRESSURE, Data.getRearTirePressure())));
+        record.putFloat(VOLTAGE, toFloat(Freshness.ifFresh(Freshness.VOLTAGE, Data.getvoltage())));
+        record.putFloat(THROTTLE_POSITION, toFloat(Freshness.ifFresh(Freshness.THROTTLE_POSITION, Data.getThrottlePosition())));
+        record.putFloat(LEAN_ANGLE_BIKE, toFloat(Freshness.ifFresh(Freshness.LEAN_ANGLE_BIKE, Data.getLeanAngleBike())));
+        Location location = Data.getLastLocation();
+        record.putDouble(LATITUDE, location == null ? Double.NaN : location.getLatitude());
+        record.putDouble(LONGITUDE, location == null ? Double.NaN : location.getLongitude());
+
+        long changed = raised | cleared;
+        while (changed != 0) {
+            int bit = Long.numberOfTrailingZeros(changed);
+            record.put(BIT, (byte) bit);
+            record.put(RAISED, (byte) ((raised >>> bit) & 1));
+            buffer.position(offset(sequence));
+            buffer.put(record.array());
+            sequence++;
+            changed &= changed - 1;
+        }
+        // Written last, so a record is only counted once it is complete
+        buffer.putLong(SEQUENCE, sequence);
+    }
+
+    private static int offset(long sequence) {
+        return HEADER_SIZE + (int) (sequence % CAPACITY) * RECORD_SIZE;
+    }
+
+    private static float toFloat(Double value) {
+        return value == null ? Float.NaN : value.floatValue();
+    }
+}
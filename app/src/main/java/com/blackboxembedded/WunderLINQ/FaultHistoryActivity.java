@@ -0,0 +1,240 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.preference.PreferenceManager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.ArrayAdapter;
+import android.widget.ImageButton;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.ActionBar;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.blackboxembedded.WunderLINQ.Utils.AppUtils;
+import com.blackboxembedded.WunderLINQ.Utils.Utils;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+
+public class FaultHistoryActivity extends AppCompatActivity {
+
+    // Events read from the history file at a time
+    private static final int PAGE_SIZE = 50;
+
+    private SharedPreferences sharedPrefs;
+    private EventAdapter adapter;
+    // Sequence number of the newest event not yet shown
+    private long next;
+    private boolean loadedAll;
+    private final DateFormat dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.MEDIUM);
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
+
+        AppUtils.adjustDisplayScale(this, getResources().getConfiguration());
+        setContentView(R.layout.activity_fault_history);
+
+        showActionBar();
+
+        ListView eventList = findViewById(R.id.lv_fault_history);
+        eventList.setEmptyView(findViewById(R.id.tv_fault_history_empty));
+        eventList.setOnTouchListener(new OnSwipeTouchListener(this) {
+            @Override
+            public void onSwipeRight() {
+                Intent backIntent = new Intent(FaultHistoryActivity.this, FaultActivity.class);
+                startActivity(backIntent);
+            }
+        });
+
+        // Newest first, later pages are read as the list is scrolled
+        next = FaultHistory.getSequence();
+        adapter = new EventAdapter(this);
+        eventList.setAdapter(adapter);
+        loadPage();
+        eventList.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - PAGE_SIZE / 2) {
+                    loadPage();
+                }
+            }
+        });
+    }
+
+    private void loadPage() {
+        if (loadedAll) {
+            return;
+        }
+        ArrayList<FaultHistory.Event> events = FaultHistory.read(next, PAGE_SIZE);
+        next -= events.size();
+        loadedAll = events.size() < PAGE_SIZE;
+        adapter.addAll(events);
+    }
+
+    private class EventAdapter extends ArrayAdapter<FaultHistory.Event> {
+
+        EventAdapter(Context context) {
+            super(context, R.layout.item_fault_history);
+        }
+
+        @NonNull
+        @Override
+        public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+            if (convertView == null) {
+                convertView = getLayoutInflater().inflate(R.layout.item_fault_history, parent, false);
+            }
+            FaultHistory.Event event = getItem(position);
+            TextView tvEvent = convertView.findViewById(R.id.tv_fault_event);
+            TextView tvDetails = convertView.findViewById(R.id.tv_fault_event_details);
+            String fault = FaultStatus.getDescription(FaultHistoryActivity.this, event.getBit());
+            tvEvent.setText(dateFormat.format(new Date(event.getTime())) + "  "
+                    + getString(event.isRaised() ? R.string.fault_history_raised : R.string.fault_history_cleared, fault));
+            tvDetails.setText(getDetails(event));
+            return convertView;
+        }
+    }
+
+    // Position and signals of an event, in the units chosen in settings
+    private String getDetails(FaultHistory.Event event) {
+        StringBuilder details = new StringBuilder();
+        if (event.hasLocation()) {
+            details.append(String.format(Locale.getDefault(), "%.5f, %.5f", event.getLatitude(), event.getLongitude()));
+        } else {
+            details.append(getString(R.string.fault_history_no_fix));
+        }
+
+        boolean imperial = sharedPrefs.getString("prefDistance", "0").contains("1");
+        double speed = event.getSpeed();
+        if (!Double.isNaN(speed)) {
+            if (imperial) {
+                speed = Utils.kmToMiles(speed);
+            }
+            append(details, R.string.speed_label, Math.round(speed) + (imperial ? " mph" : " kmh"));
+        }
+        if (event.getGear() != 0) {
+            append(details, R.string.gear_label, String.valueOf(event.getGear()));
+        }
+        if (!Float.isNaN(event.getRPM())) {
+            append(details, R.string.rpm_header, String.valueOf(Math.round(event.getRPM())));
+        }
+        if (!Float.isNaN(event.getThrottlePosition())) {
+            append(details, R.string.throttle_label, Math.round(event.getThrottlePosition()) + "%");
+        }
+        if (!Float.isNaN(event.getLeanAngleBike())) {
+            append(details, R.string.leanangle_bike_header, Math.round(event.getLeanAngleBike()) + "°");
+        }
+        appendTemperature(details, R.string.engine_temp_label, event.getEngineTemperature());
+        appendTemperature(details, R.string.ambient_temp_label, event.getAmbientTemperature());
+        appendPressure(details, R.string.frontpressure_header, event.getFrontTirePressure());
+        appendPressure(details, R.string.rearpressure_header, event.getRearTirePressure());
+        if (!Float.isNaN(event.getVoltage())) {
+            append(details, R.string.voltage_label, Utils.oneDigit.format(event.getVoltage()) + " V");
+        }
+        return details.toString();
+    }
+
+    private void appendTemperature(StringBuilder details, int label, double temperature) {
+        if (Double.isNaN(temperature)) {
+            return;
+        }
+        String temperatureUnit = "C";
+        if (sharedPrefs.getString("prefTempF", "0").contains("1")) {
+            // F
+            temperature = Utils.celsiusToFahrenheit(temperature);
+            temperatureUnit = "F";
+        }
+        append(details, label, Math.round(temperature) + " " + temperatureUnit);
+    }
+
+    private void appendPressure(StringBuilder details, int label, double pressure) {
+        if (Double.isNaN(pressure)) {
+            return;
+        }
+        String pressureUnit = "bar";
+        String pressureFormat = sharedPrefs.getString("prefPressureF", "0");
+        if (pressureFormat.contains("1")) {
+            // KPa
+            pressure = Utils.barTokPa(pressure);
+            pressureUnit = "KPa";
+        } else if (pressureFormat.contains("2")) {
+            // Kg-f
+            pressure = Utils.barTokgf(pressure);
+            pressureUnit = "Kg-f";
+        } else if (pressureFormat.contains("3")) {
+            // Psi
+            pressure = Utils.barToPsi(pressure);
+            pressureUnit = "psi";
+        }
+        append(details, label, Utils.oneDigit.format(pressure) + " " + pressureUnit);
+    }
+
+    private void append(StringBuilder details, int label, String value) {
+        details.append('\n').append(getString(label)).append(": ").append(value);
+    }
+
+    private void showActionBar(){
+        LayoutInflater inflator = (LayoutInflater) this.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        View v = inflator.inflate(R.layout.actionbar_nav, null);
+        ActionBar actionBar = getSupportActionBar();
+        actionBar.setDisplayHomeAsUpEnabled(false);
+        actionBar.setDisplayShowHomeEnabled (false);
+        actionBar.setDisplayShowCustomEnabled(true);
+        actionBar.setDisplayShowTitleEnabled(false);
+        actionBar.setCustomView(v);
+
+        TextView navbarTitle;
+        navbarTitle = findViewById(R.id.action_title);
+        navbarTitle.setText(R.string.fault_history_title);
+        ImageButton backButton = findViewById(R.id.action_back);
+        ImageButton forwardButton = findViewById(R.id.action_forward);
+        backButton.setOnClickListener(mClickListener);
+        forwardButton.setVisibility(View.INVISIBLE);
+    }
+
+    private View.OnClickListener mClickListener = new View.OnClickListener() {
+
+        @Override
+        public void onClick(View v) {
+            switch(v.getId()) {
+                case R.id.action_back:
+                    Intent backIntent = new Intent(FaultHistoryActivity.this, FaultActivity.class);
+                    startActivity(backIntent);
+                    break;
+            }
+        }
+    };
+}
@@ -0,0 +1,140 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.preference.PreferenceManager;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.comms.BLE.BluetoothLeService;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static android.content.Intent.FLAG_ACTIVITY_NEW_TASK;
+
+/**
+ * Posts the critical fault notification and the low fuel alert from fault
+ * changes. Changes are collected for a short window on a thread of its own,
+ * so a flapping signal costs the parser nothing and the notification is only
+ * reposted when the faults it lists are different.
+ */
+public class FaultNotifier {
+
+    private static final String TAG = "FaultNotifier";
+    // Fault changes within this many ms are handled together
+    private static final long DELAY = 500;
+    // Faults listed in the notification
+    private static final long NOTIFIED = FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL | FaultStatus.REAR_TIRE_PRESSURE_CRITICAL
+            | FaultStatus.GENERAL_FLASHING_RED | FaultStatus.GENERAL_SHOWS_RED
+            | FaultStatus.FRONT_TIRE_PRESSURE_DROPPING | FaultStatus.REAR_TIRE_PRESSURE_DROPPING;
+    private static final long WATCHED = NOTIFIED | FaultStatus.FUEL_FAULT;
+
+    private static final AtomicBoolean pending = new AtomicBoolean();
+    private static Handler handler;
+    // Only used on the handler thread
+    private static long posted;
+    private static boolean fuelAlertSent;
+
+    private static final FaultStatus.Listener listener = new FaultStatus.Listener() {
+        @Override
+        public void onFaultsChanged(long raised, long cleared) {
+            if (((raised | cleared) & WATCHED) != 0 && pending.compareAndSet(false, true)) {
+                handler.postDelayed(update, DELAY);
+            }
+        }
+    };
+
+    private static final Runnable update = new Runnable() {
+        @Override
+        public void run() {
+            pending.set(false);
+            Context context = MyApplication.getContext();
+            SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+            long active = FaultStatus.getActive();
+
+            long visible = sharedPrefs.getBoolean("prefNotifications", true) ? active & NOTIFIED : 0;
+            if (visible != posted) {
+                posted = visible;
+                if (visible != 0) {
+                    String body = TextUtils.join("\n", FaultStatus.getDescriptions(context, visible));
+                    BluetoothLeService.showNotification(context, context.getString(R.string.fault_title), body);
+                } else {
+                    Log.d(TAG, "Clearing notification");
+                    BluetoothLeService.clearNotifications();
+                }
+            }
+
+            if ((active & FaultStatus.FUEL_FAULT) != 0 && sharedPrefs.getBoolean("prefFuelAlert", false)) {
+                if (!fuelAlertSent) {
+                    fuelAlertSent = true;
+                    Intent alertIntent = new Intent(context, AlertActivity.class);
+                    alertIntent.putExtra("TYPE", 1);
+                    alertIntent.putExtra("TITLE", context.getString(R.string.alert_title_fuel));
+                    alertIntent.putExtra("BODY", context.getString(R.string.alert_label_fuel));
+                    alertIntent.putExtra("BACKGROUND", "");
+                    alertIntent.setFlags(FLAG_ACTIVITY_NEW_TASK);
+                    context.startActivity(alertIntent);
+                }
+            } else {
+                fuelAlertSent = false;
+            }
+        }
+    };
+
+    /**
+     * Start following fault changes. Called when BluetoothLeService is
+     * created.
+     */
+    public static synchronized void start() {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        FaultStatus.addListener(listener);
+        // Faults may already be active
+        if (pending.compareAndSet(false, true)) {
+            handler.post(update);
+        }
+    }
+
+    /**
+     * Stop following fault changes and forget what was posted, the service
+     * clears its notifications when it is destroyed.
+     */
+    public static synchronized void stop() {
+        FaultStatus.removeListener(listener);
+        if (handler != null) {
+            handler.removeCallbacks(update);
+            pending.set(false);
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    posted = 0;
+                    fuelAlertSent = false;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,352 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.hardware.SensorManager;
+import android.location.Location;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.Utils.Utils;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Black box of the last minute of riding. Every bus frame and, after each
+ * parsed message, a row of all telemetry values are copied into fixed size
+ * rings, so recording allocates nothing. The rings are written to CSV files
+ * in blackbox/ on request, a few seconds after a new fault or on a crash.
+ */
+public class FlightRecorder {
+
+    private static final String TAG = "FlightRecorder";
+    private static final long MILLIS = 1000000L;
+    // Only the frames and rows of this last period are dumped
+    private static final long WINDOW = 60000 * MILLIS;
+    // Wait after a fault so the dump also shows what followed it
+    private static final long FAULT_DELAY = 5000;
+    // Fault dumps are at least this far apart, each covers the minute before it
+    private static final long FAULT_INTERVAL = 60000;
+    // Older dumps are deleted
+    private static final int MAX_DUMPS = 20;
+
+    public static final byte LIN = 0;
+    public static final byte CAN = 1;
+
+    // Frame ring
+    private static final int FRAME_CAPACITY = 16384;
+    private static final int FRAME_SIZE = 16;
+    private static final long[] frameTime = new long[FRAME_CAPACITY];
+    private static final byte[] frameBus = new byte[FRAME_CAPACITY];
+    private static final byte[] frameLength = new byte[FRAME_CAPACITY];
+    private static final byte[] frameData = new byte[FRAME_CAPACITY * FRAME_SIZE];
+    private static long frames;
+
+    // Telemetry ring, the bus signals followed by the phone's own
+    private static final int LEAN_ANGLE = Freshness.COUNT;
+    private static final int G_FORCE = Freshness.COUNT + 1;
+    private static final int BAROMETRIC_PRESSURE = Freshness.COUNT + 2;
+    private static final int LATITUDE = Freshness.COUNT + 3;
+    private static final int LONGITUDE = Freshness.COUNT + 4;
+    private static final int COLUMNS = Freshness.COUNT + 5;
+    private static final int ROW_CAPACITY = 8192;
+    private static final long[] rowTime = new long[ROW_CAPACITY];
+    private static final float[] rowValues = new float[ROW_CAPACITY * COLUMNS];
+    private static long rows;
+
+    private static Handler handler;
+    // Time of the last fault dump, or of the one waiting to run
+    private static long lastFaultDump;
+    private static boolean faultDumpPending;
+
+    private static final FaultStatus.Listener listener = new FaultStatus.Listener() {
+        @Override
+        public void onFaultsChanged(long raised, long cleared) {
+            if (raised != 0) {
+                long now = SystemClock.elapsedRealtime();
+                long time = now + FAULT_DELAY;
+                synchronized (FlightRecorder.class) {
+                    if (faultDumpPending) {
+                        // Raised less than a minute before the waiting dump
+                        return;
+                    }
+                    if (lastFaultDump != 0) {
+                        // Soon after the last dump, follow up at the end of the interval
+                        time = Math.max(time, lastFaultDump + FAULT_INTERVAL);
+                    }
+                    lastFaultDump = time;
+                    faultDumpPending = true;
+                }
+                handler.postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (FlightRecorder.class) {
+                            faultDumpPending = false;
+                        }
+                        dump();
+                    }
+                }, time - now);
+            }
+        }
+    };
+
+    /**
+     * Start dumping on new faults. Called when BluetoothLeService is created,
+     * recording itself needs no setup.
+     */
+    public static synchronized void start() {
+        if (handler == null) {
+            HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            handler = new Handler(thread.getLooper());
+        }
+        FaultStatus.addListener(listener);
+    }
+
+    public static synchronized void stop() {
+        FaultStatus.removeListener(listener);
+    }
+
+    // Called with every frame received, changed or not
+    public static synchronized void recordFrame(byte bus, byte[] data) {
+        int slot = (int) (frames % FRAME_CAPACITY);
+        int length = Math.min(data.length, FRAME_SIZE);
+        frameTime[slot] = SystemClock.elapsedRealtimeNanos();
+        frameBus[slot] = bus;
+        frameLength[slot] = (byte) length;
+        System.arraycopy(data, 0, frameData, slot * FRAME_SIZE, length);
+        frames++;
+    }
+
+    // Called after each parsed message
+    public static synchronized void sample() {
+        int slot = (int) (rows % ROW_CAPACITY);
+        int offset = slot * COLUMNS;
+        rowTime[slot] = SystemClock.elapsedRealtimeNanos();
+        for (int signal = 0; signal < Freshness.COUNT; signal++) {
+            rowValues[offset + signal] = (float) Data.getValue(signal);
+        }
+        rowValues[offset + LEAN_ANGLE] = toFloat(Data.getLeanAngle());
+        rowValues[offset + G_FORCE] = toFloat(Data.getGForce());
+        rowValues[offset + BAROMETRIC_PRESSURE] = toFloat(Data.getBarometricPressure());
+        Location location = Data.getLastLocation();
+        rowValues[offset + LATITUDE] = location == null ? Float.NaN : (float) location.getLatitude();
+        rowValues[offset + LONGITUDE] = location == null ? Float.NaN : (float) location.getLongitude();
+        rows++;
+    }
+
+    /**
+     * Write the last minute to blackbox/ in the background.
+     * @return false if the recorder is not running
+     */
+    public static boolean dump() {
+        return dump(null, null);
+    }
+
+    /**
+     * Write the last minute to blackbox/ in the background, along with
+     * accelerometer samples of the phone.
+     * @param motionTimes sample times, elapsed ns
+     * @param motion x, y, z per sample in m/s^2
+     * @return false if the recorder is not running
+     */
+    public static boolean dump(final long[] motionTimes, final float[] motion) {
+        final long end;
+        final long[] times;
+        final byte[] buses;
+        final byte[] lengths;
+        final byte[] data;
+        final long[] sampleTimes;
+        final float[] values;
+        final Handler dumpHandler;
+        // Copy the rings, the writing is done without holding up the recording
+        synchronized (FlightRecorder.class) {
+            if (handler == null) {
+                return false;
+            }
+            dumpHandler = handler;
+            end = SystemClock.elapsedRealtimeNanos();
+            int frameCount = (int) Math.min(frames, FRAME_CAPACITY);
+            times = new long[frameCount];
+            buses = new byte[frameCount];
+            lengths = new byte[frameCount];
+            data = new byte[frameCount * FRAME_SIZE];
+            for (int i = 0; i < frameCount; i++) {
+                int slot = (int) ((frames - frameCount + i) % FRAME_CAPACITY);
+                times[i] = frameTime[slot];
+                buses[i] = frameBus[slot];
+                lengths[i] = frameLength[slot];
+                System.arraycopy(frameData, slot * FRAME_SIZE, data, i * FRAME_SIZE, FRAME_SIZE);
+            }
+            int rowCount = (int) Math.min(rows, ROW_CAPACITY);
+            sampleTimes = new long[rowCount];
+            values = new float[rowCount * COLUMNS];
+            for (int i = 0; i < rowCount; i++) {
+                int slot = (int) ((rows - rowCount + i) % ROW_CAPACITY);
+                sampleTimes[i] = rowTime[slot];
+                System.arraycopy(rowValues, slot * COLUMNS, values, i * COLUMNS, COLUMNS);
+            }
+        }
+        final long wallEnd = System.currentTimeMillis();
+        dumpHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                write(end, wallEnd, times, buses, lengths, data, sampleTimes, values, motionTimes, motion);
+            }
+        });
+        return true;
+    }
+
+    private static void write(long end, long wallEnd, long[] times, byte[] buses, byte[] lengths, byte[] data,
+                              long[] sampleTimes, float[] values, long[] motionTimes, float[] motion) {
+        Context context = MyApplication.getContext();
+        File root = new File(context.getExternalFilesDir(null), "/blackbox/");
+        if (!root.exists() && !root.mkdirs()) {
+            Log.d(TAG, "Unable to create black box directory");
+            return;
+        }
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMdd-HH-mm-ss", Locale.US);
+        String name = "WunderLINQ-BlackBox-" + formatter.format(new Date(wallEnd));
+        SimpleDateFormat timeFormatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+
+        File frameFile = new File(root, name + "-frames.csv");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(frameFile))) {
+            writer.write("time,offset_s,bus,id,data\n");
+            for (int i = 0; i < times.length; i++) {
+                if (end - times[i] > WINDOW) {
+                    continue;
+                }
+                byte[] frame = Arrays.copyOfRange(data, i * FRAME_SIZE, i * FRAME_SIZE + lengths[i]);
+                int id;
+                if (buses[i] == CAN) {
+                    id = frame.length > 1 ? ((frame[0] & 0xFF) << 3) + ((frame[1] & 0xFF) >> 5) : 0;
+                } else {
+                    id = frame.length > 0 ? (frame[0] & 0xFF) : 0;
+                }
+                writer.write(timeFormatter.format(new Date(wallEnd - (end - times[i]) / MILLIS)) + ","
+                        + getOffset(end, times[i]) + ","
+                        + (buses[i] == CAN ? "CAN" : "LIN") + ","
+                        + id + ","
+                        + Utils.ByteArraytoHexNoDelim(frame) + "\n");
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Exception writing black box frames: " + e.toString());
+        }
+
+        File telemetryFile = new File(root, name + "-telemetry.csv");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(telemetryFile))) {
+            StringBuilder header = new StringBuilder("time,offset_s");
+            for (int signal = 0; signal < Freshness.COUNT; signal++) {
+                header.append(',').append(Freshness.getName(signal));
+            }
+            header.append(",lean_phone,gforce,barometric_pressure,latitude,longitude\n");
+            writer.write(header.toString());
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < sampleTimes.length; i++) {
+                if (end - sampleTimes[i] > WINDOW) {
+                    continue;
+                }
+                row.setLength(0);
+                row.append(timeFormatter.format(new Date(wallEnd - (end - sampleTimes[i]) / MILLIS)))
+                        .append(',').append(getOffset(end, sampleTimes[i]));
+                for (int column = 0; column < COLUMNS; column++) {
+                    float value = values[i * COLUMNS + column];
+                    row.append(',');
+                    if (!Float.isNaN(value)) {
+                        row.append(value);
+                    }
+                }
+                writer.write(row.append('\n').toString());
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Exception writing black box telemetry: " + e.toString());
+        }
+
+        if (motionTimes != null) {
+            File motionFile = new File(root, name + "-motion.csv");
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(motionFile))) {
+                writer.write("time,offset_s,x,y,z,g\n");
+                StringBuilder row = new StringBuilder();
+                for (int i = 0; i < motionTimes.length; i++) {
+                    float x = motion[i * 3];
+                    float y = motion[i * 3 + 1];
+                    float z = motion[i * 3 + 2];
+                    row.setLength(0);
+                    row.append(timeFormatter.format(new Date(wallEnd - (end - motionTimes[i]) / MILLIS)))
+                            .append(',').append(getOffset(end, motionTimes[i]))
+                            .append(',').append(x)
+                            .append(',').append(y)
+                            .append(',').append(z)
+                            .append(',').append(Math.sqrt(x * x + y * y + z * z) / SensorManager.GRAVITY_EARTH)
+                            .append('\n');
+                    writer.write(row.toString());
+                }
+            } catch (IOException e) {
+                Log.d(TAG, "Exception writing black box motion: " + e.toString());
+            }
+        }
+        Log.d(TAG, "Saved " + name);
+        prune(root);
+    }
+
+    // Seconds before the dump, e.g. -12.345
+    private static String getOffset(long end, long time) {
+        return String.format(Locale.US, "%.3f", (time - end) / 1e9);
+    }
+
+    private static void prune(File root) {
+        File[] files = root.listFiles();
+        if (files == null || files.length <= MAX_DUMPS * 2) {
+            return;
+        }
+        // Names sort by time, newest first, the files of a dump share their name up to the type
+        Arrays.sort(files, Collections.reverseOrder());
+        int dumps = 0;
+        String last = null;
+        for (File file : files) {
+            String name = file.getName();
+            int type = name.lastIndexOf('-');
+            String dump = type > 0 ? name.substring(0, type) : name;
+            if (!dump.equals(last)) {
+                last = dump;
+                dumps++;
+            }
+            if (dumps > MAX_DUMPS && !file.delete()) {
+                Log.d(TAG, "Unable to delete " + name);
+            }
+        }
+    }
+
+    private static float toFloat(Double value) {
+        return value == null ? Float.NaN : value.floatValue();
+    }
+}
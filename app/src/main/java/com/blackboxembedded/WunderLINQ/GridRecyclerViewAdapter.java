@@ -0,0 +1,174 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+public class GridRecyclerViewAdapter extends RecyclerView.Adapter<GridRecyclerViewAdapter.ViewHolder> {
+    private static final float STALE_ALPHA = 0.4f;
+
+    private final Context mContext;
+    private final LayoutInflater mInflater;
+    private final View.OnTouchListener mTouchListener;
+    private final GridItem mBlank;
+    private GridItem[] mData = new GridItem[0];
+    private int mCellHeight;
+
+    GridRecyclerViewAdapter(Context context, View.OnTouchListener touchListener) {
+        this.mContext = context;
+        this.mInflater = LayoutInflater.from(context);
+        this.mTouchListener = touchListener;
+        this.mBlank = new GridItem(0, 0, "", context.getString(R.string.blank_field), false);
+    }
+
+    // Resize the grid, cells stay blank until their first value arrives
+    void setCellCount(int count) {
+        mData = new GridItem[count];
+        Arrays.fill(mData, mBlank);
+        notifyDataSetChanged();
+    }
+
+    // Cells are sized so the rows fill the grid
+    void setCellHeight(int height) {
+        if (height != mCellHeight) {
+            mCellHeight = height;
+            notifyDataSetChanged();
+        }
+    }
+
+    void setItem(int position, GridItem item) {
+        if (position < mData.length) {
+            mData[position] = item;
+            notifyItemChanged(position);
+        }
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = mInflater.inflate(R.layout.item_grid, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        ViewGroup.LayoutParams params = holder.itemView.getLayoutParams();
+        if (params.height != mCellHeight) {
+            params.height = mCellHeight;
+            holder.itemView.setLayoutParams(params);
+        }
+        holder.itemView.setTag(position + 1);
+        holder.bind(mData[position]);
+    }
+
+    @Override
+    public int getItemCount() {
+        return mData.length;
+    }
+
+    public class ViewHolder extends RecyclerView.ViewHolder {
+        TextView cellLabelTV;
+        TextView cellValueTV;
+        ImageView cellIconIV;
+        GridItem shown;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            cellLabelTV = itemView.findViewById(R.id.tvCellLabel);
+            cellValueTV = itemView.findViewById(R.id.tvCellValue);
+            cellIconIV = itemView.findViewById(R.id.ivCellIcon);
+            itemView.setOnTouchListener(mTouchListener);
+        }
+
+        // Only touch the views whose content differs from what is on screen
+        void bind(GridItem item) {
+            if (shown == null || !TextUtils.equals(item.getLabel(), shown.getLabel())) {
+                cellLabelTV.setText(item.getLabel());
+            }
+            if (shown == null || !TextUtils.equals(item.getValue(), shown.getValue())) {
+                cellValueTV.setText(item.getValue());
+            }
+            if (shown == null || item.isStale() != shown.isStale()) {
+                cellValueTV.setAlpha(item.isStale() ? STALE_ALPHA : 1.0f);
+            }
+            if (shown == null || item.getIcon() != shown.getIcon() || item.getIconColor() != shown.getIconColor()) {
+                if (item.getIcon() != 0) {
+                    Drawable icon = AppCompatResources.getDrawable(mContext, item.getIcon());
+                    if (icon != null && item.getIconColor() != 0) {
+                        icon.setColorFilter(item.getIconColor(), PorterDuff.Mode.SRC_ATOP);
+                    }
+                    cellIconIV.setImageDrawable(icon);
+                } else {
+                    cellIconIV.setImageResource(android.R.color.transparent);
+                }
+            }
+            shown = item;
+        }
+    }
+}
+
+class GridItem {
+    private int icon;
+    private int iconColor;
+    private String label;
+    private String value;
+    private boolean stale;
+
+    public GridItem(int icon, int iconColor, String label, String value, boolean stale) {
+        this.icon = icon;
+        this.iconColor = iconColor;
+        this.label = label;
+        this.value = value;
+        this.stale = stale;
+    }
+
+    public int getIcon() {
+        return icon;
+    }
+    public int getIconColor() {
+        return iconColor;
+    }
+    public String getLabel() {
+        return label;
+    }
+    public String getValue() {
+        return value;
+    }
+    public boolean isStale() {
+        return stale;
+    }
+
+    // True if the cell would be drawn the same way
+    boolean looksLike(GridItem other) {
+        return other != null && icon == other.icon && iconColor == other.iconColor
+                && stale == other.stale && TextUtils.equals(label, other.label)
+                && TextUtils.equals(value, other.value);
+    }
+}
@@ -0,0 +1,248 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import androidx.core.app.ActivityCompat;
+
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+
+import java.util.List;
+
+/**
+ * The one location subscription of the app. Fixes are published to
+ * Data.setLastLocation for every screen, the logger and the black box.
+ * The request follows the consumers and the speed: fast fixes while a
+ * screen using the location is visible, at most one a second while only
+ * logging or monitoring the bike, and slower fixes when stopped. Logged rows
+ * and events take the newest fix, so fixes are only batched when nothing
+ * consumes them. Distance and bearing are accumulated as fixes arrive.
+ */
+public class LocationTracker {
+
+    private static final String TAG = "LocationTracker";
+
+    // Consumers
+    public static final int DISPLAY = 0;
+    public static final int LOGGING = 1;
+    public static final int MONITORING = 2;
+
+    // Speed bands in m/s, with some slack so a speed on the edge doesn't flip the request
+    private static final float STOPPED_SPEED = 1.0f;
+    private static final float SLOW_SPEED = 10.0f;
+    private static final float SPEED_SLACK = 0.5f;
+    private static final int STOPPED = 0;
+    private static final int SLOW = 1;
+    private static final int FAST = 2;
+    // Update interval in ms, by band
+    private static final long[] INTERVAL = {5000, 1000, 500};
+    // Without consumers the last location is only kept roughly current
+    private static final long IDLE_INTERVAL = 10000;
+    private static final long IDLE_MAX_WAIT = 60000;
+    // Fixes less accurate than this don't count towards the distance
+    private static final float MAX_ACCURACY = 50.0f;
+    // Moves shorter than this are jitter, they are added up until they aren't
+    private static final float MIN_MOVE = 5.0f;
+
+    private static FusedLocationProviderClient client;
+    private static HandlerThread thread;
+    private static Context context;
+    private static SharedPreferences sharedPrefs;
+
+    private static final int[] consumers = new int[3];
+    private static int band = STOPPED;
+    // Request in use, 0 if none
+    private static long interval;
+    private static long maxWait;
+
+    // Only used on the location thread
+    private static Location anchor;
+    private static volatile double distance;
+    private static volatile float bearing = Float.NaN;
+
+    private static final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(LocationResult locationResult) {
+            List<Location> locationList = locationResult.getLocations();
+            for (Location location : locationList) {
+                onLocation(location);
+            }
+            if (locationList.size() > 0) {
+                //The last location in the list is the newest
+                Location location = locationList.get(locationList.size() - 1);
+                Data.setLastLocation(location);
+                if (sharedPrefs.getBoolean("prefBearingOverride", false)) {
+                    if (location.hasBearing()) {
+                        Data.setBearing((int) location.getBearing());
+                    } else if (!Float.isNaN(bearing)) {
+                        Data.setBearing((int) bearing);
+                    }
+                }
+                setSpeed(location.hasSpeed() ? location.getSpeed() : 0);
+            }
+        }
+    };
+
+    /**
+     * Start location updates if permitted. Called when BluetoothLeService is
+     * created.
+     */
+    public static synchronized void start(Context serviceContext) {
+        if (client != null) {
+            return;
+        }
+        context = serviceContext.getApplicationContext();
+        sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        client = LocationServices.getFusedLocationProviderClient(context);
+        interval = 0;
+        maxWait = 0;
+        anchor = null;
+        distance = 0;
+        updateRequest();
+    }
+
+    public static synchronized void stop() {
+        if (client == null) {
+            return;
+        }
+        client.removeLocationUpdates(locationCallback);
+        client = null;
+        thread.quitSafely();
+        thread = null;
+    }
+
+    /**
+     * Ask for the location updates a consumer needs, until unsubscribed.
+     * @param consumer DISPLAY for a visible screen using the location,
+     *                 LOGGING while a trip is logged, MONITORING while
+     *                 events are positioned or crashes detected
+     */
+    public static synchronized void subscribe(int consumer) {
+        consumers[consumer]++;
+        updateRequest();
+    }
+
+    public static synchronized void unsubscribe(int consumer) {
+        if (consumers[consumer] > 0) {
+            consumers[consumer]--;
+            updateRequest();
+        }
+    }
+
+    /**
+     * @return meters travelled since location updates started
+     */
+    public static double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return degrees from north of the last move, NaN before the first
+     */
+    public static float getBearing() {
+        return bearing;
+    }
+
+    // Called on the location thread for each fix, in order
+    private static void onLocation(Location location) {
+        if (!location.hasAccuracy() || location.getAccuracy() > MAX_ACCURACY) {
+            return;
+        }
+        if (anchor == null) {
+            anchor = location;
+            return;
+        }
+        float move = anchor.distanceTo(location);
+        if (move >= Math.max(MIN_MOVE, location.getAccuracy() / 2)) {
+            distance += move;
+            bearing = (anchor.bearingTo(location) + 360) % 360;
+            anchor = location;
+        }
+    }
+
+    private static synchronized void setSpeed(float speed) {
+        int newBand = band;
+        if (speed < STOPPED_SPEED - SPEED_SLACK) {
+            newBand = STOPPED;
+        } else if (speed > SLOW_SPEED + SPEED_SLACK) {
+            newBand = FAST;
+        } else if (speed > STOPPED_SPEED + SPEED_SLACK && speed < SLOW_SPEED - SPEED_SLACK) {
+            newBand = SLOW;
+        }
+        if (newBand != band) {
+            band = newBand;
+            updateRequest();
+        }
+    }
+
+    // Replace the request if the consumers or the speed now need a different one
+    private static synchronized void updateRequest() {
+        if (client == null) {
+            return;
+        }
+        long newInterval;
+        long newMaxWait;
+        int priority = LocationRequest.PRIORITY_HIGH_ACCURACY;
+        if (consumers[DISPLAY] > 0) {
+            newInterval = INTERVAL[band];
+            newMaxWait = 0;
+        } else if (consumers[LOGGING] > 0 || consumers[MONITORING] > 0) {
+            newInterval = Math.max(INTERVAL[band], INTERVAL[SLOW]);
+            newMaxWait = 0;
+        } else {
+            newInterval = IDLE_INTERVAL;
+            newMaxWait = IDLE_MAX_WAIT;
+            priority = LocationRequest.PRIORITY_BALANCED_POWER_ACCURACY;
+        }
+        if (newInterval == interval && newMaxWait == maxWait) {
+            return;
+        }
+        if (ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED
+                || ActivityCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            Log.d(TAG, "No location permission granted");
+            return;
+        }
+        interval = newInterval;
+        maxWait = newMaxWait;
+        Log.d(TAG, "Location interval " + interval + "ms, batched " + maxWait + "ms");
+        LocationRequest locationRequest = LocationRequest.create();
+        locationRequest.setPriority(priority);
+        locationRequest.setInterval(interval);
+        locationRequest.setFastestInterval(Math.min(interval, INTERVAL[FAST]));
+        locationRequest.setMaxWaitTime(maxWait);
+        // Replaces the previous request of the callback
+        client.requestLocationUpdates(locationRequest, locationCallback, thread.getLooper());
+    }
+}
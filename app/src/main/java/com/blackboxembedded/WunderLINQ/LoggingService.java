@@ -40,11 +40,16 @@ import androidx.core.app.NotificationCompat;
 import com.blackboxembedded.WunderLINQ.TaskList.TaskActivity;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
+import com.blackboxembedded.WunderLINQ.trips.TripDatasource;
+import com.blackboxembedded.WunderLINQ.trips.TripLog;
+import com.blackboxembedded.WunderLINQ.trips.TripLogRecord;
+import com.blackboxembedded.WunderLINQ.trips.TripLogSegments;
+import com.blackboxembedded.WunderLINQ.trips.TripLogWriter;
+import com.blackboxembedded.WunderLINQ.trips.TripSummary;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -52,6 +57,13 @@ import java.util.Date;
 public class LoggingService extends Service {
 
     private static final String TAG = "LoggingSvc";
+    // Roll to a new log segment after this many characters or milliseconds
+    private static final long SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long SEGMENT_DURATION = 15 * 60 * 1000;
+    // Rows are flushed as they are written but only synced to flash at checkpoints
+    private static final long CHECKPOINT_INTERVAL = 30 * 1000;
+    // A trip killed less than this long ago is carried on when the service restarts
+    private static final long RESUME_WINDOW = 10 * 60 * 1000;
 
     private SharedPreferences sharedPrefs;
 
@@ -59,7 +71,14 @@ public class LoggingService extends Service {
     Runnable runnable;
 
     private Location lastLocation;
-    private PrintWriter outFile = null;
+    private File logFile = null;
+    private TripLogWriter logWriter = null;
+    private final TripLogRecord record = new TripLogRecord();
+    private int rowIndex = 0;
+    private int segmentNumber = 0;
+    private long segmentStart = 0;
+    private long lastCheckpoint = 0;
+    private boolean resumed = false;
 
     private int loggingInterval = 250;
     private String CHANNEL_ID = "WunderLINQ";
@@ -84,10 +103,7 @@ public class LoggingService extends Service {
     public void onTaskRemoved(Intent rootIntent) {
         Log.d(TAG, "In onTaskRemoved");
         stopService(new Intent(this, LoggingService.class));
-        if(outFile != null) {
-            outFile.flush();
-            outFile.close();
-        }
+        closeFile();
         if (handler != null) {
             handler.removeCallbacks(runnable);
         }
@@ -152,12 +168,16 @@ public class LoggingService extends Service {
         startForeground(1234, notification);
 
         ((MyApplication) this.getApplication()).setTripRecording(true);
+        SensorFusion.subscribe(SensorFusion.LOGGING);
+        LocationTracker.subscribe(LocationTracker.LOGGING);
+        PowerProfile.setLogging(true);
     }
 
     public LoggingService() {
         Log.d(TAG, "In LoggingService()");
 
         initializeFile();
+        TripLogSegments.recover();
             handler = new Handler();
             runnable = new Runnable() {
                 @Override
@@ -182,8 +202,9 @@ public class LoggingService extends Service {
                             gpsSpeed = Double.toString(Utils.kmToMiles(lastLocation.getSpeed() * 3.6));
                         }
                     }
-                    Double rdcFront = Data.getFrontTirePressure();
-                    if(Data.getFrontTirePressure() != null){
+                    // Values the bike has stopped sending are logged as missing
+                    Double rdcFront = Freshness.ifFresh(Freshness.FRONT_TIRE_PRESSURE, Data.getFrontTirePressure());
+                    if (rdcFront != null) {
                         if (pressureFormat.contains("1")) {
                             // KPa
                             rdcFront = Utils.barTokPa(rdcFront);
@@ -195,8 +216,8 @@ public class LoggingService extends Service {
                             rdcFront = Double.valueOf(Utils.oneDigit.format(Utils.barToPsi(rdcFront)));
                         }
                     }
-                    Double rdcRear = Data.getRearTirePressure();
-                    if(Data.getRearTirePressure() != null){
+                    Double rdcRear = Freshness.ifFresh(Freshness.REAR_TIRE_PRESSURE, Data.getRearTirePressure());
+                    if (rdcRear != null) {
                         if (pressureFormat.contains("1")) {
                             // KPa
                             rdcRear = Utils.barTokPa(rdcRear);
@@ -208,64 +229,64 @@ public class LoggingService extends Service {
                             rdcRear = Double.valueOf(Utils.oneDigit.format(Utils.barToPsi(rdcRear)));
                         }
                     }
-                    Double engineTemp = Data.getEngineTemperature();
-                    if(Data.getEngineTemperature() != null ){
+                    Double engineTemp = Freshness.ifFresh(Freshness.ENGINE_TEMPERATURE, Data.getEngineTemperature());
+                    if (engineTemp != null) {
                         if (temperatureFormat.contains("1")) {
                             // F
                             engineTemp = Utils.celsiusToFahrenheit(engineTemp);
                         }
                     }
-                    Double ambientTemp = Data.getAmbientTemperature();
-                    if(Data.getAmbientTemperature() != null ){
+                    Double ambientTemp = Freshness.ifFresh(Freshness.AMBIENT_TEMPERATURE, Data.getAmbientTemperature());
+                    if (ambientTemp != null) {
                         if (temperatureFormat.contains("1")) {
                             // F
                             ambientTemp = Utils.celsiusToFahrenheit(ambientTemp);
                         }
                     }
-                    Double odometer = Data.getOdometer();
-                    if(Data.getOdometer() != null){
+                    Double odometer = Freshness.ifFresh(Freshness.ODOMETER, Data.getOdometer());
+                    if (odometer != null) {
                         if (distanceFormat.contains("1")) {
                             odometer = Utils.kmToMiles(odometer);
                         }
                     }
-                    Double trip1 = Data.getTripOne();
-                    if(Data.getTripOne() != null) {
+                    Double trip1 = Freshness.ifFresh(Freshness.TRIP_ONE, Data.getTripOne());
+                    if (trip1 != null) {
                         if (distanceFormat.contains("1")) {
                             trip1 = Utils.kmToMiles(trip1);
                         }
                     }
-                    Double trip2 = Data.getTripTwo();
-                    if (Data.getTripTwo() != null){
+                    Double trip2 = Freshness.ifFresh(Freshness.TRIP_TWO, Data.getTripTwo());
+                    if (trip2 != null) {
                         if (distanceFormat.contains("1")) {
                             trip2 = Utils.kmToMiles(trip2);
                         }
                     }
-                    Double tripAuto = Data.getTripAuto();
-                    if (Data.getTripAuto() != null){
+                    Double tripAuto = Freshness.ifFresh(Freshness.TRIP_AUTO, Data.getTripAuto());
+                    if (tripAuto != null) {
                         if (distanceFormat.contains("1")) {
                             tripAuto = Utils.kmToMiles(tripAuto);
                         }
                     }
-                    Double speed = Data.getSpeed();
-                    if (Data.getSpeed() != null){
+                    Double speed = Freshness.ifFresh(Freshness.SPEED, Data.getSpeed());
+                    if (speed != null) {
                         if (distanceFormat.contains("1")) {
                             speed = Utils.kmToMiles(speed);
                         }
                     }
-                    Double rearWheelSpeed = Data.getRearSpeed();
-                    if (Data.getRearSpeed() != null){
+                    Double rearWheelSpeed = Freshness.ifFresh(Freshness.REAR_SPEED, Data.getRearSpeed());
+                    if (rearWheelSpeed != null) {
                         if (distanceFormat.contains("1")) {
                             rearWheelSpeed = Utils.kmToMiles(rearWheelSpeed);
                         }
                     }
-                    Double avgSpeed = Data.getAvgSpeed();
-                    if (Data.getAvgSpeed() != null){
+                    Double avgSpeed = Freshness.ifFresh(Freshness.AVG_SPEED, Data.getAvgSpeed());
+                    if (avgSpeed != null) {
                         if (distanceFormat.contains("1")) {
                             avgSpeed = Utils.kmToMiles(avgSpeed);
                         }
                     }
-                    Double currentConsumption = Data.getCurrentConsumption();
-                    if (Data.getCurrentConsumption() != null){
+                    Double currentConsumption = Freshness.ifFresh(Freshness.CURRENT_CONSUMPTION, Data.getCurrentConsumption());
+                    if (currentConsumption != null) {
                         if (consumptionFormat.contains("1")) {
                             currentConsumption = Utils.l100Tompg(currentConsumption);
                         } else if (consumptionFormat.contains("2")) {
@@ -274,8 +295,8 @@ public class LoggingService extends Service {
                             currentConsumption = Utils.l100Tokml(currentConsumption);
                         }
                     }
-                    Double fuelEconomyOne = Data.getFuelEconomyOne();
-                    if (Data.getFuelEconomyOne() != null){
+                    Double fuelEconomyOne = Freshness.ifFresh(Freshness.FUEL_ECONOMY_ONE, Data.getFuelEconomyOne());
+                    if (fuelEconomyOne != null) {
                         if (consumptionFormat.contains("1")) {
                             fuelEconomyOne = Utils.l100Tompg(fuelEconomyOne);
                         } else if (consumptionFormat.contains("2")) {
@@ -284,8 +305,8 @@ public class LoggingService extends Service {
                             fuelEconomyOne = Utils.l100Tokml(fuelEconomyOne);
                         }
                     }
-                    Double fuelEconomyTwo = Data.getFuelEconomyTwo();
-                    if (Data.getFuelEconomyTwo() != null){
+                    Double fuelEconomyTwo = Freshness.ifFresh(Freshness.FUEL_ECONOMY_TWO, Data.getFuelEconomyTwo());
+                    if (fuelEconomyTwo != null) {
                         if (consumptionFormat.contains("1")) {
                             fuelEconomyTwo = Utils.l100Tompg(fuelEconomyTwo);
                         } else if (consumptionFormat.contains("2")) {
@@ -294,8 +315,8 @@ public class LoggingService extends Service {
                             fuelEconomyTwo  = Utils.l100Tokml(fuelEconomyTwo);
                         }
                     }
-                    Double fuelRange = Data.getFuelRange();
-                    if (Data.getFuelRange() != null){
+                    Double fuelRange = Freshness.ifFresh(Freshness.FUEL_RANGE, Data.getFuelRange());
+                    if (fuelRange != null) {
                         if (distanceFormat.contains("1")) {
                             fuelRange = Utils.kmToMiles(fuelRange);
                         }
@@ -326,19 +347,41 @@ public class LoggingService extends Service {
                             bearing = cardinal;
                         }
                     }
-                    if (outFile != null) {
-                        outFile.write(curdatetime + "," + lat + "," + lon + "," + alt + "," + gpsSpeed + ","
-                                + Data.getGear() + "," + engineTemp + "," + ambientTemp
-                                + "," + rdcFront + "," + rdcRear + ","
-                                + odometer + "," + Data.getvoltage() + "," + Data.getThrottlePosition() + ","
-                                + Data.getFrontBrake() + "," + Data.getRearBrake() + "," + Data.getNumberOfShifts()
-                                + "," + Data.getVin() + "," + Data.getAmbientLight() + "," + trip1 + ","
-                                + trip2 + "," + tripAuto + "," + speed + "," + avgSpeed + ","
-                                + currentConsumption + "," + fuelEconomyOne + "," + fuelEconomyTwo + ","
-                                + fuelRange + "," + Data.getLeanAngle() + "," + Data.getGForce() + ","
-                                + bearing + "," + Data.getBarometricPressure() + "," + Data.getRPM() + ","
-                                + Data.getLeanAngleBike() + "," + rearWheelSpeed + "\n");
-                        outFile.flush();
+                    if (logWriter != null) {
+                        String[] values = new String[]{curdatetime, lat, lon, alt, gpsSpeed,
+                                String.valueOf(Freshness.ifFresh(Freshness.GEAR, Data.getGear())), String.valueOf(engineTemp), String.valueOf(ambientTemp),
+                                String.valueOf(rdcFront), String.valueOf(rdcRear),
+                                String.valueOf(odometer), String.valueOf(Freshness.ifFresh(Freshness.VOLTAGE, Data.getvoltage())), String.valueOf(Freshness.ifFresh(Freshness.THROTTLE_POSITION, Data.getThrottlePosition())),
+                                String.valueOf(Data.getFrontBrake()), String.valueOf(Data.getRearBrake()), String.valueOf(Data.getNumberOfShifts()),
+                                String.valueOf(Data.getVin()), String.valueOf(Freshness.ifFresh(Freshness.AMBIENT_LIGHT, Data.getAmbientLight())), String.valueOf(trip1),
+                                String.valueOf(trip2), String.valueOf(tripAuto), String.valueOf(speed), String.valueOf(avgSpeed),
+                                String.valueOf(currentConsumption), String.valueOf(fuelEconomyOne), String.valueOf(fuelEconomyTwo),
+                                String.valueOf(fuelRange), String.valueOf(Data.getLeanAngle()), String.valueOf(Data.getGForce()),
+                                bearing, String.valueOf(Data.getBarometricPressure()), String.valueOf(Freshness.ifFresh(Freshness.RPM, Data.getRPM())),
+                                String.valueOf(Freshness.ifFresh(Freshness.LEAN_ANGLE_BIKE, Data.getLeanAngleBike())), String.valueOf(rearWheelSpeed)};
+                        record.index = rowIndex++;
+                        record.values = values;
+                        record.time = date.getTime();
+                        record.latitude = TripLog.parseDouble(values, TripLog.LATITUDE);
+                        record.longitude = TripLog.parseDouble(values, TripLog.LONGITUDE);
+                        record.altitude = TripLog.parseDouble(values, TripLog.ALTITUDE);
+                        record.gpsSpeed = TripLog.parseDouble(values, TripLog.GPS_SPEED);
+                        record.hasFix = (lastLocation != null);
+                        try {
+                            // Also segments the trip as it is written
+                            logWriter.write(record);
+                            logWriter.flush();
+                            if (date.getTime() - lastCheckpoint >= CHECKPOINT_INTERVAL) {
+                                logWriter.sync();
+                                lastCheckpoint = date.getTime();
+                            }
+                            if (logWriter.getLength() >= SEGMENT_SIZE
+                                    || System.currentTimeMillis() - segmentStart >= SEGMENT_DURATION) {
+                                rollSegment();
+                            }
+                        } catch (IOException e) {
+                            Log.d(TAG, "Could not write to file: " + e.getMessage());
+                        }
                     } else {
                         initializeFile();
                     }
@@ -351,10 +394,10 @@ public class LoggingService extends Service {
     @Override
     public void onDestroy() {
         Log.d(TAG,"In onDestroy()");
-        if(outFile != null) {
-            outFile.flush();
-            outFile.close();
-        }
+        SensorFusion.unsubscribe(SensorFusion.LOGGING);
+        LocationTracker.unsubscribe(LocationTracker.LOGGING);
+        PowerProfile.setLogging(false);
+        closeFile();
         if(handler != null) {
             handler.removeCallbacks(runnable);
         }
@@ -374,6 +417,41 @@ public class LoggingService extends Service {
         return channelId;
     }
 
+    // Close the last segment, the summary is stored once every segment is in the log
+    private void closeFile(){
+        if(logWriter != null) {
+            try {
+                logWriter.close();
+            } catch (IOException e) {
+                Log.d(TAG, "Could not close file: " + e.getMessage());
+            }
+            final File file = logFile;
+            // The summary of a resumed trip misses the rows from before the restart
+            final TripSummary summary = resumed ? null : logWriter.getSummary();
+            TripLogSegments.closePart(file, segmentNumber);
+            TripLogSegments.submit(new Runnable() {
+                @Override
+                public void run() {
+                    TripLog.clearActiveLog(file);
+                    if (summary != null) {
+                        TripDatasource datasource = new TripDatasource(MyApplication.getContext());
+                        datasource.putSummary(file, summary);
+                        datasource.close();
+                    }
+                }
+            });
+            logWriter = null;
+        }
+    }
+
+    // Hand the current segment over for compression and start the next one
+    private void rollSegment() throws IOException {
+        logWriter.sync();
+        TripLogSegments.closePart(logFile, segmentNumber++);
+        logWriter.roll(TripLogSegments.getPartFile(logFile));
+        segmentStart = System.currentTimeMillis();
+    }
+
     private void initializeFile(){
         try {
             File root = new File(MyApplication.getContext().getExternalFilesDir(null), "/logs/");
@@ -470,15 +548,34 @@ public class LoggingService extends Service {
                         MyApplication.getContext().getResources().getString(R.string.bearing_header) + "(" + bearingUnit + ")" + "," +
                         MyApplication.getContext().getResources().getString(R.string.barometricpressure_header) + "(mBar)" + "," +
                         MyApplication.getContext().getResources().getString(R.string.rpm_header) + "," +
-                        MyApplication.getContext().getResources().getString(R.string.leanangle_bike_header) +
+                        MyApplication.getContext().getResources().getString(R.string.leanangle_bike_header) + "," +
                         MyApplication.getContext().getResources().getString(R.string.rearwheel_speed_header) +
                         "\n";
 
-                File logFile = new File( root, filename + curdatetime + ".csv" );
-                FileWriter logWriter = new FileWriter( logFile );
-                outFile = new PrintWriter( logWriter );
-                outFile.write(header);
-                outFile.flush();
+                File resumable = TripLogSegments.findResumable(RESUME_WINDOW);
+                if (resumable != null) {
+                    // Restarted after being killed, carry on with the same trip
+                    Log.d(TAG, "Resuming trip: " + resumable.getName());
+                    logFile = resumable;
+                    TripLog.setActiveLog(logFile);
+                    logWriter = TripLogWriter.append( TripLogSegments.getPartFile(logFile), header.trim().split(",") );
+                    segmentNumber = TripLogSegments.getNextSegment(logFile);
+                    resumed = true;
+                } else {
+                    // Rows are written to segments which are compressed into the log as they fill up
+                    logFile = new File( root, filename + curdatetime + TripLog.FILE_EXTENSION + TripLog.COMPRESSED_EXTENSION );
+                    if (!logFile.createNewFile()) {
+                        Log.d(TAG, "Log file already exists: " + logFile);
+                    }
+                    TripLog.setActiveLog(logFile);
+                    logWriter = new TripLogWriter( TripLogSegments.getPartFile(logFile), header.trim().split(",") );
+                    segmentNumber = 0;
+                    resumed = false;
+                }
+                logWriter.sync();
+                rowIndex = 0;
+                segmentStart = System.currentTimeMillis();
+                lastCheckpoint = segmentStart;
             }
         } catch (IOException e) {
             Log.d(TAG, "Could not write to file: " + e.getMessage());
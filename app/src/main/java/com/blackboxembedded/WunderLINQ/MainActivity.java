@@ -35,12 +35,13 @@ import android.content.SharedPreferences;
 import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
-import android.graphics.PorterDuff;
-import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
+import android.os.Process;
 import android.preference.PreferenceManager;
 import android.provider.Settings;
 import android.text.TextUtils;
@@ -57,7 +58,6 @@ import android.view.WindowManager;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.ImageButton;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.PopupMenu;
 import android.widget.PopupMenu.OnMenuItemClickListener;
@@ -69,16 +69,16 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
-import androidx.appcompat.content.res.AppCompatResources;
-import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
-import androidx.gridlayout.widget.GridLayout;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.blackboxembedded.WunderLINQ.Utils.AppUtils;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
 import com.blackboxembedded.WunderLINQ.comms.BLE.BluetoothLeService;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.WLQ;
 
 import java.text.SimpleDateFormat;
@@ -86,6 +86,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class MainActivity extends AppCompatActivity implements View.OnTouchListener {
@@ -96,7 +97,10 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
 
     private ImageButton faultButton;
     private ImageButton btButton;
-    private GridLayout gridLayout;
+    private RecyclerView gridView;
+    private GridLayoutManager gridLayoutManager;
+    private GridRecyclerViewAdapter gridAdapter;
+    private int gridRows = 1;
 
     private SharedPreferences sharedPrefs;
 
@@ -111,6 +115,23 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
     private static final int PERMISSION_REQUEST_BLUETOOTH_CONNECT = 106;
     private static final int SETTINGS_CHECK = 10;
 
+    // Preference key and default data point of each cell, in grid order
+    private static final String[] CELL_PREFS = {"prefCellOne", "prefCellTwo", "prefCellThree",
+            "prefCellFour", "prefCellFive", "prefCellSix", "prefCellSeven", "prefCellEight",
+            "prefCellNine", "prefCellTen", "prefCellEleven", "prefCellTwelve", "prefCellThirteen",
+            "prefCellFourteen", "prefCellFifteen"};
+    private static final int[] CELL_DEFAULTS = {14, 29, 3, 0, 1, 2, 20, 8, 9, 7, 24, 28, 27, 23, 22};
+
+    private HandlerThread gridThread;
+    private Handler gridHandler;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    // Written on the UI thread, read by refreshGrid
+    private volatile int[] cellData = new int[0];
+    private volatile int gridGeneration;
+    // Owned by refreshGrid
+    private GridItem[] shownItems = new GridItem[0];
+    private int shownGeneration = -1;
+
     private PopupMenu mPopupMenu;
     private Menu mMenu;
 
@@ -118,8 +139,6 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
 
     private boolean inPIP = false;
 
-    private boolean drawingComplete = true;
-
     private boolean timerRunning = false;
 
     private CountDownTimer cTimer = null;
@@ -170,13 +189,42 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
 
         setContentView(R.layout.activity_main);
         View view = findViewById(R.id.layout_main);
-        gridLayout = findViewById(R.id.gridLayout);
+        gridView = findViewById(R.id.gridView);
+        gridLayoutManager = new GridLayoutManager(this, 1) {
+            @Override
+            public boolean canScrollVertically() {
+                // Rows are sized to fit, swipes belong to the gesture detector
+                return false;
+            }
+        };
+        gridView.setLayoutManager(gridLayoutManager);
+        gridView.setHasFixedSize(true);
+        gridView.setItemAnimator(null);
+        gridAdapter = new GridRecyclerViewAdapter(this, this);
+        gridView.setAdapter(gridAdapter);
+        gridView.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                if ((bottom - top) != (oldBottom - oldTop)) {
+                    gridView.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            gridAdapter.setCellHeight(gridView.getHeight() / gridRows);
+                        }
+                    });
+                }
+            }
+        });
+        gridThread = new HandlerThread(TAG, Process.THREAD_PRIORITY_DISPLAY);
+        gridThread.start();
+        gridHandler = new Handler(gridThread.getLooper());
 
         gestureDetector = new GestureDetectorListener(this) {
 
             @Override
             public void onPressLong() {
-                if (cell >= 1 && cell <= 15) {
+                if (cell >= 1 && cell <= CELL_PREFS.length) {
                     showCellSelector(cell);
                 }
             }
@@ -263,54 +311,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
     }
 
     private void showCellSelector(int cell) {
-        String prefStringKey = "";
-        switch (cell) {
-            case 1:
-                prefStringKey = "prefCellOne";
-                break;
-            case 2:
-                prefStringKey = "prefCellTwo";
-                break;
-            case 3:
-                prefStringKey = "prefCellThree";
-                break;
-            case 4:
-                prefStringKey = "prefCellFour";
-                break;
-            case 5:
-                prefStringKey = "prefCellFive";
-                break;
-            case 6:
-                prefStringKey = "prefCellSix";
-                break;
-            case 7:
-                prefStringKey = "prefCellSeven";
-                break;
-            case 8:
-                prefStringKey = "prefCellEight";
-                break;
-            case 9:
-                prefStringKey = "prefCellNine";
-                break;
-            case 10:
-                prefStringKey = "prefCellTen";
-                break;
-            case 11:
-                prefStringKey = "prefCellEleven";
-                break;
-            case 12:
-                prefStringKey = "prefCellTwelve";
-                break;
-            case 13:
-                prefStringKey = "prefCellThirteen";
-                break;
-            case 14:
-                prefStringKey = "prefCellFourteen";
-                break;
-            case 15:
-                prefStringKey = "prefCellFifteen";
-                break;
-        }
+        String prefStringKey = CELL_PREFS[cell - 1];
         final String selectedPrefStringKey = prefStringKey;
         if (!prefStringKey.equals("")) {
             final ArrayAdapter<String> adp = new ArrayAdapter<String>(MainActivity.this, R.layout.item_gridspinner,
@@ -319,7 +320,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
             final Spinner sp1 = new Spinner(MainActivity.this);
             sp1.setLayoutParams(new LinearLayout.LayoutParams(WindowManager.LayoutParams.WRAP_CONTENT, WindowManager.LayoutParams.WRAP_CONTENT));
             sp1.setAdapter(adp);
-            sp1.setSelection(Integer.parseInt(sharedPrefs.getString(prefStringKey, String.valueOf(cell))));
+            sp1.setSelection(Integer.parseInt(sharedPrefs.getString(prefStringKey, String.valueOf(CELL_DEFAULTS[cell - 1]))));
             sp1.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
                 @Override
                 public void onItemSelected(AdapterView<?> parent,
@@ -327,6 +328,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     SharedPreferences.Editor editor = sharedPrefs.edit();
                     editor.putString(selectedPrefStringKey, String.valueOf(pos));
                     editor.apply();
+                    gridChange = true;
                     updateDisplay();
                 }
 
@@ -476,6 +478,8 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
         updateNightMode();
         updateDisplay();
         startTimer();
+        SensorFusion.subscribe(SensorFusion.DISPLAY);
+        LocationTracker.subscribe(LocationTracker.DISPLAY);
     }
 
     @Override
@@ -483,6 +487,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
         Log.d(TAG, "In onDestroy");
         super.onDestroy();
         cancelTimer();
+        gridThread.quitSafely();
         try {
             unregisterReceiver(mGattUpdateReceiver);
             unregisterReceiver(mBondingBroadcast);
@@ -512,6 +517,8 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
         Log.d(TAG, "In onPause");
         super.onPause();
         cancelTimer();
+        SensorFusion.unsubscribe(SensorFusion.DISPLAY);
+        LocationTracker.unsubscribe(LocationTracker.DISPLAY);
         try {
             if (!sharedPrefs.getBoolean("prefPIP", false)) {
                 unregisterReceiver(mGattUpdateReceiver);
@@ -763,9 +770,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                 mMenu.findItem(R.id.action_bike_info).setVisible(true);
                 mMenu.findItem(R.id.action_hwsettings).setVisible(true);
             } else if (BluetoothLeService.ACTION_PERFORMANCE_DATA_AVAILABLE.equals(action)) {
-                if (drawingComplete) {
-                    updateDisplay();
-                }
+                updateDisplay();
             } else if (BluetoothLeService.ACTION_ACCSTATUS_AVAILABLE.equals(action)) {
                 Intent accessoryIntent = new Intent(MainActivity.this, AccessoryActivity.class);
                 startActivity(accessoryIntent);
@@ -819,634 +824,92 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
 
     // Update Display
     private void updateDisplay() {
-        drawingComplete = false;
-        new Thread() {
-            @Override
-            public void run() {
-                // Cell One
-                int cell1Data = Integer.parseInt(sharedPrefs.getString("prefCellOne", "14"));//Default:Speed
-                GridItem cell1 = getCellData(cell1Data);
-                // Cell Two
-                int cell2Data = Integer.parseInt(sharedPrefs.getString("prefCellTwo", "29"));//Default:RPM
-                GridItem cell2 = getCellData(cell2Data);
-                // Cell Three
-                int cell3Data = Integer.parseInt(sharedPrefs.getString("prefCellThree", "3"));//Default:Speed
-                GridItem cell3 = getCellData(cell3Data);
-                // Cell Four
-                int cell4Data = Integer.parseInt(sharedPrefs.getString("prefCellFour", "0"));//Default:Gear
-                GridItem cell4 = getCellData(cell4Data);
-                // Cell Five
-                int cell5Data = Integer.parseInt(sharedPrefs.getString("prefCellFive", "1"));//Default:Engine Temp
-                GridItem cell5 = getCellData(cell5Data);
-                // Cell Six
-                int cell6Data = Integer.parseInt(sharedPrefs.getString("prefCellSix", "2"));//Default:Air Temp
-                GridItem cell6 = getCellData(cell6Data);
-                // Cell Seven
-                int cell7Data = Integer.parseInt(sharedPrefs.getString("prefCellSeven", "20"));//Default:Shifts
-                GridItem cell7 = getCellData(cell7Data);
-                // Cell Eight
-                int cell8Data = Integer.parseInt(sharedPrefs.getString("prefCellEight", "8"));//Default:Front Brakes
-                GridItem cell8 = getCellData(cell8Data);
-                // Cell Nine
-                int cell9Data = Integer.parseInt(sharedPrefs.getString("prefCellNine", "9"));//Default:Rear Brakes
-                GridItem cell9 = getCellData(cell9Data);
-                // Cell Ten
-                int cell10Data = Integer.parseInt(sharedPrefs.getString("prefCellTen", "7"));//Default:Throttle
-                GridItem cell10 = getCellData(cell10Data);
-                // Cell Eleven
-                int cell11Data = Integer.parseInt(sharedPrefs.getString("prefCellEleven", "24"));//Default:time
-                GridItem cell11 = getCellData(cell11Data);
-                // Cell Twelve
-                int cell12Data = Integer.parseInt(sharedPrefs.getString("prefCellTwelve", "28"));//Default:Sunrise/Sunset
-                GridItem cell12 = getCellData(cell12Data);
-                // Cell Thirteen
-                int cell13Data = Integer.parseInt(sharedPrefs.getString("prefCellThirteen", "27"));//Default:Altitude
-                GridItem cell13 = getCellData(cell13Data);
-                // Cell Fourteen
-                int cell14Data = Integer.parseInt(sharedPrefs.getString("prefCellFourteen", "23"));//Default:Bearing
-                GridItem cell14 = getCellData(cell14Data);
-                // Cell Fifteen
-                int cell15Data = Integer.parseInt(sharedPrefs.getString("prefCellFifteen", "22"));//Default:g-force
-                GridItem cell15 = getCellData(cell15Data);
-
-                int count = Integer.parseInt(sharedPrefs.getString("CELL_COUNT", "15"));
-                if (inPIP) {
-                    count = Integer.parseInt(sharedPrefs.getString("prefPIPCellCount", "4"));
+        if(Data.wlq != null) {
+            if(Data.wlq.getHardwareType() == WLQ.TYPE_NAVIGATOR) {
+                mMenu.findItem(R.id.action_bike_info).setVisible(true);
+            }
+            mMenu.findItem(R.id.action_hwsettings).setVisible(true);
+        }
+        //Check for active faults
+        if (FaultStatus.getActive() != 0) {
+            faultButton.setVisibility(View.VISIBLE);
+        } else {
+            faultButton.setVisibility(View.GONE);
+        }
+        if (gridChange) {
+            gridChange = false;
+            int count = Integer.parseInt(sharedPrefs.getString("CELL_COUNT", "15"));
+            if (inPIP) {
+                count = Integer.parseInt(sharedPrefs.getString("prefPIPCellCount", "4"));
+            }
+            int[] data = new int[Math.max(1, Math.min(count, CELL_PREFS.length))];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = Integer.parseInt(sharedPrefs.getString(CELL_PREFS[i], String.valueOf(CELL_DEFAULTS[i])));
+            }
+            boolean portrait = (getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT);
+            int columns = getColumnCount(data.length, portrait);
+            gridRows = (data.length + columns - 1) / columns;
+            gridLayoutManager.setSpanCount(columns);
+            gridAdapter.setCellCount(data.length);
+            gridAdapter.setCellHeight(gridView.getHeight() / gridRows);
+            cellData = data;
+            gridGeneration++;
+        }
+        if (refreshPending.compareAndSet(false, true)) {
+            gridHandler.post(refreshGrid);
+        }
+    }
+
+    // Columns of the grid, the rows follow from the cell count
+    private static int getColumnCount(int count, boolean portrait) {
+        if (count <= 2) {
+            return portrait ? 1 : count;
+        } else if (count <= 4) {
+            return portrait ? 1 : 2;
+        } else if (count <= 10) {
+            return portrait ? 2 : (count + 1) / 2;
+        }
+        return portrait ? 3 : (count + 2) / 3;
+    }
+
+    // Formats the cells off the UI thread and only hands the changed ones to the adapter
+    private final Runnable refreshGrid = new Runnable() {
+        @Override
+        public void run() {
+            refreshPending.set(false);
+            final int generation = gridGeneration;
+            int[] data = cellData;
+            if (generation != shownGeneration || shownItems.length != data.length) {
+                shownGeneration = generation;
+                shownItems = new GridItem[data.length];
+            }
+            final GridItem[] changed = new GridItem[data.length];
+            boolean dirty = false;
+            for (int i = 0; i < data.length; i++) {
+                GridItem item = getCellData(data[i]);
+                if (!item.looksLike(shownItems[i])) {
+                    shownItems[i] = item;
+                    changed[i] = item;
+                    dirty = true;
                 }
-                boolean portrait = (getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT);
-                try {
-                    // code runs in a thread
-                    int finalCount = count;
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            if(Data.wlq != null) {
-                                if(Data.wlq.getHardwareType() == WLQ.TYPE_NAVIGATOR) {
-                                    mMenu.findItem(R.id.action_bike_info).setVisible(true);
-                                }
-                                mMenu.findItem(R.id.action_hwsettings).setVisible(true);
-                            }
-                            //Check for active faults
-                            if (!FaultStatus.getallActiveDesc().isEmpty()) {
-                                faultButton.setVisibility(View.VISIBLE);
-                            } else {
-                                faultButton.setVisibility(View.GONE);
-                            }
-                            switch (finalCount) {
-                                case 15:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(3);
-                                            gridLayout.setRowCount(5);
-                                        } else {
-                                            gridLayout.setColumnCount(5);
-                                            gridLayout.setRowCount(3);
-                                        }
-                                    }
-
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    // Cell Three
-                                    setCellText(3);
-                                    // Cell Four
-                                    setCellText(4);
-                                    // Cell Five
-                                    setCellText(5);
-                                    // Cell Six
-                                    setCellText(6);
-                                    // Cell Seven
-                                    setCellText(7);
-                                    // Cell Eight
-                                    setCellText(8);
-                                    // Cell Nine
-                                    setCellText(9);
-                                    // Cell Ten
-                                    setCellText(10);
-                                    // Cell Eleven
-                                    setCellText(11);
-                                    // Cell Twelve
-                                    setCellText(12);
-                                    // Cell Thirteen
-                                    setCellText(13);
-                                    // Cell Fourteen
-                                    setCellText(14);
-                                    // Cell Fifteen
-                                    setCellText(15);
-                                    gridChange = false;
-                                    break;
-                                case 12:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(3);
-                                            gridLayout.setRowCount(4);
-                                        } else {
-                                            gridLayout.setColumnCount(4);
-                                            gridLayout.setRowCount(3);
-                                        }
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    // Cell Three
-                                    setCellText(3);
-                                    // Cell Four
-                                    setCellText(4);
-                                    // Cell Five
-                                    setCellText(5);
-                                    // Cell Six
-                                    setCellText(6);
-                                    // Cell Seven
-                                    setCellText(7);
-                                    // Cell Eight
-                                    setCellText(8);
-                                    // Cell Nine
-                                    setCellText(9);
-                                    // Cell Ten
-                                    setCellText(10);
-                                    // Cell Eleven
-                                    setCellText(11);
-                                    // Cell Twelve
-                                    setCellText(12);
-                                    gridChange = false;
-                                    break;
-                                case 10:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(2);
-                                            gridLayout.setRowCount(5);
-                                        } else {
-                                            gridLayout.setColumnCount(5);
-                                            gridLayout.setRowCount(2);
-                                        }
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    // Cell Three
-                                    setCellText(3);
-                                    // Cell Four
-                                    setCellText(4);
-                                    // Cell Five
-                                    setCellText(5);
-                                    // Cell Six
-                                    setCellText(6);
-                                    // Cell Seven
-                                    setCellText(7);
-                                    // Cell Eight
-                                    setCellText(8);
-                                    // Cell Nine
-                                    setCellText(9);
-                                    // Cell Ten
-                                    setCellText(10);
-                                    gridChange = false;
-                                    break;
-                                case 8:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(2);
-                                            gridLayout.setRowCount(4);
-                                        } else {
-                                            gridLayout.setColumnCount(4);
-                                            gridLayout.setRowCount(2);
-                                        }
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    // Cell Three
-                                    setCellText(3);
-                                    // Cell Four
-                                    setCellText(4);
-                                    // Cell Five
-                                    setCellText(5);
-                                    // Cell Six
-                                    setCellText(6);
-                                    // Cell Seven
-                                    setCellText(7);
-                                    // Cell Eight
-                                    setCellText(8);
-                                    gridChange = false;
-                                    break;
-                                case 4:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(1);
-                                            gridLayout.setRowCount(4);
-                                        } else {
-                                            gridLayout.setColumnCount(2);
-                                            gridLayout.setRowCount(2);
-                                        }
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    // Cell Three
-                                    setCellText(3);
-                                    // Cell Four
-                                    setCellText(4);
-                                    gridChange = false;
-                                    break;
-                                case 2:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        if (portrait) {
-                                            gridLayout.setColumnCount(1);
-                                            gridLayout.setRowCount(2);
-                                        } else {
-                                            gridLayout.setColumnCount(2);
-                                            gridLayout.setRowCount(1);
-                                        }
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    // Cell Two
-                                    setCellText(2);
-                                    gridChange = false;
-                                    break;
-                                case 1:
-                                    if (gridChange) {
-                                        gridLayout.removeAllViews();
-                                        gridLayout.setColumnCount(1);
-                                        gridLayout.setRowCount(1);
-                                    }
-                                    // Cell One
-                                    setCellText(1);
-                                    gridChange = false;
-                                    break;
-                            }
+            }
+            if (dirty) {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != gridGeneration) {
+                            return;
                         }
-
-                        // Set Cell Text and icon
-                        private void setCellText(Integer cellNumber) {
-                            switch (cellNumber) {
-                                case 1:
-                                    if (gridChange) {
-                                        View gridCell1 = layoutInflater.inflate(R.layout.layout_griditem1, gridLayout, false);
-                                        gridLayout.addView(gridCell1);
-                                    }
-                                    ConstraintLayout layout1 = findViewById(R.id.layout_1);
-                                    if (layout1 != null) {
-                                        TextView textView1 = findViewById(R.id.textView1);
-                                        TextView textView1Label = findViewById(R.id.textView1label);
-                                        ImageView imageView1 = findViewById(R.id.imageView1);
-                                        layout1.setOnTouchListener(MainActivity.this);
-                                        layout1.setTag(cellNumber);
-                                        textView1.setTag(cellNumber);
-                                        textView1Label.setTag(cellNumber);
-                                        textView1Label.setText(cell1.getLabel());
-                                        textView1.setText(cell1.getValue());
-                                        if (cell1.getIcon() != null) {
-                                            imageView1.setImageDrawable(cell1.getIcon());
-                                        } else {
-                                            imageView1.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 2:
-                                    if (gridChange) {
-                                        View gridCell2 = layoutInflater.inflate(R.layout.layout_griditem2, gridLayout, false);
-                                        gridLayout.addView(gridCell2);
-                                    }
-                                    ConstraintLayout layout2 = findViewById(R.id.layout_2);
-                                    if (layout2 != null) {
-                                        TextView textView2 = findViewById(R.id.textView2);
-                                        TextView textView2Label = findViewById(R.id.textView2label);
-                                        ImageView imageView2 = findViewById(R.id.imageView2);
-                                        layout2.setOnTouchListener(MainActivity.this);
-                                        layout2.setTag(cellNumber);
-                                        textView2.setTag(cellNumber);
-                                        textView2Label.setTag(cellNumber);
-                                        textView2Label.setText(cell2.getLabel());
-                                        textView2.setText(cell2.getValue());
-                                        if (cell2.getIcon() != null) {
-                                            imageView2.setImageDrawable(cell2.getIcon());
-                                        } else {
-                                            imageView2.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 3:
-                                    if (gridChange) {
-                                        View gridCell3 = layoutInflater.inflate(R.layout.layout_griditem3, gridLayout, false);
-                                        gridLayout.addView(gridCell3);
-                                    }
-                                    ConstraintLayout layout3 = findViewById(R.id.layout_3);
-                                    if (layout3 != null) {
-                                        TextView textView3 = findViewById(R.id.textView3);
-                                        TextView textView3Label = findViewById(R.id.textView3label);
-                                        ImageView imageView3 = findViewById(R.id.imageView3);
-                                        layout3.setOnTouchListener(MainActivity.this);
-                                        layout3.setTag(cellNumber);
-                                        textView3.setTag(cellNumber);
-                                        textView3Label.setTag(cellNumber);
-                                        textView3Label.setText(cell3.getLabel());
-                                        textView3.setText(cell3.getValue());
-                                        if (cell3.getIcon() != null) {
-                                            imageView3.setImageDrawable(cell3.getIcon());
-                                        } else {
-                                            imageView3.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 4:
-                                    if (gridChange) {
-                                        View gridCell4 = layoutInflater.inflate(R.layout.layout_griditem4, gridLayout, false);
-                                        gridLayout.addView(gridCell4);
-                                    }
-                                    ConstraintLayout layout4 = findViewById(R.id.layout_4);
-                                    if (layout4 != null) {
-                                        TextView textView4 = findViewById(R.id.textView4);
-                                        TextView textView4Label = findViewById(R.id.textView4label);
-                                        ImageView imageView4 = findViewById(R.id.imageView4);
-                                        layout4.setOnTouchListener(MainActivity.this);
-                                        layout4.setTag(cellNumber);
-                                        textView4.setTag(cellNumber);
-                                        textView4Label.setTag(cellNumber);
-                                        textView4Label.setText(cell4.getLabel());
-                                        textView4.setText(cell4.getValue());
-                                        if (cell4.getIcon() != null) {
-                                            imageView4.setImageDrawable(cell4.getIcon());
-                                        } else {
-                                            imageView4.setImageResource(android.R.color.transparent);
-                                        }
-                                        break;
-                                    }
-                                case 5:
-                                    if (gridChange) {
-                                        View gridCell5 = layoutInflater.inflate(R.layout.layout_griditem5, gridLayout, false);
-                                        gridLayout.addView(gridCell5);
-                                    }
-                                    ConstraintLayout layout5 = findViewById(R.id.layout_5);
-                                    if (layout5 != null) {
-                                        TextView textView5 = findViewById(R.id.textView5);
-                                        TextView textView5Label = findViewById(R.id.textView5label);
-                                        ImageView imageView5 = findViewById(R.id.imageView5);
-                                        layout5.setOnTouchListener(MainActivity.this);
-                                        layout5.setTag(cellNumber);
-                                        textView5.setTag(cellNumber);
-                                        textView5Label.setTag(cellNumber);
-                                        textView5Label.setText(cell5.getLabel());
-                                        textView5.setText(cell5.getValue());
-                                        if (cell5.getIcon() != null) {
-                                            imageView5.setImageDrawable(cell5.getIcon());
-                                        } else {
-                                            imageView5.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 6:
-                                    if (gridChange) {
-                                        View gridCell6 = layoutInflater.inflate(R.layout.layout_griditem6, gridLayout, false);
-                                        gridLayout.addView(gridCell6);
-                                    }
-                                    ConstraintLayout layout6 = findViewById(R.id.layout_6);
-                                    if (layout6 != null) {
-                                        TextView textView6 = findViewById(R.id.textView6);
-                                        TextView textView6Label = findViewById(R.id.textView6label);
-                                        ImageView imageView6 = findViewById(R.id.imageView6);
-                                        layout6.setOnTouchListener(MainActivity.this);
-                                        layout6.setTag(cellNumber);
-                                        textView6.setTag(cellNumber);
-                                        textView6Label.setTag(cellNumber);
-                                        textView6Label.setText(cell6.getLabel());
-                                        textView6.setText(cell6.getValue());
-                                        if (cell6.getIcon() != null) {
-                                            imageView6.setImageDrawable(cell6.getIcon());
-                                        } else {
-                                            imageView6.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 7:
-                                    if (gridChange) {
-                                        View gridCell7 = layoutInflater.inflate(R.layout.layout_griditem7, gridLayout, false);
-                                        gridLayout.addView(gridCell7);
-                                    }
-                                    ConstraintLayout layout7 = findViewById(R.id.layout_7);
-                                    if (layout7 != null) {
-                                        TextView textView7 = findViewById(R.id.textView7);
-                                        TextView textView7Label = findViewById(R.id.textView7label);
-                                        ImageView imageView7 = findViewById(R.id.imageView7);
-                                        layout7.setOnTouchListener(MainActivity.this);
-                                        layout7.setTag(cellNumber);
-                                        textView7.setTag(cellNumber);
-                                        textView7Label.setTag(cellNumber);
-                                        textView7Label.setText(cell7.getLabel());
-                                        textView7.setText(cell7.getValue());
-                                        if (cell7.getIcon() != null) {
-                                            imageView7.setImageDrawable(cell7.getIcon());
-                                        } else {
-                                            imageView7.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 8:
-                                    if (gridChange) {
-                                        View gridCell8 = layoutInflater.inflate(R.layout.layout_griditem8, gridLayout, false);
-                                        gridLayout.addView(gridCell8);
-                                    }
-                                    ConstraintLayout layout8 = findViewById(R.id.layout_8);
-                                    if (layout8 != null) {
-                                        TextView textView8 = findViewById(R.id.textView8);
-                                        TextView textView8Label = findViewById(R.id.textView8label);
-                                        ImageView imageView8 = findViewById(R.id.imageView8);
-                                        layout8.setOnTouchListener(MainActivity.this);
-                                        layout8.setTag(cellNumber);
-                                        textView8.setTag(cellNumber);
-                                        textView8Label.setTag(cellNumber);
-                                        textView8Label.setText(cell8.getLabel());
-                                        textView8.setText(cell8.getValue());
-                                        if (cell8.getIcon() != null) {
-                                            imageView8.setImageDrawable(cell8.getIcon());
-                                        } else {
-                                            imageView8.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 9:
-                                    if (gridChange) {
-                                        View gridCell9 = layoutInflater.inflate(R.layout.layout_griditem9, gridLayout, false);
-                                        gridLayout.addView(gridCell9);
-                                    }
-                                    ConstraintLayout layout9 = findViewById(R.id.layout_9);
-                                    if (layout9 != null) {
-                                        TextView textView9 = findViewById(R.id.textView9);
-                                        TextView textView9Label = findViewById(R.id.textView9label);
-                                        ImageView imageView9 = findViewById(R.id.imageView9);
-                                        layout9.setOnTouchListener(MainActivity.this);
-                                        layout9.setTag(cellNumber);
-                                        textView9.setTag(cellNumber);
-                                        textView9Label.setTag(cellNumber);
-                                        textView9Label.setText(cell9.getLabel());
-                                        textView9.setText(cell9.getValue());
-                                        if (cell9.getIcon() != null) {
-                                            imageView9.setImageDrawable(cell9.getIcon());
-                                        } else {
-                                            imageView9.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 10:
-                                    if (gridChange) {
-                                        View gridCell10 = layoutInflater.inflate(R.layout.layout_griditem10, gridLayout, false);
-                                        gridLayout.addView(gridCell10);
-                                    }
-                                    ConstraintLayout layout10 = findViewById(R.id.layout_10);
-                                    if (layout10 != null) {
-                                        TextView textView10 = findViewById(R.id.textView10);
-                                        TextView textView10Label = findViewById(R.id.textView10label);
-                                        ImageView imageView10 = findViewById(R.id.imageView10);
-                                        layout10.setOnTouchListener(MainActivity.this);
-                                        layout10.setTag(cellNumber);
-                                        textView10.setTag(cellNumber);
-                                        textView10Label.setTag(cellNumber);
-                                        textView10Label.setText(cell10.getLabel());
-                                        textView10.setText(cell10.getValue());
-                                        if (cell10.getIcon() != null) {
-                                            imageView10.setImageDrawable(cell10.getIcon());
-                                        } else {
-                                            imageView10.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 11:
-                                    if (gridChange) {
-                                        View gridCell11 = layoutInflater.inflate(R.layout.layout_griditem11, gridLayout, false);
-                                        gridLayout.addView(gridCell11);
-                                    }
-                                    ConstraintLayout layout11 = findViewById(R.id.layout_11);
-                                    if (layout11 != null) {
-                                        TextView textView11 = findViewById(R.id.textView11);
-                                        TextView textView11Label = findViewById(R.id.textView11label);
-                                        ImageView imageView11 = findViewById(R.id.imageView11);
-                                        layout11.setOnTouchListener(MainActivity.this);
-                                        layout11.setTag(cellNumber);
-                                        textView11.setTag(cellNumber);
-                                        textView11Label.setTag(cellNumber);
-                                        textView11Label.setText(cell11.getLabel());
-                                        textView11.setText(cell11.getValue());
-                                        if (cell11.getIcon() != null) {
-                                            imageView11.setImageDrawable(cell11.getIcon());
-                                        } else {
-                                            imageView11.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 12:
-                                    if (gridChange) {
-                                        View gridCell12 = layoutInflater.inflate(R.layout.layout_griditem12, gridLayout, false);
-                                        gridLayout.addView(gridCell12);
-                                    }
-                                    ConstraintLayout layout12 = findViewById(R.id.layout_12);
-                                    if (layout12 != null) {
-                                        TextView textView12 = findViewById(R.id.textView12);
-                                        TextView textView12Label = findViewById(R.id.textView12label);
-                                        ImageView imageView12 = findViewById(R.id.imageView12);
-                                        layout12.setOnTouchListener(MainActivity.this);
-                                        layout12.setTag(cellNumber);
-                                        textView12.setTag(cellNumber);
-                                        textView12Label.setTag(cellNumber);
-                                        textView12Label.setText(cell12.getLabel());
-                                        textView12.setText(cell12.getValue());
-                                        if (cell12.getIcon() != null) {
-                                            imageView12.setImageDrawable(cell12.getIcon());
-                                        } else {
-                                            imageView12.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 13:
-                                    if (gridChange) {
-                                        View gridCell13 = layoutInflater.inflate(R.layout.layout_griditem13, gridLayout, false);
-                                        gridLayout.addView(gridCell13);
-                                    }
-                                    ConstraintLayout layout13 = findViewById(R.id.layout_13);
-                                    if (layout13 != null) {
-                                        TextView textView13 = findViewById(R.id.textView13);
-                                        TextView textView13Label = findViewById(R.id.textView13label);
-                                        ImageView imageView13 = findViewById(R.id.imageView13);
-                                        layout13.setOnTouchListener(MainActivity.this);
-                                        layout13.setTag(cellNumber);
-                                        textView13.setTag(cellNumber);
-                                        textView13Label.setTag(cellNumber);
-                                        textView13Label.setText(cell13.getLabel());
-                                        textView13.setText(cell13.getValue());
-                                        if (cell13.getIcon() != null) {
-                                            imageView13.setImageDrawable(cell13.getIcon());
-                                        } else {
-                                            imageView13.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 14:
-                                    if (gridChange) {
-                                        View gridCell14 = layoutInflater.inflate(R.layout.layout_griditem14, gridLayout, false);
-                                        gridLayout.addView(gridCell14);
-                                    }
-                                    ConstraintLayout layout14 = findViewById(R.id.layout_14);
-                                    if (layout14 != null) {
-                                        TextView textView14 = findViewById(R.id.textView14);
-                                        TextView textView14Label = findViewById(R.id.textView14label);
-                                        ImageView imageView14 = findViewById(R.id.imageView14);
-                                        layout14.setOnTouchListener(MainActivity.this);
-                                        layout14.setTag(cellNumber);
-                                        textView14.setTag(cellNumber);
-                                        textView14Label.setTag(cellNumber);
-                                        textView14Label.setText(cell14.getLabel());
-                                        textView14.setText(cell14.getValue());
-                                        if (cell14.getIcon() != null) {
-                                            imageView14.setImageDrawable(cell14.getIcon());
-                                        } else {
-                                            imageView14.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                case 15:
-                                    if (gridChange) {
-                                        View gridCell15 = layoutInflater.inflate(R.layout.layout_griditem15, gridLayout, false);
-                                        gridLayout.addView(gridCell15);
-                                    }
-                                    ConstraintLayout layout15 = findViewById(R.id.layout_15);
-                                    if (layout15 != null) {
-                                        TextView textView15 = findViewById(R.id.textView15);
-                                        TextView textView15Label = findViewById(R.id.textView15label);
-                                        ImageView imageView15 = findViewById(R.id.imageView15);
-                                        layout15.setOnTouchListener(MainActivity.this);
-                                        layout15.setTag(cellNumber);
-                                        textView15.setTag(cellNumber);
-                                        textView15Label.setTag(cellNumber);
-                                        textView15Label.setText(cell15.getLabel());
-                                        textView15.setText(cell15.getValue());
-                                        if (cell15.getIcon() != null) {
-                                            imageView15.setImageDrawable(cell15.getIcon());
-                                        } else {
-                                            imageView15.setImageResource(android.R.color.transparent);
-                                        }
-                                    }
-                                    break;
-                                default:
-                                    break;
+                        for (int i = 0; i < changed.length; i++) {
+                            if (changed[i] != null) {
+                                gridAdapter.setItem(i, changed[i]);
                             }
-                            drawingComplete = true;
                         }
-                    });
-                } catch (final Exception ex) {
-                    Log.i(TAG, "Exception in thread");
-                }
+                    }
+                });
             }
-        }.start();
-    }
+        }
+    };
 
     public GridItem getCellData(int dataPoint){
         String pressureUnit = "bar";
@@ -1490,7 +953,8 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
 
         String label = "";
         String value = getString(R.string.blank_field);
-        Drawable icon = null;
+        int icon = 0;
+        int iconColor = 0;
 
         switch (dataPoint){
             case 0:
@@ -1499,16 +963,16 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                 if(Data.getGear() != null){
                     value = Data.getGear();
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_cog);
+                icon = R.drawable.ic_cog;
                 break;
             case 1:
                 //Engine
                 label = getString(R.string.engine_temp_label) + " (" + temperatureUnit + ")";
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_engine_temp);
+                icon = R.drawable.ic_engine_temp;
                 if(Data.getEngineTemperature() != null ){
                     double engineTemp = Data.getEngineTemperature();
                     if (engineTemp >= 104.0){
-                        icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red), PorterDuff.Mode.SRC_ATOP);
+                        iconColor = ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red);
                     }
                     if (temperatureFormat.contains("1")) {
                         // F
@@ -1523,10 +987,10 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                 if(Data.getAmbientTemperature() != null ){
                     double ambientTemp = Data.getAmbientTemperature();
                     if(ambientTemp <= 0){
-                        icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_snowflake);
-                        icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.motorrad_blue), PorterDuff.Mode.SRC_ATOP);
+                        icon = R.drawable.ic_snowflake;
+                        iconColor = ContextCompat.getColor(getApplicationContext(), R.color.motorrad_blue);
                     } else {
-                        icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_thermometer_half);
+                        icon = R.drawable.ic_thermometer_half;
                     }
                     if (temperatureFormat.contains("1")) {
                         // F
@@ -1534,7 +998,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Math.round(ambientTemp));
                 } else {
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_thermometer_half);
+                    icon = R.drawable.ic_thermometer_half;
                 }
 
                 break;
@@ -1555,13 +1019,13 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(rdcFront));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire);
-                if (FaultStatus.getfrontTirePressureCriticalActive()){
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire_alert);
-                    icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red), PorterDuff.Mode.SRC_ATOP);
-                } else if (FaultStatus.getfrontTirePressureWarningActive()){
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire_alert);
-                    icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.yellow), PorterDuff.Mode.SRC_ATOP);
+                icon = R.drawable.ic_tire;
+                if (FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL)){
+                    icon = R.drawable.ic_tire_alert;
+                    iconColor = ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red);
+                } else if (FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_WARNING)){
+                    icon = R.drawable.ic_tire_alert;
+                    iconColor = ContextCompat.getColor(getApplicationContext(), R.color.yellow);
                 }
                 break;
             case 4:
@@ -1581,13 +1045,13 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(rdcRear));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire);
-                if (FaultStatus.getrearTirePressureCriticalActive()){
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire_alert);
-                    icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red), PorterDuff.Mode.SRC_ATOP);
-                } else if (FaultStatus.getrearTirePressureWarningActive()){
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tire_alert);
-                    icon.setColorFilter(ContextCompat.getColor(getApplicationContext(), R.color.yellow), PorterDuff.Mode.SRC_ATOP);
+                icon = R.drawable.ic_tire;
+                if (FaultStatus.isActive(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL)){
+                    icon = R.drawable.ic_tire_alert;
+                    iconColor = ContextCompat.getColor(getApplicationContext(), R.color.motorrad_red);
+                } else if (FaultStatus.isActive(FaultStatus.REAR_TIRE_PRESSURE_WARNING)){
+                    icon = R.drawable.ic_tire_alert;
+                    iconColor = ContextCompat.getColor(getApplicationContext(), R.color.yellow);
                 }
                 break;
             case 5:
@@ -1600,7 +1064,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Math.round(odometer));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_dashboard_meter);
+                icon = R.drawable.ic_dashboard_meter;
                 break;
             case 6:
                 //Voltage
@@ -1609,7 +1073,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Double voltage = Data.getvoltage();
                     value = String.valueOf(Utils.oneDigit.format(voltage));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_car_battery);
+                icon = R.drawable.ic_car_battery;
                 break;
             case 7:
                 //Throttle
@@ -1618,7 +1082,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Double throttlePosition = Data.getThrottlePosition();
                     value = String.valueOf(Math.round(throttlePosition));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_signature);
+                icon = R.drawable.ic_signature;
                 break;
             case 8:
                 //Front Brakes
@@ -1627,7 +1091,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Integer frontBrakes = Data.getFrontBrake();
                     value = String.valueOf(frontBrakes);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_brakes);
+                icon = R.drawable.ic_brakes;
                 break;
             case 9:
                 //Rear Brakes
@@ -1636,7 +1100,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Integer rearBrakes = Data.getRearBrake();
                     value = String.valueOf(rearBrakes);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_brakes);
+                icon = R.drawable.ic_brakes;
                 break;
             case 10:
                 //Ambient Light
@@ -1645,7 +1109,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Integer ambientLight = Data.getAmbientLight();
                     value = String.valueOf(ambientLight);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_lightbulb);
+                icon = R.drawable.ic_lightbulb;
                 break;
             case 11:
                 //Trip 1
@@ -1657,7 +1121,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = Utils.oneDigit.format(trip1);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_suitcase);
+                icon = R.drawable.ic_suitcase;
                 break;
             case 12:
                 //Trip 2
@@ -1669,7 +1133,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = Utils.oneDigit.format(trip2);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_suitcase);
+                icon = R.drawable.ic_suitcase;
                 break;
             case 13:
                 //Trip Auto
@@ -1681,7 +1145,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = Utils.oneDigit.format(tripauto);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_suitcase);
+                icon = R.drawable.ic_suitcase;
                 break;
             case 14:
                 //Speed
@@ -1693,7 +1157,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Math.round(speed));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tachometer_alt);
+                icon = R.drawable.ic_tachometer_alt;
                 break;
             case 15:
                 //Average Speed
@@ -1705,7 +1169,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(avgspeed));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tachometer_alt);
+                icon = R.drawable.ic_tachometer_alt;
                 break;
             case 16:
                 //Current Consumption
@@ -1721,7 +1185,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(currentConsumption));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_gas_pump);
+                icon = R.drawable.ic_gas_pump;
                 break;
             case 17:
                 //Fuel Economy One
@@ -1737,7 +1201,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(fuelEconomyOne));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_gas_pump);
+                icon = R.drawable.ic_gas_pump;
                 break;
             case 18:
                 //Fuel Economy Two
@@ -1753,7 +1217,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Utils.oneDigit.format(fuelEconomyTwo));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_gas_pump);
+                icon = R.drawable.ic_gas_pump;
                 break;
             case 19:
                 //Fuel Range
@@ -1765,7 +1229,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Math.round(fuelrange));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_gas_pump);
+                icon = R.drawable.ic_gas_pump;
                 break;
             case 20:
                 //Shifts
@@ -1774,7 +1238,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     int shifts = Data.getNumberOfShifts();
                     value = String.valueOf(shifts);
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_arrows_alt_v);
+                icon = R.drawable.ic_arrows_alt_v;
                 break;
             case 21:
                 //Lean Angle
@@ -1783,7 +1247,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Double leanAngle = Data.getLeanAngle();
                     value = String.valueOf(Math.round(leanAngle));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_angle);
+                icon = R.drawable.ic_angle;
                 break;
             case 22:
                 //g-force
@@ -1792,7 +1256,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Double gForce = Data.getGForce();
                     value = String.valueOf(Utils.oneDigit.format(gForce));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_accelerometer);
+                icon = R.drawable.ic_accelerometer;
                 break;
             case 23:
                 //bearing
@@ -1821,7 +1285,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = bearing;
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_compass);
+                icon = R.drawable.ic_compass;
                 break;
             case 24:
                 //time
@@ -1833,7 +1297,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = dateformat.format(Data.getTime());
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_clock);
+                icon = R.drawable.ic_clock;
                 break;
             case 25:
                 //barometric pressure
@@ -1841,7 +1305,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                 if (Data.getBarometricPressure() != null) {
                     value = String.valueOf(Math.round(Data.getBarometricPressure()));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_barometer);
+                icon = R.drawable.ic_barometer;
                 break;
             case 26:
                 //GPS Speed
@@ -1854,7 +1318,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                 }
                 value = gpsSpeed;
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tachometer_alt);
+                icon = R.drawable.ic_tachometer_alt;
                 break;
             case 27:
                 //Altitude
@@ -1867,7 +1331,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                 }
                 value = altitude;
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_mountain);
+                icon = R.drawable.ic_mountain;
                 break;
             case 28:
                 //Sunrise/Sunset
@@ -1886,14 +1350,14 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     value = sunriseString + "/" + sunsetString;
 
                     if(current.compareTo(sunrise) > 0 && current.compareTo(sunset) < 0){
-                        icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_sun);
+                        icon = R.drawable.ic_sun;
                     } else {
-                        icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_moon);
+                        icon = R.drawable.ic_moon;
                     }
 
                 } else {
                     value = "No Fix";
-                    icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_sun);
+                    icon = R.drawable.ic_sun;
                 }
 
                 break;
@@ -1903,7 +1367,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                 if (Data.getRPM() > 0){
                     value = String.valueOf(Data.getRPM());
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tachometer_alt);
+                icon = R.drawable.ic_tachometer_alt;
                 break;
             case 30:
                 //Lean Angle Bike
@@ -1912,7 +1376,7 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     Double leanAngleBike = Data.getLeanAngleBike();
                     value = String.valueOf(Math.round(leanAngleBike));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_angle);
+                icon = R.drawable.ic_angle;
                 break;
             case 31:
                 //Rear Wheel Speed
@@ -1924,13 +1388,44 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
                     }
                     value = String.valueOf(Math.round(speed));
                 }
-                icon = AppCompatResources.getDrawable(getApplicationContext(), R.drawable.ic_tachometer_alt);
+                icon = R.drawable.ic_tachometer_alt;
                 break;
             default:
 
                 break;
         }
-        return new GridItem(icon,label,value);
+        // Grey out a value the bike has stopped sending
+        int signal = getCellSignal(dataPoint);
+        boolean stale = (signal >= 0) && !value.equals(getString(R.string.blank_field)) && Freshness.isStale(signal);
+        return new GridItem(icon,iconColor,label,value,stale);
+    }
+
+    // Freshness signal shown by a cell, -1 for values not from the bike
+    private static int getCellSignal(int dataPoint) {
+        switch (dataPoint) {
+            case 0: return Freshness.GEAR;
+            case 1: return Freshness.ENGINE_TEMPERATURE;
+            case 2: return Freshness.AMBIENT_TEMPERATURE;
+            case 3: return Freshness.FRONT_TIRE_PRESSURE;
+            case 4: return Freshness.REAR_TIRE_PRESSURE;
+            case 5: return Freshness.ODOMETER;
+            case 6: return Freshness.VOLTAGE;
+            case 7: return Freshness.THROTTLE_POSITION;
+            case 10: return Freshness.AMBIENT_LIGHT;
+            case 11: return Freshness.TRIP_ONE;
+            case 12: return Freshness.TRIP_TWO;
+            case 13: return Freshness.TRIP_AUTO;
+            case 14: return Freshness.SPEED;
+            case 15: return Freshness.AVG_SPEED;
+            case 16: return Freshness.CURRENT_CONSUMPTION;
+            case 17: return Freshness.FUEL_ECONOMY_ONE;
+            case 18: return Freshness.FUEL_ECONOMY_TWO;
+            case 19: return Freshness.FUEL_RANGE;
+            case 29: return Freshness.RPM;
+            case 30: return Freshness.LEAN_ANGLE_BIKE;
+            case 31: return Freshness.REAR_SPEED;
+            default: return -1;
+        }
     }
 
     @Override
@@ -2121,25 +1616,3 @@ public class MainActivity extends AppCompatActivity implements View.OnTouchListe
         }
     }
 }
-
-class GridItem {
-    private String label;
-    private String value;
-    private Drawable icon;
-
-    public GridItem(Drawable icon, String label, String value) {
-        this.icon = icon;
-        this.label = label;
-        this.value = value;
-    }
-
-    public String getLabel() {
-        return label;
-    }
-    public String getValue() {
-        return value;
-    }
-    public Drawable getIcon() {
-        return icon;
-    }
-}
\ No newline at end of file
@@ -20,6 +20,9 @@ package com.blackboxembedded.WunderLINQ;
 import android.app.Application;
 import android.content.Context;
 
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.DataSnapshot;
+import com.blackboxembedded.WunderLINQ.trips.TripArchiveJobService;
+
 public class MyApplication extends Application {
 
     private static Context mContext;
@@ -31,6 +34,11 @@ public class MyApplication extends Application {
     public void onCreate() {
         super.onCreate();
         mContext = this;
+        // Last known telemetry, before any screen or service reads Data
+        DataSnapshot.load(this);
+        FaultHistory.start(this);
+        TirePressureTrend.load(this);
+        TripArchiveJobService.schedule(this);
     }
 
     public static Context getContext(){
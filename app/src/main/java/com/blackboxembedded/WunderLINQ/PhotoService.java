@@ -58,6 +58,8 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LifecycleRegistry;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import com.blackboxembedded.WunderLINQ.trips.TripMedia;
+import com.blackboxembedded.WunderLINQ.trips.TripMediaDatasource;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.File;
@@ -177,6 +179,7 @@ public class PhotoService extends Service implements LifecycleOwner {
             @Override
             public void onCaptureSuccess(@NonNull ImageProxy image) {
                 super.onCaptureSuccess(image);
+                long captureTime = System.currentTimeMillis();
                 // Get the bitmap from the image
                 Bitmap bitmap = imageProxyToBitmap(image);
 
@@ -192,6 +195,9 @@ public class PhotoService extends Service implements LifecycleOwner {
                         Log.d(TAG,"Location: " + location.toString());
                         storeGeoCoordsToImage(file, location);
                     }
+                    TripMediaDatasource mediaDatasource = new TripMediaDatasource(PhotoService.this);
+                    mediaDatasource.addMedia(file, TripMedia.TYPE_PHOTO, captureTime, location);
+                    mediaDatasource.close();
 
                     SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(MyApplication.getContext());
                     if (sharedPrefs.getBoolean("prefPhotoPreview",false)) {
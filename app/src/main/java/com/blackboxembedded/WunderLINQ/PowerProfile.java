@@ -0,0 +1,151 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.PowerManager;
+import android.util.Log;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Power budget of the telemetry pipeline. With the screen off nobody sees
+ * the live values, so unless a trip is logged on a healthy battery the
+ * profile drops to LOW: bus frames are journaled and only decoded every few
+ * seconds, UI broadcasts stop and the phone sensors run at their slowest.
+ * Everything returns to FULL when the screen wakes.
+ */
+public class PowerProfile {
+
+    private static final String TAG = "PowerProfile";
+
+    public static final int FULL = 0;
+    public static final int LOW = 1;
+
+    // Battery percentage below which logging no longer keeps the full profile
+    private static final int LOW_BATTERY = 15;
+
+    public interface Listener {
+        // Called on the main thread when the screen or the profile changes
+        void onPowerChanged(int profile, boolean screenOn);
+    }
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private static Context context;
+    private static volatile boolean screenOn = true;
+    private static boolean batteryLow;
+    private static boolean logging;
+    private static volatile int profile = FULL;
+
+    private static final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            String action = intent.getAction();
+            if (Intent.ACTION_SCREEN_ON.equals(action)) {
+                screenOn = true;
+            } else if (Intent.ACTION_SCREEN_OFF.equals(action)) {
+                screenOn = false;
+            } else if (Intent.ACTION_BATTERY_LOW.equals(action)) {
+                batteryLow = true;
+            } else if (Intent.ACTION_BATTERY_OKAY.equals(action)
+                    || Intent.ACTION_POWER_CONNECTED.equals(action)) {
+                batteryLow = false;
+            }
+            update();
+        }
+    };
+
+    /**
+     * Follow the screen and battery. Called when BluetoothLeService is
+     * created, before the parts that listen.
+     */
+    public static synchronized void start(Context serviceContext) {
+        if (context != null) {
+            return;
+        }
+        context = serviceContext.getApplicationContext();
+        screenOn = ((PowerManager) context.getSystemService(Context.POWER_SERVICE)).isInteractive();
+        // The battery state is sticky, no receiver needed to read it once
+        Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery != null) {
+            int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            boolean plugged = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+            batteryLow = !plugged && level >= 0 && scale > 0 && level * 100 / scale <= LOW_BATTERY;
+        }
+        IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        filter.addAction(Intent.ACTION_BATTERY_LOW);
+        filter.addAction(Intent.ACTION_BATTERY_OKAY);
+        filter.addAction(Intent.ACTION_POWER_CONNECTED);
+        context.registerReceiver(receiver, filter);
+        update();
+    }
+
+    public static synchronized void stop() {
+        if (context == null) {
+            return;
+        }
+        context.unregisterReceiver(receiver);
+        context = null;
+        screenOn = true;
+        update();
+    }
+
+    /**
+     * Called by LoggingService, a trip being logged keeps the full profile
+     * unless the battery is low.
+     */
+    public static synchronized void setLogging(boolean tripLogging) {
+        logging = tripLogging;
+        update();
+    }
+
+    public static int getProfile() {
+        return profile;
+    }
+
+    public static boolean isLowPower() {
+        return profile == LOW;
+    }
+
+    public static boolean isScreenOn() {
+        return screenOn;
+    }
+
+    public static void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private static synchronized void update() {
+        profile = (!screenOn && (!logging || batteryLow)) ? LOW : FULL;
+        Log.d(TAG, "Profile " + profile + ", screen " + (screenOn ? "on" : "off"));
+        for (Listener listener : listeners) {
+            listener.onPowerChanged(profile, screenOn);
+        }
+    }
+}
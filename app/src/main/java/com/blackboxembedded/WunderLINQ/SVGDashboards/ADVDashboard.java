@@ -116,7 +116,7 @@ public class ADVDashboard {
                 doc.getElementById("iconFault").setAttribute("style","display:inline");
             }
             //Fuel Icon
-            if (FaultStatus.getfuelFaultActive()) {
+            if (FaultStatus.isActive(FaultStatus.FUEL_FAULT)) {
                 doc.getElementById("iconFuel").setAttribute("style","display:inline");
             }
             //Bluetooth Icon
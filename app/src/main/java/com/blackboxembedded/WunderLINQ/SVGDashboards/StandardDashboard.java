@@ -202,7 +202,7 @@ public class StandardDashboard {
                             fuelrange = Utils.kmToMiles(fuelrange);
                         }
                         doc.getElementById("dataValue").setTextContent(String.valueOf(Math.round(fuelrange)) + " " + distanceUnit);
-                        if (FaultStatus.getfuelFaultActive()) {
+                        if (FaultStatus.isActive(FaultStatus.FUEL_FAULT)) {
                             doc.getElementById("dataValue").setAttribute("style",
                                     doc.getElementById("dataValue").getAttribute("style").replaceAll("fill:([^<]*);", "fill:#e20505;")
                             );
@@ -308,11 +308,11 @@ public class StandardDashboard {
                     rdcFront = Utils.barToPsi(rdcFront);
                 }
                 doc.getElementById("rdcF").setTextContent(Utils.oneDigit.format(rdcFront) + pressureUnit);
-                if (FaultStatus.getfrontTirePressureCriticalActive()) {
+                if (FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL)) {
                     doc.getElementById("rdcF").setAttribute("style",
                             doc.getElementById("rdcF").getAttribute("style").replaceAll("fill:([^<]*);", "fill:#e20505;")
                     );
-                } else if (FaultStatus.getfrontTirePressureWarningActive()) {
+                } else if (FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_WARNING)) {
                     doc.getElementById("rdcF").setAttribute("style",
                             doc.getElementById("rdcF").getAttribute("style").replaceAll("fill:([^<]*);", "fill:#fcc914;")
                     );
@@ -335,12 +335,12 @@ public class StandardDashboard {
                     rdcRear = Utils.barToPsi(rdcRear);
                 }
                 doc.getElementById("rdcR").setTextContent(Utils.oneDigit.format(rdcRear) + pressureUnit);
-                if (FaultStatus.getrearTirePressureCriticalActive()) {
+                if (FaultStatus.isActive(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL)) {
                     doc.getElementById("rdcR").setAttribute("style",
                             doc.getElementById("rdcR").getAttribute("style").replaceAll("fill:([^<]*);", "fill:#e20505;")
                     );
 
-                } else if (FaultStatus.getrearTirePressureWarningActive()) {
+                } else if (FaultStatus.isActive(FaultStatus.REAR_TIRE_PRESSURE_WARNING)) {
                     doc.getElementById("rdcR").setAttribute("style",
                             doc.getElementById("rdcR").getAttribute("style").replaceAll("fill:([^<]*);", "fill:#fcc914;")
                     );
@@ -362,7 +362,7 @@ public class StandardDashboard {
                 doc.getElementById("iconFault").setAttribute("style","display:inline");
             }
             //Fuel Icon
-            if (FaultStatus.getfuelFaultActive()) {
+            if (FaultStatus.isActive(FaultStatus.FUEL_FAULT)) {
                 doc.getElementById("iconFuel").setAttribute("style","display:inline");
             }
 
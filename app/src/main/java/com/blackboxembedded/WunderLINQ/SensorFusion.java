@@ -0,0 +1,397 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import androidx.appcompat.app.AppCompatDelegate;
+
+import com.blackboxembedded.WunderLINQ.Utils.Utils;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+
+/**
+ * Phone sensors: lean angle, compass bearing, g-force, barometric pressure
+ * and the light level for auto night mode. Events are handled on a thread
+ * of its own and every matrix is allocated once, so the sensor rates cost
+ * no garbage and nothing on the main thread.
+ *
+ * Rates follow the consumers: full rate while a screen showing the values
+ * is visible, slower and batched in the sensor FIFO while only logging, and
+ * slow with long batches otherwise or in the low power profile. Batching
+ * keeps every sample for the max lean angles but wakes the CPU only once
+ * per batch.
+ */
+public class SensorFusion {
+
+    private static final String TAG = "SensorFusion";
+
+    /*
+     * time smoothing constant for low-pass filter
+     * 0 ≤ alpha ≤ 1 ; a smaller value basically means more smoothing
+     * was 0.15f
+     * See: http://en.wikipedia.org/wiki/Low-pass_filter#Discrete-time_realization
+     */
+    private static final float ALPHA = 0.05f;
+    // Light level to determine darkness
+    private static final double DARK_THRESHOLD = 20.0;
+
+    // Consumers
+    public static final int DISPLAY = 0;
+    public static final int LOGGING = 1;
+    private static final int IDLE = 2;
+
+    // Sampling periods and batch latency in us, by DISPLAY, LOGGING and IDLE
+    private static final int[] ROTATION_PERIOD = {20000, 66667, 66667};
+    private static final int[] GRAVITY_PERIOD = {20000, 66667, 200000};
+    private static final int[] MAGNETIC_PERIOD = {66667, 66667, 200000};
+    private static final int[] ACCELERATION_PERIOD = {66667, 66667, 200000};
+    private static final int[] PRESSURE_PERIOD = {66667, 200000, 1000000};
+    private static final int[] LATENCY = {0, 250000, 5000000};
+    private static final int LIGHT_PERIOD = 200000;
+
+    private static SensorManager sensorManager;
+    private static Sensor magnetometer;
+    private static Sensor rotationVector;
+    private static Sensor gravity;
+    private static Sensor barometer;
+    private static Sensor acceleration;
+    private static Sensor lightSensor;
+
+    private static Handler handler;
+    private static Handler mainHandler;
+    private static Context context;
+    private static SharedPreferences sharedPrefs;
+
+    // Subscriptions by consumer and the rates registered for them
+    private static final int[] consumers = new int[2];
+    private static int mode = -1;
+    private static boolean lightRegistered;
+
+    // Fusion state, only used on the handler thread
+    private static final float[] rotationMatrix = new float[9];
+    private static final float[] rotationFixMatrix = new float[9];
+    private static final float[] orientation = new float[3];
+    private static final float[] gravityValues = new float[3];
+    private static final float[] geomagnetic = new float[3];
+    private static final float[] compassMatrix = new float[9];
+    private static final float[] inclinationMatrix = new float[9];
+    private static final float[] compassFixMatrix = new float[9];
+    private static int lastDirection;
+
+    // Display orientation, kept up to date by the configuration callback
+    private static volatile int displayOrientation = Configuration.ORIENTATION_PORTRAIT;
+
+    private static boolean itsDark = false;
+    private static long darkTimer = 0;
+    private static long lightTimer = 0;
+
+    private static final SensorEventListener sensorEventListener = new SensorEventListener() {
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        }
+
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            switch (event.sensor.getType()) {
+                case Sensor.TYPE_ROTATION_VECTOR:
+                    updateLeanAngle(event.values);
+                    break;
+                case Sensor.TYPE_GRAVITY:
+                    System.arraycopy(event.values, 0, gravityValues, 0, 3);
+                    updateBearing();
+                    break;
+                case Sensor.TYPE_MAGNETIC_FIELD:
+                    Utils.lowPass(event.values, geomagnetic, ALPHA);
+                    updateBearing();
+                    break;
+                case Sensor.TYPE_PRESSURE:
+                    Data.setBarometricPressure((double) event.values[0]);
+                    break;
+                case Sensor.TYPE_LINEAR_ACCELERATION:
+                    float x = event.values[0];
+                    float y = event.values[1];
+                    float z = event.values[2];
+                    Data.setGForce(Math.sqrt(x * x + y * y + z * z));
+                    break;
+                case Sensor.TYPE_LIGHT:
+                    updateNightMode(event.values[0]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    };
+
+    private static final ComponentCallbacks configurationCallbacks = new ComponentCallbacks() {
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+            displayOrientation = newConfig.orientation;
+        }
+
+        @Override
+        public void onLowMemory() {
+        }
+    };
+
+    private static final PowerProfile.Listener powerListener = new PowerProfile.Listener() {
+        @Override
+        public void onPowerChanged(int profile, boolean screenOn) {
+            updateRates();
+        }
+    };
+
+    private static final SharedPreferences.OnSharedPreferenceChangeListener preferenceListener =
+            new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+            if ("prefNightModeCombo".equals(key)) {
+                updateRates();
+            }
+        }
+    };
+
+    private static final Runnable nightMode = new Runnable() {
+        @Override
+        public void run() {
+            AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_YES);
+        }
+    };
+
+    private static final Runnable dayMode = new Runnable() {
+        @Override
+        public void run() {
+            AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_NO);
+        }
+    };
+
+    /**
+     * Register the sensors. Called when BluetoothLeService is created.
+     */
+    public static synchronized void start(Context serviceContext) {
+        if (handler != null) {
+            return;
+        }
+        context = serviceContext.getApplicationContext();
+        sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_DISPLAY);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        mainHandler = new Handler(Looper.getMainLooper());
+
+        displayOrientation = context.getResources().getConfiguration().orientation;
+        context.registerComponentCallbacks(configurationCallbacks);
+        PowerProfile.addListener(powerListener);
+        sharedPrefs.registerOnSharedPreferenceChangeListener(preferenceListener);
+
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        magnetometer = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        rotationVector = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        gravity = sensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
+        barometer = sensorManager.getDefaultSensor(Sensor.TYPE_PRESSURE);
+        acceleration = sensorManager.getDefaultSensor(Sensor.TYPE_LINEAR_ACCELERATION);
+        lightSensor = sensorManager.getDefaultSensor(Sensor.TYPE_LIGHT);
+
+        mode = -1;
+        lightRegistered = false;
+        updateRates();
+    }
+
+    /**
+     * Unregister the sensors. Called when BluetoothLeService is destroyed.
+     */
+    public static synchronized void stop() {
+        if (handler == null) {
+            return;
+        }
+        sensorManager.unregisterListener(sensorEventListener);
+        context.unregisterComponentCallbacks(configurationCallbacks);
+        PowerProfile.removeListener(powerListener);
+        sharedPrefs.unregisterOnSharedPreferenceChangeListener(preferenceListener);
+        handler.getLooper().quitSafely();
+        handler = null;
+    }
+
+    /**
+     * Ask for the sensor rates a consumer needs, until unsubscribed.
+     * @param consumer DISPLAY for a visible screen showing sensor values,
+     *                 LOGGING while a trip is logged
+     */
+    public static synchronized void subscribe(int consumer) {
+        consumers[consumer]++;
+        updateRates();
+    }
+
+    public static synchronized void unsubscribe(int consumer) {
+        if (consumers[consumer] > 0) {
+            consumers[consumer]--;
+            updateRates();
+        }
+    }
+
+    // Reregister the sensors if the consumers now need different rates
+    private static synchronized void updateRates() {
+        if (handler == null) {
+            return;
+        }
+        boolean screenOn = PowerProfile.isScreenOn();
+        int newMode;
+        if (PowerProfile.isLowPower()) {
+            newMode = IDLE;
+        } else if (consumers[DISPLAY] > 0 && screenOn) {
+            newMode = DISPLAY;
+        } else if (consumers[LOGGING] > 0) {
+            newMode = LOGGING;
+        } else {
+            newMode = IDLE;
+        }
+        // The light level only matters for auto night mode on a lit screen
+        boolean light = screenOn && sharedPrefs.getString("prefNightModeCombo", "0").equals("2");
+        if (newMode != mode) {
+            Log.d(TAG, "Sensor mode " + newMode);
+            mode = newMode;
+            register(rotationVector, ROTATION_PERIOD[mode], LATENCY[mode]);
+            register(gravity, GRAVITY_PERIOD[mode], LATENCY[mode]);
+            register(magnetometer, MAGNETIC_PERIOD[mode], LATENCY[mode]);
+            register(acceleration, ACCELERATION_PERIOD[mode], LATENCY[mode]);
+            register(barometer, PRESSURE_PERIOD[mode], LATENCY[mode]);
+        }
+        if (light != lightRegistered) {
+            lightRegistered = light;
+            if (light) {
+                register(lightSensor, LIGHT_PERIOD, 0);
+            } else if (lightSensor != null) {
+                sensorManager.unregisterListener(sensorEventListener, lightSensor);
+                darkTimer = 0;
+                lightTimer = 0;
+            }
+        }
+    }
+
+    private static void register(Sensor sensor, int period, int latency) {
+        if (sensor == null) {
+            return;
+        }
+        // A listener is registered once per sensor, replace the old rate
+        sensorManager.unregisterListener(sensorEventListener, sensor);
+        sensorManager.registerListener(sensorEventListener, sensor, period, latency, handler);
+    }
+
+    private static void updateLeanAngle(float[] rotation) {
+        double leanAngle;
+        SensorManager.getRotationMatrixFromVector(rotationMatrix, rotation);
+        SensorManager.remapCoordinateSystem(rotationMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, rotationFixMatrix);
+        SensorManager.getOrientation(rotationFixMatrix, orientation);
+        if (displayOrientation == Configuration.ORIENTATION_PORTRAIT) { // Default display rotation is portrait
+            leanAngle = (orientation[2] * 180) / Math.PI;
+        } else {   // Default display rotation is landscape
+            leanAngle = ((orientation[2] * 180) / Math.PI) + 90;
+        }
+        //Filter out impossible values, max sport bike lean is +/-60
+        if ((leanAngle >= -60.0) && (leanAngle <= 60.0)) {
+            Data.setLeanAngle(leanAngle);
+            //Store Max L and R lean angle
+            if (leanAngle > 0) {
+                if (Data.getLeanAngleMaxR() != null) {
+                    if (leanAngle > Data.getLeanAngleMaxR()) {
+                        Data.setLeanAngleMaxR(leanAngle);
+                    }
+                } else {
+                    Data.setLeanAngleMaxR(leanAngle);
+                }
+            } else if (leanAngle < 0) {
+                if (Data.getLeanAngleMaxL() != null) {
+                    if (Math.abs(leanAngle) > Data.getLeanAngleMaxL()) {
+                        Data.setLeanAngleMaxL(Math.abs(leanAngle));
+                    }
+                } else {
+                    Data.setLeanAngleMaxL(Math.abs(leanAngle));
+                }
+            }
+        }
+    }
+
+    private static void updateBearing() {
+        boolean success = SensorManager.getRotationMatrix(compassMatrix, inclinationMatrix, gravityValues, geomagnetic);
+        if (success) {
+            SensorManager.remapCoordinateSystem(compassMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, compassFixMatrix);
+            SensorManager.getOrientation(compassFixMatrix, orientation);
+            int direction = filterChange(Utils.normalizeDegrees(Math.toDegrees(orientation[0])));
+            if (direction != lastDirection) {
+                lastDirection = direction;
+                if (!sharedPrefs.getBoolean("prefBearingOverride", false)) {
+                    Data.setBearing(lastDirection);
+                }
+            }
+        }
+    }
+
+    private static int filterChange(int newDir) {
+        int change = newDir - lastDirection;
+        int smallestChange = Math.max(Math.min(change, 3), -3);
+        return lastDirection + smallestChange;
+    }
+
+    private static void updateNightMode(float currentReading) {
+        if (!sharedPrefs.getString("prefNightModeCombo", "0").equals("2")) {
+            return;
+        }
+        int delay = (Integer.parseInt(sharedPrefs.getString("prefAutoNightModeDelay", "30")) * 1000);
+        if (currentReading < DARK_THRESHOLD) {
+            lightTimer = 0;
+            if (darkTimer == 0) {
+                darkTimer = System.currentTimeMillis();
+            } else {
+                long currentTime = System.currentTimeMillis();
+                long duration = (currentTime - darkTimer);
+                if ((duration >= delay) && (!itsDark)) {
+                    itsDark = true;
+                    Log.d(TAG, "Its dark");
+                    // Update Theme
+                    mainHandler.post(nightMode);
+                }
+            }
+        } else {
+            darkTimer = 0;
+            if (lightTimer == 0) {
+                lightTimer = System.currentTimeMillis();
+            } else {
+                long currentTime = System.currentTimeMillis();
+                long duration = (currentTime - lightTimer);
+                if ((duration >= delay) && (itsDark)) {
+                    itsDark = false;
+                    Log.d(TAG, "Its light");
+                    // Update Theme
+                    mainHandler.post(dayMode);
+                }
+            }
+        }
+    }
+}
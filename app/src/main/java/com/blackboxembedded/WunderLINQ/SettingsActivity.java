@@ -28,6 +28,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
@@ -276,6 +277,18 @@ public class SettingsActivity extends AppCompatActivity implements PreferenceFra
             prefPIPorientation.setSummary(prefPIPorientation.getEntry());
             prefPIPCellCount = findPreference("prefPIPCellCount");
             prefPIPCellCount.setSummary(prefPIPCellCount.getEntry());
+            Preference prefAlertRules = findPreference(AlertRules.PREFERENCE);
+            prefAlertRules.setOnPreferenceChangeListener(new Preference.OnPreferenceChangeListener() {
+                @Override
+                public boolean onPreferenceChange(Preference preference, Object newValue) {
+                    String invalid = AlertRules.validate(newValue.toString());
+                    if (invalid != null) {
+                        Toast.makeText(getActivity(), getString(R.string.pref_alertRules_invalid, invalid), Toast.LENGTH_LONG).show();
+                        return false;
+                    }
+                    return true;
+                }
+            });
 
             if (Build.VERSION.SDK_INT >= 24) {
                 PreferenceScreen preferenceScreen = getPreferenceScreen();
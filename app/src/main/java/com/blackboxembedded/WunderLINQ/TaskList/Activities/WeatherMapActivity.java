@@ -38,6 +38,7 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.blackboxembedded.WunderLINQ.Utils.AppUtils;
+import com.blackboxembedded.WunderLINQ.LocationTracker;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
 import com.blackboxembedded.WunderLINQ.R;
 import com.google.android.gms.maps.CameraUpdateFactory;
@@ -143,11 +144,13 @@ public class WeatherMapActivity extends AppCompatActivity implements OnMapReadyC
     @Override
     public void onResume() {
         super.onResume();
+        LocationTracker.subscribe(LocationTracker.DISPLAY);
     }
 
     @Override
     public void onPause() {
         super.onPause();
+        LocationTracker.unsubscribe(LocationTracker.DISPLAY);
         animator.end();
         handler.removeCallbacksAndMessages(null);
     }
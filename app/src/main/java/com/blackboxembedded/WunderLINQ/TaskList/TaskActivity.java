@@ -59,8 +59,10 @@ import androidx.core.app.ActivityCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.blackboxembedded.WunderLINQ.AccessoryActivity;
+import com.blackboxembedded.WunderLINQ.FlightRecorder;
 import com.blackboxembedded.WunderLINQ.TaskList.Activities.AppListActivity;
 import com.blackboxembedded.WunderLINQ.TaskList.Activities.ContactListActivity;
+import com.blackboxembedded.WunderLINQ.LocationTracker;
 import com.blackboxembedded.WunderLINQ.LoggingService;
 import com.blackboxembedded.WunderLINQ.MainActivity;
 import com.blackboxembedded.WunderLINQ.MusicActivity;
@@ -93,6 +95,8 @@ import java.util.List;
 public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOsmandMissingListener {
 
     private final static String TAG = "TaskActivity";
+    // Setting value of an empty task slot
+    private final static int EMPTY_TASK = 20;
     private DiscreteScrollView taskListView;
     private TaskAdapter adapter;
     final ArrayList<TaskItem> taskItems = new ArrayList<>();
@@ -184,6 +188,8 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
         taskListView.addScrollStateChangeListener(scrollListener);
         startTimer();
         registerReceiver(mGattUpdateReceiver, makeGattUpdateIntentFilter());
+        // Save Waypoint takes the last known location
+        LocationTracker.subscribe(LocationTracker.DISPLAY);
     }
 
     @Override
@@ -191,6 +197,7 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
         Log.d(TAG,"onPause");
         super.onPause();
         cancelTimer();
+        LocationTracker.unsubscribe(LocationTracker.DISPLAY);
         try {
             unregisterReceiver(mGattUpdateReceiver);
         } catch (IllegalArgumentException e) {
@@ -404,8 +411,9 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
                 getResources().getString(R.string.task_title_roadbook),
                 getResources().getString(R.string.task_title_systemvolume),
                 getResources().getString(R.string.task_title_insta360),
-                videoFrontTaskText
-
+                videoFrontTaskText,
+                getResources().getString(R.string.task_title_empty),
+                getResources().getString(R.string.task_title_blackbox)
         };
         int numTasks = taskTitles.length;
         int[] iconId = new int[numTasks];
@@ -429,6 +437,8 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
         iconId[17] = R.drawable.ic_volume_up;
         iconId[18] = R.drawable.ic_spherical_camera;
         iconId[19] = R.drawable.ic_video_camera;
+        iconId[20] = R.drawable.ic_cog;
+        iconId[21] = R.drawable.ic_warning;
 
         mapping = new ArrayList<>();
         taskItems.clear();
@@ -437,119 +447,119 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
             switch (x){
                 case 0:
                     int selectionOne = Integer.parseInt(sharedPrefs.getString("prefQuickTaskOne", "1"));
-                    if (!(selectionOne >= numTasks)){
+                    if (!(selectionOne >= numTasks) && selectionOne != EMPTY_TASK){
                         mapping.add(selectionOne);
                         taskItems.add(new TaskItem(iconId[selectionOne], taskTitles[selectionOne]));
                     }
                     break;
                 case 1:
                     int selectionTwo = Integer.parseInt(sharedPrefs.getString("prefQuickTaskTwo", "2"));
-                    if (!(selectionTwo >= numTasks)){
+                    if (!(selectionTwo >= numTasks) && selectionTwo != EMPTY_TASK){
                         mapping.add(selectionTwo);
                         taskItems.add(new TaskItem(iconId[selectionTwo], taskTitles[selectionTwo]));
                     }
                     break;
                 case 2:
                     int selectionThree = Integer.parseInt(sharedPrefs.getString("prefQuickTaskThree", "3"));
-                    if (!(selectionThree >= numTasks)){
+                    if (!(selectionThree >= numTasks) && selectionThree != EMPTY_TASK){
                         mapping.add(selectionThree);
                         taskItems.add(new TaskItem(iconId[selectionThree], taskTitles[selectionThree]));
                     }
                     break;
                 case 3:
                     int selectionFour = Integer.parseInt(sharedPrefs.getString("prefQuickTaskFour", "4"));
-                    if (!(selectionFour >= numTasks)){
+                    if (!(selectionFour >= numTasks) && selectionFour != EMPTY_TASK){
                         mapping.add(selectionFour);
                         taskItems.add(new TaskItem(iconId[selectionFour], taskTitles[selectionFour]));
                     }
                     break;
                 case 4:
                     int selectionFive = Integer.parseInt(sharedPrefs.getString("prefQuickTaskFive", "5"));
-                    if (!(selectionFive >= numTasks)){
+                    if (!(selectionFive >= numTasks) && selectionFive != EMPTY_TASK){
                         mapping.add(selectionFive);
                         taskItems.add(new TaskItem(iconId[selectionFive], taskTitles[selectionFive]));
                     }
                     break;
                 case 5:
                     int selectionSix = Integer.parseInt(sharedPrefs.getString("prefQuickTaskSix", "6"));
-                    if (!(selectionSix >= numTasks)){
+                    if (!(selectionSix >= numTasks) && selectionSix != EMPTY_TASK){
                         mapping.add(selectionSix);
                         taskItems.add(new TaskItem(iconId[selectionSix], taskTitles[selectionSix]));
                     }
                     break;
                 case 6:
                     int selectionSeven = Integer.parseInt(sharedPrefs.getString("prefQuickTaskSeven", "7"));
-                    if (!(selectionSeven >= numTasks)){
+                    if (!(selectionSeven >= numTasks) && selectionSeven != EMPTY_TASK){
                         mapping.add(selectionSeven);
                         taskItems.add(new TaskItem(iconId[selectionSeven], taskTitles[selectionSeven]));
                     }
                     break;
                 case 7:
                     int selectionEight = Integer.parseInt(sharedPrefs.getString("prefQuickTaskEight", "8"));
-                    if (!(selectionEight >= numTasks)){
+                    if (!(selectionEight >= numTasks) && selectionEight != EMPTY_TASK){
                         mapping.add(selectionEight);
                         taskItems.add(new TaskItem(iconId[selectionEight], taskTitles[selectionEight]));
                     }
                     break;
                 case 8:
                     int selectionNine = Integer.parseInt(sharedPrefs.getString("prefQuickTaskNine", "9"));
-                    if (!(selectionNine >= numTasks)){
+                    if (!(selectionNine >= numTasks) && selectionNine != EMPTY_TASK){
                         mapping.add(selectionNine);
                         taskItems.add(new TaskItem(iconId[selectionNine], taskTitles[selectionNine]));
                     }
                     break;
                 case 9:
                     int selectionTen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskTen", "10"));
-                    if (!(selectionTen >= numTasks)){
+                    if (!(selectionTen >= numTasks) && selectionTen != EMPTY_TASK){
                         mapping.add(selectionTen);
                         taskItems.add(new TaskItem(iconId[selectionTen], taskTitles[selectionTen]));
                     }
                     break;
                 case 10:
                     int selectionEleven = Integer.parseInt(sharedPrefs.getString("prefQuickTaskEleven", "11"));
-                    if (!(selectionEleven >= numTasks)){
+                    if (!(selectionEleven >= numTasks) && selectionEleven != EMPTY_TASK){
                         mapping.add(selectionEleven);
                         taskItems.add(new TaskItem(iconId[selectionEleven], taskTitles[selectionEleven]));
                     }
                     break;
                 case 11:
                     int selectionTwelve = Integer.parseInt(sharedPrefs.getString("prefQuickTaskTwelve", "12"));
-                    if (!(selectionTwelve >= numTasks)){
+                    if (!(selectionTwelve >= numTasks) && selectionTwelve != EMPTY_TASK){
                         mapping.add(selectionTwelve);
                         taskItems.add(new TaskItem(iconId[selectionTwelve], taskTitles[selectionTwelve]));
                     }
                     break;
                 case 12:
                     int selectionThirteen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskThirteen", "13"));
-                    if (!(selectionThirteen >= numTasks)){
+                    if (!(selectionThirteen >= numTasks) && selectionThirteen != EMPTY_TASK){
                         mapping.add(selectionThirteen);
                         taskItems.add(new TaskItem(iconId[selectionThirteen], taskTitles[selectionThirteen]));
                     }
                     break;
                 case 13:
                     int selectionFourteen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskFourteen", "14"));
-                    if (!(selectionFourteen >= numTasks)){
+                    if (!(selectionFourteen >= numTasks) && selectionFourteen != EMPTY_TASK){
                         mapping.add(selectionFourteen);
                         taskItems.add(new TaskItem(iconId[selectionFourteen], taskTitles[selectionFourteen]));
                     }
                     break;
                 case 14:
                     int selectionFifteen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskFifteen", "15"));
-                    if (!(selectionFifteen >= numTasks)){
+                    if (!(selectionFifteen >= numTasks) && selectionFifteen != EMPTY_TASK){
                         mapping.add(selectionFifteen);
                         taskItems.add(new TaskItem(iconId[selectionFifteen], taskTitles[selectionFifteen]));
                     }
                     break;
                 case 15:
                     int selectionSixteen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskSixteen", "16"));
-                    if (!(selectionSixteen >= numTasks)){
+                    if (!(selectionSixteen >= numTasks) && selectionSixteen != EMPTY_TASK){
                         mapping.add(selectionSixteen);
                         taskItems.add(new TaskItem(iconId[selectionSixteen], taskTitles[selectionSixteen]));
                     }
                     break;
                 case 16:
                     int selectionSeventeen = Integer.parseInt(sharedPrefs.getString("prefQuickTaskSeventeen", "17"));
-                    if (!(selectionSeventeen >= numTasks)){
+                    if (!(selectionSeventeen >= numTasks) && selectionSeventeen != EMPTY_TASK){
                         mapping.add(selectionSeventeen);
                         taskItems.add(new TaskItem(iconId[selectionSeventeen], taskTitles[selectionSeventeen]));
                     }
@@ -860,6 +870,15 @@ public class TaskActivity extends AppCompatActivity implements OsmAndHelper.OnOs
                 }
                 break;
 
+            case 21:
+                // Save Black Box
+                if (FlightRecorder.dump()) {
+                    Toast.makeText(TaskActivity.this, R.string.toast_blackbox_saved, Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(TaskActivity.this, R.string.toast_blackbox_not_running, Toast.LENGTH_SHORT).show();
+                }
+                break;
+
             default:
                 break;
         }
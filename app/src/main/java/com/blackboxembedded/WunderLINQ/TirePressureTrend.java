@@ -0,0 +1,260 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.Utils.Utils;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+
+import java.util.Locale;
+
+/**
+ * Slow leak detection. Each tire keeps a moving average of its pressure,
+ * corrected to 20 C with the ambient temperature, and a linear regression of
+ * that pressure over time in which older samples fade out. Both are a few
+ * running sums updated in O(1), kept across rides, and a steady drop raises
+ * a fault long before the pressure reaches the critical warning.
+ *
+ * A tire warms up and gains pressure as soon as the bike moves, so only the
+ * first minutes of a ride after a long park feed the regression. Trends are
+ * then measured between cold tires, ride to ride.
+ */
+public class TirePressureTrend {
+
+    private static final String TAG = "TirePressureTrend";
+    private static final String PREFS_NAME = "tire_trend";
+
+    public static final int FRONT = 0;
+    public static final int REAR = 1;
+
+    private static final double ATMOSPHERE = 1.01325; // bar
+    private static final double KELVIN = 273.15;
+    private static final double REFERENCE_TEMPERATURE = 20.0 + KELVIN;
+    private static final double MILLIS_PER_HOUR = 3600000.0;
+    // Time constant of the moving average, hours
+    private static final double AVERAGE_TIME = 5 / 60.0;
+    // Parked this long the tires are back at the ambient temperature, hours
+    private static final double PARK_TIME = 3;
+    // Part of a ride after such a park the tires still count as cold, hours
+    private static final double COLD_TIME = 10 / 60.0;
+    // Samples added to the regression at most this often, hours
+    private static final double SAMPLE_INTERVAL = 2 / 60.0;
+    // Time constant samples fade out of the regression with, hours
+    private static final double REGRESSION_TIME = 72;
+    // Samples and spread of their times needed before a trend is trusted,
+    // both take more than one cold start
+    private static final double MIN_WEIGHT = 8;
+    private static final double MIN_SPREAD = 1; // hours
+    // Rise taken as the tire being inflated, starts a new trend
+    private static final double INFLATED = 0.15; // bar
+    // Drop rates raising and clearing the fault, bar per hour
+    private static final double WARN_RATE = -0.005;
+    private static final double CLEAR_RATE = -0.0025;
+
+    // Per tire state, all times in hours since the epoch
+    private static final double[] average = new double[2];
+    private static final double[] averageTime = new double[2];
+    private static final double[] sampleTime = new double[2];
+    // Start of the current ride when it followed a long park, not saved
+    private static final double[] coldTime = new double[2];
+    // Weighted sums of the regression
+    private static final double[] weight = new double[2];
+    private static final double[] sumT = new double[2];
+    private static final double[] sumP = new double[2];
+    private static final double[] sumTT = new double[2];
+    private static final double[] sumTP = new double[2];
+    // Times are taken relative to this to keep the sums precise
+    private static final double[] origin = new double[2];
+
+    private static final long[] FAULTS = {
+            FaultStatus.FRONT_TIRE_PRESSURE_DROPPING,
+            FaultStatus.REAR_TIRE_PRESSURE_DROPPING
+    };
+
+    private static SharedPreferences prefs;
+
+    /**
+     * Restore the trends of the previous rides. Called once from
+     * MyApplication.onCreate.
+     */
+    public static synchronized void load(Context context) {
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        for (int tire = FRONT; tire <= REAR; tire++) {
+            String state = prefs.getString(getKey(tire), null);
+            if (state == null) {
+                continue;
+            }
+            try {
+                String[] values = state.split(",");
+                average[tire] = Double.parseDouble(values[0]);
+                averageTime[tire] = Double.parseDouble(values[1]);
+                sampleTime[tire] = Double.parseDouble(values[2]);
+                weight[tire] = Double.parseDouble(values[3]);
+                sumT[tire] = Double.parseDouble(values[4]);
+                sumP[tire] = Double.parseDouble(values[5]);
+                sumTT[tire] = Double.parseDouble(values[6]);
+                sumTP[tire] = Double.parseDouble(values[7]);
+                origin[tire] = Double.parseDouble(values[8]);
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                Log.d(TAG, "Exception reading tire trend: " + e.toString());
+                reset(tire);
+            }
+        }
+    }
+
+    /**
+     * Add a pressure received from the bike.
+     * @param pressure gauge pressure in bar
+     */
+    public static void update(int tire, double pressure) {
+        update(tire, compensate(pressure), System.currentTimeMillis() / MILLIS_PER_HOUR);
+    }
+
+    // Add a temperature corrected pressure at now hours since the epoch
+    static synchronized void update(int tire, double value, double now) {
+        boolean parked = averageTime[tire] != 0 && now - averageTime[tire] >= PARK_TIME;
+        if (averageTime[tire] == 0 || now < averageTime[tire]) {
+            average[tire] = value;
+        } else {
+            double alpha = 1 - Math.exp((averageTime[tire] - now) / AVERAGE_TIME);
+            if (value - average[tire] > INFLATED) {
+                Log.d(TAG, "Tire " + tire + " inflated, starting new trend");
+                reset(tire);
+                average[tire] = value;
+            } else {
+                average[tire] += alpha * (value - average[tire]);
+            }
+        }
+        averageTime[tire] = now;
+        if (parked) {
+            coldTime[tire] = now;
+        }
+
+        if (coldTime[tire] == 0 || now - coldTime[tire] > COLD_TIME) {
+            // Tires warmed up since the ride started
+            return;
+        }
+        if (now - sampleTime[tire] < SAMPLE_INTERVAL && now >= sampleTime[tire]) {
+            return;
+        }
+        if (weight[tire] == 0) {
+            origin[tire] = now;
+        }
+        // Fade the older samples, then add the average as a new one
+        double t = now - origin[tire];
+        double fade = (weight[tire] == 0) ? 1 : Math.exp(-Math.max(now - sampleTime[tire], 0) / REGRESSION_TIME);
+        weight[tire] = weight[tire] * fade + 1;
+        sumT[tire] = sumT[tire] * fade + t;
+        sumP[tire] = sumP[tire] * fade + average[tire];
+        sumTT[tire] = sumTT[tire] * fade + t * t;
+        sumTP[tire] = sumTP[tire] * fade + t * average[tire];
+        sampleTime[tire] = now;
+        save(tire);
+
+        double rate = getRate(tire);
+        if (rate <= WARN_RATE) {
+            FaultStatus.set(FAULTS[tire], true);
+        } else if (Double.isNaN(rate) || rate > CLEAR_RATE) {
+            FaultStatus.set(FAULTS[tire], false);
+        }
+    }
+
+    /**
+     * @return change of the temperature corrected pressure in bar per hour,
+     * NaN until there are enough samples to tell
+     */
+    public static synchronized double getRate(int tire) {
+        double w = weight[tire];
+        if (w < MIN_WEIGHT) {
+            return Double.NaN;
+        }
+        double meanT = sumT[tire] / w;
+        double spread = sumTT[tire] / w - meanT * meanT;
+        if (spread < MIN_SPREAD * MIN_SPREAD) {
+            return Double.NaN;
+        }
+        return (sumTP[tire] / w - meanT * sumP[tire] / w) / spread;
+    }
+
+    // Rate of a tire in the pressure unit chosen in settings, e.g. "0.3 psi/hour"
+    public static String getRateText(Context context, int tire) {
+        double rate = getRate(tire);
+        if (Double.isNaN(rate)) {
+            return "";
+        }
+        rate = -rate;
+        String pressureUnit = "bar";
+        String pressureFormat = PreferenceManager.getDefaultSharedPreferences(context).getString("prefPressureF", "0");
+        if (pressureFormat.contains("1")) {
+            // KPa
+            rate = Utils.barTokPa(rate);
+            pressureUnit = "KPa";
+        } else if (pressureFormat.contains("2")) {
+            // Kg-f
+            rate = Utils.barTokgf(rate);
+            pressureUnit = "Kg-f";
+        } else if (pressureFormat.contains("3")) {
+            // Psi
+            rate = Utils.barToPsi(rate);
+            pressureUnit = "psi";
+        }
+        return context.getString(R.string.tire_trend_rate, String.format(Locale.getDefault(), "%.2f", rate), pressureUnit);
+    }
+
+    // Forget the trend of a tire, e.g. after it was inflated
+    public static synchronized void reset(int tire) {
+        average[tire] = 0;
+        averageTime[tire] = 0;
+        sampleTime[tire] = 0;
+        coldTime[tire] = 0;
+        weight[tire] = 0;
+        sumT[tire] = 0;
+        sumP[tire] = 0;
+        sumTT[tire] = 0;
+        sumTP[tire] = 0;
+        origin[tire] = 0;
+        FaultStatus.set(FAULTS[tire], false);
+    }
+
+    // Gauge pressure the tire would have at the reference temperature
+    private static double compensate(double pressure) {
+        Double ambient = Data.getAmbientTemperature();
+        if (ambient == null) {
+            return pressure;
+        }
+        return (pressure + ATMOSPHERE) * REFERENCE_TEMPERATURE / (ambient + KELVIN) - ATMOSPHERE;
+    }
+
+    private static void save(int tire) {
+        if (prefs == null) {
+            return;
+        }
+        String state = average[tire] + "," + averageTime[tire] + "," + sampleTime[tire] + ","
+                + weight[tire] + "," + sumT[tire] + "," + sumP[tire] + ","
+                + sumTT[tire] + "," + sumTP[tire] + "," + origin[tire];
+        prefs.edit().putString(getKey(tire), state).apply();
+    }
+
+    private static String getKey(int tire) {
+        return (tire == FRONT) ? "front" : "rear";
+    }
+}
@@ -18,31 +18,76 @@ along with this program.  If not, see <https://www.gnu.org/licenses/>.
 package com.blackboxembedded.WunderLINQ;
 
 import android.app.Activity;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
+import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.core.widget.ImageViewCompat;
+
+import com.blackboxembedded.WunderLINQ.trips.TripLog;
+import com.blackboxembedded.WunderLINQ.trips.TripThumbnailLoader;
+
+import java.io.File;
 import java.util.List;
 
 public class TripListView extends ArrayAdapter {
     private final Activity context;
     private final List<String> tripList;
+    private final TripThumbnailLoader thumbnailLoader;
+    private final File root;
+    private final ColorStateList placeholderTint;
+
+    private static class ViewHolder {
+        TextView txtTitle;
+        ImageView imgThumbnail;
+    }
+
+    private final TripThumbnailLoader.Callback thumbnailCallback = new TripThumbnailLoader.Callback() {
+        @Override
+        public void onThumbnail(ImageView view, Bitmap bitmap) {
+            if (bitmap != null) {
+                ImageViewCompat.setImageTintList(view, null);
+                view.setImageBitmap(bitmap);
+            } else {
+                ImageViewCompat.setImageTintList(view, placeholderTint);
+                view.setImageResource(R.drawable.ic_route);
+            }
+        }
+    };
+
     public TripListView(Activity context,
                         List<String> tripList) {
         super(context, R.layout.item_trip, tripList);
         this.context = context;
         this.tripList = tripList;
-
+        this.thumbnailLoader = TripThumbnailLoader.getInstance(context);
+        this.root = TripLog.getLogDirectory();
+        TypedArray a = context.getTheme().obtainStyledAttributes(new int[] {R.attr.iconTintColor});
+        this.placeholderTint = a.getColorStateList(0);
+        a.recycle();
     }
     @Override
     public View getView(int position, View view, ViewGroup parent) {
-        LayoutInflater inflater = context.getLayoutInflater();
-        View rowView= inflater.inflate(R.layout.item_trip, null, true);
-        TextView txtTitle = rowView.findViewById(R.id.tv_label);
+        ViewHolder holder;
+        if (view == null) {
+            LayoutInflater inflater = context.getLayoutInflater();
+            view = inflater.inflate(R.layout.item_trip, parent, false);
+            holder = new ViewHolder();
+            holder.txtTitle = view.findViewById(R.id.tv_label);
+            holder.imgThumbnail = view.findViewById(R.id.iv_thumbnail);
+            view.setTag(holder);
+        } else {
+            holder = (ViewHolder) view.getTag();
+        }
 
-        txtTitle.setText(tripList.get(position));
-        return rowView;
+        holder.txtTitle.setText(tripList.get(position));
+        thumbnailLoader.load(new File(root, tripList.get(position)), holder.imgThumbnail, thumbnailCallback);
+        return view;
     }
 }
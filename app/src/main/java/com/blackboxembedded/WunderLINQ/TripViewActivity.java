@@ -17,11 +17,11 @@ along with this program.  If not, see <https://www.gnu.org/licenses/>.
 */
 package com.blackboxembedded.WunderLINQ;
 
+import android.content.ActivityNotFoundException;
 import android.content.Context;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.graphics.Color;
-import android.location.Location;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Environment;
@@ -36,7 +36,9 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.ImageButton;
 import android.widget.PopupMenu;
+import android.widget.SeekBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AlertDialog;
@@ -46,6 +48,26 @@ import androidx.fragment.app.FragmentManager;
 
 import com.blackboxembedded.WunderLINQ.Utils.AppUtils;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
+import com.blackboxembedded.WunderLINQ.trips.CsvExportSink;
+import com.blackboxembedded.WunderLINQ.trips.GeoJsonExportSink;
+import com.blackboxembedded.WunderLINQ.trips.GpxExportSink;
+import com.blackboxembedded.WunderLINQ.trips.HeatmapDatasource;
+import com.blackboxembedded.WunderLINQ.trips.HeatmapTileProvider;
+import com.blackboxembedded.WunderLINQ.trips.KmlExportSink;
+import com.blackboxembedded.WunderLINQ.trips.TripCorner;
+import com.blackboxembedded.WunderLINQ.trips.TripDatasource;
+import com.blackboxembedded.WunderLINQ.trips.TripEditor;
+import com.blackboxembedded.WunderLINQ.trips.TripExportSink;
+import com.blackboxembedded.WunderLINQ.trips.TripExporter;
+import com.blackboxembedded.WunderLINQ.trips.TripHistograms;
+import com.blackboxembedded.WunderLINQ.trips.TripLog;
+import com.blackboxembedded.WunderLINQ.trips.TripLogReader;
+import com.blackboxembedded.WunderLINQ.trips.TripLogRecord;
+import com.blackboxembedded.WunderLINQ.trips.TripMedia;
+import com.blackboxembedded.WunderLINQ.trips.TripMediaDatasource;
+import com.blackboxembedded.WunderLINQ.trips.TripSegment;
+import com.blackboxembedded.WunderLINQ.trips.TripSummary;
+import com.blackboxembedded.WunderLINQ.trips.TripThumbnailLoader;
 import com.google.android.gms.maps.CameraUpdate;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
@@ -54,30 +76,25 @@ import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.maps.model.PolylineOptions;
+import com.google.android.gms.maps.model.TileOverlay;
+import com.google.android.gms.maps.model.TileOverlayOptions;
 import com.google.android.gms.maps.MapsInitializer;
 import com.google.android.gms.maps.MapsInitializer.Renderer;
 import com.google.android.gms.maps.OnMapsSdkInitializedCallback;
 
-import com.opencsv.CSVReader;
-
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.DateFormat;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-
-import io.jenetics.jpx.GPX;
-import io.jenetics.jpx.TrackSegment;
-import io.jenetics.jpx.WayPoint;
+import java.util.Locale;
 
 public class TripViewActivity extends AppCompatActivity implements OnMapReadyCallback, OnMapsSdkInitializedCallback {
 
@@ -90,8 +107,10 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
     private String fileName;
     private File file;
     private int index;
-    private LatLng lastLocation;
-    private double totalDistance = 0.0;
+    private TripDatasource datasource;
+    private GoogleMap googleMap;
+    private TileOverlay heatmapOverlay;
+    private List<TripMedia> media = new ArrayList<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -109,6 +128,7 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
         TextView tvBrakes = findViewById(R.id.tvBrakes);
         TextView tvAmbient = findViewById(R.id.tvAmbient);
         TextView tvEngine = findViewById(R.id.tvEngine);
+        TextView tvMoving = findViewById(R.id.tvMoving);
 
         etLabel.setOnEditorActionListener(new TextView.OnEditorActionListener() {
 
@@ -119,9 +139,15 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
                     imm.hideSoftInputFromWindow(v.getWindowToken(), 0);
                     // Update File Name
                     if (file != null){
-                        File newFileName = new File(TripViewActivity.this.getExternalFilesDir(null), "/logs/" + etLabel.getText().toString() + ".csv");
+                        // Keep ".csv.gz" on compressed logs
+                        int dot = file.getName().indexOf('.');
+                        String extension = (dot >= 0) ? file.getName().substring(dot) : TripLog.FILE_EXTENSION;
+                        File newFileName = new File(TripViewActivity.this.getExternalFilesDir(null), "/logs/" + etLabel.getText().toString() + extension);
                         if (file.renameTo(newFileName)) {
                             Log.d(TAG,"File renamed successfully");
+                            if (datasource != null) {
+                                datasource.renameTrip(file.getName(), newFileName.getName());
+                            }
                             file = newFileName;
                         } else {
                             Log.d(TAG,"Failed to rename file");
@@ -141,6 +167,8 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
             index = tripFileList.indexOf(fileName);
             file = new File(this.getExternalFilesDir(null), "/logs/" + fileName);
             etLabel.setText(fileName.split("\\.")[0]);
+            // Segments are still being appended to a trip that is recording
+            etLabel.setEnabled(!TripLog.isActive(file));
             View view = findViewById(R.id.layout_trip_view);
             view.setOnTouchListener(new OnSwipeTouchListener(this) {
                 @Override
@@ -161,197 +189,81 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
                 }
             });
 
-            routePoints = new ArrayList<>();
-            List<Double> speeds = new ArrayList<>();
-            Double maxSpeed = null;
-            Double maxLean = null;
-            List<Double> ambientTemps = new ArrayList<>();
-            Double minAmbientTemp = null;
-            Double maxAmbientTemp = null;
-            List<Double> engineTemps = new ArrayList<>();
-            Double minEngineTemp = null;
-            Double maxEngineTemp = null;
-            DateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
-            Date startTime = null;
-            Date endTime = null;
-            Double startOdometer = null;
-            Double endOdometer = null;
-            Integer endShiftCnt = null;
-            Integer endFrontBrakeCnt = null;
-            Integer endRearBrakeCnt = null;
-
-            String distanceUnit = "km";
-            String temperatureUnit = "C";
-            String speedUnit = "kmh";
-
-            try {
-                CSVReader reader = new CSVReader(new FileReader(file));
-                List<String[]> myEntries = reader.readAll();
-                int lineNumber = 0;
-                for(String[] nextLine : myEntries) {
-                    if (lineNumber == 0){
-                        distanceUnit = nextLine[10].substring(nextLine[10].indexOf("(") + 1, nextLine[10].indexOf(")"));
-                        temperatureUnit = nextLine[6].substring(nextLine[6].indexOf("(") + 1, nextLine[6].indexOf(")"));
-                        speedUnit = nextLine[4].substring(nextLine[4].indexOf("(") + 1, nextLine[4].indexOf(")"));
-                    } else {
-                        try {
-                            if (lineNumber == 1) {
-                                startTime = df.parse(nextLine[0]);
-                            } else {
-                                endTime = df.parse(nextLine[0]);
-                            }
-                        } catch (ParseException e){
-                            e.printStackTrace();
-                        }
-                        if((lineNumber > 1) && (!nextLine[1].equals("No Fix") && (!nextLine[2].equals("No Fix")))) {
-                            LatLng location = new LatLng(Double.parseDouble(nextLine[1]), Double.parseDouble(nextLine[2]));
-                            if(lastLocation == null){
-                                lastLocation = new LatLng(Double.parseDouble(nextLine[1]), Double.parseDouble(nextLine[2]));
-                            } else {
-                                float[] results = new float[1];
-                                Location.distanceBetween(lastLocation.latitude, lastLocation.longitude,
-                                        location.latitude, location.longitude, results);
-
-                                // Update total distance
-                                totalDistance += results[0];
-                            }
-
-                            routePoints.add(location);
-                            speeds.add(Double.parseDouble(nextLine[4]));
-                            if (maxSpeed == null || maxSpeed < Double.parseDouble(nextLine[4])){
-                                maxSpeed = Double.parseDouble(nextLine[4]);
-                            }
-                        }
-                        if (lineNumber > 1) {
-                            if (!nextLine[6].equals("null")){
-                                engineTemps.add(Double.parseDouble(nextLine[6]));
-                                if (maxEngineTemp == null || maxEngineTemp < Double.parseDouble(nextLine[6])){
-                                    maxEngineTemp = Double.parseDouble(nextLine[6]);
-                                }
-                                if (minEngineTemp == null || minEngineTemp > Double.parseDouble(nextLine[6])){
-                                    minEngineTemp = Double.parseDouble(nextLine[6]);
-                                }
-                            }
-                            if (!nextLine[7].equals("null")){
-                                ambientTemps.add(Double.parseDouble(nextLine[7]));
-                                if (maxAmbientTemp == null || maxAmbientTemp < Double.parseDouble(nextLine[7])){
-                                    maxAmbientTemp = Double.parseDouble(nextLine[7]);
-                                }
-                                if (minAmbientTemp == null || minAmbientTemp > Double.parseDouble(nextLine[7])){
-                                    minAmbientTemp = Double.parseDouble(nextLine[7]);
-                                }
-                            }
-                            if (!nextLine[10].equals("null")){
-                                if (endOdometer == null || endOdometer < Double.parseDouble(nextLine[10])){
-                                    endOdometer = Double.parseDouble(nextLine[10]);
-                                }
-                                if (startOdometer == null || startOdometer > Double.parseDouble(nextLine[10])){
-                                    startOdometer = Double.parseDouble(nextLine[10]);
-                                }
-                            }
-                            if (!nextLine[13].equals("null")){
-                                if (endFrontBrakeCnt == null || endFrontBrakeCnt < Double.parseDouble(nextLine[13])){
-                                    endFrontBrakeCnt = Integer.parseInt(nextLine[13]);
-                                }
-                            }
-                            if (!nextLine[14].equals("null")){
-                                if (endRearBrakeCnt == null || endRearBrakeCnt < Double.parseDouble(nextLine[14])){
-                                    endRearBrakeCnt = Integer.parseInt(nextLine[14]);
-                                }
-                            }
-                            if (!nextLine[15].equals("null")){
-                                if (endShiftCnt == null || endShiftCnt < Double.parseDouble(nextLine[15])){
-                                    endShiftCnt = Integer.parseInt(nextLine[15]);
-                                }
-                            }
-                            if (!nextLine[32].equals("null")){
-                                if (maxLean == null) {
-                                    maxLean = Math.abs(Double.parseDouble(nextLine[32]));
-                                } else if (maxLean < Math.abs(Double.parseDouble(nextLine[32]))){
-                                    maxLean = Math.abs(Double.parseDouble(nextLine[32]));
-                                }
-                            } else if (!nextLine[27].equals("null")){
-                                if (maxLean == null) {
-                                    maxLean = Math.abs(Double.parseDouble(nextLine[27]));
-                                } else if (maxLean < Math.abs(Double.parseDouble(nextLine[27]))){
-                                    maxLean = Math.abs(Double.parseDouble(nextLine[27]));
-                                }
-                            }
-                        }
-                        tvDate.setText(nextLine[0]);
-                    }
-                    lineNumber = lineNumber + 1;
+            datasource = new TripDatasource(this);
+            final TripSummary summary = datasource.getSummary(file);
+            if (summary != null) {
+                // Photos and videos taken during the trip
+                if (summary.startTime >= 0 && summary.endTime >= 0) {
+                    TripMediaDatasource mediaDatasource = new TripMediaDatasource(this);
+                    media = mediaDatasource.getMedia(summary.startTime, summary.endTime);
+                    mediaDatasource.close();
                 }
-
-                if (speeds.size() > 0){
-                    double avgSpeed = 0.0;
-                    for (double speed : speeds) {
-                        avgSpeed = avgSpeed + speed;
-                    }
-                    avgSpeed = avgSpeed / speeds.size();
-                    tvSpeed.setText(Utils.oneDigit.format(avgSpeed) + "/" + Utils.oneDigit.format(maxSpeed) + " (" + speedUnit + ")");
+                DateFormat df = new SimpleDateFormat(TripLog.DATE_FORMAT);
+                if (summary.endTime >= 0) {
+                    tvDate.setText(df.format(new Date(summary.endTime)));
                 }
-
-                if (maxLean != null){
-                    tvLean.setText(Utils.oneDigit.format(maxLean));
+                if (summary.speedCount > 0){
+                    tvSpeed.setText(Utils.oneDigit.format(summary.getAvgSpeed()) + "/" + Utils.oneDigit.format(summary.maxSpeed) + " (" + summary.speedUnit + ")");
                 }
-
-                if(endShiftCnt != null){
-                    tvGearShifts.setText(Integer.toString(endShiftCnt));
+                if (!Double.isNaN(summary.maxLean)){
+                    tvLean.setText(Utils.oneDigit.format(summary.maxLean));
                 }
+                tvGearShifts.setText(Integer.toString(summary.shifts));
+                tvBrakes.setText(summary.frontBrakes + "/" + summary.rearBrakes);
 
-                String frontBrakeText = "0";
-                String rearBrakeText = "0";
-                if(endFrontBrakeCnt != null){
-                    frontBrakeText = Integer.toString(endFrontBrakeCnt);
-                }
-                if(endRearBrakeCnt != null){
-                    rearBrakeText = Integer.toString(endRearBrakeCnt);
-                }
-                tvBrakes.setText(frontBrakeText + "/" + rearBrakeText);
+                double minEngineTemp = Double.isNaN(summary.minEngineTemp) ? 0.0 : summary.minEngineTemp;
+                double maxEngineTemp = Double.isNaN(summary.maxEngineTemp) ? 0.0 : summary.maxEngineTemp;
+                tvEngine.setText(Utils.oneDigit.format(minEngineTemp) + "/" + Utils.oneDigit.format(summary.getAvgEngineTemp()) + "/" + Utils.oneDigit.format(maxEngineTemp) + " (" + summary.temperatureUnit + ")");
 
-                double avgEngineTemp = 0.0;
-                if (engineTemps.size() > 0) {
-                    for (double engineTemp : engineTemps) {
-                        avgEngineTemp = avgEngineTemp + engineTemp;
-                    }
-                    avgEngineTemp = avgEngineTemp / ambientTemps.size();
-                }
-                if(minEngineTemp == null || maxEngineTemp == null){
-                    minEngineTemp = 0.0;
-                    maxEngineTemp = 0.0;
+                double minAmbientTemp = Double.isNaN(summary.minAmbientTemp) ? 0.0 : summary.minAmbientTemp;
+                double maxAmbientTemp = Double.isNaN(summary.maxAmbientTemp) ? 0.0 : summary.maxAmbientTemp;
+                tvAmbient.setText(Utils.oneDigit.format(minAmbientTemp) + "/" + Utils.oneDigit.format(summary.getAvgAmbientTemp()) + "/" + Utils.oneDigit.format(maxAmbientTemp) + " (" + summary.temperatureUnit + ")");
+
+                tvDistance.setText(Utils.oneDigit.format(summary.getDistance()) + " " + summary.distanceUnit);
+
+                // Calculate Duration
+                if (summary.startTime >= 0 && summary.endTime >= 0) {
+                    long[] duration = Utils.calculateDuration(new Date(summary.startTime), new Date(summary.endTime));
+                    tvDuration.setText( String.valueOf(duration[2]) + " " + getString(R.string.hours) + ", " + String.valueOf(duration[1]) + " " + getString(R.string.minutes) + ", " + String.valueOf(duration[0]) + " " + getString(R.string.seconds));
                 }
-                tvEngine.setText(Utils.oneDigit.format(minEngineTemp) + "/" + Utils.oneDigit.format(avgEngineTemp) + "/" + Utils.oneDigit.format(maxEngineTemp) + " (" + temperatureUnit + ")");
 
-                double avgAmbientTemp = 0.0;
-                if (ambientTemps.size() > 0) {
-                    for (double ambientTemp : ambientTemps) {
-                        avgAmbientTemp = avgAmbientTemp + ambientTemp;
+                // Moving vs stopped, segments computed while logging
+                tvMoving.setText(formatDuration(summary.getTime(true)) + "/" + formatDuration(summary.getTime(false)));
+                findViewById(R.id.llMoving).setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                        showSegmentsDialog(summary);
                     }
-                    avgAmbientTemp = avgAmbientTemp / ambientTemps.size();
-                }
-                if(minAmbientTemp == null || maxAmbientTemp == null){
-                    minAmbientTemp = 0.0;
-                    maxAmbientTemp = 0.0;
-                }
-                tvAmbient.setText(Utils.oneDigit.format(minAmbientTemp) + "/" + Utils.oneDigit.format(avgAmbientTemp) + "/" + Utils.oneDigit.format(maxAmbientTemp) + " (" + temperatureUnit + ")");
+                });
+            }
 
-                // Calculate Distance
-                double distance = 0;
-                if (endOdometer != null && startOdometer != null) {
-                    distance = endOdometer - startOdometer;
-                }
-                if (distance == 0 && totalDistance != 0.0){
-                    distance = totalDistance / 1000.0;
+            // Corners, detected once and kept in the trip index
+            final File tripFile = file;
+            final boolean imperial = summary != null && summary.distanceUnit.equals("mi");
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final List<TripCorner> corners = datasource.getCorners(tripFile);
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (corners != null && !isFinishing()) {
+                                showCorners(corners, imperial);
+                            }
+                        }
+                    });
                 }
-                tvDistance.setText(Utils.oneDigit.format(distance) + " " + distanceUnit);
+            }).start();
 
-                // Calculate Duration
-                if (startTime != null && endTime != null) {
-                    long[] duration = Utils.calculateDuration(startTime, endTime);
-                    tvDuration.setText( String.valueOf(duration[2]) + " " + getString(R.string.hours) + ", " + String.valueOf(duration[1]) + " " + getString(R.string.minutes) + ", " + String.valueOf(duration[0]) + " " + getString(R.string.seconds));
+            // Route
+            routePoints = new ArrayList<>();
+            try (TripLogReader reader = new TripLogReader(file)) {
+                TripLogRecord record;
+                while ((record = reader.next()) != null) {
+                    if (record.hasFix) {
+                        routePoints.add(new LatLng(record.latitude, record.longitude));
+                    }
                 }
-
             } catch (IOException e){
                 Log.d(TAG,"Exception reading CSV: " + e.toString());
             }
@@ -390,6 +302,7 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
 
     @Override
     public void onMapReady(final GoogleMap map) {
+        googleMap = map;
         map.setMapType(GoogleMap.MAP_TYPE_HYBRID);
         map.setTrafficEnabled(false);
         map.setIndoorEnabled(true);
@@ -403,6 +316,26 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
         map.addMarker(new MarkerOptions().position(endLocation)
                 .title(getString(R.string.trip_view_waypoint_end_label))
                 .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED)));
+        SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss");
+        for (TripMedia item : media) {
+            if (item.hasLocation()) {
+                String time = formatter.format(new Date(item.captureTime));
+                Marker marker = map.addMarker(new MarkerOptions().position(new LatLng(item.latitude, item.longitude))
+                        .title(getString(item.type == TripMedia.TYPE_VIDEO ? R.string.trip_view_media_video : R.string.trip_view_media_photo, time))
+                        .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_VIOLET)));
+                if (marker != null) {
+                    marker.setTag(item);
+                }
+            }
+        }
+        map.setOnInfoWindowClickListener(new GoogleMap.OnInfoWindowClickListener() {
+            @Override
+            public void onInfoWindowClick(Marker marker) {
+                if (marker.getTag() instanceof TripMedia) {
+                    openMedia((TripMedia) marker.getTag());
+                }
+            }
+        });
         map.addPolyline(new PolylineOptions()
                 .width(10)
                 .color(Color.RED)
@@ -454,12 +387,30 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
                 switch(item.getItemId()) {
                     case R.id.action_share_original:
                         Uri uri = FileProvider.getUriForFile(TripViewActivity.this, "com.blackboxembedded.wunderlinq.fileprovider", file);
-                        share("text/csv", uri);
+                        share(TripLog.getMimeType(file), uri);
                         break;
                     case R.id.action_share_gpx:
                         exportGPX();
                         break;
+                    case R.id.action_export:
+                        showExportDialog();
+                        break;
+                    case R.id.action_edit:
+                        if (isRecording()) {
+                            break;
+                        }
+                        showEditDialog();
+                        break;
+                    case R.id.action_stats:
+                        showStatsDialog();
+                        break;
+                    case R.id.action_heatmap:
+                        toggleHeatmap();
+                        break;
                     case R.id.action_delete:
+                        if (isRecording()) {
+                            break;
+                        }
                         delete();
                         break;
                 }
@@ -468,6 +419,15 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
         });
     }
 
+    // The trip being recorded can't be changed until its log is closed
+    private boolean isRecording() {
+        if (file != null && TripLog.isActive(file)) {
+            Toast.makeText(this, R.string.trip_view_active, Toast.LENGTH_LONG).show();
+            return true;
+        }
+        return false;
+    }
+
     // Delete file
     public void delete() {
         // Display dialog text here......
@@ -479,7 +439,9 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
 
                     @Override
                     public void onClick(DialogInterface dialog, int which) {
+                        TripThumbnailLoader.getInstance(TripViewActivity.this).remove(file);
                         file.delete();
+                        datasource.removeTrip(file.getName());
                         Intent backIntent = new Intent(TripViewActivity.this, TripsActivity.class);
                         startActivity(backIntent);
                     }
@@ -498,52 +460,429 @@ public class TripViewActivity extends AppCompatActivity implements OnMapReadyCal
         startActivity(Intent.createChooser(sharingIntent, getString(R.string.trip_view_share_label)));
     }
 
-    // Export GPX button press
-    public void exportGPX() {
-        try {
-            File root = new File(MyApplication.getContext().getCacheDir(), "/tmp/");
-            if(!root.exists()){
-                if(!root.mkdirs()){
-                    Log.d(TAG,"Unable to create directory: " + root);
+    // Per segment stats
+    private void showSegmentsDialog(TripSummary summary) {
+        List<TripSegment> segments = summary.getSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        boolean imperial = summary.distanceUnit.equals("mi");
+        String speedUnit = imperial ? "mph" : "kmh";
+        SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss");
+        String[] items = new String[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            TripSegment segment = segments.get(i);
+            String start = formatter.format(new Date(segment.startTime));
+            if (segment.moving) {
+                double distance = segment.distance / 1000.0;
+                double avgSpeed = segment.getAvgSpeed();
+                double maxSpeed = segment.maxSpeed;
+                if (imperial) {
+                    distance = Utils.kmToMiles(distance);
+                    avgSpeed = Utils.kmToMiles(avgSpeed);
+                    maxSpeed = Utils.kmToMiles(maxSpeed);
                 }
+                items[i] = getString(R.string.trip_view_segment_moving, start, formatDuration(segment.getDuration()),
+                        Utils.oneDigit.format(distance), summary.distanceUnit,
+                        Utils.oneDigit.format(avgSpeed), Utils.oneDigit.format(maxSpeed), speedUnit);
+            } else {
+                items[i] = getString(R.string.trip_view_segment_stopped, start, formatDuration(segment.getDuration()));
+            }
+        }
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_segments_title));
+        builder.setItems(items, null);
+        builder.setPositiveButton(android.R.string.ok, null);
+        builder.show();
+    }
+
+    private void showCorners(final List<TripCorner> corners, final boolean imperial) {
+        int left = 0;
+        int right = 0;
+        for (TripCorner corner : corners) {
+            if (corner.right) {
+                right++;
+            } else {
+                left++;
+            }
+        }
+        TextView tvCorners = findViewById(R.id.tvCorners);
+        tvCorners.setText(left + "/" + right);
+        findViewById(R.id.llCorners).setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showCornersDialog(corners, imperial);
+            }
+        });
+    }
+
+    // Per corner lean and speeds, picking one moves the map to its apex
+    private void showCornersDialog(final List<TripCorner> corners, boolean imperial) {
+        if (corners.isEmpty()) {
+            return;
+        }
+        String speedUnit = imperial ? "mph" : "kmh";
+        SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss");
+        String[] items = new String[corners.size()];
+        for (int i = 0; i < corners.size(); i++) {
+            TripCorner corner = corners.get(i);
+            double entrySpeed = imperial ? Utils.kmToMiles(corner.entrySpeed) : corner.entrySpeed;
+            double exitSpeed = imperial ? Utils.kmToMiles(corner.exitSpeed) : corner.exitSpeed;
+            items[i] = getString(corner.right ? R.string.trip_view_corner_right : R.string.trip_view_corner_left,
+                    formatter.format(new Date(corner.startTime)), Utils.oneDigit.format(corner.peakLean),
+                    Utils.oneDigit.format(corner.getDuration() / 1000.0),
+                    Double.isNaN(entrySpeed) ? "-" : Utils.oneDigit.format(entrySpeed),
+                    Double.isNaN(exitSpeed) ? "-" : Utils.oneDigit.format(exitSpeed), speedUnit);
+        }
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_corners_title));
+        builder.setItems(items, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                TripCorner corner = corners.get(which);
+                if (googleMap != null && corner.hasApex()) {
+                    googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(
+                            new LatLng(corner.apexLatitude, corner.apexLongitude), 17));
+                }
+            }
+        });
+        builder.setPositiveButton(android.R.string.ok, null);
+        builder.show();
+    }
+
+    private void openMedia(TripMedia item) {
+        Uri uri = FileProvider.getUriForFile(this, "com.blackboxembedded.wunderlinq.fileprovider", item.file);
+        Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.setDataAndType(uri, item.getMimeType());
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        try {
+            startActivity(intent);
+        } catch (ActivityNotFoundException e) {
+            Log.d(TAG, "No viewer for " + item.file.getName() + ": " + e.toString());
+        }
+    }
+
+    // Where all trips went, counts of new trips are added first
+    private void toggleHeatmap() {
+        if (googleMap == null) {
+            return;
+        }
+        if (heatmapOverlay != null) {
+            heatmapOverlay.remove();
+            heatmapOverlay = null;
+            return;
+        }
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final HeatmapDatasource heatmap = new HeatmapDatasource(TripViewActivity.this);
+                heatmap.update();
+                final HeatmapTileProvider tileProvider = new HeatmapTileProvider(heatmap);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (heatmapOverlay == null && !isFinishing()) {
+                            heatmapOverlay = googleMap.addTileOverlay(new TileOverlayOptions()
+                                    .tileProvider(tileProvider)
+                                    .zIndex(0));
+                        }
+                    }
+                });
+            }
+        }).start();
+    }
+
+    // Histograms of this trip, with a switch to all trips
+    private void showStatsDialog() {
+        if (datasource == null) {
+            return;
+        }
+        TripSummary summary = datasource.getSummary(file);
+        if (summary == null) {
+            return;
+        }
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_stats_title));
+        builder.setMessage(formatHistograms(summary.histograms));
+        builder.setPositiveButton(android.R.string.ok, null);
+        builder.setNeutralButton(R.string.trip_view_stats_all, new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which) {
+                final AlertDialog.Builder allBuilder = new AlertDialog.Builder(TripViewActivity.this);
+                allBuilder.setTitle(getString(R.string.trip_view_stats_all));
+                allBuilder.setMessage(formatHistograms(datasource.getAllTimeHistograms()));
+                allBuilder.setPositiveButton(android.R.string.ok, null);
+                allBuilder.show();
+            }
+        });
+        builder.show();
+    }
+
+    private String formatHistograms(TripHistograms histograms) {
+        StringBuilder text = new StringBuilder();
+        long total = histograms.getGearTime();
+        String[] gears = {"N", "1", "2", "3", "4", "5", "6", "-"};
+        for (int i = 0; i < TripHistograms.GEAR_BUCKETS; i++) {
+            long time = histograms.gear[i];
+            if (time == 0) {
+                continue;
+            }
+            String share = Long.toString(Math.round(time * 100.0 / total));
+            double rpm = histograms.getAvgRpm(i);
+            if (Double.isNaN(rpm)) {
+                text.append(getString(R.string.trip_view_stats_gear, gears[i], formatDuration(time), share));
+            } else {
+                text.append(getString(R.string.trip_view_stats_gear_rpm, gears[i], formatDuration(time), share,
+                        Long.toString(Math.round(rpm / 100.0) * 100)));
             }
-            if(root.canWrite()){
-                File gpxFile = new File( root, fileName + ".gpx" );
-                if (gpxFile.exists())
-                    gpxFile.delete();
-                while(!gpxFile.exists())
-                    gpxFile.createNewFile();
-                FileOutputStream gpxOutStream = new FileOutputStream(gpxFile);
-
-                CSVReader reader = new CSVReader(new FileReader(file));
-                TrackSegment.Builder segment = TrackSegment.builder();
-
-                List<String[]> myEntries = reader.readAll();
-                int lineNumber = 0;
-                for (String[] nextLine : myEntries) {
-                    if ((lineNumber > 1) && (!nextLine[1].equals("No Fix") && (!nextLine[2].equals("No Fix")))) {
-                        Date date = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS").parse(nextLine[0]);
-                        double lat = Double.parseDouble(nextLine[1]);
-                        double lon = Double.parseDouble(nextLine[1]);
-                        double elevation = Double.parseDouble(nextLine[3]);
-                        double speed = Double.parseDouble(nextLine[4]);
-                        final WayPoint point = WayPoint.builder()
-                                .lat(lat).lon(lon).time(date.getTime()).ele(elevation).speed(speed)
-                                .build();
-                        segment.addPoint(point);
+            text.append("\n");
+        }
+        double avgThrottle = histograms.getAvgThrottle();
+        if (!Double.isNaN(avgThrottle)) {
+            text.append(getString(R.string.trip_view_stats_throttle, Long.toString(Math.round(avgThrottle)),
+                    Long.toString(Math.round(histograms.getThrottleShare(80) * 100.0)))).append("\n");
+        }
+        double leanShare = histograms.getLeanShare(30);
+        if (!Double.isNaN(leanShare)) {
+            text.append(getString(R.string.trip_view_stats_lean, Utils.oneDigit.format(leanShare * 100.0))).append("\n");
+        }
+        if (text.length() == 0) {
+            return getString(R.string.trip_view_stats_empty);
+        }
+        return text.toString().trim();
+    }
+
+    // h:mm:ss
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        return String.format(Locale.US, "%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    // Edit button press
+    public void showEditDialog() {
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_edit_title));
+        builder.setItems(R.array.trip_edit_actions,
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        switch (which) {
+                            case 0:
+                                showRangeDialog(false);
+                                break;
+                            case 1:
+                                showRangeDialog(true);
+                                break;
+                            case 2:
+                                // List is newest first, the next trip is the one before
+                                if (index > 0) {
+                                    final File next = new File(TripLog.getLogDirectory(), tripFileList.get(index - 1).toString());
+                                    edit(new EditOperation() {
+                                        @Override
+                                        public File run(TripEditor editor) throws IOException {
+                                            return editor.merge(file, next);
+                                        }
+                                    });
+                                }
+                                break;
+                        }
                     }
-                    lineNumber = lineNumber +1;
+                });
+        builder.setNegativeButton(R.string.cancel_bt,null);
+        builder.show();
+    }
+
+    // Pick a time range to keep, or a split point, with second resolution
+    private void showRangeDialog(final boolean split) {
+        final TripSummary summary = datasource.getSummary(file);
+        if (summary == null || summary.startTime < 0 || summary.endTime <= summary.startTime) {
+            return;
+        }
+        final int duration = (int) ((summary.endTime - summary.startTime) / 1000);
+        final SimpleDateFormat formatter = new SimpleDateFormat("HH:mm:ss");
+        View view = getLayoutInflater().inflate(R.layout.dialog_trip_edit, null);
+        final TextView tvStart = view.findViewById(R.id.tvEditStart);
+        final TextView tvEnd = view.findViewById(R.id.tvEditEnd);
+        final SeekBar sbStart = view.findViewById(R.id.sbEditStart);
+        final SeekBar sbEnd = view.findViewById(R.id.sbEditEnd);
+        sbStart.setMax(duration);
+        sbEnd.setMax(duration);
+        sbStart.setProgress(split ? duration / 2 : 0);
+        sbEnd.setProgress(duration);
+        if (split) {
+            tvEnd.setVisibility(View.GONE);
+            sbEnd.setVisibility(View.GONE);
+        }
+        SeekBar.OnSeekBarChangeListener listener = new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                String start = formatter.format(new Date(summary.startTime + sbStart.getProgress() * 1000L));
+                String end = formatter.format(new Date(summary.startTime + sbEnd.getProgress() * 1000L));
+                tvStart.setText(getString(split ? R.string.trip_view_edit_split : R.string.trip_view_edit_start, start));
+                tvEnd.setText(getString(R.string.trip_view_edit_end, end));
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        };
+        sbStart.setOnSeekBarChangeListener(listener);
+        sbEnd.setOnSeekBarChangeListener(listener);
+        listener.onProgressChanged(sbStart, sbStart.getProgress(), false);
+
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_edit_title));
+        builder.setView(view);
+        builder.setPositiveButton(R.string.trip_view_edit_title,
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        final long start = summary.startTime + sbStart.getProgress() * 1000L;
+                        // Inclusive of the last second selected
+                        final long end = summary.startTime + sbEnd.getProgress() * 1000L + 1000L;
+                        edit(new EditOperation() {
+                            @Override
+                            public File run(TripEditor editor) throws IOException {
+                                if (split) {
+                                    return editor.split(file, TripEditor.Range.time(start, Long.MAX_VALUE)).get(0);
+                                }
+                                return editor.trim(file, TripEditor.Range.time(Math.min(start, end), Math.max(start, end)));
+                            }
+                        });
+                    }
+                });
+        builder.setNegativeButton(R.string.cancel_bt,null);
+        builder.show();
+    }
+
+    private interface EditOperation {
+        File run(TripEditor editor) throws IOException;
+    }
+
+    // Run an edit off the UI thread and reload the resulting trip
+    private void edit(final EditOperation operation) {
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final File result = operation.run(new TripEditor(datasource));
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Intent tripViewIntent = new Intent(TripViewActivity.this, TripViewActivity.class);
+                            tripViewIntent.putExtra("FILE", result.getName());
+                            startActivity(tripViewIntent);
+                            finish();
+                        }
+                    });
+                } catch (IOException e){
+                    Log.d(TAG,"Exception editing trip: " + e.toString());
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Toast.makeText(TripViewActivity.this, R.string.trip_view_edit_failed, Toast.LENGTH_LONG).show();
+                        }
+                    });
                 }
-                final GPX gpx = GPX.builder().creator(getString(R.string.app_name)).addTrack(track -> track.addSegment(segment.build())).build();
-                GPX.write(gpx, gpxOutStream);
-                Uri uri = FileProvider.getUriForFile(this, "com.blackboxembedded.wunderlinq.fileprovider", gpxFile);
+            }
+        }).start();
+    }
 
-                share("application/gpx+xml", uri);
+    // Export GPX button press
+    public void exportGPX() {
+        export(new boolean[]{true, false, false, false});
+    }
+
+    // Export button press, pick any number of formats
+    public void showExportDialog() {
+        final boolean[] formats = new boolean[]{true, false, false, false};
+        final AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle(getString(R.string.trip_view_export_title));
+        builder.setMultiChoiceItems(R.array.trip_export_formats, formats,
+                new DialogInterface.OnMultiChoiceClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+                        formats[which] = isChecked;
+                    }
+                });
+        builder.setPositiveButton(R.string.share,
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        export(formats);
+                    }
+                });
+        builder.setNegativeButton(R.string.cancel_bt,null);
+        builder.show();
+    }
+
+    // Export the selected formats with a single pass over the trip log
+    private void export(final boolean[] formats) {
+        final File root = new File(MyApplication.getContext().getCacheDir(), "/tmp/");
+        if(!root.exists()){
+            if(!root.mkdirs()){
+                Log.d(TAG,"Unable to create directory: " + root);
             }
+        }
+        if(!root.canWrite()){
+            return;
+        }
+        final String name = fileName.split("\\.")[0];
+        final TripExporter exporter = new TripExporter(file);
+        if (formats[0]) {
+            exporter.addSink(new GpxExportSink(new File(root, name + ".gpx"), getString(R.string.app_name)));
+        }
+        if (formats[1]) {
+            exporter.addSink(new KmlExportSink(new File(root, name + ".kml"), name));
+        }
+        if (formats[2]) {
+            exporter.addSink(new GeoJsonExportSink(new File(root, name + ".geojson"), name));
+        }
+        if (formats[3]) {
+            exporter.addSink(new CsvExportSink(new File(root, name + "-subset.csv"), CsvExportSink.DEFAULT_COLUMNS));
+        }
+        if (exporter.getSinks().isEmpty()) {
+            return;
+        }
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    exporter.export();
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            shareExports(exporter.getSinks());
+                        }
+                    });
+                } catch (IOException e){
+                    Log.d(TAG,"Exception exporting trip: " + e.toString());
+                }
+            }
+        }).start();
+    }
 
-        } catch (IOException | ParseException e){
-            Log.d(TAG,"Exception creating GPX: " + e.toString());
+    private void shareExports(List<TripExportSink> sinks) {
+        if (sinks.size() == 1) {
+            TripExportSink sink = sinks.get(0);
+            Uri uri = FileProvider.getUriForFile(this, "com.blackboxembedded.wunderlinq.fileprovider", sink.getFile());
+            share(sink.getMimeType(), uri);
+            return;
+        }
+        ArrayList<Uri> uris = new ArrayList<>();
+        for (TripExportSink sink : sinks) {
+            uris.add(FileProvider.getUriForFile(this, "com.blackboxembedded.wunderlinq.fileprovider", sink.getFile()));
         }
+        Intent sharingIntent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        sharingIntent.setType("*/*");
+        sharingIntent.putExtra(android.content.Intent.EXTRA_SUBJECT, getString(R.string.trip_view_trip_label));
+        sharingIntent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        sharingIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(sharingIntent, getString(R.string.trip_view_share_label)));
     }
 
     private View.OnClickListener mClickListener = new View.OnClickListener() {
@@ -33,11 +33,14 @@ import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.blackboxembedded.WunderLINQ.Utils.AppUtils;
+import com.blackboxembedded.WunderLINQ.trips.CornerAnalyzer;
+import com.blackboxembedded.WunderLINQ.trips.TripDatasource;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 public class TripsActivity extends AppCompatActivity {
 
@@ -47,6 +50,7 @@ public class TripsActivity extends AppCompatActivity {
 
     private ArrayList myList;
     ArrayAdapter<String> adapter;
+    private CornerAnalyzer cornerAnalyzer;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -87,6 +91,16 @@ public class TripsActivity extends AppCompatActivity {
     public void onResume() {
         super.onResume();
         updateListing();
+        analyzeTrips();
+    }
+
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (cornerAnalyzer != null) {
+            cornerAnalyzer.shutdown();
+            cornerAnalyzer = null;
+        }
     }
 
     private void showActionBar(){
@@ -143,4 +157,35 @@ public class TripsActivity extends AppCompatActivity {
             tripList.setAdapter(adapter);
         }
     }
+
+    // Detect corners of all trips ahead of time, opening a trip then reads them from the index
+    private void analyzeTrips(){
+        final TripDatasource datasource = new TripDatasource(this);
+        final CornerAnalyzer analyzer = new CornerAnalyzer(datasource);
+        final List<File> files = new ArrayList<>();
+        File root = new File(MyApplication.getContext().getExternalFilesDir(null), "/logs/");
+        for (Object name : myList) {
+            files.add(new File(root, name.toString()));
+        }
+        cornerAnalyzer = analyzer;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    analyzer.analyze(files);
+                } catch (InterruptedException e) {
+                    Log.d(TAG, "Corner analysis interrupted");
+                } finally {
+                    analyzer.shutdown();
+                    try {
+                        analyzer.awaitTermination();
+                        datasource.close();
+                    } catch (InterruptedException e) {
+                        // Left open rather than closed under a worker
+                        Log.d(TAG, "Interrupted waiting for corner analysis");
+                    }
+                }
+            }
+        }).start();
+    }
 }
@@ -57,6 +57,8 @@ import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LifecycleRegistry;
 
+import com.blackboxembedded.WunderLINQ.trips.TripMedia;
+import com.blackboxembedded.WunderLINQ.trips.TripMediaDatasource;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.File;
@@ -79,6 +81,7 @@ public class VideoRecService extends Service implements LifecycleOwner {
     private File outputFile;
     private Location location;
     private boolean isRecording = false;
+    private long recordingStart;
 
     @Override
     public void onCreate() {
@@ -249,6 +252,7 @@ public class VideoRecService extends Service implements LifecycleOwner {
 
                 // Start recording
                 mediaRecorder.start();
+                recordingStart = System.currentTimeMillis();
                 isRecording = true;
                 Log.d(TAG, "Recording started");
                 ((MyApplication) this.getApplication()).setVideoRecording(true);
@@ -278,6 +282,10 @@ public class VideoRecService extends Service implements LifecycleOwner {
             mediaRecorder.reset();
             mediaRecorder.release();
             Log.d(TAG, "Recording stopped");
+
+            TripMediaDatasource mediaDatasource = new TripMediaDatasource(this);
+            mediaDatasource.addMedia(outputFile, TripMedia.TYPE_VIDEO, recordingStart, location);
+            mediaDatasource.close();
         }
 
         // Unbind and release the camera
@@ -37,41 +37,37 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
-import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
-import android.hardware.SensorManager;
-import android.location.Location;
 import android.os.Binder;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.IBinder;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.util.Log;
 
-import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 
-import com.blackboxembedded.WunderLINQ.AlertActivity;
+import com.blackboxembedded.WunderLINQ.AlertRules;
+import com.blackboxembedded.WunderLINQ.CrashDetector;
 import com.blackboxembedded.WunderLINQ.FaultActivity;
-import com.blackboxembedded.WunderLINQ.FaultStatus;
+import com.blackboxembedded.WunderLINQ.FaultNotifier;
+import com.blackboxembedded.WunderLINQ.FlightRecorder;
+import com.blackboxembedded.WunderLINQ.LocationTracker;
 import com.blackboxembedded.WunderLINQ.MyApplication;
+import com.blackboxembedded.WunderLINQ.PowerProfile;
 import com.blackboxembedded.WunderLINQ.R;
+import com.blackboxembedded.WunderLINQ.SensorFusion;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
+import com.blackboxembedded.WunderLINQ.hardware.WLQ.Freshness;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.WLQ;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.WLQ_BASE;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.WLQ_C;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.WLQ_N;
 import com.blackboxembedded.WunderLINQ.protocols.CANbus;
 import com.blackboxembedded.WunderLINQ.protocols.LINbus;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
-import com.google.android.gms.location.LocationResult;
-import com.google.android.gms.location.LocationServices;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -84,6 +80,7 @@ import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Timer;
 import java.util.TimerTask;
@@ -115,39 +112,15 @@ public class BluetoothLeService extends Service {
         SIGNED
     }
 
-    public static boolean fuelAlertSent = false;
 
     private static SharedPreferences sharedPrefs;
 
-    private SensorManager sensorManager;
-    private Sensor accelerometer;
-    private Sensor magnetometer;
-    private Sensor rotationVector;
-    private Sensor gravity;
-    private Sensor barometer;
-    private Sensor acceleration;
-    private Sensor lightSensor;
-
-    static boolean itsDark = false;
-    private long darkTimer = 0;
-    private long lightTimer = 0;
-
-    /*
-     * time smoothing constant for low-pass filter
-     * 0 ≤ alpha ≤ 1 ; a smaller value basically means more smoothing
-     * was 0.15f
-     * See: http://en.wikipedia.org/wiki/Low-pass_filter#Discrete-time_realization
-     */
-    static final float ALPHA = 0.05f;
-    float[] mGravity = new float[3];
-    float[] mGeomagnetic = new float[3];
-    float[] mAcceleration = new float[3];
-
-    private FusedLocationProviderClient mFusedLocationClient;
-    private LocationRequest mLocationRequest;
-
-    private int lastDirection;
     private static HashMap<Integer, byte[]> messages = new HashMap<>();
+    // Changed frames held back in the low power profile, latest by message key
+    private static final HashMap<Integer, byte[]> deferred = new HashMap<>();
+    private static final long[] decodeTime = new long[Freshness.KEY_COUNT];
+    // Each message is still decoded this often in low power, for faults and alerts
+    private static final long DEFER_INTERVAL = 2000;
 
     private static BluetoothGattCharacteristic mNotifyCharacteristic;
     public static BluetoothGattCharacteristic gattCommandCharacteristic;
@@ -212,6 +185,7 @@ public class BluetoothLeService extends Service {
     public static boolean mDisableNotificationFlag = false;
 
     public static int mConnectionState = STATE_DISCONNECTED;
+    private static boolean monitoringLocation = false;
     /**
      * Device address
      */
@@ -242,21 +216,6 @@ public class BluetoothLeService extends Service {
     public BluetoothLeService() {
     }
 
-    LocationCallback mLocationCallback = new LocationCallback() {
-        @Override
-        public void onLocationResult(LocationResult locationResult) {
-            List<Location> locationList = locationResult.getLocations();
-            if (locationList.size() > 0) {
-                //The last location in the list is the newest
-                Location location = locationList.get(locationList.size() - 1);
-                Data.setLastLocation(location);
-                if (sharedPrefs.getBoolean("prefBearingOverride", false) && location.hasBearing()) {
-                    Data.setBearing((int) location.getBearing());
-                }
-            }
-        }
-    };
-
     @Override
     public void onCreate() {
         Log.d(TAG, "onCreate");
@@ -268,31 +227,22 @@ public class BluetoothLeService extends Service {
 
         sharedPrefs = PreferenceManager.getDefaultSharedPreferences(MyApplication.getContext());
 
-        // Sensor Stuff
-        sensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
-        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-        magnetometer = sensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
-        rotationVector = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
-        gravity = sensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
-        barometer = sensorManager.getDefaultSensor(Sensor.TYPE_PRESSURE);
-        acceleration = sensorManager.getDefaultSensor(Sensor.TYPE_LINEAR_ACCELERATION);
-        lightSensor = sensorManager.getDefaultSensor(Sensor.TYPE_LIGHT);
-
-        sensorManager.registerListener(sensorEventListener, accelerometer, SensorManager.SENSOR_DELAY_UI);
-        sensorManager.registerListener(sensorEventListener, magnetometer, SensorManager.SENSOR_DELAY_UI);
-        sensorManager.registerListener(sensorEventListener, rotationVector, SensorManager.SENSOR_DELAY_GAME);
-        sensorManager.registerListener(sensorEventListener, gravity, SensorManager.SENSOR_DELAY_GAME);
-        sensorManager.registerListener(sensorEventListener, barometer, SensorManager.SENSOR_DELAY_UI);
-        sensorManager.registerListener(sensorEventListener, acceleration, SensorManager.SENSOR_DELAY_UI);
-        sensorManager.registerListener(sensorEventListener, lightSensor, SensorManager.SENSOR_DELAY_NORMAL);
-
-        // Location stuff
-        mFusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-        createLocationRequest();
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED
-                && ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION) == PackageManager.PERMISSION_GRANTED) {
-            mFusedLocationClient.requestLocationUpdates(mLocationRequest, mLocationCallback, null /* Looper */);
-        }
+        // Screen and battery, the parts below follow it
+        PowerProfile.start(this);
+        // Fault notification and fuel alert
+        FaultNotifier.start();
+        // Rider defined alerts
+        AlertRules.start(this);
+        // Black box, dumped on new faults
+        FlightRecorder.start();
+        // Crash detection, saves the black box
+        CrashDetector.start(this);
+
+        // Lean angle, bearing and the other phone sensors
+        SensorFusion.start(this);
+
+        // Location for the whole app
+        LocationTracker.start(this);
 
         // Update time Data field and send to the cluster if WLQ_N
         Timer t = new Timer();
@@ -379,133 +329,27 @@ public class BluetoothLeService extends Service {
     public void onDestroy() {
         Log.d(TAG, "onDestroy");
         // The service is no longer used and is being destroyed
+        FaultNotifier.stop();
+        CrashDetector.stop();
+        FlightRecorder.stop();
         clearNotifications();
-        sensorManager.unregisterListener(sensorEventListener, magnetometer);
-        sensorManager.unregisterListener(sensorEventListener, accelerometer);
-        sensorManager.unregisterListener(sensorEventListener, rotationVector);
-        sensorManager.unregisterListener(sensorEventListener, gravity);
-        sensorManager.unregisterListener(sensorEventListener, barometer);
-        sensorManager.unregisterListener(sensorEventListener, acceleration);
-        sensorManager.unregisterListener(sensorEventListener, lightSensor);
-
-        stopLocationUpdates();
+        SensorFusion.stop();
+        PowerProfile.stop();
+        setMonitoringLocation(false);
+        LocationTracker.stop();
     }
 
-    // Listens for sensor events
-    private final SensorEventListener sensorEventListener
-            = new SensorEventListener() {
-
-        @Override
-        public void onAccuracyChanged(Sensor sensor, int accuracy) {
-            // Do something
-        }
-
-        @Override
-        public void onSensorChanged(SensorEvent event) {
-            if (event.sensor.getType() == Sensor.TYPE_ROTATION_VECTOR) {
-                //Get Rotation Vector Sensor Values
-                float[] mRotationMatrix = new float[9];
-                float[] mRotationFixMatrix = new float[9];
-                float[] orientation = new float[3];
-                double leanAngle;
-                SensorManager.getRotationMatrixFromVector(mRotationMatrix, event.values);
-                int rotation = MyApplication.getContext().getResources().getConfiguration().orientation;
-                SensorManager.remapCoordinateSystem(mRotationMatrix, SensorManager.AXIS_X, SensorManager.AXIS_Z, mRotationFixMatrix);
-                SensorManager.getOrientation(mRotationFixMatrix, orientation);
-                if (rotation == 1) { // Default display rotation is portrait
-                    leanAngle = (orientation[2] * 180) / Math.PI;
-                } else {   // Default display rotation is landscape
-                    leanAngle = ((orientation[2] * 180) / Math.PI) + 90;
-                }
-                //Filter out impossible values, max sport bike lean is +/-60
-                if ((leanAngle >= -60.0) && (leanAngle <= 60.0)) {
-                    Data.setLeanAngle(leanAngle);
-                    //Store Max L and R lean angle
-                    if (leanAngle > 0) {
-                        if (Data.getLeanAngleMaxR() != null) {
-                            if (leanAngle > Data.getLeanAngleMaxR()) {
-                                Data.setLeanAngleMaxR(leanAngle);
-                            }
-                        } else {
-                            Data.setLeanAngleMaxR(leanAngle);
-                        }
-                    } else if (leanAngle < 0) {
-                        if (Data.getLeanAngleMaxL() != null) {
-                            if (Math.abs(leanAngle) > Data.getLeanAngleMaxL()) {
-                                Data.setLeanAngleMaxL(Math.abs(leanAngle));
-                            }
-                        } else {
-                            Data.setLeanAngleMaxL(Math.abs(leanAngle));
-                        }
-                    }
-                }
-            } else if (event.sensor.getType() == Sensor.TYPE_GRAVITY) {
-                mGravity = event.values.clone();
-            } else if (event.sensor.getType() == Sensor.TYPE_MAGNETIC_FIELD) {
-                mGeomagnetic = Utils.lowPass(event.values.clone(), mGeomagnetic, ALPHA);
-            } else if (event.sensor.getType() == Sensor.TYPE_PRESSURE) {
-                float[] mBarometricPressure = event.values;
-                Data.setBarometricPressure((double) mBarometricPressure[0]);
-            } else if (event.sensor.getType() == Sensor.TYPE_LINEAR_ACCELERATION) {
-                mAcceleration = event.values.clone();
-                double gforce = Math.sqrt(mAcceleration[0] * mAcceleration[0] + mAcceleration[1] * mAcceleration[1] + mAcceleration[2] * mAcceleration[2]);
-                Data.setGForce(gforce);
-            } else if (event.sensor.getType() == Sensor.TYPE_LIGHT) {
-                if (sharedPrefs.getString("prefNightModeCombo", "0").equals("2")) {
-                    int delay = (Integer.parseInt(sharedPrefs.getString("prefAutoNightModeDelay", "30")) * 1000);
-                    float currentReading = event.values[0];
-                    double darkThreshold = 20.0;  // Light level to determine darkness
-                    if (currentReading < darkThreshold) {
-                        lightTimer = 0;
-                        if (darkTimer == 0) {
-                            darkTimer = System.currentTimeMillis();
-                        } else {
-                            long currentTime = System.currentTimeMillis();
-                            long duration = (currentTime - darkTimer);
-                            if ((duration >= delay) && (!itsDark)) {
-                                itsDark = true;
-                                Log.d(TAG, "Its dark");
-                                // Update Theme
-                                AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_YES);
-                            }
-                        }
-                    } else {
-                        darkTimer = 0;
-                        if (lightTimer == 0) {
-                            lightTimer = System.currentTimeMillis();
-                        } else {
-                            long currentTime = System.currentTimeMillis();
-                            long duration = (currentTime - lightTimer);
-                            if ((duration >= delay) && (itsDark)) {
-                                itsDark = false;
-                                Log.d(TAG, "Its light");
-                                // Update Theme
-                                AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_NO);
-                            }
-                        }
-                    }
-                }
-            }
-            if (mGravity != null && mGeomagnetic != null) {
-                float[] R = new float[9];
-                float[] I = new float[9];
-                float[] remappedR = new float[9];
-                boolean success = SensorManager.getRotationMatrix(R, I, mGravity, mGeomagnetic);
-                if (success) {
-                    float[] orientation = new float[3];
-                    SensorManager.remapCoordinateSystem(R, SensorManager.AXIS_X, SensorManager.AXIS_Z, remappedR);
-                    SensorManager.getOrientation(remappedR, orientation);
-                    int direction = filterChange(Utils.normalizeDegrees(Math.toDegrees(orientation[0])));
-                    if (direction != lastDirection) {
-                        lastDirection = direction;
-                        if (!sharedPrefs.getBoolean("prefBearingOverride", false)) {
-                            Data.setBearing(lastDirection);
-                        }
-                    }
-                }
+    // Fault history and the black box position their events while connected
+    private static synchronized void setMonitoringLocation(boolean monitoring) {
+        if (monitoring != monitoringLocation) {
+            monitoringLocation = monitoring;
+            if (monitoring) {
+                LocationTracker.subscribe(LocationTracker.MONITORING);
+            } else {
+                LocationTracker.unsubscribe(LocationTracker.MONITORING);
             }
         }
-    };
+    }
 
     /**
      * Initializes a reference to the local BlueTooth adapter.
@@ -542,6 +386,7 @@ public class BluetoothLeService extends Service {
                 synchronized (mGattCallback) {
                     mConnectionState = STATE_CONNECTED;
                 }
+                setMonitoringLocation(true);
                 broadcastConnectionUpdate(intentAction);
                 if ((ActivityCompat.checkSelfPermission(MyApplication.getContext(), Manifest.permission.BLUETOOTH_CONNECT) == PackageManager.PERMISSION_GRANTED)
                         || (Build.VERSION.SDK_INT < Build.VERSION_CODES.S)) {
@@ -559,6 +404,7 @@ public class BluetoothLeService extends Service {
                 synchronized (mGattCallback) {
                     mConnectionState = STATE_DISCONNECTED;
                 }
+                setMonitoringLocation(false);
                 broadcastConnectionUpdate(intentAction);
                 String dataLog = "[" + mBluetoothDeviceName + "|" + mBluetoothDeviceAddress + "] " +
                         "Disconnected";
@@ -728,15 +574,7 @@ public class BluetoothLeService extends Service {
                         process = true;
                     }
                 }
-                //Process message
-                if(process) {
-                    LINbus.parseLINMessage(data);
-                    /*
-                     * Sending the broad cast so that it can be received on registered
-                     * receivers
-                     */
-                    sendDataBroadcast();
-                }
+                onFrame(FlightRecorder.LIN, Freshness.linKey(msgID), data, process);
             }
         } else if (characteristic.getUuid().equals(UUIDDatabase.UUID_WUNDERLINQ_CANMESSAGE_CHARACTERISTIC)) {
             if (data != null) {
@@ -757,15 +595,7 @@ public class BluetoothLeService extends Service {
                         process = true;
                     }
                 }
-                //Process message
-                if(process) {
-                    CANbus.parseCANMessage(data);
-                    /*
-                     * Sending the broad cast so that it can be received on registered
-                     * receivers
-                     */
-                    sendDataBroadcast();
-                }
+                onFrame(FlightRecorder.CAN, Freshness.canKey(msgID), data, process);
             }
         } else if (characteristic.getUuid().equals(UUIDDatabase.UUID_WUNDERLINQ_COMMAND_CHARACTERISTIC)) {
             if (data != null) {
@@ -810,6 +640,59 @@ public class BluetoothLeService extends Service {
         }
     }
 
+    // Called for every bus frame, changed or not
+    private static void onFrame(byte bus, int key, byte[] data, boolean changed) {
+        boolean lowPower = PowerProfile.isLowPower();
+        if (!lowPower && !deferred.isEmpty()) {
+            // Screen is back, catch up on what was held back
+            decodeDeferred();
+        }
+        long now = SystemClock.elapsedRealtime();
+        // In low power a changed frame is only decoded if its message is due. A held back
+        // change is decoded by the next repeat of its message once due, changed or not.
+        boolean pending = changed || (!deferred.isEmpty() && deferred.containsKey(key));
+        boolean decode = pending && (!lowPower || now - decodeTime[key] >= DEFER_INTERVAL);
+        Freshness.onMessage(key, decode);
+        FlightRecorder.recordFrame(bus, data);
+        if (decode) {
+            decodeTime[key] = now;
+            deferred.remove(key);
+            parse(bus, data);
+            if (!lowPower) {
+                /*
+                 * Sending the broad cast so that it can be received on registered
+                 * receivers
+                 */
+                sendDataBroadcast();
+            }
+        } else if (changed) {
+            deferred.put(key, data);
+        }
+    }
+
+    private static void parse(byte bus, byte[] data) {
+        if (bus == FlightRecorder.CAN) {
+            CANbus.parseCANMessage(data);
+        } else {
+            LINbus.parseLINMessage(data);
+        }
+        AlertRules.evaluate(Freshness.endMessage());
+        FlightRecorder.sample();
+    }
+
+    // Decode the latest held back frame of each message
+    private static void decodeDeferred() {
+        long now = SystemClock.elapsedRealtime();
+        for (Map.Entry<Integer, byte[]> frame : deferred.entrySet()) {
+            int key = frame.getKey();
+            Freshness.beginMessage(key);
+            decodeTime[key] = now;
+            parse(Freshness.isCan(key) ? FlightRecorder.CAN : FlightRecorder.LIN, frame.getValue());
+        }
+        deferred.clear();
+        sendDataBroadcast();
+    }
+
     /**
      * Connects to the GATT server hosted on the BlueTooth LE device.
      *
@@ -1218,29 +1101,6 @@ public class BluetoothLeService extends Service {
         }
     }
 
-    static public void updateNotification(){
-        StringBuilder body = new StringBuilder();
-        body.append("");
-        if(FaultStatus.getfrontTirePressureCriticalActive()){
-            body.append(MyApplication.getContext().getResources().getString(R.string.fault_TIREFCF)).append("\n");
-        }
-        if(FaultStatus.getrearTirePressureCriticalActive()){
-            body.append(MyApplication.getContext().getResources().getString(R.string.fault_TIRERCF)).append("\n");
-        }
-        if(FaultStatus.getgeneralFlashingRedActive()){
-            body.append(MyApplication.getContext().getResources().getString(R.string.fault_GENWARNFSRED)).append("\n");
-        }
-        if(FaultStatus.getgeneralShowsRedActive()){
-            body.append(MyApplication.getContext().getResources().getString(R.string.fault_GENWARNSHRED)).append("\n");
-        }
-        if(!body.toString().equals("")){
-            showNotification(MyApplication.getContext(), MyApplication.getContext().getResources().getString(R.string.fault_title), body.toString());
-        } else {
-            Log.d(TAG,"Clearing notification");
-            clearNotifications();
-        }
-    }
-
     static public void showNotification(Context context, String title, String body) {
 
         Intent faultIntent=new Intent(MyApplication.getContext(), FaultActivity.class);
@@ -1293,43 +1153,6 @@ public class BluetoothLeService extends Service {
         notificationManager.cancelAll();
     }
 
-    static public void fuelAlert(){
-        if (sharedPrefs.getBoolean("prefFuelAlert", false)) {
-            if (!fuelAlertSent) {
-                fuelAlertSent = true;
-                Intent alertIntent = new Intent(MyApplication.getContext(), AlertActivity.class);
-                alertIntent.putExtra("TYPE", 1);
-                alertIntent.putExtra("TITLE", MyApplication.getContext().getResources().getString(R.string.alert_title_fuel));
-                alertIntent.putExtra("BODY", MyApplication.getContext().getResources().getString(R.string.alert_label_fuel));
-                alertIntent.putExtra("BACKGROUND", "");
-                MyApplication.getContext().startActivity(alertIntent);
-            }
-
-        } else {
-            fuelAlertSent = false;
-        }
-    }
-
-    private int filterChange(int newDir){
-        int change = newDir - lastDirection;
-        int smallestChange = Math.max(Math.min(change,3),-3);
-        return lastDirection + smallestChange;
-    }
-
-    protected void stopLocationUpdates() {
-        //stop location updates when Activity is no longer active
-        if (mFusedLocationClient != null) {
-            mFusedLocationClient.removeLocationUpdates(mLocationCallback);
-        }
-    }
-
-    protected void createLocationRequest() {
-        mLocationRequest = LocationRequest.create();
-        mLocationRequest.setPriority(LocationRequest.PRIORITY_HIGH_ACCURACY);
-        mLocationRequest.setInterval(500);
-        mLocationRequest.setFastestInterval(500);
-    }
-
     public static boolean isConnected() {
         return mBluetoothGatt != null && mConnectionState == BluetoothProfile.STATE_CONNECTED;
     }
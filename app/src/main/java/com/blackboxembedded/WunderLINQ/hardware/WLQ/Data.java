@@ -22,6 +22,7 @@ import android.util.Log;
 
 import java.time.LocalDate;
 import java.util.Date;
+import java.util.Objects;
 
 public class Data {
     // WunderLINQ HW
@@ -52,7 +53,12 @@ public class Data {
         return vin;
     }
     public static void setVin(String vin){
+        Freshness.update(Freshness.VIN);
+        boolean changed = !Objects.equals(Data.vin, vin);
         Data.vin = vin;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Next Service, km
@@ -61,7 +67,12 @@ public class Data {
         return nextService;
     }
     public static void setNextService(Integer nextService){
+        Freshness.update(Freshness.NEXT_SERVICE);
+        boolean changed = !Objects.equals(Data.nextService, nextService);
         Data.nextService = nextService;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Next Service, Date
@@ -70,7 +81,12 @@ public class Data {
         return nextServiceDate;
     }
     public static void setNextServiceDate(LocalDate nextServiceDate){
+        Freshness.update(Freshness.NEXT_SERVICE_DATE);
+        boolean changed = !Objects.equals(Data.nextServiceDate, nextServiceDate);
         Data.nextServiceDate = nextServiceDate;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Front Tire Pressure in bar
@@ -79,7 +95,12 @@ public class Data {
         return frontTirePressure;
     }
     public static void setFrontTirePressure(Double pressure){
+        Freshness.update(Freshness.FRONT_TIRE_PRESSURE);
+        boolean changed = !Objects.equals(Data.frontTirePressure, pressure);
         Data.frontTirePressure = pressure;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Rear Tire Pressure in bar
@@ -88,7 +109,12 @@ public class Data {
         return rearTirePressure;
     }
     public static void setRearTirePressure(Double pressure){
+        Freshness.update(Freshness.REAR_TIRE_PRESSURE);
+        boolean changed = !Objects.equals(Data.rearTirePressure, pressure);
         Data.rearTirePressure = pressure;
+        if (changed) {
+            DataSnapshot.changed();
+        }
         Log.d("RearTirePressure","Value Set: " + Data.rearTirePressure);
     }
 
@@ -98,7 +124,12 @@ public class Data {
         return ambientTemperature;
     }
     public static void setAmbientTemperature(Double temperature){
+        Freshness.update(Freshness.AMBIENT_TEMPERATURE);
+        boolean changed = !Objects.equals(Data.ambientTemperature, temperature);
         Data.ambientTemperature = temperature;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Engine Temperature in C
@@ -107,7 +138,12 @@ public class Data {
         return engineTemperature;
     }
     public static void setEngineTemperature(Double temperature){
+        Freshness.update(Freshness.ENGINE_TEMPERATURE);
+        boolean changed = !Objects.equals(Data.engineTemperature, temperature);
         Data.engineTemperature = temperature;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Odometer in km
@@ -116,7 +152,12 @@ public class Data {
         return odometer;
     }
     public static void setOdometer(Double distance){
+        Freshness.update(Freshness.ODOMETER);
+        boolean changed = !Objects.equals(Data.odometer, distance);
         Data.odometer = distance;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Trip One Distance in km
@@ -125,7 +166,12 @@ public class Data {
         return tripOne;
     }
     public static void setTripOne(Double distance){
+        Freshness.update(Freshness.TRIP_ONE);
+        boolean changed = !Objects.equals(Data.tripOne, distance);
         Data.tripOne = distance;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Trip Two Distance in km
@@ -134,7 +180,12 @@ public class Data {
         return tripTwo;
     }
     public static void setTripTwo(Double distance){
+        Freshness.update(Freshness.TRIP_TWO);
+        boolean changed = !Objects.equals(Data.tripTwo, distance);
         Data.tripTwo = distance;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Trip Auto Distance in km
@@ -143,7 +194,12 @@ public class Data {
         return tripAuto;
     }
     public static void setTripAuto(Double distance){
+        Freshness.update(Freshness.TRIP_AUTO);
+        boolean changed = !Objects.equals(Data.tripAuto, distance);
         Data.tripAuto = distance;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Number of shifts
@@ -161,6 +217,7 @@ public class Data {
         return rpm;
     }
     public static void setRPM(Integer rpm){
+        Freshness.update(Freshness.RPM);
         Data.rpm = rpm;
     }
 
@@ -170,6 +227,7 @@ public class Data {
         return gear;
     }
     public static void setGear(String gear){
+        Freshness.update(Freshness.GEAR);
         Data.gear = gear;
     }
 
@@ -179,6 +237,7 @@ public class Data {
         return voltage;
     }
     public static void setvoltage(Double voltage){
+        Freshness.update(Freshness.VOLTAGE);
         Data.voltage = voltage;
     }
 
@@ -188,6 +247,7 @@ public class Data {
         return throttlePosition;
     }
     public static void setThrottlePosition(Double throttlePosition){
+        Freshness.update(Freshness.THROTTLE_POSITION);
         Data.throttlePosition = throttlePosition;
     }
 
@@ -215,6 +275,7 @@ public class Data {
         return ambientLight;
     }
     public static void setAmbientLight(Integer ambientLight){
+        Freshness.update(Freshness.AMBIENT_LIGHT);
         Data.ambientLight = ambientLight;
     }
 
@@ -224,6 +285,7 @@ public class Data {
         return speed;
     }
     public static void setSpeed(Double speed){
+        Freshness.update(Freshness.SPEED);
         Data.speed = speed;
     }
 
@@ -233,6 +295,7 @@ public class Data {
         return avgSpeed;
     }
     public static void setAvgSpeed(Double avgSpeed){
+        Freshness.update(Freshness.AVG_SPEED);
         Data.avgSpeed = avgSpeed;
     }
 
@@ -242,6 +305,7 @@ public class Data {
         return currentConsumption;
     }
     public static void setCurrentConsumption(Double currentConsumption){
+        Freshness.update(Freshness.CURRENT_CONSUMPTION);
         Data.currentConsumption = currentConsumption;
     }
 
@@ -251,6 +315,7 @@ public class Data {
         return fuelEconomyOne;
     }
     public static void setFuelEconomyOne(Double fuelEconomyOne){
+        Freshness.update(Freshness.FUEL_ECONOMY_ONE);
         Data.fuelEconomyOne = fuelEconomyOne;
     }
 
@@ -260,6 +325,7 @@ public class Data {
         return fuelEconomyTwo;
     }
     public static void setFuelEconomyTwo(Double fuelEconomyTwo){
+        Freshness.update(Freshness.FUEL_ECONOMY_TWO);
         Data.fuelEconomyTwo = fuelEconomyTwo;
     }
 
@@ -269,7 +335,12 @@ public class Data {
         return fuelRange;
     }
     public static void setFuelRange(Double fuelRange){
+        Freshness.update(Freshness.FUEL_RANGE);
+        boolean changed = !Objects.equals(Data.fuelRange, fuelRange);
         Data.fuelRange = fuelRange;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Lean Angle
@@ -287,14 +358,22 @@ public class Data {
         return leanAngleMaxL;
     }
     public static void setLeanAngleMaxL(Double leanAngleMaxL){
+        boolean changed = !Objects.equals(Data.leanAngleMaxL, leanAngleMaxL);
         Data.leanAngleMaxL = leanAngleMaxL;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
     private static Double leanAngleMaxR;
     public static Double getLeanAngleMaxR() {
         return leanAngleMaxR;
     }
     public static void setLeanAngleMaxR(Double leanAngleMaxR){
+        boolean changed = !Objects.equals(Data.leanAngleMaxR, leanAngleMaxR);
         Data.leanAngleMaxR = leanAngleMaxR;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // g-force
@@ -339,6 +418,7 @@ public class Data {
         return leanAngleBike;
     }
     public static void setLeanAngleBike(Double leanAngleBike){
+        Freshness.update(Freshness.LEAN_ANGLE_BIKE);
         Data.leanAngleBike = leanAngleBike;
     }
 
@@ -348,14 +428,22 @@ public class Data {
         return leanAngleBikeMaxL;
     }
     public static void setLeanAngleBikeMaxL(Double leanAngleBikeMaxL){
+        boolean changed = !Objects.equals(Data.leanAngleBikeMaxL, leanAngleBikeMaxL);
         Data.leanAngleBikeMaxL = leanAngleBikeMaxL;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
     private static Double leanAngleBikeMaxR;
     public static Double getLeanAngleBikeMaxR() {
         return leanAngleBikeMaxR;
     }
     public static void setLeanAngleBikeMaxR(Double leanAngleBikeMaxR){
+        boolean changed = !Objects.equals(Data.leanAngleBikeMaxR, leanAngleBikeMaxR);
         Data.leanAngleBikeMaxR = leanAngleBikeMaxR;
+        if (changed) {
+            DataSnapshot.changed();
+        }
     }
 
     // Rear Speed
@@ -364,6 +452,7 @@ public class Data {
         return rearSpeed;
     }
     public static void setRearSpeed(Double rearSpeed){
+        Freshness.update(Freshness.REAR_SPEED);
         Data.rearSpeed = rearSpeed;
     }
 
@@ -374,6 +463,7 @@ public class Data {
         return highBeam;
     }
     public static void setHighBeam(boolean highBeam){
+        Freshness.update(Freshness.HIGH_BEAM);
         Data.highBeam = highBeam;
     }
 
@@ -383,6 +473,7 @@ public class Data {
         return fogLight;
     }
     public static void setFogLight(boolean fogLight){
+        Freshness.update(Freshness.FOG_LIGHT);
         Data.fogLight = fogLight;
     }
 
@@ -395,11 +486,85 @@ public class Data {
         return heatedGrips;
     }
     public static void setHeatedGrips(int heatedGrips){
+        Freshness.update(Freshness.HEATED_GRIPS);
         Data.heatedGrips = heatedGrips;
     }
 
     // END of CAN only Data
 
+    /**
+     * Value of a signal as a number, for rules and recordings
+     * @param signal Freshness signal
+     * @return the value, NaN if it is not set or not a number
+     */
+    public static double getValue(int signal) {
+        switch (signal) {
+            case Freshness.NEXT_SERVICE:
+                return toDouble(nextService);
+            case Freshness.FRONT_TIRE_PRESSURE:
+                return toDouble(frontTirePressure);
+            case Freshness.REAR_TIRE_PRESSURE:
+                return toDouble(rearTirePressure);
+            case Freshness.AMBIENT_TEMPERATURE:
+                return toDouble(ambientTemperature);
+            case Freshness.ENGINE_TEMPERATURE:
+                return toDouble(engineTemperature);
+            case Freshness.ODOMETER:
+                return toDouble(odometer);
+            case Freshness.TRIP_ONE:
+                return toDouble(tripOne);
+            case Freshness.TRIP_TWO:
+                return toDouble(tripTwo);
+            case Freshness.TRIP_AUTO:
+                return toDouble(tripAuto);
+            case Freshness.RPM:
+                return toDouble(rpm);
+            case Freshness.GEAR:
+                if (gear == null) {
+                    return Double.NaN;
+                } else if (gear.equals("N")) {
+                    return 0;
+                } else if (gear.length() == 1 && Character.isDigit(gear.charAt(0))) {
+                    return gear.charAt(0) - '0';
+                }
+                return Double.NaN;
+            case Freshness.VOLTAGE:
+                return toDouble(voltage);
+            case Freshness.THROTTLE_POSITION:
+                return toDouble(throttlePosition);
+            case Freshness.AMBIENT_LIGHT:
+                return toDouble(ambientLight);
+            case Freshness.SPEED:
+                return toDouble(speed);
+            case Freshness.AVG_SPEED:
+                return toDouble(avgSpeed);
+            case Freshness.CURRENT_CONSUMPTION:
+                return toDouble(currentConsumption);
+            case Freshness.FUEL_ECONOMY_ONE:
+                return toDouble(fuelEconomyOne);
+            case Freshness.FUEL_ECONOMY_TWO:
+                return toDouble(fuelEconomyTwo);
+            case Freshness.FUEL_RANGE:
+                return toDouble(fuelRange);
+            case Freshness.LEAN_ANGLE_BIKE:
+                return toDouble(leanAngleBike);
+            case Freshness.REAR_SPEED:
+                return toDouble(rearSpeed);
+            case Freshness.HIGH_BEAM:
+                return highBeam ? 1 : 0;
+            case Freshness.FOG_LIGHT:
+                return fogLight ? 1 : 0;
+            case Freshness.HEATED_GRIPS:
+                return heatedGrips;
+            default:
+                return Double.NaN;
+        }
+    }
+
+    private static double toDouble(Number value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
     // Utility functions
     /*
     public static void clear(){
@@ -0,0 +1,217 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.hardware.WLQ;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the slowly changing values of Data across restarts. A small binary
+ * file is written a few seconds after a value changes and read back before
+ * anything else starts, so screens show the last known values straight
+ * away. Freshness keeps restored values stale until the bike sends them again.
+ */
+public class DataSnapshot {
+
+    private static final String TAG = "DataSnapshot";
+    private static final String FILE_NAME = "telemetry.snapshot";
+    private static final int MAGIC = 0x574c5153; // "WLQS"
+    private static final int VERSION = 1;
+    // Changes within this many ms are written together
+    private static final long SAVE_DELAY = 2000;
+
+    // Values kept in the snapshot, also bit numbers of the present mask
+    public static final int VIN = 0;
+    public static final int NEXT_SERVICE = 1;
+    public static final int NEXT_SERVICE_DATE = 2;
+    public static final int FRONT_TIRE_PRESSURE = 3;
+    public static final int REAR_TIRE_PRESSURE = 4;
+    public static final int AMBIENT_TEMPERATURE = 5;
+    public static final int ENGINE_TEMPERATURE = 6;
+    public static final int ODOMETER = 7;
+    public static final int TRIP_ONE = 8;
+    public static final int TRIP_TWO = 9;
+    public static final int TRIP_AUTO = 10;
+    public static final int FUEL_RANGE = 11;
+    public static final int LEAN_ANGLE_MAX_L = 12;
+    public static final int LEAN_ANGLE_MAX_R = 13;
+    public static final int LEAN_ANGLE_BIKE_MAX_L = 14;
+    public static final int LEAN_ANGLE_BIKE_MAX_R = 15;
+    private static final int COUNT = 16;
+
+    private static final AtomicBoolean pending = new AtomicBoolean();
+    private static File file;
+    private static Handler handler;
+
+    private static final Runnable save = new Runnable() {
+        @Override
+        public void run() {
+            pending.set(false);
+            write();
+        }
+    };
+
+    /**
+     * Restore the last snapshot into Data. Called once from
+     * MyApplication.onCreate, before any service can set live values.
+     */
+    public static void load(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+        HandlerThread thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                Log.d(TAG, "Ignoring snapshot of another version");
+                return;
+            }
+            int present = in.readInt();
+            for (int i = 0; i < COUNT; i++) {
+                if ((present & (1 << i)) != 0) {
+                    read(in, i);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.d(TAG, "Exception reading snapshot: " + e.toString());
+        }
+        // Nothing changed yet, the restored values only need refreshing
+        handler.removeCallbacks(save);
+        pending.set(false);
+    }
+
+    // Called by the Data setters when a snapshot value changed, written out after SAVE_DELAY
+    static void changed() {
+        if (handler != null && pending.compareAndSet(false, true)) {
+            handler.postDelayed(save, SAVE_DELAY);
+        }
+    }
+
+    private static void read(DataInputStream in, int value) throws IOException {
+        switch (value) {
+            case VIN:
+                Data.setVin(in.readUTF());
+                break;
+            case NEXT_SERVICE:
+                Data.setNextService(in.readInt());
+                break;
+            case NEXT_SERVICE_DATE:
+                Data.setNextServiceDate(LocalDate.ofEpochDay(in.readLong()));
+                break;
+            case FRONT_TIRE_PRESSURE:
+                Data.setFrontTirePressure(in.readDouble());
+                break;
+            case REAR_TIRE_PRESSURE:
+                Data.setRearTirePressure(in.readDouble());
+                break;
+            case AMBIENT_TEMPERATURE:
+                Data.setAmbientTemperature(in.readDouble());
+                break;
+            case ENGINE_TEMPERATURE:
+                Data.setEngineTemperature(in.readDouble());
+                break;
+            case ODOMETER:
+                Data.setOdometer(in.readDouble());
+                break;
+            case TRIP_ONE:
+                Data.setTripOne(in.readDouble());
+                break;
+            case TRIP_TWO:
+                Data.setTripTwo(in.readDouble());
+                break;
+            case TRIP_AUTO:
+                Data.setTripAuto(in.readDouble());
+                break;
+            case FUEL_RANGE:
+                Data.setFuelRange(in.readDouble());
+                break;
+            case LEAN_ANGLE_MAX_L:
+                Data.setLeanAngleMaxL(in.readDouble());
+                break;
+            case LEAN_ANGLE_MAX_R:
+                Data.setLeanAngleMaxR(in.readDouble());
+                break;
+            case LEAN_ANGLE_BIKE_MAX_L:
+                Data.setLeanAngleBikeMaxL(in.readDouble());
+                break;
+            case LEAN_ANGLE_BIKE_MAX_R:
+                Data.setLeanAngleBikeMaxR(in.readDouble());
+                break;
+        }
+    }
+
+    private static void write() {
+        Object[] values = new Object[] {
+                Data.getVin(), Data.getNextService(), Data.getNextServiceDate(),
+                Data.getFrontTirePressure(), Data.getRearTirePressure(),
+                Data.getAmbientTemperature(), Data.getEngineTemperature(), Data.getOdometer(),
+                Data.getTripOne(), Data.getTripTwo(), Data.getTripAuto(), Data.getFuelRange(),
+                Data.getLeanAngleMaxL(), Data.getLeanAngleMaxR(),
+                Data.getLeanAngleBikeMaxL(), Data.getLeanAngleBikeMaxR()};
+        int present = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (values[i] != null) {
+                present |= 1 << i;
+            }
+        }
+        // Written aside and renamed, a crash leaves the previous snapshot
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(present);
+            for (int i = 0; i < COUNT; i++) {
+                Object value = values[i];
+                if (value instanceof String) {
+                    out.writeUTF((String) value);
+                } else if (value instanceof Integer) {
+                    out.writeInt((Integer) value);
+                } else if (value instanceof LocalDate) {
+                    out.writeLong(((LocalDate) value).toEpochDay());
+                } else if (value instanceof Double) {
+                    out.writeDouble((Double) value);
+                }
+            }
+            out.flush();
+            stream.getFD().sync();
+        } catch (IOException e) {
+            Log.d(TAG, "Exception writing snapshot: " + e.toString());
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.d(TAG, "Unable to replace snapshot");
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.hardware.WLQ;
+
+import android.os.SystemClock;
+
+/**
+ * When each bus value in Data was last known to be current. Arrival times
+ * are monotonic nanoseconds kept in primitive arrays indexed by signal and
+ * by message key, so recording them on every frame costs a few stores.
+ *
+ * BluetoothLeService calls onMessage for every LIN or CAN frame, including
+ * the unchanged ones it does not parse. A value set while parsing a message
+ * stays current for as long as that message keeps arriving unchanged. The
+ * period of every message is learned, so a message that stops arriving is
+ * reported as stalled and frames missing in between are counted as dropped.
+ */
+public class Freshness {
+
+    // Signals, set from LINbus and CANbus through the Data setters
+    public static final int VIN = 0;
+    public static final int NEXT_SERVICE = 1;
+    public static final int NEXT_SERVICE_DATE = 2;
+    public static final int FRONT_TIRE_PRESSURE = 3;
+    public static final int REAR_TIRE_PRESSURE = 4;
+    public static final int AMBIENT_TEMPERATURE = 5;
+    public static final int ENGINE_TEMPERATURE = 6;
+    public static final int ODOMETER = 7;
+    public static final int TRIP_ONE = 8;
+    public static final int TRIP_TWO = 9;
+    public static final int TRIP_AUTO = 10;
+    public static final int RPM = 11;
+    public static final int GEAR = 12;
+    public static final int VOLTAGE = 13;
+    public static final int THROTTLE_POSITION = 14;
+    public static final int AMBIENT_LIGHT = 15;
+    public static final int SPEED = 16;
+    public static final int AVG_SPEED = 17;
+    public static final int CURRENT_CONSUMPTION = 18;
+    public static final int FUEL_ECONOMY_ONE = 19;
+    public static final int FUEL_ECONOMY_TWO = 20;
+    public static final int FUEL_RANGE = 21;
+    public static final int LEAN_ANGLE_BIKE = 22;
+    public static final int REAR_SPEED = 23;
+    public static final int HIGH_BEAM = 24;
+    public static final int FOG_LIGHT = 25;
+    public static final int HEATED_GRIPS = 26;
+    public static final int COUNT = 27;
+
+    // Short names of the signals, used in alert rules and black box dumps
+    private static final String[] NAMES = {
+            "vin",
+            "next_service",
+            "next_service_date",
+            "front_tire",
+            "rear_tire",
+            "ambient_temp",
+            "engine_temp",
+            "odometer",
+            "trip1",
+            "trip2",
+            "trip_auto",
+            "rpm",
+            "gear",
+            "voltage",
+            "throttle",
+            "ambient_light",
+            "speed",
+            "avg_speed",
+            "consumption",
+            "economy1",
+            "economy2",
+            "range",
+            "lean",
+            "rear_speed",
+            "high_beam",
+            "fog_light",
+            "heated_grips"
+    };
+
+    // Message keys, LIN IDs first then the 11 bit CAN IDs
+    private static final int LIN_COUNT = 256;
+    private static final int CAN_COUNT = 2048;
+    public static final int KEY_COUNT = LIN_COUNT + CAN_COUNT;
+    private static final int NONE = -1;
+
+    private static final long MILLIS = 1000000L;
+    // Used until a message period is learned
+    private static final long DEFAULT_MAX_AGE = 10000 * MILLIS;
+    // Shortest age reported as stale, covers scheduling jitter of fast messages
+    private static final long MIN_MAX_AGE = 1000 * MILLIS;
+    // Missing for this many periods makes a message stalled
+    private static final int STALL_PERIODS = 4;
+    // Intervals seen before a period is trusted
+    private static final int MIN_SAMPLES = 8;
+
+    private static final long[] signalTime = new long[COUNT];
+    private static final int[] signalSource = new int[COUNT];
+    private static final long[] messageTime = new long[KEY_COUNT];
+    private static final long[] parsedTime = new long[KEY_COUNT];
+    private static final long[] period = new long[KEY_COUNT];
+    private static final int[] samples = new int[KEY_COUNT];
+    private static final long[] dropped = new long[KEY_COUNT];
+    private static final int[] stalls = new int[KEY_COUNT];
+
+    // Message being parsed, values set outside a parse (restored ones) are not current
+    private static int current = NONE;
+    // Bits of the signals set by the message being parsed
+    private static int updated;
+
+    public static String getName(int signal) {
+        return NAMES[signal];
+    }
+
+    // Signal with a short name, -1 if there is none
+    public static int getSignal(String name) {
+        for (int signal = 0; signal < COUNT; signal++) {
+            if (NAMES[signal].equals(name)) {
+                return signal;
+            }
+        }
+        return -1;
+    }
+
+    public static int linKey(int id) {
+        return id & 0xFF;
+    }
+
+    public static int canKey(int id) {
+        return LIN_COUNT + (id & 0x7FF);
+    }
+
+    public static boolean isCan(int key) {
+        return key >= LIN_COUNT;
+    }
+
+    // LIN or CAN ID of a message key
+    public static int getMessageId(int key) {
+        return isCan(key) ? key - LIN_COUNT : key;
+    }
+
+    /**
+     * Record the arrival of a frame and learn the period of its message.
+     * @param parsed true if the frame is about to be parsed, values it sets
+     * follow until endMessage
+     */
+    public static void onMessage(int key, boolean parsed) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        long last = messageTime[key];
+        if (last != 0) {
+            long interval = now - last;
+            long expected = period[key];
+            if (samples[key] < MIN_SAMPLES) {
+                // Plain mean of the first intervals
+                samples[key]++;
+                period[key] = expected + (interval - expected) / samples[key];
+            } else if (interval > getMaxAge(key)) {
+                // Recovered from a stall, not a sample of the period
+                stalls[key]++;
+            } else {
+                if (expected > 0 && interval > expected + expected / 2) {
+                    // Estimate, notifications batched by BLE also arrive late
+                    dropped[key] += (interval + expected / 2) / expected - 1;
+                }
+                // Moving average over about eight intervals
+                period[key] = expected + (interval - expected) / 8;
+            }
+        }
+        messageTime[key] = now;
+        if (parsed) {
+            parsedTime[key] = now;
+            current = key;
+        }
+    }
+
+    /**
+     * Start parsing a frame that arrived earlier and was held back, values it
+     * sets follow until endMessage.
+     */
+    public static void beginMessage(int key) {
+        parsedTime[key] = SystemClock.elapsedRealtimeNanos();
+        current = key;
+    }
+
+    /**
+     * @return bits, by signal, of the values set by the message just parsed
+     */
+    public static int endMessage() {
+        current = NONE;
+        int signals = updated;
+        updated = 0;
+        return signals;
+    }
+
+    // Called by the Data setters
+    static void update(int signal) {
+        int source = current;
+        if (source != NONE) {
+            signalTime[signal] = parsedTime[source];
+            signalSource[signal] = source;
+            updated |= 1 << signal;
+        }
+    }
+
+    /**
+     * @return ms since the signal was last known to be current, or
+     * Long.MAX_VALUE if it has not been received since the app started
+     */
+    public static long getAge(int signal) {
+        long time = getTime(signal);
+        if (time == 0) {
+            return Long.MAX_VALUE;
+        }
+        return (SystemClock.elapsedRealtimeNanos() - time) / MILLIS;
+    }
+
+    // True if the signal has not been received within a few periods of its message
+    public static boolean isStale(int signal) {
+        long time = getTime(signal);
+        if (time == 0) {
+            return true;
+        }
+        return SystemClock.elapsedRealtimeNanos() - time > getMaxAge(signalSource[signal]);
+    }
+
+    // The value, or null when it is stale
+    public static <T> T ifFresh(int signal, T value) {
+        return isStale(signal) ? null : value;
+    }
+
+    // True if a message with a learned period has not arrived for a few periods
+    public static boolean isStalled(int key) {
+        if (samples[key] < MIN_SAMPLES) {
+            return false;
+        }
+        return SystemClock.elapsedRealtimeNanos() - messageTime[key] > getMaxAge(key);
+    }
+
+    // Keys of all stalled messages
+    public static int[] getStalledMessages() {
+        int count = 0;
+        for (int key = 0; key < messageTime.length; key++) {
+            if (isStalled(key)) {
+                count++;
+            }
+        }
+        int[] keys = new int[count];
+        int index = 0;
+        for (int key = 0; key < messageTime.length && index < count; key++) {
+            if (isStalled(key)) {
+                keys[index++] = key;
+            }
+        }
+        return keys;
+    }
+
+    // Learned period of a message in ms, 0 until learned
+    public static long getPeriod(int key) {
+        return (samples[key] < MIN_SAMPLES) ? 0 : period[key] / MILLIS;
+    }
+
+    public static long getDroppedFrames(int key) {
+        return dropped[key];
+    }
+
+    public static int getStalls(int key) {
+        return stalls[key];
+    }
+
+    // A value set by the latest parse of its message is as current as that message
+    private static long getTime(int signal) {
+        long time = signalTime[signal];
+        if (time == 0) {
+            return 0;
+        }
+        int source = signalSource[signal];
+        return (time == parsedTime[source]) ? messageTime[source] : time;
+    }
+
+    private static long getMaxAge(int key) {
+        if (samples[key] < MIN_SAMPLES) {
+            return DEFAULT_MAX_AGE;
+        }
+        return Math.max(MIN_MAX_AGE, STALL_PERIODS * period[key]);
+    }
+}
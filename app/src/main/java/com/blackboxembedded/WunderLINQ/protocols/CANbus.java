@@ -22,9 +22,9 @@ import android.preference.PreferenceManager;
 import android.util.Log;
 
 import com.blackboxembedded.WunderLINQ.MyApplication;
-import com.blackboxembedded.WunderLINQ.comms.BLE.BluetoothLeService;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
 import com.blackboxembedded.WunderLINQ.FaultStatus;
+import com.blackboxembedded.WunderLINQ.TirePressureTrend;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
 
 public class CANbus {
@@ -47,36 +47,22 @@ public class CANbus {
             case 272:
                 // ASC Status - Needs testing
                 int ascStatusValue = ((data[5] & 0xFF)  >> 4) & 0x0f; // the highest 4 bits.
+                long ascStatusFaults = FaultStatus.ASC_SELF_DIAG | FaultStatus.ASC_INTERVENTION | FaultStatus.ASC_DEACTIVATED | FaultStatus.ASC_ERROR;
                 switch (ascStatusValue){
                     case 0x1: case 0x9:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(true);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascStatusFaults, FaultStatus.ASC_INTERVENTION);
                         break;
                     case 0x2: case 0x5: case 0x6: case 0x7: case 0xA: case 0xD: case 0xE:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(true);
+                        FaultStatus.update(ascStatusFaults, FaultStatus.ASC_ERROR);
                         break;
                     case 0x3: case 0xB:
-                        FaultStatus.setAscSelfDiagActive(true);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascStatusFaults, FaultStatus.ASC_SELF_DIAG);
                         break;
                     case 0x8:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(true);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascStatusFaults, FaultStatus.ASC_DEACTIVATED);
                         break;
                     default:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascStatusFaults, 0);
                         break;
                 }
 
@@ -166,18 +152,16 @@ public class CANbus {
 
                 // ABS Fault - Needs testing
                 int absValue = (data[8] & 0xFF);
+                long absFaults = FaultStatus.ABS_SELF_DIAG | FaultStatus.ABS_DEACTIVATED;
                 switch (absValue){
                     case 0x59:
-                        FaultStatus.setAbsSelfDiagActive(true);
-                        FaultStatus.setAbsDeactivatedActive(false);
+                        FaultStatus.update(absFaults, FaultStatus.ABS_SELF_DIAG);
                         break;
                     case 0x41:
-                        FaultStatus.setAbsSelfDiagActive(false);
-                        FaultStatus.setAbsDeactivatedActive(true);
+                        FaultStatus.update(absFaults, FaultStatus.ABS_DEACTIVATED);
                         break;
                     default:
-                        FaultStatus.setAbsSelfDiagActive(false);
-                        FaultStatus.setAbsDeactivatedActive(false);
+                        FaultStatus.update(absFaults, 0);
                         break;
                 }
                 break;
@@ -186,249 +170,146 @@ public class CANbus {
                 double ambientTemp = ((data[4] & 0xFF) * 0.50) - 40;
                 Data.setAmbientTemperature(ambientTemp);
                 if(ambientTemp <= 0.0){
-                    FaultStatus.seticeWarnActive(true);
+                    FaultStatus.set(FaultStatus.ICE_WARNING, true);
                 } else {
-                    FaultStatus.seticeWarnActive(false);
+                    FaultStatus.set(FaultStatus.ICE_WARNING, false);
                 }
 
                 //LAMPF - Needs testing
                 int lampfOneValue = ((data[5] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
+                long lampfOneFaults = FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL;
                 switch (lampfOneValue) {
                     case 0x1:
-                        FaultStatus.setDaytimeRunningActive(true);
-                        FaultStatus.setfrontLeftSignalActive(false);
-                        FaultStatus.setfrontRightSignalActive(false);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.DAYTIME_RUNNING);
                         break;
                     case 0x2:
-                        FaultStatus.setDaytimeRunningActive(false);
-                        FaultStatus.setfrontLeftSignalActive(true);
-                        FaultStatus.setfrontRightSignalActive(false);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.FRONT_LEFT_SIGNAL);
                         break;
                     case 0x3:
-                        FaultStatus.setDaytimeRunningActive(true);
-                        FaultStatus.setfrontLeftSignalActive(true);
-                        FaultStatus.setfrontRightSignalActive(false);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL);
                         break;
                     case 0x4:
-                        FaultStatus.setDaytimeRunningActive(false);
-                        FaultStatus.setfrontLeftSignalActive(false);
-                        FaultStatus.setfrontRightSignalActive(true);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.FRONT_RIGHT_SIGNAL);
                         break;
                     case 0x5:
-                        FaultStatus.setDaytimeRunningActive(true);
-                        FaultStatus.setfrontLeftSignalActive(false);
-                        FaultStatus.setfrontRightSignalActive(true);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_RIGHT_SIGNAL);
                         break;
                     case 0x6:
-                        FaultStatus.setDaytimeRunningActive(false);
-                        FaultStatus.setfrontLeftSignalActive(true);
-                        FaultStatus.setfrontRightSignalActive(true);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL);
                         break;
                     case 0x7:
-                        FaultStatus.setDaytimeRunningActive(true);
-                        FaultStatus.setfrontLeftSignalActive(true);
-                        FaultStatus.setfrontRightSignalActive(true);
+                        FaultStatus.update(lampfOneFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL);
                         break;
                     default:
-                        FaultStatus.setDaytimeRunningActive(false);
-                        FaultStatus.setfrontLeftSignalActive(false);
-                        FaultStatus.setfrontRightSignalActive(false);
+                        FaultStatus.update(lampfOneFaults, 0);
                         break;
                 }
                 int lampfOneLowValue = (data[5] & 0xFF) & 0x0f; // the lowest 4 bits
+                long lampfOneLowFaults = FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM;
                 switch (lampfOneLowValue) {
                     case 0x1:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE);
                         break;
                     case 0x2:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO);
                         break;
                     case 0x3:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO);
                         break;
                     case 0x4:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.LOW_BEAM);
                         break;
                     case 0x5:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.LOW_BEAM);
                         break;
                     case 0x6:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM);
                         break;
                     case 0x7:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM);
                         break;
                     case 0x8:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.HIGH_BEAM);
                         break;
                     case 0x9:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xA:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xB:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xC:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xD:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xE:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                         break;
                     case 0xF:
-                        FaultStatus.setFrontParkingLightOneActive(true);
-                        FaultStatus.setFrontParkingLightTwoActive(true);
-                        FaultStatus.setLowBeamActive(true);
-                        FaultStatus.setHighBeamActive(true);
+                        FaultStatus.update(lampfOneLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                         break;
                     default:
-                        FaultStatus.setFrontParkingLightOneActive(false);
-                        FaultStatus.setFrontParkingLightTwoActive(false);
-                        FaultStatus.setLowBeamActive(false);
-                        FaultStatus.setHighBeamActive(false);
+                        FaultStatus.update(lampfOneLowFaults, 0);
                         break;
                 }
 
                 int lampfTwoHighValue = ((data[6] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
                 switch (lampfTwoHighValue) {
                     case 0x1: case 0x3: case 0x5: case 0x7: case 0x9: case 0xB: case 0xD: case 0xF:
-                        FaultStatus.setrearRightSignalActive(true);
+                        FaultStatus.set(FaultStatus.REAR_RIGHT_SIGNAL, true);
                         break;
                     default:
-                        FaultStatus.setrearRightSignalActive(false);
+                        FaultStatus.set(FaultStatus.REAR_RIGHT_SIGNAL, false);
                         break;
                 }
                 int lampfTwoLowValue = (data[6] & 0xFF) & 0x0f; // the lowest 4 bits
+                long lampfTwoLowFaults = FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT;
                 switch (lampfTwoLowValue) {
                     case 0x1:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LIGHT);
                         break;
                     case 0x2:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.BRAKE_LIGHT);
                         break;
                     case 0x3:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT);
                         break;
                     case 0x4:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.LICENSE_LIGHT);
                         break;
                     case 0x5: case 0xC:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.LICENSE_LIGHT);
                         break;
                     case 0x6:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                         break;
                     case 0x7:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                         break;
                     case 0x8:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL);
                         break;
                     case 0x9:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT);
                         break;
                     case 0xA:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.BRAKE_LIGHT);
                         break;
                     case 0xD:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT);
                         break;
                     case 0xE:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                         break;
                     case 0xF:
-                        FaultStatus.setrearLeftSignalActive(true);
-                        FaultStatus.setRearLightActive(true);
-                        FaultStatus.setBrakeLightActive(true);
-                        FaultStatus.setLicenseLightActive(true);
+                        FaultStatus.update(lampfTwoLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                         break;
                     default:
-                        FaultStatus.setrearLeftSignalActive(false);
-                        FaultStatus.setRearLightActive(false);
-                        FaultStatus.setBrakeLightActive(false);
-                        FaultStatus.setLicenseLightActive(false);
+                        FaultStatus.update(lampfTwoLowFaults, 0);
                         break;
                 }
 
@@ -473,6 +354,7 @@ public class CANbus {
                 if ((data[8] & 0xFF) != 0xFF) {
                     double rdcFront = (data[8] & 0xFF) / 50.0;
                     Data.setFrontTirePressure(rdcFront);
+                    TirePressureTrend.update(TirePressureTrend.FRONT, rdcFront);
                     if (sharedPrefs.getBoolean("prefTPMSAlert", false)) {
                         int pressureThreshold = Integer.parseInt(sharedPrefs.getString("prefTPMSAlertThreshold", "-1"));
                         if (pressureThreshold >= 0) {
@@ -480,30 +362,17 @@ public class CANbus {
                             if (pressureFormat.contains("1")) {
                                 // KPa
                                 if (pressureThreshold >= Utils.barTokPa(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("2")) {
                                 // Kg-f
                                 if (pressureThreshold >= Utils.barTokgf(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("3")) {
                                 // Psi
                                 if (pressureThreshold >= Utils.barToPsi(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
-                                }
-                            }
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getfrontTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(true);
-                                }
-                            }
-                        } else {
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             }
                         }
@@ -512,6 +381,7 @@ public class CANbus {
                 if ((data[9] & 0xFF) != 0xFF){
                     double rdcRear = (data[9] & 0xFF) / 50.0;
                     Data.setRearTirePressure(rdcRear);
+                    TirePressureTrend.update(TirePressureTrend.REAR, rdcRear);
                     if (sharedPrefs.getBoolean("prefTPMSAlert",false)) {
                         int pressureThreshold = Integer.parseInt(sharedPrefs.getString("prefTPMSAlertThreshold","-1"));
                         if (pressureThreshold >= 0) {
@@ -519,30 +389,17 @@ public class CANbus {
                             if (pressureFormat.contains("1")) {
                                 // KPa
                                 if (pressureThreshold >= Utils.barTokPa(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("2")) {
                                 // Kg-f
                                 if (pressureThreshold >= Utils.barTokgf(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("3")) {
                                 // Psi
                                 if (pressureThreshold >= Utils.barToPsi(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
-                                }
-                            }
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getrearTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(true);
-                                }
-                            }
-                        } else {
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             }
                         }
@@ -21,9 +21,9 @@ import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 import android.util.Log;
 
-import com.blackboxembedded.WunderLINQ.comms.BLE.BluetoothLeService;
 import com.blackboxembedded.WunderLINQ.hardware.WLQ.Data;
 import com.blackboxembedded.WunderLINQ.FaultStatus;
+import com.blackboxembedded.WunderLINQ.TirePressureTrend;
 import com.blackboxembedded.WunderLINQ.MyApplication;
 import com.blackboxembedded.WunderLINQ.Utils.Utils;
 
@@ -124,26 +124,19 @@ public class LINbus {
                 }
                 // ABS Fault
                 int absValue = (data[3] & 0xFF) & 0x0f; // the lowest 4 bits
+                long absFaults = FaultStatus.ABS_SELF_DIAG | FaultStatus.ABS_DEACTIVATED | FaultStatus.ABS_ERROR;
                 switch (absValue){
                     case 0x2: case 0x5: case 0x6: case 0x7: case 0xA: case 0xD: case 0xE:
-                        FaultStatus.setAbsSelfDiagActive(false);
-                        FaultStatus.setAbsDeactivatedActive(false);
-                        FaultStatus.setabsErrorActive(true);
+                        FaultStatus.update(absFaults, FaultStatus.ABS_ERROR);
                         break;
                     case 0x3: case 0xB:
-                        FaultStatus.setAbsSelfDiagActive(true);
-                        FaultStatus.setAbsDeactivatedActive(false);
-                        FaultStatus.setabsErrorActive(false);
+                        FaultStatus.update(absFaults, FaultStatus.ABS_SELF_DIAG);
                         break;
                     case 0x8:
-                        FaultStatus.setAbsSelfDiagActive(false);
-                        FaultStatus.setAbsDeactivatedActive(true);
-                        FaultStatus.setabsErrorActive(false);
+                        FaultStatus.update(absFaults, FaultStatus.ABS_DEACTIVATED);
                         break;
                     case 0xF: default:
-                        FaultStatus.setAbsSelfDiagActive(false);
-                        FaultStatus.setAbsDeactivatedActive(false);
-                        FaultStatus.setabsErrorActive(false);
+                        FaultStatus.update(absFaults, 0);
                         break;
                 }
 
@@ -151,6 +144,7 @@ public class LINbus {
                 if ((data[4] & 0xFF) != 0xFF) {
                     double rdcFront = (data[4] & 0xFF) / 50.0;
                     Data.setFrontTirePressure(rdcFront);
+                    TirePressureTrend.update(TirePressureTrend.FRONT, rdcFront);
                     if (sharedPrefs.getBoolean("prefTPMSAlert", false)) {
                         int pressureThreshold = Integer.parseInt(sharedPrefs.getString("prefTPMSAlertThreshold", "-1"));
                         if (pressureThreshold >= 0) {
@@ -158,30 +152,17 @@ public class LINbus {
                             if (pressureFormat.contains("1")) {
                                 // KPa
                                 if (pressureThreshold >= Utils.barTokPa(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("2")) {
                                 // Kg-f
                                 if (pressureThreshold >= Utils.barTokgf(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("3")) {
                                 // Psi
                                 if (pressureThreshold >= Utils.barToPsi(rdcFront)) {
-                                    FaultStatus.setfrontTirePressureCriticalActive(true);
-                                }
-                            }
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getfrontTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(true);
-                                }
-                            }
-                        } else {
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
+                                    FaultStatus.set(FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             }
                         }
@@ -190,6 +171,7 @@ public class LINbus {
                 if ((data[5] & 0xFF) != 0xFF){
                     double rdcRear = (data[5] & 0xFF) / 50.0;
                     Data.setRearTirePressure(rdcRear);
+                    TirePressureTrend.update(TirePressureTrend.REAR, rdcRear);
                     if (sharedPrefs.getBoolean("prefDebugLogging", false)) {
                         // Log data
                         Log.d("RearTirePressure","Value Received: " + rdcRear);
@@ -201,30 +183,17 @@ public class LINbus {
                             if (pressureFormat.contains("1")) {
                                 // KPa
                                 if (pressureThreshold >= Utils.barTokPa(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("2")) {
                                 // Kg-f
                                 if (pressureThreshold >= Utils.barTokgf(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             } else if (pressureFormat.contains("3")) {
                                 // Psi
                                 if (pressureThreshold >= Utils.barToPsi(rdcRear)){
-                                    FaultStatus.setrearTirePressureCriticalActive(true);
-                                }
-                            }
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getrearTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(true);
-                                }
-                            }
-                        } else {
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
+                                    FaultStatus.set(FaultStatus.REAR_TIRE_PRESSURE_CRITICAL, true);
                                 }
                             }
                         }
@@ -238,115 +207,28 @@ public class LINbus {
 
                 if (!sharedPrefs.getBoolean("prefTPMSAlert",false)) {
                     // Tire Pressure Faults
+                    long tireFaults = FaultStatus.FRONT_TIRE_PRESSURE_WARNING | FaultStatus.REAR_TIRE_PRESSURE_WARNING | FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL | FaultStatus.REAR_TIRE_PRESSURE_CRITICAL;
                     switch (data[6] & 0xFF) {
                         case 0xC9:
-                            FaultStatus.setfrontTirePressureWarningActive(true);
-                            FaultStatus.setrearTirePressureWarningActive(false);
-                            FaultStatus.setfrontTirePressureCriticalActive(false);
-                            FaultStatus.setrearTirePressureCriticalActive(false);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                }
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.FRONT_TIRE_PRESSURE_WARNING);
                             break;
                         case 0xCA:
-                            FaultStatus.setfrontTirePressureWarningActive(false);
-                            FaultStatus.setrearTirePressureWarningActive(true);
-                            FaultStatus.setfrontTirePressureCriticalActive(false);
-                            FaultStatus.setrearTirePressureCriticalActive(false);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                }
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.REAR_TIRE_PRESSURE_WARNING);
                             break;
                         case 0xCB:
-                            FaultStatus.setfrontTirePressureWarningActive(true);
-                            FaultStatus.setrearTirePressureWarningActive(true);
-                            FaultStatus.setfrontTirePressureCriticalActive(false);
-                            FaultStatus.setrearTirePressureCriticalActive(false);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                }
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.FRONT_TIRE_PRESSURE_WARNING | FaultStatus.REAR_TIRE_PRESSURE_WARNING);
                             break;
                         case 0xD1:
-                            FaultStatus.setfrontTirePressureWarningActive(false);
-                            FaultStatus.setrearTirePressureWarningActive(false);
-                            FaultStatus.setfrontTirePressureCriticalActive(true);
-                            FaultStatus.setrearTirePressureCriticalActive(false);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getfrontTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(true);
-                                }
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL);
                             break;
                         case 0xD2:
-                            FaultStatus.setfrontTirePressureWarningActive(false);
-                            FaultStatus.setrearTirePressureWarningActive(false);
-                            FaultStatus.setfrontTirePressureCriticalActive(false);
-                            FaultStatus.setrearTirePressureCriticalActive(true);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                }
-                                if (!(FaultStatus.getrearTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(true);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.REAR_TIRE_PRESSURE_CRITICAL);
                             break;
                         case 0xD3:
-                            FaultStatus.setfrontTirePressureWarningActive(false);
-                            FaultStatus.setrearTirePressureWarningActive(false);
-                            FaultStatus.setfrontTirePressureCriticalActive(true);
-                            FaultStatus.setrearTirePressureCriticalActive(true);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (!(FaultStatus.getfrontTirePressureCriticalNotificationActive()) && !(FaultStatus.getrearTirePressureCriticalNotificationActive())) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(true);
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(true);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, FaultStatus.FRONT_TIRE_PRESSURE_CRITICAL | FaultStatus.REAR_TIRE_PRESSURE_CRITICAL);
                             break;
                         default:
-                            FaultStatus.setfrontTirePressureWarningActive(false);
-                            FaultStatus.setrearTirePressureWarningActive(false);
-                            FaultStatus.setfrontTirePressureCriticalActive(false);
-                            FaultStatus.setrearTirePressureCriticalActive(false);
-                            if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                                if (FaultStatus.getfrontTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setfrontTirePressureCriticalNotificationActive(false);
-                                }
-                                if (FaultStatus.getrearTirePressureCriticalNotificationActive()) {
-                                    BluetoothLeService.updateNotification();
-                                    FaultStatus.setrearTirePressureCriticalNotificationActive(false);
-                                }
-                            }
+                            FaultStatus.update(tireFaults, 0);
                             break;
                     }
                 }
@@ -412,36 +294,22 @@ public class LINbus {
 
                 // ASC Fault
                 int ascValue = ((data[5] & 0xFF)  >> 4) & 0x0f; // the highest 4 bits.
+                long ascFaults = FaultStatus.ASC_SELF_DIAG | FaultStatus.ASC_INTERVENTION | FaultStatus.ASC_DEACTIVATED | FaultStatus.ASC_ERROR;
                 switch (ascValue){
                     case 0x1: case 0x9:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(true);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascFaults, FaultStatus.ASC_INTERVENTION);
                         break;
                     case 0x2: case 0x5: case 0x6: case 0x7: case 0xA: case 0xD: case 0xE:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(true);
+                        FaultStatus.update(ascFaults, FaultStatus.ASC_ERROR);
                         break;
                     case 0x3: case 0xB:
-                        FaultStatus.setAscSelfDiagActive(true);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascFaults, FaultStatus.ASC_SELF_DIAG);
                         break;
                     case 0x8:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(true);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascFaults, FaultStatus.ASC_DEACTIVATED);
                         break;
                     default:
-                        FaultStatus.setAscSelfDiagActive(false);
-                        FaultStatus.setAscInterventionActive(false);
-                        FaultStatus.setAscDeactivatedActive(false);
-                        FaultStatus.setascErrorActive(false);
+                        FaultStatus.update(ascFaults, 0);
                         break;
                 }
 
@@ -449,10 +317,10 @@ public class LINbus {
                 int oilValue = (data[5] & 0xFF) & 0x0f; // the lowest 4 bits
                 switch (oilValue){
                     case 0x2: case 0x6: case 0xA: case 0xE:
-                        FaultStatus.setOilLowActive(true);
+                        FaultStatus.set(FaultStatus.OIL_LOW, true);
                         break;
                     default:
-                        FaultStatus.setOilLowActive(false);
+                        FaultStatus.set(FaultStatus.OIL_LOW, false);
                         break;
                 }
 
@@ -480,157 +348,42 @@ public class LINbus {
                 int fuelValue = ((data[5] & 0xFF)  >> 4) & 0x0f; // the highest 4 bits.
                 switch (fuelValue){
                     case 0x2: case 0x6: case 0xA: case 0xE:
-                        FaultStatus.setfuelFaultActive(true);
-                        BluetoothLeService.fuelAlert();
+                        FaultStatus.set(FaultStatus.FUEL_FAULT, true);
                         break;
                     default:
-                        FaultStatus.setfuelFaultActive(false);
-                        BluetoothLeService.fuelAlertSent = false;
+                        FaultStatus.set(FaultStatus.FUEL_FAULT, false);
                         break;
                 }
                 // General Fault
                 int generalFault = (data[5] & 0xFF) & 0x0f; // the lowest 4 bits
+                long generalFaults = FaultStatus.GENERAL_FLASHING_YELLOW | FaultStatus.GENERAL_SHOWS_YELLOW | FaultStatus.GENERAL_FLASHING_RED | FaultStatus.GENERAL_SHOWS_RED;
                 switch (generalFault){
                     case 0x1: case 0xD:
-                        FaultStatus.setGeneralFlashingYellowActive(true);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(false);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(false);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_FLASHING_YELLOW);
                         break;
                     case 0x2: case 0xE:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(true);
-                        FaultStatus.setGeneralFlashingRedActive(false);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(false);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_SHOWS_YELLOW);
                         break;
                     case 0x4: case 0x7:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(true);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (!(FaultStatus.getgeneralFlashingRedNotificationActive())) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(true);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_FLASHING_RED);
                         break;
                     case 0x5:
-                        FaultStatus.setGeneralFlashingYellowActive(true);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(true);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (!(FaultStatus.getgeneralFlashingRedNotificationActive())) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(true);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_FLASHING_YELLOW | FaultStatus.GENERAL_FLASHING_RED);
                         break;
                     case 0x6:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(true);
-                        FaultStatus.setGeneralFlashingRedActive(true);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (!(FaultStatus.getgeneralFlashingRedNotificationActive())) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(true);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_SHOWS_YELLOW | FaultStatus.GENERAL_FLASHING_RED);
                         break;
                     case 0x8: case 0xB:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(false);
-                        FaultStatus.setGeneralShowsRedActive(true);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(false);
-                            }
-                            if (!(FaultStatus.getgeneralShowsRedNotificationActive())) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(true);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_SHOWS_RED);
                         break;
                     case 0x9:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(true);
-                        FaultStatus.setGeneralShowsRedActive(true);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (!FaultStatus.getgeneralShowsRedNotificationActive() && !FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(true);
-                                FaultStatus.setGeneralShowsRedNotificationActive(true);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_FLASHING_RED | FaultStatus.GENERAL_SHOWS_RED);
                         break;
                     case 0xA:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(true);
-                        FaultStatus.setGeneralFlashingRedActive(false);
-                        FaultStatus.setGeneralShowsRedActive(true);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(false);
-                            }
-                            if (!(FaultStatus.getgeneralShowsRedNotificationActive())) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(true);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, FaultStatus.GENERAL_SHOWS_YELLOW | FaultStatus.GENERAL_SHOWS_RED);
                         break;
                     default:
-                        FaultStatus.setGeneralFlashingYellowActive(false);
-                        FaultStatus.setGeneralShowsYellowActive(false);
-                        FaultStatus.setGeneralFlashingRedActive(false);
-                        FaultStatus.setGeneralShowsRedActive(false);
-                        if (sharedPrefs.getBoolean("prefNotifications", true)) {
-                            if (FaultStatus.getgeneralFlashingRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralFlashingRedNotificationActive(false);
-                            }
-                            if (FaultStatus.getgeneralShowsRedNotificationActive()) {
-                                BluetoothLeService.updateNotification();
-                                FaultStatus.setGeneralShowsRedNotificationActive(false);
-                            }
-                        }
+                        FaultStatus.update(generalFaults, 0);
                         break;
                 }
                 break;
@@ -639,9 +392,9 @@ public class LINbus {
                     double ambientTemp = ((data[1] & 0xFF) * 0.50) - 40;
                     Data.setAmbientTemperature(ambientTemp);
                     if(ambientTemp <= 0.0){
-                        FaultStatus.seticeWarnActive(true);
+                        FaultStatus.set(FaultStatus.ICE_WARNING, true);
                     } else {
-                        FaultStatus.seticeWarnActive(false);
+                        FaultStatus.set(FaultStatus.ICE_WARNING, false);
                     }
                 }
 
@@ -649,167 +402,102 @@ public class LINbus {
                 if (((data[3] & 0xFF) != 0xFF) ) {
                     // LAMPF 1
                     int lampfOneValue = ((data[3] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
+                    long lampfOneFaults = FaultStatus.ADD_FRONT_LIGHT_ONE | FaultStatus.ADD_FRONT_LIGHT_TWO;
                     switch (lampfOneValue) {
                         case 0x1: case 0x5: case 0x9: case 0xD:
-                            FaultStatus.setAddFrontLightOneActive(true);
-                            FaultStatus.setAddFrontLightTwoActive(false);
+                            FaultStatus.update(lampfOneFaults, FaultStatus.ADD_FRONT_LIGHT_ONE);
                             break;
                         case 0x2: case 0x6: case 0xA: case 0xE:
-                            FaultStatus.setAddFrontLightOneActive(false);
-                            FaultStatus.setAddFrontLightTwoActive(true);
+                            FaultStatus.update(lampfOneFaults, FaultStatus.ADD_FRONT_LIGHT_TWO);
                             break;
                         case 0x3: case 0xB:
-                            FaultStatus.setAddFrontLightOneActive(true);
-                            FaultStatus.setAddFrontLightTwoActive(true);
+                            FaultStatus.update(lampfOneFaults, FaultStatus.ADD_FRONT_LIGHT_ONE | FaultStatus.ADD_FRONT_LIGHT_TWO);
                             break;
                         default:
-                            FaultStatus.setAddFrontLightOneActive(false);
-                            FaultStatus.setAddFrontLightTwoActive(false);
+                            FaultStatus.update(lampfOneFaults, 0);
                             break;
                     }
                 }
                 // LAMPF 2
                 if (((data[4] & 0xFF) != 0xFF) ) {
                     int lampfTwoHighValue = ((data[4] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
+                    long lampfTwoHighFaults = FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL;
                     switch (lampfTwoHighValue) {
                         case 0x1: case 0x9:
-                            FaultStatus.setDaytimeRunningActive(true);
-                            FaultStatus.setfrontLeftSignalActive(false);
-                            FaultStatus.setfrontRightSignalActive(false);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.DAYTIME_RUNNING);
                             break;
                         case 0x2: case 0xA:
-                            FaultStatus.setDaytimeRunningActive(false);
-                            FaultStatus.setfrontLeftSignalActive(true);
-                            FaultStatus.setfrontRightSignalActive(false);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.FRONT_LEFT_SIGNAL);
                             break;
                         case 0x3: case 0xB:
-                            FaultStatus.setDaytimeRunningActive(true);
-                            FaultStatus.setfrontLeftSignalActive(true);
-                            FaultStatus.setfrontRightSignalActive(false);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL);
                             break;
                         case 0x4: case 0xC:
-                            FaultStatus.setDaytimeRunningActive(false);
-                            FaultStatus.setfrontLeftSignalActive(false);
-                            FaultStatus.setfrontRightSignalActive(true);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.FRONT_RIGHT_SIGNAL);
                             break;
                         case 0x5: case 0xD:
-                            FaultStatus.setDaytimeRunningActive(true);
-                            FaultStatus.setfrontLeftSignalActive(false);
-                            FaultStatus.setfrontRightSignalActive(true);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_RIGHT_SIGNAL);
                             break;
                         case 0x6: case 0xE:
-                            FaultStatus.setDaytimeRunningActive(false);
-                            FaultStatus.setfrontLeftSignalActive(true);
-                            FaultStatus.setfrontRightSignalActive(true);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL);
                             break;
                         case 0x7: case 0xF:
-                            FaultStatus.setDaytimeRunningActive(true);
-                            FaultStatus.setfrontLeftSignalActive(true);
-                            FaultStatus.setfrontRightSignalActive(true);
+                            FaultStatus.update(lampfTwoHighFaults, FaultStatus.DAYTIME_RUNNING | FaultStatus.FRONT_LEFT_SIGNAL | FaultStatus.FRONT_RIGHT_SIGNAL);
                             break;
                         default:
-                            FaultStatus.setDaytimeRunningActive(false);
-                            FaultStatus.setfrontLeftSignalActive(false);
-                            FaultStatus.setfrontRightSignalActive(false);
+                            FaultStatus.update(lampfTwoHighFaults, 0);
                             break;
                     }
                     int lampfTwoLowValue = (data[4] & 0xFF) & 0x0f; // the lowest 4 bits
+                    long lampfTwoLowFaults = FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM;
                     switch (lampfTwoLowValue) {
                         case 0x1:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE);
                             break;
                         case 0x2:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO);
                             break;
                         case 0x3:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO);
                             break;
                         case 0x4:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.LOW_BEAM);
                             break;
                         case 0x5:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.LOW_BEAM);
                             break;
                         case 0x6:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM);
                             break;
                         case 0x7:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM);
                             break;
                         case 0x8:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.HIGH_BEAM);
                             break;
                         case 0x9:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xA:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xB:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xC:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xD:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xE:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                             break;
                         case 0xF:
-                            FaultStatus.setFrontParkingLightOneActive(true);
-                            FaultStatus.setFrontParkingLightTwoActive(true);
-                            FaultStatus.setLowBeamActive(true);
-                            FaultStatus.setHighBeamActive(true);
+                            FaultStatus.update(lampfTwoLowFaults, FaultStatus.FRONT_PARKING_LIGHT_ONE | FaultStatus.FRONT_PARKING_LIGHT_TWO | FaultStatus.LOW_BEAM | FaultStatus.HIGH_BEAM);
                             break;
                         default:
-                            FaultStatus.setFrontParkingLightOneActive(false);
-                            FaultStatus.setFrontParkingLightTwoActive(false);
-                            FaultStatus.setLowBeamActive(false);
-                            FaultStatus.setHighBeamActive(false);
+                            FaultStatus.update(lampfTwoLowFaults, 0);
                             break;
                     }
                 }
@@ -819,97 +507,56 @@ public class LINbus {
                     int lampfThreeHighValue = ((data[5] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
                     switch (lampfThreeHighValue) {
                         case 0x1: case 0x3: case 0x5: case 0x7: case 0x9: case 0xB: case 0xD: case 0xF:
-                            FaultStatus.setrearRightSignalActive(true);
+                            FaultStatus.set(FaultStatus.REAR_RIGHT_SIGNAL, true);
                             break;
                         default:
-                            FaultStatus.setrearRightSignalActive(false);
+                            FaultStatus.set(FaultStatus.REAR_RIGHT_SIGNAL, false);
                             break;
                     }
                     int lampfThreeLowValue = (data[5] & 0xFF) & 0x0f; // the lowest 4 bits
+                    long lampfThreeLowFaults = FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT;
                     switch (lampfThreeLowValue) {
                         case 0x1:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LIGHT);
                             break;
                         case 0x2:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.BRAKE_LIGHT);
                             break;
                         case 0x3:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT);
                             break;
                         case 0x4:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.LICENSE_LIGHT);
                             break;
                         case 0x5: case 0xC:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.LICENSE_LIGHT);
                             break;
                         case 0x6:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                             break;
                         case 0x7:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                             break;
                         case 0x8:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL);
                             break;
                         case 0x9:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT);
                             break;
                         case 0xA:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.BRAKE_LIGHT);
                             break;
                         case 0xD:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT);
                             break;
                         case 0xE:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                             break;
                         case 0xF:
-                            FaultStatus.setrearLeftSignalActive(true);
-                            FaultStatus.setRearLightActive(true);
-                            FaultStatus.setBrakeLightActive(true);
-                            FaultStatus.setLicenseLightActive(true);
+                            FaultStatus.update(lampfThreeLowFaults, FaultStatus.REAR_LEFT_SIGNAL | FaultStatus.REAR_LIGHT | FaultStatus.BRAKE_LIGHT | FaultStatus.LICENSE_LIGHT);
                             break;
                         default:
-                            FaultStatus.setrearLeftSignalActive(false);
-                            FaultStatus.setRearLightActive(false);
-                            FaultStatus.setBrakeLightActive(false);
-                            FaultStatus.setLicenseLightActive(false);
+                            FaultStatus.update(lampfThreeLowFaults, 0);
                             break;
                     }
                 }
@@ -919,103 +566,59 @@ public class LINbus {
                     int lampfFourHighValue = ((data[6] & 0xFF) >> 4) & 0x0f; // the highest 4 bits.
                     switch (lampfFourHighValue) {
                         case 0x1: case 0x3: case 0x5: case 0x9: case 0xB: case 0xD: case 0xF:
-                            FaultStatus.setRearFogLightActive(true);
+                            FaultStatus.set(FaultStatus.REAR_FOG_LIGHT, true);
                             break;
                         default:
-                            FaultStatus.setRearFogLightActive(false);
+                            FaultStatus.set(FaultStatus.REAR_FOG_LIGHT, false);
                             break;
                     }
                     int lampfFourLowValue = (data[6] & 0xFF) & 0x0f; // the lowest 4 bits
+                    long lampfFourLowFaults = FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT;
                     switch (lampfFourLowValue) {
                         case 0x1:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT);
                             break;
                         case 0x2:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_BRAKE_LIGHT);
                             break;
                         case 0x3:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.ADD_BRAKE_LIGHT);
                             break;
                         case 0x4:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.FRONT_LAMP_ONE_LIGHT);
                             break;
                         case 0x5:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT);
                             break;
                         case 0x6:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT);
                             break;
                         case 0x7:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT);
                             break;
                         case 0x8:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0x9:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0xA:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0xB:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0xC:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.FRONT_LAMP_ONE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0xD:
-                            FaultStatus.setAddDippedLightActive(true);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_DIPPED_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         case 0xE:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(true);
-                            FaultStatus.setFrontLampOneLightActive(true);
-                            FaultStatus.setFrontLampTwoLightActive(true);
+                            FaultStatus.update(lampfFourLowFaults, FaultStatus.ADD_BRAKE_LIGHT | FaultStatus.FRONT_LAMP_ONE_LIGHT | FaultStatus.FRONT_LAMP_TWO_LIGHT);
                             break;
                         default:
-                            FaultStatus.setAddDippedLightActive(false);
-                            FaultStatus.setAddBrakeLightActive(false);
-                            FaultStatus.setFrontLampOneLightActive(false);
-                            FaultStatus.setFrontLampTwoLightActive(false);
+                            FaultStatus.update(lampfFourLowFaults, 0);
                             break;
                     }
                 }
@@ -1068,9 +671,9 @@ public class LINbus {
                     // Comparing the two dates
                     int comparison = nextServiceDate.compareTo(currentDate);
                     if (comparison <= 0) {
-                        FaultStatus.setServiceActive(true);
+                        FaultStatus.set(FaultStatus.SERVICE, true);
                     } else {
-                        FaultStatus.setServiceActive(false);
+                        FaultStatus.set(FaultStatus.SERVICE, false);
                     }
                 }
                 if ((data[4] & 0xFF) != 0xFF){
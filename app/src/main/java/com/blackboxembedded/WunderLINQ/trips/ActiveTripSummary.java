@@ -0,0 +1,253 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summary of the trip being recorded, brought up to date with only the rows
+ * logged since the previous call. Members already appended to the log are
+ * not decompressed again, the segments not yet appended and the part being
+ * written are skipped up to the last row summarized.
+ */
+class ActiveTripSummary {
+
+    private static ActiveTripSummary cached;
+
+    private final String name;
+    private final TripSummary summary = new TripSummary();
+    private String[] header;
+    // Compressed length of the log summarized, and its length decompressed
+    private long logLength = 0;
+    private long logBytes = 0;
+    // Bytes of the whole trip summarized, always at the end of a row
+    private long position = 0;
+
+    private ActiveTripSummary(String name) {
+        this.name = name;
+    }
+
+    // A copy of the summary, the cached one carries on with the next rows
+    static synchronized TripSummary get(File log) throws IOException, JSONException {
+        if (cached == null || !cached.name.equals(log.getName()) || log.length() < cached.logLength) {
+            cached = new ActiveTripSummary(log.getName());
+        }
+        if (!cached.update(log)) {
+            // Rows gone since the last call, the trip was cut back
+            cached = new ActiveTripSummary(log.getName());
+            cached.update(log);
+        }
+        TripSummary copy = TripSummary.fromJSON(cached.summary.toJSON());
+        copy.histograms = TripHistograms.fromJSON(cached.summary.histograms.toJSON());
+        return copy;
+    }
+
+    private boolean update(File log) throws IOException {
+        long length;
+        List<InputStream> streams = new ArrayList<>();
+        CountingInputStream members = null;
+        try {
+            synchronized (TripLogSegments.LOCK) {
+                // Appends after this point belong to segments opened below
+                length = log.length();
+                if (length > logLength) {
+                    FileInputStream in = new FileInputStream(log);
+                    streams.add(in);
+                    in.getChannel().position(logLength);
+                    members = new CountingInputStream(TripLog.decompress(
+                            new TripLogSegments.BoundedInputStream(in, length - logLength)));
+                    streams.set(0, members);
+                }
+                for (File file : TripLogSegments.getPending(log)) {
+                    streams.add(new FileInputStream(file));
+                }
+            }
+        } catch (IOException e) {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+            throw e;
+        }
+
+        RowsInputStream in = new RowsInputStream(new SequenceInputStream(Collections.enumeration(streams)));
+        try {
+            if (!in.skipRows(position - logBytes)) {
+                return false;
+            }
+            try (TripLogReader reader = new TripLogReader(new InputStreamReader(in), header, summary.rows)) {
+                if (header == null) {
+                    header = reader.getHeader();
+                    if (header == null) {
+                        return true;
+                    }
+                    summary.setHeader(header);
+                }
+                TripLogRecord record;
+                while ((record = reader.next()) != null) {
+                    summary.add(record);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        position += in.getCount();
+        if (members != null) {
+            logLength = length;
+            logBytes += members.getCount();
+        }
+        return true;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            this.count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    // Passes on complete rows only, a row still being written is held back
+    private static class RowsInputStream extends InputStream {
+        private final InputStream in;
+        private byte[] buffer = new byte[8192];
+        // Rows ready to be read, then the start of a row not yet complete
+        private int start = 0;
+        private int end = 0;
+        private int filled = 0;
+        private long count = 0;
+
+        RowsInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        // Skip rows already summarized, false when the trip is shorter
+        boolean skipRows(long length) throws IOException {
+            while (length > 0) {
+                if (start == end && !fill()) {
+                    return false;
+                }
+                int skipped = (int) Math.min(length, end - start);
+                start += skipped;
+                length -= skipped;
+            }
+            count = 0;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (start == end && !fill()) {
+                return -1;
+            }
+            count++;
+            return buffer[start++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (start == end && !fill()) {
+                return -1;
+            }
+            int read = Math.min(length, end - start);
+            System.arraycopy(buffer, start, target, offset, read);
+            start += read;
+            count += read;
+            return read;
+        }
+
+        // Read until at least one more complete row is buffered
+        private boolean fill() throws IOException {
+            System.arraycopy(buffer, end, buffer, 0, filled - end);
+            filled -= end;
+            start = 0;
+            end = 0;
+            while (true) {
+                if (filled == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, filled);
+                    buffer = larger;
+                }
+                int read = in.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    // Whatever follows the last newline is dropped
+                    return false;
+                }
+                int from = filled;
+                filled += read;
+                for (int i = filled - 1; i >= from; i--) {
+                    if (buffer[i] == '\n') {
+                        end = i + 1;
+                        return true;
+                    }
+                }
+            }
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
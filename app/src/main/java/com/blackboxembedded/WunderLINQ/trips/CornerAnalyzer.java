@@ -0,0 +1,112 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects corners across many trips, one trip per worker thread. Results go
+ * through the trip index so each log is only read once.
+ */
+public class CornerAnalyzer {
+
+    private static final String TAG = "CornerAnalyzer";
+
+    private final TripDatasource datasource;
+    private final ExecutorService executor;
+    private final List<Future<List<TripCorner>>> pending = new ArrayList<>();
+
+    public CornerAnalyzer(TripDatasource datasource) {
+        this.datasource = datasource;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Blocks until every trip is done, trips that could not be read are left out
+    public Map<File, List<TripCorner>> analyze(List<File> files) throws InterruptedException {
+        List<Future<List<TripCorner>>> futures = new ArrayList<>(files.size());
+        for (final File file : files) {
+            futures.add(submit(file));
+        }
+        Map<File, List<TripCorner>> results = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                List<TripCorner> corners = futures.get(i).get();
+                if (corners != null) {
+                    results.put(files.get(i), corners);
+                }
+            } catch (CancellationException e) {
+                throw new InterruptedException("Corner analysis cancelled");
+            } catch (ExecutionException e) {
+                Log.d(TAG, "Exception analyzing " + files.get(i).getName() + ": " + e.toString());
+            }
+        }
+        return results;
+    }
+
+    // Queued trips are dropped, analyze() returns early
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+        for (Future<List<TripCorner>> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Wait for the trips still being read after shutdown(). Interrupting a
+     * worker doesn't stop SQLite or file I/O, so the datasource must stay
+     * open until this returns.
+     */
+    public void awaitTermination() throws InterruptedException {
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized Future<List<TripCorner>> submit(final File file) {
+        Future<List<TripCorner>> future;
+        if (executor.isShutdown()) {
+            future = new FutureTask<>(() -> null);
+            future.cancel(false);
+        } else {
+            future = executor.submit(() -> datasource.getCorners(file));
+            pending.add(future);
+        }
+        return future;
+    }
+}
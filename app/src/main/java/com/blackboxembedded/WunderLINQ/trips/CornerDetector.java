@@ -0,0 +1,120 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds corners in a trip as lean excursions, in a single pass over the
+ * lean angle array. Positive lean is to the right.
+ */
+public class CornerDetector {
+
+    // Degrees, a corner must pass ENTER_LEAN and is measured out to where
+    // the lean crossed EXIT_LEAN on either side
+    static final float ENTER_LEAN = 15.0f;
+    static final float EXIT_LEAN = 8.0f;
+    // Milliseconds, shorter excursions are swerves or sensor noise
+    static final long MIN_DURATION = 1500;
+
+    public static List<TripCorner> detect(TripSeries series) {
+        List<TripCorner> corners = new ArrayList<>();
+        float[] lean = series.lean;
+        int start = -1;
+        int last = -1;
+        int peak = -1;
+        boolean right = false;
+        boolean entered = false;
+        for (int i = 0; i < series.size; i++) {
+            float value = lean[i];
+            if (Float.isNaN(value)) {
+                continue;
+            }
+            float magnitude = Math.abs(value);
+            boolean rowRight = value > 0;
+            // End of the excursion, either back upright or tipped straight into the other side
+            if (start >= 0 && (magnitude < EXIT_LEAN || rowRight != right)) {
+                if (entered) {
+                    addCorner(series, corners, start, last, peak, right);
+                }
+                start = -1;
+            }
+            if (start < 0 && magnitude >= EXIT_LEAN) {
+                start = i;
+                peak = i;
+                right = rowRight;
+                entered = false;
+            }
+            if (start >= 0) {
+                if (magnitude > Math.abs(lean[peak])) {
+                    peak = i;
+                }
+                if (magnitude >= ENTER_LEAN) {
+                    entered = true;
+                }
+                last = i;
+            }
+        }
+        if (start >= 0 && entered) {
+            addCorner(series, corners, start, last, peak, right);
+        }
+        return corners;
+    }
+
+    private static void addCorner(TripSeries series, List<TripCorner> corners, int start, int end, int peak, boolean right) {
+        long startTime = series.time[start];
+        long endTime = series.time[end];
+        if (startTime >= 0 && endTime >= 0 && endTime - startTime < MIN_DURATION) {
+            return;
+        }
+        TripCorner corner = new TripCorner();
+        corner.right = right;
+        corner.startRow = start;
+        corner.endRow = end;
+        corner.startTime = startTime;
+        corner.endTime = endTime;
+        corner.peakLean = Math.abs(series.lean[peak]);
+
+        // Speeds nearest the ends, positions nearest the peak, all within the corner
+        for (int i = start; i <= end; i++) {
+            if (!Float.isNaN(series.speed[i])) {
+                corner.entrySpeed = series.speed[i];
+                break;
+            }
+        }
+        for (int i = end; i >= start; i--) {
+            if (!Float.isNaN(series.speed[i])) {
+                corner.exitSpeed = series.speed[i];
+                break;
+            }
+        }
+        for (int offset = 0; peak - offset >= start || peak + offset <= end; offset++) {
+            int i = peak - offset;
+            if (i < start || Double.isNaN(series.latitude[i])) {
+                i = peak + offset;
+            }
+            if (i <= end && !Double.isNaN(series.latitude[i])) {
+                corner.apexLatitude = series.latitude[i];
+                corner.apexLongitude = series.longitude[i];
+                break;
+            }
+        }
+        corners.add(corner);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Exports a subset of the trip log columns, in the given order.
+ */
+public class CsvExportSink extends TripExportFileSink {
+
+    public static final int[] DEFAULT_COLUMNS = {
+            TripLog.TIME, TripLog.LATITUDE, TripLog.LONGITUDE, TripLog.ALTITUDE, TripLog.GPS_SPEED,
+            TripLog.SPEED, TripLog.GEAR, TripLog.RPM, TripLog.THROTTLE,
+            TripLog.LEAN_ANGLE, TripLog.LEAN_ANGLE_BIKE
+    };
+
+    private final int[] columns;
+
+    public CsvExportSink(File file, int[] columns) {
+        super(file);
+        this.columns = columns;
+    }
+
+    @Override
+    public String getMimeType() {
+        return "text/csv";
+    }
+
+    @Override
+    public void begin(String[] header) throws IOException {
+        super.begin(header);
+        writeRow(header);
+    }
+
+    @Override
+    public void write(TripLogRecord record) throws IOException {
+        writeRow(record.values);
+    }
+
+    private void writeRow(String[] values) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (values != null && columns[i] < values.length) {
+                out.write(values[columns[i]]);
+            }
+        }
+        out.write('\n');
+    }
+}
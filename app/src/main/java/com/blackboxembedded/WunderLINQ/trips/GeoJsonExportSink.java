@@ -0,0 +1,100 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Exports the route as a single GeoJSON LineString feature. Start and end
+ * times are only known after the pass so the properties follow the geometry.
+ */
+public class GeoJsonExportSink extends TripExportFileSink {
+
+    private final String name;
+    private boolean firstPoint;
+    private long startTime;
+    private long endTime;
+
+    public GeoJsonExportSink(File file, String name) {
+        super(file);
+        this.name = name;
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/geo+json";
+    }
+
+    @Override
+    public void begin(String[] header) throws IOException {
+        super.begin(header);
+        firstPoint = true;
+        startTime = -1;
+        endTime = -1;
+        out.write("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",");
+        out.write("\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+    }
+
+    @Override
+    public void write(TripLogRecord record) throws IOException {
+        if (record.time >= 0) {
+            if (startTime < 0) {
+                startTime = record.time;
+            }
+            endTime = record.time;
+        }
+        if (!record.hasFix) {
+            return;
+        }
+        if (!firstPoint) {
+            out.write(',');
+        }
+        firstPoint = false;
+        out.write('[');
+        out.write(Double.toString(record.longitude));
+        out.write(',');
+        out.write(Double.toString(record.latitude));
+        if (!Double.isNaN(record.altitude)) {
+            out.write(',');
+            out.write(Double.toString(record.altitude));
+        }
+        out.write(']');
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write("]},\"properties\":{\"name\":\"" + escapeJson(name) + "\"");
+        if (startTime >= 0) {
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+            formatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+            out.write(",\"startTime\":\"" + formatter.format(new Date(startTime)) + "\"");
+            out.write(",\"endTime\":\"" + formatter.format(new Date(endTime)) + "\"");
+        }
+        out.write("}}]}\n");
+        super.end();
+    }
+
+    private static String escapeJson(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.jenetics.jpx.GPX;
+import io.jenetics.jpx.TrackSegment;
+import io.jenetics.jpx.WayPoint;
+
+public class GpxExportSink implements TripExportSink {
+
+    private final File file;
+    private final String creator;
+    private TrackSegment.Builder segment;
+
+    public GpxExportSink(File file, String creator) {
+        this.file = file;
+        this.creator = creator;
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/gpx+xml";
+    }
+
+    @Override
+    public void begin(String[] header) {
+        segment = TrackSegment.builder();
+    }
+
+    @Override
+    public void write(TripLogRecord record) {
+        if (!record.hasFix) {
+            return;
+        }
+        WayPoint.Builder point = WayPoint.builder()
+                .lat(record.latitude).lon(record.longitude);
+        if (record.time >= 0) {
+            point.time(record.time);
+        }
+        if (!Double.isNaN(record.altitude)) {
+            point.ele(record.altitude);
+        }
+        if (!Double.isNaN(record.gpsSpeed)) {
+            point.speed(record.gpsSpeed);
+        }
+        segment.addPoint(point.build());
+    }
+
+    @Override
+    public void end() throws IOException {
+        final GPX gpx = GPX.builder().creator(creator).addTrack(track -> track.addSegment(segment.build())).build();
+        if (file.exists())
+            file.delete();
+        try (OutputStream gpxOutStream = new FileOutputStream(file)) {
+            GPX.write(gpx, gpxOutStream);
+        }
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+    }
+}
@@ -0,0 +1,345 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts of logged positions binned into a grid of cells per map tile, at
+ * a few zoom levels. Trips are added once. The counts of each trip are
+ * kept as well, so a removed or changed trip is subtracted from its tiles
+ * without reading any other log.
+ */
+public class HeatmapDatasource {
+    final String TAG = "HeatmapDataSource";
+
+    // Zoom levels kept, a map zoom is drawn from the closest level below it
+    public static final int[] LEVELS = {6, 8, 10, 12, 14, 16};
+    public static final int GRID_BITS = 5;
+    public static final int GRID = 1 << GRID_BITS;
+    // Milliseconds, a log written to this recently is still being recorded
+    private static final long ACTIVE_WINDOW = 60000;
+
+    private final TripDatabase dbHelper;
+
+    public HeatmapDatasource(Context context) {
+        dbHelper = new TripDatabase(context);
+    }
+
+    public void close() {
+        dbHelper.close();
+    }
+
+    // Stored level for a map zoom, -1 below the lowest level
+    public static int getLevel(int zoom) {
+        int level = -1;
+        for (int candidate : LEVELS) {
+            if (candidate <= zoom) {
+                level = candidate;
+            }
+        }
+        return level;
+    }
+
+    // Bring the counts up to date with the trip logs
+    public synchronized void update() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        Map<String, File> logs = getFinishedLogs();
+
+        List<String> removed = new ArrayList<>();
+        Cursor c = db.query("heatmap_trips", new String[] {"file", "size", "modified"}, null, null, null, null, null);
+        try {
+            while (c.moveToNext()) {
+                String name = c.getString(0);
+                File file = logs.remove(name);
+                if (file == null || file.length() != c.getLong(1) || file.lastModified() != c.getLong(2)) {
+                    removed.add(name);
+                    if (file != null) {
+                        // Changed, counted again once the old counts are out
+                        logs.put(name, file);
+                    }
+                }
+            }
+        } finally {
+            c.close();
+        }
+        for (String name : removed) {
+            Log.d(TAG, "Removing trip from heatmap: " + name);
+            removeTrip(db, name);
+        }
+
+        for (File file : logs.values()) {
+            try {
+                addTrip(db, file);
+            } catch (IOException e) {
+                Log.d(TAG, "Exception reading trip: " + e.toString());
+            }
+        }
+    }
+
+    // Cell counts of one stored tile, null when nothing was logged there
+    public int[] getCells(int level, int x, int y) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query("heatmap_tiles", new String[] {"counts"}, "zoom=? AND x=? AND y=?",
+                new String[] {Integer.toString(level), Integer.toString(x), Integer.toString(y)},
+                null, null, null);
+        try {
+            if (c.moveToFirst()) {
+                int[] cells = new int[GRID * GRID];
+                decode(c.getBlob(0), cells);
+                return cells;
+            }
+            return null;
+        } finally {
+            c.close();
+        }
+    }
+
+    // Highest cell count per level
+    public Map<Integer, Integer> getMaxCounts() {
+        Map<Integer, Integer> maxCounts = new HashMap<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query("heatmap_levels", new String[] {"zoom", "max_count"}, null, null, null, null, null);
+        try {
+            while (c.moveToNext()) {
+                maxCounts.put(c.getInt(0), c.getInt(1));
+            }
+        } finally {
+            c.close();
+        }
+        return maxCounts;
+    }
+
+    private static Map<String, File> getFinishedLogs() {
+        Map<String, File> logs = new HashMap<>();
+        File[] files = TripLog.getLogDirectory().listFiles();
+        long now = System.currentTimeMillis();
+        if (files != null) {
+            for (File file : files) {
+                if (now - file.lastModified() > ACTIVE_WINDOW && !TripLog.isActive(file)) {
+                    logs.put(file.getName(), file);
+                }
+            }
+        }
+        return logs;
+    }
+
+    private void addTrip(SQLiteDatabase db, File file) throws IOException {
+        // Bin the whole trip first, then touch each tile once
+        Map<Long, int[]> tiles = new HashMap<>();
+        try (TripLogReader reader = new TripLogReader(file)) {
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                if (!record.hasFix) {
+                    continue;
+                }
+                double x = (record.longitude + 180.0) / 360.0;
+                double sinLatitude = Math.sin(Math.toRadians(Math.max(-85.0, Math.min(85.0, record.latitude))));
+                double y = 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+                for (int level : LEVELS) {
+                    long cells = (long) GRID << level;
+                    long cellX = Math.min(cells - 1, (long) (x * cells));
+                    long cellY = Math.min(cells - 1, (long) (y * cells));
+                    long key = ((long) level << 48) | ((cellX >> GRID_BITS) << 24) | (cellY >> GRID_BITS);
+                    int[] tile = tiles.get(key);
+                    if (tile == null) {
+                        tile = new int[GRID * GRID];
+                        tiles.put(key, tile);
+                    }
+                    tile[(int) ((cellY & (GRID - 1)) * GRID + (cellX & (GRID - 1)))]++;
+                }
+            }
+        }
+
+        Map<Integer, Integer> maxCounts = getMaxCounts();
+        db.beginTransaction();
+        try {
+            for (Map.Entry<Long, int[]> entry : tiles.entrySet()) {
+                long key = entry.getKey();
+                int level = (int) (key >> 48);
+                int x = (int) ((key >> 24) & 0xFFFFFF);
+                int y = (int) (key & 0xFFFFFF);
+                int[] cells = entry.getValue();
+
+                ContentValues contribution = new ContentValues();
+                contribution.put("file", file.getName());
+                contribution.put("zoom", level);
+                contribution.put("x", x);
+                contribution.put("y", y);
+                contribution.put("counts", encode(cells));
+                db.insertWithOnConflict("heatmap_trip_tiles", null, contribution, SQLiteDatabase.CONFLICT_REPLACE);
+
+                int[] stored = getCells(level, x, y);
+                int max = maxCounts.containsKey(level) ? maxCounts.get(level) : 0;
+                for (int i = 0; i < cells.length; i++) {
+                    if (stored != null) {
+                        cells[i] += stored[i];
+                    }
+                    max = Math.max(max, cells[i]);
+                }
+                maxCounts.put(level, max);
+
+                ContentValues values = new ContentValues();
+                values.put("zoom", level);
+                values.put("x", x);
+                values.put("y", y);
+                values.put("counts", encode(cells));
+                db.insertWithOnConflict("heatmap_tiles", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (Map.Entry<Integer, Integer> entry : maxCounts.entrySet()) {
+                ContentValues values = new ContentValues();
+                values.put("zoom", entry.getKey());
+                values.put("max_count", entry.getValue());
+                db.insertWithOnConflict("heatmap_levels", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            ContentValues values = new ContentValues();
+            values.put("file", file.getName());
+            values.put("size", file.length());
+            values.put("modified", file.lastModified());
+            db.insertWithOnConflict("heatmap_trips", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Subtract the counts a trip added, the trip log itself is not read
+    private void removeTrip(SQLiteDatabase db, String name) {
+        Map<Integer, Integer> maxCounts = getMaxCounts();
+        // Levels whose busiest cell lost counts
+        Set<Integer> lowered = new HashSet<>();
+        int[] cells = new int[GRID * GRID];
+        db.beginTransaction();
+        try {
+            Cursor c = db.query("heatmap_trip_tiles", new String[] {"zoom", "x", "y", "counts"}, "file=?",
+                    new String[] {name}, null, null, null);
+            try {
+                while (c.moveToNext()) {
+                    int level = c.getInt(0);
+                    int x = c.getInt(1);
+                    int y = c.getInt(2);
+                    int[] stored = getCells(level, x, y);
+                    if (stored == null) {
+                        continue;
+                    }
+                    Arrays.fill(cells, 0);
+                    decode(c.getBlob(3), cells);
+                    int max = maxCounts.containsKey(level) ? maxCounts.get(level) : 0;
+                    boolean empty = true;
+                    for (int i = 0; i < cells.length; i++) {
+                        if (cells[i] != 0 && stored[i] == max) {
+                            lowered.add(level);
+                        }
+                        stored[i] = Math.max(0, stored[i] - cells[i]);
+                        if (stored[i] != 0) {
+                            empty = false;
+                        }
+                    }
+                    String[] where = new String[] {Integer.toString(level), Integer.toString(x), Integer.toString(y)};
+                    if (empty) {
+                        db.delete("heatmap_tiles", "zoom=? AND x=? AND y=?", where);
+                    } else {
+                        ContentValues values = new ContentValues();
+                        values.put("counts", encode(stored));
+                        db.update("heatmap_tiles", values, "zoom=? AND x=? AND y=?", where);
+                    }
+                }
+            } finally {
+                c.close();
+            }
+            for (int level : lowered) {
+                updateMaxCount(db, level, cells);
+            }
+            db.delete("heatmap_trip_tiles", "file=?", new String[] {name});
+            db.delete("heatmap_trips", "file=?", new String[] {name});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // Find the busiest cell of a level again, only its stored tiles are read
+    private void updateMaxCount(SQLiteDatabase db, int level, int[] cells) {
+        int max = 0;
+        Cursor c = db.query("heatmap_tiles", new String[] {"counts"}, "zoom=?",
+                new String[] {Integer.toString(level)}, null, null, null);
+        try {
+            while (c.moveToNext()) {
+                Arrays.fill(cells, 0);
+                decode(c.getBlob(0), cells);
+                for (int count : cells) {
+                    max = Math.max(max, count);
+                }
+            }
+        } finally {
+            c.close();
+        }
+        if (max == 0) {
+            db.delete("heatmap_levels", "zoom=?", new String[] {Integer.toString(level)});
+        } else {
+            ContentValues values = new ContentValues();
+            values.put("zoom", level);
+            values.put("max_count", max);
+            db.insertWithOnConflict("heatmap_levels", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+    }
+
+    // Only cells with a count are stored, as cell index and count pairs
+    private static byte[] encode(int[] cells) {
+        int used = 0;
+        for (int count : cells) {
+            if (count != 0) {
+                used++;
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(used * 6);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0) {
+                buffer.putShort((short) i);
+                buffer.putInt(cells[i]);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static void decode(byte[] blob, int[] cells) {
+        ByteBuffer buffer = ByteBuffer.wrap(blob);
+        while (buffer.remaining() >= 6) {
+            int index = buffer.getShort();
+            int count = buffer.getInt();
+            if (index >= 0 && index < cells.length) {
+                cells[index] = count;
+            }
+        }
+    }
+}
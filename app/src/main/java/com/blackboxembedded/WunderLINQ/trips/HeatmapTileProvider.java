@@ -0,0 +1,124 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.util.LruCache;
+
+import com.google.android.gms.maps.model.Tile;
+import com.google.android.gms.maps.model.TileProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+
+/**
+ * Draws heatmap tiles on demand from the stored cell counts. Rendered tiles
+ * are kept in an LRU cache so panning back and forth does not draw them again.
+ */
+public class HeatmapTileProvider implements TileProvider {
+
+    private static final int TILE_SIZE = 256;
+    private static final int CACHE_SIZE = 4 * 1024 * 1024;
+
+    private final HeatmapDatasource datasource;
+    private final Map<Integer, Integer> maxCounts;
+    private final LruCache<String, Tile> cache = new LruCache<String, Tile>(CACHE_SIZE) {
+        @Override
+        protected int sizeOf(String key, Tile tile) {
+            return (tile.data != null) ? tile.data.length : 1;
+        }
+    };
+
+    // The datasource should be up to date, counts added later need a new provider
+    public HeatmapTileProvider(HeatmapDatasource datasource) {
+        this.datasource = datasource;
+        this.maxCounts = datasource.getMaxCounts();
+    }
+
+    @Override
+    public Tile getTile(int x, int y, int zoom) {
+        String key = zoom + "/" + x + "/" + y;
+        Tile tile = cache.get(key);
+        if (tile == null) {
+            tile = render(x, y, zoom);
+            cache.put(key, tile);
+        }
+        return tile;
+    }
+
+    private Tile render(int x, int y, int zoom) {
+        int level = HeatmapDatasource.getLevel(zoom);
+        Integer maxCount = maxCounts.get(level);
+        if (level < 0 || maxCount == null || maxCount == 0) {
+            return NO_TILE;
+        }
+        // Part of the stored tile covered by this one, in cells
+        int depth = zoom - level;
+        int[] cells = datasource.getCells(level, x >> depth, y >> depth);
+        if (cells == null) {
+            return NO_TILE;
+        }
+        int span;
+        int startX;
+        int startY;
+        if (depth >= HeatmapDatasource.GRID_BITS) {
+            span = 1;
+            startX = (x >> (depth - HeatmapDatasource.GRID_BITS)) & (HeatmapDatasource.GRID - 1);
+            startY = (y >> (depth - HeatmapDatasource.GRID_BITS)) & (HeatmapDatasource.GRID - 1);
+        } else {
+            span = HeatmapDatasource.GRID >> depth;
+            int mask = (1 << depth) - 1;
+            startX = (x & mask) * span;
+            startY = (y & mask) * span;
+        }
+
+        // Called from several map threads, nothing shared is drawn on
+        Bitmap bitmap = null;
+        Canvas canvas = null;
+        Paint paint = new Paint();
+        float cellSize = (float) TILE_SIZE / span;
+        double scale = Math.log1p(maxCount);
+        for (int row = 0; row < span; row++) {
+            for (int column = 0; column < span; column++) {
+                int count = cells[(startY + row) * HeatmapDatasource.GRID + startX + column];
+                if (count == 0) {
+                    continue;
+                }
+                if (bitmap == null) {
+                    bitmap = Bitmap.createBitmap(TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+                    canvas = new Canvas(bitmap);
+                }
+                // Log scale so rarely ridden roads still show next to the daily commute
+                double intensity = Math.min(1.0, Math.log1p(count) / scale);
+                paint.setColor(Color.argb((int) (96 + 159 * intensity), 255, (int) (220 * (1.0 - intensity)), 0));
+                canvas.drawRect(column * cellSize, row * cellSize,
+                        (column + 1) * cellSize, (row + 1) * cellSize, paint);
+            }
+        }
+        if (bitmap == null) {
+            return NO_TILE;
+        }
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+        bitmap.recycle();
+        return new Tile(TILE_SIZE, TILE_SIZE, stream.toByteArray());
+    }
+}
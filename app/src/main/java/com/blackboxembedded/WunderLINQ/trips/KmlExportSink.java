@@ -0,0 +1,67 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+import java.io.IOException;
+
+public class KmlExportSink extends TripExportFileSink {
+
+    private final String name;
+
+    public KmlExportSink(File file, String name) {
+        super(file);
+        this.name = name;
+    }
+
+    @Override
+    public String getMimeType() {
+        return "application/vnd.google-earth.kml+xml";
+    }
+
+    @Override
+    public void begin(String[] header) throws IOException {
+        super.begin(header);
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<kml xmlns=\"http://www.opengis.net/kml/2.2\">\n<Document>\n");
+        out.write("<name>" + escapeXml(name) + "</name>\n");
+        out.write("<Placemark>\n<name>" + escapeXml(name) + "</name>\n");
+        out.write("<LineString>\n<tessellate>1</tessellate>\n<coordinates>\n");
+    }
+
+    @Override
+    public void write(TripLogRecord record) throws IOException {
+        if (!record.hasFix) {
+            return;
+        }
+        out.write(Double.toString(record.longitude));
+        out.write(',');
+        out.write(Double.toString(record.latitude));
+        if (!Double.isNaN(record.altitude)) {
+            out.write(',');
+            out.write(Double.toString(record.altitude));
+        }
+        out.write('\n');
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.write("</coordinates>\n</LineString>\n</Placemark>\n</Document>\n</kml>\n");
+        super.end();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Runs the TripArchiver once a day while the device is charging.
+ */
+public class TripArchiveJobService extends JobService {
+
+    private static final String TAG = "TripArchiveJob";
+    private static final int JOB_ID = 1001;
+    private static final long INTERVAL = 24L * 60 * 60 * 1000;
+
+    private TripArchiver archiver;
+
+    // Called on every start, an already scheduled job keeps its place
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        for (JobInfo pending : scheduler.getAllPendingJobs()) {
+            if (pending.getId() == JOB_ID) {
+                return;
+            }
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, TripArchiveJobService.class))
+                .setRequiresCharging(true)
+                .setPeriodic(INTERVAL)
+                .build();
+        if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.d(TAG, "Unable to schedule trip archiving");
+        }
+    }
+
+    @Override
+    public boolean onStartJob(final JobParameters params) {
+        final TripArchiver jobArchiver = new TripArchiver(this);
+        archiver = jobArchiver;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                try {
+                    jobArchiver.run();
+                } catch (RuntimeException e) {
+                    Log.d(TAG, "Exception archiving trips: " + e.toString());
+                }
+                jobFinished(params, false);
+            }
+        }, TAG).start();
+        return true;
+    }
+
+    // Charger unplugged, pick up where we left off next time
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (archiver != null) {
+            archiver.stop();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.location.Location;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applies the trip storage policy. Logs older than the configured number of
+ * days are reduced to one row per second and compressed, and while the logs
+ * take more than the size cap the oldest are reduced to their route and,
+ * as a last resort, deleted. Summaries, corners, heatmap counts and
+ * thumbnails worked out from the full logs are kept.
+ */
+public class TripArchiver {
+
+    private static final String TAG = "TripArchiver";
+
+    public static final int LEVEL_FULL = 0;
+    public static final int LEVEL_ONE_HZ = 1;
+    public static final int LEVEL_ROUTE = 2;
+
+    // Milliseconds, a log written to this recently is still being recorded
+    private static final long ACTIVE_WINDOW = 60000;
+    // Meters between the points kept for a route
+    private static final float ROUTE_STEP = 100.0f;
+    private static final String TEMP_EXTENSION = ".archive";
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private final Context context;
+    private volatile boolean stopped = false;
+
+    public TripArchiver(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    // Called from another thread, the log being rewritten is finished first
+    public void stop() {
+        stopped = true;
+    }
+
+    public void run() {
+        SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
+        int days = Integer.parseInt(sharedPrefs.getString("prefTripArchiveDays", "0"));
+        long cap = Long.parseLong(sharedPrefs.getString("prefTripStorageCap", "0")) * 1024 * 1024;
+        if (days <= 0 && cap <= 0) {
+            return;
+        }
+        cleanup();
+
+        // Oldest first, active logs are left alone
+        List<File> logs = new ArrayList<>();
+        File[] list = TripLog.getLogDirectory().listFiles();
+        long now = System.currentTimeMillis();
+        if (list != null) {
+            Arrays.sort(list);
+            for (File file : list) {
+                if (file.isFile() && now - file.lastModified() > ACTIVE_WINDOW && !TripLog.isActive(file)) {
+                    logs.add(file);
+                }
+            }
+        }
+
+        TripDatasource datasource = new TripDatasource(context);
+        try {
+            if (days > 0) {
+                for (int i = 0; i < logs.size() && !stopped; i++) {
+                    File file = logs.get(i);
+                    if (now - file.lastModified() > days * DAY && datasource.getArchiveLevel(file) < LEVEL_ONE_HZ) {
+                        logs.set(i, reduce(datasource, file, LEVEL_ONE_HZ));
+                    }
+                }
+            }
+            if (cap > 0) {
+                long total = 0;
+                for (File file : logs) {
+                    total += file.length();
+                }
+                for (int i = 0; i < logs.size() && total > cap && !stopped; i++) {
+                    File file = logs.get(i);
+                    if (datasource.getArchiveLevel(file) < LEVEL_ROUTE) {
+                        long before = file.length();
+                        File reduced = reduce(datasource, file, LEVEL_ROUTE);
+                        logs.set(i, reduced);
+                        total -= before - reduced.length();
+                    }
+                }
+                for (int i = 0; i < logs.size() && total > cap && !stopped; i++) {
+                    File file = logs.get(i);
+                    Log.d(TAG, "Over storage cap, deleting " + file.getName());
+                    total -= file.length();
+                    TripThumbnailLoader.getInstance(context).remove(file);
+                    if (file.delete()) {
+                        datasource.removeTrip(file.getName());
+                    }
+                }
+            }
+        } finally {
+            datasource.close();
+        }
+    }
+
+    // Rewrite a log at a lower level, returns the log now holding the trip
+    private File reduce(TripDatasource datasource, File file, int level) {
+        // Make sure everything kept is worked out from the full log
+        TripSummary summary = datasource.getSummary(file);
+        if (summary == null || datasource.getCorners(file) == null) {
+            return file;
+        }
+        String name = file.getName();
+        long size = file.length();
+        long modified = file.lastModified();
+        String thumbnailKey = TripThumbnailLoader.getKey(file);
+
+        File temp = new File(TripLog.getWorkDirectory(), name + TEMP_EXTENSION);
+        TripLogWriter writer = null;
+        try (TripLogReader reader = new TripLogReader(file)) {
+            writer = new TripLogWriter(temp, reader.getHeader(), true);
+            if (level == LEVEL_ROUTE) {
+                writeRoute(reader, writer);
+            } else {
+                writeOneHz(reader, writer);
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Exception reducing " + name + ": " + e.toString());
+            temp.delete();
+            return file;
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    Log.d(TAG, "Exception closing " + temp + ": " + e.toString());
+                }
+            }
+        }
+
+        File target = TripLog.isCompressed(file) ? file : new File(file.getParentFile(), name + TripLog.COMPRESSED_EXTENSION);
+        if (!temp.renameTo(target)) {
+            Log.d(TAG, "Unable to replace " + target);
+            temp.delete();
+            return file;
+        }
+        if (!target.equals(file) && !file.delete()) {
+            Log.d(TAG, "Unable to delete " + file);
+        }
+        if (!datasource.replaceLog(name, size, modified, target, level)) {
+            datasource.putSummary(target, summary);
+        }
+        TripThumbnailLoader.getInstance(context).move(thumbnailKey, target);
+        Log.d(TAG, "Reduced " + name + " from " + size + " to " + target.length() + " bytes");
+        return target;
+    }
+
+    // First row of every second
+    private static void writeOneHz(TripLogReader reader, TripLogWriter writer) throws IOException {
+        long lastSecond = Long.MIN_VALUE;
+        TripLogRecord record;
+        while ((record = reader.next()) != null) {
+            if (record.time < 0) {
+                continue;
+            }
+            long second = record.time / 1000;
+            if (second != lastSecond) {
+                writer.write(record);
+                lastSecond = second;
+            }
+        }
+    }
+
+    // First and last fix and a fix every ROUTE_STEP meters of travel
+    private static void writeRoute(TripLogReader reader, TripLogWriter writer) throws IOException {
+        float[] results = new float[1];
+        double lastLatitude = Double.NaN;
+        double lastLongitude = Double.NaN;
+        TripLogRecord last = new TripLogRecord();
+        boolean pending = false;
+        TripLogRecord record;
+        while ((record = reader.next()) != null) {
+            if (!record.hasFix) {
+                continue;
+            }
+            boolean keep = Double.isNaN(lastLatitude);
+            if (!keep) {
+                Location.distanceBetween(lastLatitude, lastLongitude, record.latitude, record.longitude, results);
+                keep = results[0] >= ROUTE_STEP;
+            }
+            if (keep) {
+                writer.write(record);
+                lastLatitude = record.latitude;
+                lastLongitude = record.longitude;
+                pending = false;
+            } else {
+                last.set(record);
+                pending = true;
+            }
+        }
+        if (pending) {
+            writer.write(last);
+        }
+    }
+
+    private static void cleanup() {
+        File[] list = TripLog.getWorkDirectory().listFiles();
+        if (list != null) {
+            for (File file : list) {
+                if (file.getName().endsWith(TEMP_EXTENSION)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A lean excursion in one direction, from the row the lean passed the exit
+ * threshold to the last row before it fell back under it.
+ */
+public class TripCorner {
+
+    public boolean right;
+    public long startTime = -1;
+    public long endTime = -1;
+    public int startRow = -1;
+    public int endRow = -1;
+    // Degrees, always positive
+    public double peakLean = 0.0;
+    // Speeds in km/h
+    public double entrySpeed = Double.NaN;
+    public double exitSpeed = Double.NaN;
+    // Position at peak lean, NaN without a fix
+    public double apexLatitude = Double.NaN;
+    public double apexLongitude = Double.NaN;
+
+    public long getDuration() {
+        return (startTime >= 0 && endTime >= startTime) ? endTime - startTime : 0;
+    }
+
+    public boolean hasApex() {
+        return !Double.isNaN(apexLatitude) && !Double.isNaN(apexLongitude);
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("right", right);
+        json.put("startTime", startTime);
+        json.put("endTime", endTime);
+        json.put("startRow", startRow);
+        json.put("endRow", endRow);
+        json.put("peakLean", peakLean);
+        TripSummary.putDouble(json, "entrySpeed", entrySpeed);
+        TripSummary.putDouble(json, "exitSpeed", exitSpeed);
+        TripSummary.putDouble(json, "apexLatitude", apexLatitude);
+        TripSummary.putDouble(json, "apexLongitude", apexLongitude);
+        return json;
+    }
+
+    public static TripCorner fromJSON(JSONObject json) {
+        TripCorner corner = new TripCorner();
+        corner.right = json.optBoolean("right");
+        corner.startTime = json.optLong("startTime", -1);
+        corner.endTime = json.optLong("endTime", -1);
+        corner.startRow = json.optInt("startRow", -1);
+        corner.endRow = json.optInt("endRow", -1);
+        corner.peakLean = json.optDouble("peakLean", 0.0);
+        corner.entrySpeed = json.optDouble("entrySpeed");
+        corner.exitSpeed = json.optDouble("exitSpeed");
+        corner.apexLatitude = json.optDouble("apexLatitude");
+        corner.apexLongitude = json.optDouble("apexLongitude");
+        return corner;
+    }
+}
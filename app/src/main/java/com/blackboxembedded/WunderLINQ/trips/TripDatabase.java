@@ -0,0 +1,116 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+public class TripDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "trips.db";
+    private static final int DATABASE_VERSION = 7;
+
+    public TripDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE trips ("
+                + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "file TEXT NOT NULL UNIQUE, "
+                + "size INTEGER, "
+                + "modified INTEGER, "
+                + "start_time INTEGER, "
+                + "end_time INTEGER, "
+                + "summary TEXT, "
+                + "corners TEXT, "
+                + "histograms TEXT, "
+                + "archive_level INTEGER DEFAULT 0)");
+        createHeatmapTables(db);
+        createMediaTable(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL("ALTER TABLE trips ADD COLUMN corners TEXT");
+        }
+        if (oldVersion < 3) {
+            db.execSQL("ALTER TABLE trips ADD COLUMN histograms TEXT");
+        }
+        if (oldVersion < 4) {
+            createHeatmapTables(db);
+        }
+        if (oldVersion < 5) {
+            createMediaTable(db);
+        }
+        if (oldVersion < 6) {
+            db.execSQL("ALTER TABLE trips ADD COLUMN archive_level INTEGER DEFAULT 0");
+        }
+        if (oldVersion >= 4 && oldVersion < 7) {
+            // Counts added before trips kept their own can't be taken back out, count again
+            db.execSQL("DELETE FROM heatmap_tiles");
+            db.execSQL("DELETE FROM heatmap_trips");
+            db.execSQL("DELETE FROM heatmap_levels");
+            createHeatmapTripTiles(db);
+        }
+    }
+
+    // Cell counts per map tile, the trips they were built from and the busiest cell per zoom
+    private void createHeatmapTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE heatmap_tiles ("
+                + "zoom INTEGER NOT NULL, "
+                + "x INTEGER NOT NULL, "
+                + "y INTEGER NOT NULL, "
+                + "counts BLOB, "
+                + "PRIMARY KEY (zoom, x, y))");
+        db.execSQL("CREATE TABLE heatmap_trips ("
+                + "file TEXT PRIMARY KEY, "
+                + "size INTEGER, "
+                + "modified INTEGER)");
+        db.execSQL("CREATE TABLE heatmap_levels ("
+                + "zoom INTEGER PRIMARY KEY, "
+                + "max_count INTEGER)");
+        createHeatmapTripTiles(db);
+    }
+
+    // Counts each trip added to each tile, so a trip can be taken back out
+    private void createHeatmapTripTiles(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE heatmap_trip_tiles ("
+                + "file TEXT NOT NULL, "
+                + "zoom INTEGER NOT NULL, "
+                + "x INTEGER NOT NULL, "
+                + "y INTEGER NOT NULL, "
+                + "counts BLOB, "
+                + "PRIMARY KEY (file, zoom, x, y))");
+    }
+
+    // Photos and videos by capture time, a trip looks up its media by time range
+    private void createMediaTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE media ("
+                + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "file TEXT NOT NULL UNIQUE, "
+                + "type INTEGER, "
+                + "capture_time INTEGER, "
+                + "latitude REAL, "
+                + "longitude REAL)");
+        db.execSQL("CREATE INDEX media_capture_time ON media (capture_time)");
+    }
+}
@@ -0,0 +1,267 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of trip logs and their summaries, keyed by file name. A cached
+ * summary is only used while the size and modification time of the log
+ * still match. Storing a new summary drops the other analyses of the trip,
+ * they are worked out again on next use.
+ */
+public class TripDatasource {
+    final String TAG = "TripDataSource";
+    private final TripDatabase dbHelper;
+    private final String sqlTable = "trips";
+
+    public TripDatasource(Context context) {
+        dbHelper = new TripDatabase(context);
+    }
+
+    public void close() {
+        dbHelper.close();
+    }
+
+    // Return the cached summary, reading the log again when it changed
+    public TripSummary getSummary(File file) {
+        if (TripLog.isActive(file)) {
+            // Still being recorded, only the rows logged since the last call are read
+            try {
+                return ActiveTripSummary.get(file);
+            } catch (IOException | JSONException e) {
+                Log.d(TAG, "Exception reading trip: " + e.toString());
+                return null;
+            }
+        }
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query(sqlTable, new String[] {"size", "modified", "summary", "histograms"}, "file=?",
+                new String[] {file.getName()}, null, null, null);
+        try {
+            // Trips indexed before histograms existed are read again
+            if (c.moveToFirst() && c.getLong(0) == file.length() && c.getLong(1) == file.lastModified()
+                    && !c.isNull(3)) {
+                TripSummary summary = TripSummary.fromJSON(new JSONObject(c.getString(2)));
+                summary.histograms = TripHistograms.fromJSON(new JSONObject(c.getString(3)));
+                return summary;
+            }
+        } catch (JSONException e) {
+            Log.d(TAG, "Invalid summary for " + file.getName() + ": " + e.toString());
+        } finally {
+            c.close();
+        }
+
+        try {
+            // Logs written before segments were compressed may end in a partial row
+            if (!TripLog.isCompressed(file) && TripLog.repair(file)) {
+                Log.d(TAG, "Repaired truncated trip: " + file.getName());
+            }
+            TripSummary summary = TripSummary.read(file);
+            putSummary(file, summary);
+            return summary;
+        } catch (IOException e) {
+            Log.d(TAG, "Exception reading trip: " + e.toString());
+            return null;
+        }
+    }
+
+    public void putSummary(File file, TripSummary summary) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        putSummary(db, file, summary);
+    }
+
+    // Histograms of all indexed trips added together
+    public TripHistograms getAllTimeHistograms() {
+        TripHistograms histograms = new TripHistograms();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query(sqlTable, new String[] {"histograms"}, "histograms IS NOT NULL",
+                null, null, null, null);
+        try {
+            while (c.moveToNext()) {
+                try {
+                    histograms.merge(TripHistograms.fromJSON(new JSONObject(c.getString(0))));
+                } catch (JSONException e) {
+                    Log.d(TAG, "Invalid histograms: " + e.toString());
+                }
+            }
+        } finally {
+            c.close();
+        }
+        return histograms;
+    }
+
+    // Return the cached corners, detecting them again when the log changed
+    public List<TripCorner> getCorners(File file) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query(sqlTable, new String[] {"size", "modified", "corners"}, "file=?",
+                new String[] {file.getName()}, null, null, null);
+        boolean indexed = false;
+        try {
+            if (c.moveToFirst() && c.getLong(0) == file.length() && c.getLong(1) == file.lastModified()) {
+                indexed = true;
+                if (!c.isNull(2)) {
+                    JSONArray array = new JSONArray(c.getString(2));
+                    List<TripCorner> corners = new ArrayList<>(array.length());
+                    for (int i = 0; i < array.length(); i++) {
+                        corners.add(TripCorner.fromJSON(array.getJSONObject(i)));
+                    }
+                    return corners;
+                }
+            }
+        } catch (JSONException e) {
+            Log.d(TAG, "Invalid corners for " + file.getName() + ": " + e.toString());
+        } finally {
+            c.close();
+        }
+
+        long size = file.length();
+        long modified = file.lastModified();
+        List<TripCorner> corners;
+        try {
+            corners = CornerDetector.detect(TripSeries.read(file));
+        } catch (IOException e) {
+            Log.d(TAG, "Exception reading trip: " + e.toString());
+            return null;
+        }
+        // Corners are stored on the trip row, index the trip first
+        if (TripLog.isActive(file) || (!indexed && getSummary(file) == null)) {
+            return corners;
+        }
+        try {
+            JSONArray array = new JSONArray();
+            for (TripCorner corner : corners) {
+                array.put(corner.toJSON());
+            }
+            ContentValues values = new ContentValues();
+            values.put("corners", array.toString());
+            dbHelper.getWritableDatabase().update(sqlTable, values, "file=? AND size=? AND modified=?",
+                    new String[] {file.getName(), Long.toString(size), Long.toString(modified)});
+        } catch (JSONException e) {
+            Log.d(TAG, "Exception storing corners: " + e.toString());
+        }
+        return corners;
+    }
+
+    // Keep the cached summary when a trip log is renamed
+    public void renameTrip(String oldName, String newName) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        ContentValues cv = new ContentValues();
+        cv.put("file", newName);
+        db.update(sqlTable, cv, "file=?", new String[] {oldName});
+        db.update("heatmap_trips", cv, "file=?", new String[] {oldName});
+        db.update("heatmap_trip_tiles", cv, "file=?", new String[] {oldName});
+    }
+
+    // How far an indexed log has been reduced, see TripArchiver
+    public int getArchiveLevel(File file) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query(sqlTable, new String[] {"archive_level"}, "file=? AND size=? AND modified=?",
+                new String[] {file.getName(), Long.toString(file.length()), Long.toString(file.lastModified())},
+                null, null, null);
+        try {
+            return (c.moveToFirst() && !c.isNull(0)) ? c.getInt(0) : 0;
+        } finally {
+            c.close();
+        }
+    }
+
+    /**
+     * Point the index at a reduced copy of a log, keeping the summary,
+     * corners and heatmap counts worked out from the full log.
+     *
+     * @return false when the index no longer matched the old log
+     */
+    public boolean replaceLog(String oldName, long oldSize, long oldModified, File file, int archiveLevel) {
+        String[] where = new String[] {oldName, Long.toString(oldSize), Long.toString(oldModified)};
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put("file", file.getName());
+            values.put("size", file.length());
+            values.put("modified", file.lastModified());
+            ContentValues tripValues = new ContentValues(values);
+            tripValues.put("archive_level", archiveLevel);
+            int updated = db.update(sqlTable, tripValues, "file=? AND size=? AND modified=?", where);
+            if (db.update("heatmap_trips", values, "file=? AND size=? AND modified=?", where) > 0) {
+                ContentValues tileValues = new ContentValues();
+                tileValues.put("file", file.getName());
+                db.update("heatmap_trip_tiles", tileValues, "file=?", new String[] {oldName});
+            }
+            db.setTransactionSuccessful();
+            return updated > 0;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void removeTrip(String fileName) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.delete(sqlTable, "file=?", new String[] {fileName});
+    }
+
+    /**
+     * Apply the result of a trip edit in one transaction, readers either see
+     * the index before or after the edit.
+     */
+    public void applyEdit(List<String> removed, List<File> files, List<TripSummary> summaries) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String fileName : removed) {
+                db.delete(sqlTable, "file=?", new String[] {fileName});
+            }
+            for (int i = 0; i < files.size(); i++) {
+                putSummary(db, files.get(i), summaries.get(i));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private void putSummary(SQLiteDatabase db, File file, TripSummary summary) {
+        ContentValues values = new ContentValues();
+        values.put("file", file.getName());
+        values.put("size", file.length());
+        values.put("modified", file.lastModified());
+        values.put("start_time", summary.startTime);
+        values.put("end_time", summary.endTime);
+        try {
+            values.put("summary", summary.toJSON().toString());
+            values.put("histograms", summary.histograms.toJSON().toString());
+        } catch (JSONException e) {
+            Log.d(TAG, "Exception storing summary: " + e.toString());
+            return;
+        }
+        db.insertWithOnConflict(sqlTable, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Trim, split and merge trip logs. Rows are streamed from the source logs
+ * into temporary files which only replace the originals once they are
+ * complete, the trip index is then updated in a single transaction. Edited
+ * logs keep the compression of the log they replace. Edits touching more
+ * than one log first write a journal of their renames and deletes, so an
+ * edit interrupted by the process being killed is finished on the next
+ * start instead of leaving rows duplicated or lost.
+ */
+public class TripEditor {
+
+    private static final String TAG = "TripEditor";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String JOURNAL_EXTENSION = ".edit";
+    // Journal steps, one per line with tab separated paths
+    private static final String RENAME = "rename";
+    private static final String DELETE = "delete";
+
+    // Interrupted edits are recovered once per process, before the first edit starts
+    private static boolean recovered;
+
+    /**
+     * Half open range of rows, either by data row index or by time in
+     * milliseconds since epoch.
+     */
+    public static class Range {
+        final boolean byTime;
+        final long start;
+        final long end;
+
+        private Range(boolean byTime, long start, long end) {
+            this.byTime = byTime;
+            this.start = start;
+            this.end = end;
+        }
+
+        public static Range rows(int start, int end) {
+            return new Range(false, start, end);
+        }
+
+        public static Range time(long start, long end) {
+            return new Range(true, start, end);
+        }
+
+        boolean contains(TripLogRecord record) {
+            long position = byTime ? record.time : record.index;
+            return position >= start && position < end;
+        }
+    }
+
+    private final TripDatasource datasource;
+
+    public TripEditor(TripDatasource datasource) {
+        this.datasource = datasource;
+        synchronized (TripEditor.class) {
+            if (!recovered) {
+                recovered = true;
+                recover(datasource);
+            }
+        }
+    }
+
+    // Keep only the rows inside the range
+    public File trim(File source, Range keep) throws IOException {
+        File temp = newTempFile(source);
+        TripLogWriter writer = null;
+        try (TripLogReader reader = new TripLogReader(source)) {
+            writer = new TripLogWriter(temp, reader.getHeader(), TripLog.isCompressed(source));
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                if (keep.contains(record)) {
+                    writer.write(record);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        if (writer.getSummary().rows == 0) {
+            temp.delete();
+            throw new IOException("Trim would remove every row");
+        }
+        replace(temp, source);
+        datasource.applyEdit(Collections.<String>emptyList(),
+                Collections.singletonList(source), Collections.singletonList(writer.getSummary()));
+        return source;
+    }
+
+    /**
+     * Move the rows inside the range to a new trip, all other rows stay in
+     * the source log.
+     *
+     * @return the source log followed by the new trip log
+     */
+    public List<File> split(File source, Range moved) throws IOException {
+        File headTemp = newTempFile(source);
+        File tailTemp = new File(TripLog.getWorkDirectory(), source.getName() + ".split" + TEMP_EXTENSION);
+        TripLogWriter head = null;
+        TripLogWriter tail = null;
+        long tailStart = -1;
+        try (TripLogReader reader = new TripLogReader(source)) {
+            head = new TripLogWriter(headTemp, reader.getHeader(), TripLog.isCompressed(source));
+            tail = new TripLogWriter(tailTemp, reader.getHeader());
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                if (moved.contains(record)) {
+                    if (tailStart < 0) {
+                        tailStart = record.time;
+                    }
+                    tail.write(record);
+                } else {
+                    head.write(record);
+                }
+            }
+        } finally {
+            if (head != null) {
+                head.close();
+            }
+            if (tail != null) {
+                tail.close();
+            }
+        }
+        if (head.getSummary().rows == 0 || tail.getSummary().rows == 0) {
+            headTemp.delete();
+            tailTemp.delete();
+            throw new IOException("Split would leave an empty trip");
+        }
+
+        File tailFile = newLogFile(tailStart);
+        File journal = writeJournal(source, Arrays.asList(
+                RENAME + "\t" + headTemp.getPath() + "\t" + source.getPath(),
+                RENAME + "\t" + tailTemp.getPath() + "\t" + tailFile.getPath()));
+        commit(journal);
+        datasource.applyEdit(Collections.<String>emptyList(),
+                Arrays.asList(source, tailFile), Arrays.asList(head.getSummary(), tail.getSummary()));
+        journal.delete();
+        return Arrays.asList(source, tailFile);
+    }
+
+    /**
+     * Append the later of two trips to the earlier one and delete it.
+     *
+     * @return the merged trip log
+     */
+    public File merge(File first, File second) throws IOException {
+        TripSummary firstSummary = datasource.getSummary(first);
+        TripSummary secondSummary = datasource.getSummary(second);
+        if (firstSummary != null && secondSummary != null && secondSummary.startTime < firstSummary.startTime) {
+            File swap = first;
+            first = second;
+            second = swap;
+        }
+
+        File temp = newTempFile(first);
+        TripLogWriter writer = null;
+        try (TripLogReader firstReader = new TripLogReader(first);
+             TripLogReader secondReader = new TripLogReader(second)) {
+            if (!Arrays.equals(firstReader.getHeader(), secondReader.getHeader())) {
+                throw new IOException("Trip logs use different columns or units");
+            }
+            writer = new TripLogWriter(temp, firstReader.getHeader(), TripLog.isCompressed(first));
+            TripLogRecord record;
+            while ((record = firstReader.next()) != null) {
+                writer.write(record);
+            }
+            while ((record = secondReader.next()) != null) {
+                writer.write(record);
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        File journal = writeJournal(first, Arrays.asList(
+                RENAME + "\t" + temp.getPath() + "\t" + first.getPath(),
+                DELETE + "\t" + second.getPath()));
+        List<String> removed = commit(journal);
+        datasource.applyEdit(removed, Collections.singletonList(first), Collections.singletonList(writer.getSummary()));
+        journal.delete();
+        return first;
+    }
+
+    private File newTempFile(File source) {
+        return new File(TripLog.getWorkDirectory(), source.getName() + TEMP_EXTENSION);
+    }
+
+    private File newLogFile(long time) {
+        File root = TripLog.getLogDirectory();
+        String name = TripLog.getFileName(new Date(time >= 0 ? time : System.currentTimeMillis()));
+        File file = new File(root, name);
+        int suffix = 1;
+        while (file.exists()) {
+            file = new File(root, name.replace(TripLog.FILE_EXTENSION, "-" + suffix + TripLog.FILE_EXTENSION));
+            suffix++;
+        }
+        return file;
+    }
+
+    // rename() replaces an existing target in one step
+    private static void replace(File temp, File target) throws IOException {
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Unable to replace " + target);
+        }
+    }
+
+    /**
+     * Write the steps that complete an edit and sync them to flash. The
+     * journal only appears under its name once it is whole, from then on
+     * the edit is carried out even if the process is killed.
+     */
+    private static File writeJournal(File log, List<String> steps) throws IOException {
+        File journal = new File(TripLog.getWorkDirectory(), log.getName() + JOURNAL_EXTENSION);
+        File temp = new File(journal.getPath() + TEMP_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            for (String step : steps) {
+                out.write((step + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            out.getFD().sync();
+        }
+        replace(temp, journal);
+        return journal;
+    }
+
+    /**
+     * Carry out the steps of a journal. Steps already done are skipped, so
+     * a journal can be committed again after an interruption.
+     *
+     * @return names of the deleted logs
+     */
+    private static List<String> commit(File journal) throws IOException {
+        List<String> removed = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] step = line.split("\t");
+                if (step[0].equals(RENAME) && step.length == 3) {
+                    File from = new File(step[1]);
+                    // A failed rename stops here, later steps must not run without it
+                    if (from.exists() && !from.renameTo(new File(step[2]))) {
+                        throw new IOException("Unable to replace " + step[2]);
+                    }
+                } else if (step[0].equals(DELETE) && step.length == 2) {
+                    File file = new File(step[1]);
+                    if (file.exists() && !file.delete()) {
+                        Log.d(TAG, "Unable to delete merged trip: " + file);
+                    }
+                    removed.add(file.getName());
+                }
+            }
+        }
+        return removed;
+    }
+
+    // Finish edits interrupted by the process being killed, then remove their leftovers
+    private static void recover(TripDatasource datasource) {
+        File[] list = TripLog.getWorkDirectory().listFiles();
+        if (list == null) {
+            return;
+        }
+        boolean unfinished = false;
+        for (File file : list) {
+            if (file.getName().endsWith(JOURNAL_EXTENSION)) {
+                try {
+                    for (String name : commit(file)) {
+                        datasource.removeTrip(name);
+                    }
+                    file.delete();
+                    Log.d(TAG, "Finished interrupted edit: " + file.getName());
+                } catch (IOException e) {
+                    Log.d(TAG, "Unable to finish edit: " + e.toString());
+                    unfinished = true;
+                }
+            }
+        }
+        if (unfinished) {
+            // The temporary logs of an unfinished journal are still needed
+            return;
+        }
+        list = TripLog.getWorkDirectory().listFiles();
+        if (list != null) {
+            for (File file : list) {
+                if (file.getName().endsWith(TEMP_EXTENSION)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Output format fed by TripExporter. Every sink sees the same single pass
+ * over the trip log.
+ */
+public interface TripExportSink extends Closeable {
+
+    File getFile();
+
+    String getMimeType();
+
+    void begin(String[] header) throws IOException;
+
+    void write(TripLogRecord record) throws IOException;
+
+    // Write the trailer, close() is still called afterwards
+    void end() throws IOException;
+}
@@ -0,0 +1,75 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produces any number of export formats from one streaming read of a trip log.
+ */
+public class TripExporter {
+
+    private static final String TAG = "TripExporter";
+
+    private final File source;
+    private final List<TripExportSink> sinks = new ArrayList<>();
+
+    public TripExporter(File source) {
+        this.source = source;
+    }
+
+    public TripExporter addSink(TripExportSink sink) {
+        sinks.add(sink);
+        return this;
+    }
+
+    public List<TripExportSink> getSinks() {
+        return sinks;
+    }
+
+    public void export() throws IOException {
+        try (TripLogReader reader = new TripLogReader(source)) {
+            String[] header = reader.getHeader();
+            for (TripExportSink sink : sinks) {
+                sink.begin(header);
+            }
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                for (int i = 0; i < sinks.size(); i++) {
+                    sinks.get(i).write(record);
+                }
+            }
+            for (TripExportSink sink : sinks) {
+                sink.end();
+            }
+        } finally {
+            for (TripExportSink sink : sinks) {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    Log.d(TAG, "Exception closing export: " + e.toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Fixed bucket histograms of riding data, each row adds the time since the
+ * previous row to its buckets. Histograms of different trips merge by adding
+ * the buckets, so all-time views never touch the logs.
+ */
+public class TripHistograms {
+
+    // Neutral, gears 1 to 6, between gears
+    public static final int GEAR_BUCKETS = 8;
+    public static final int GEAR_NEUTRAL = 0;
+    public static final int GEAR_BETWEEN = 7;
+    // The last bucket of each range also holds everything above it
+    public static final int RPM_STEP = 500;
+    public static final int RPM_BUCKETS = 25;
+    public static final int SPEED_STEP = 10;
+    public static final int SPEED_BUCKETS = 21;
+    public static final int LEAN_STEP = 5;
+    public static final int LEAN_BUCKETS = 13;
+    public static final int THROTTLE_STEP = 5;
+    public static final int THROTTLE_BUCKETS = 21;
+
+    // Milliseconds, longer gaps between rows are not counted
+    static final long MAX_STEP = 5000;
+
+    // All buckets in milliseconds, speeds in km/h, lean in absolute degrees
+    public final long[] gear = new long[GEAR_BUCKETS];
+    // [gear * RPM_BUCKETS + rpm]
+    public final long[] rpmByGear = new long[GEAR_BUCKETS * RPM_BUCKETS];
+    // [speed * LEAN_BUCKETS + lean]
+    public final long[] speedLean = new long[SPEED_BUCKETS * LEAN_BUCKETS];
+    public final long[] throttle = new long[THROTTLE_BUCKETS];
+
+    private double speedFactor = 1.0;
+    private long lastTime = -1;
+
+    public void setHeader(String[] header) {
+        String unit = TripLog.parseUnit(header, TripLog.SPEED, TripLog.parseUnit(header, TripLog.GPS_SPEED, "kmh"));
+        speedFactor = unit.equals("mph") ? 1.609344 : 1.0;
+    }
+
+    public void add(TripLogRecord record) {
+        if (record.time < 0) {
+            return;
+        }
+        long step = (lastTime >= 0) ? record.time - lastTime : 0;
+        lastTime = record.time;
+        if (step <= 0 || step > MAX_STEP) {
+            return;
+        }
+
+        int gearBucket = getGearBucket(record.getString(TripLog.GEAR));
+        if (gearBucket >= 0) {
+            gear[gearBucket] += step;
+            double rpm = record.getDouble(TripLog.RPM);
+            if (!Double.isNaN(rpm)) {
+                rpmByGear[gearBucket * RPM_BUCKETS + bucket(rpm, RPM_STEP, RPM_BUCKETS)] += step;
+            }
+        }
+
+        double speed = record.getDouble(TripLog.SPEED);
+        if (Double.isNaN(speed)) {
+            speed = record.gpsSpeed;
+        }
+        double lean = record.getDouble(TripLog.LEAN_ANGLE_BIKE);
+        if (Double.isNaN(lean)) {
+            lean = record.getDouble(TripLog.LEAN_ANGLE);
+        }
+        if (!Double.isNaN(speed) && !Double.isNaN(lean)) {
+            speedLean[bucket(speed * speedFactor, SPEED_STEP, SPEED_BUCKETS) * LEAN_BUCKETS
+                    + bucket(Math.abs(lean), LEAN_STEP, LEAN_BUCKETS)] += step;
+        }
+
+        double throttlePosition = record.getDouble(TripLog.THROTTLE);
+        if (!Double.isNaN(throttlePosition)) {
+            throttle[bucket(throttlePosition, THROTTLE_STEP, THROTTLE_BUCKETS)] += step;
+        }
+    }
+
+    public void merge(TripHistograms other) {
+        add(gear, other.gear);
+        add(rpmByGear, other.rpmByGear);
+        add(speedLean, other.speedLean);
+        add(throttle, other.throttle);
+    }
+
+    public long getGearTime() {
+        return sum(gear, 0, gear.length);
+    }
+
+    // Mean of the bucket midpoints, NaN when the gear has no RPM data
+    public double getAvgRpm(int gearBucket) {
+        long total = 0;
+        double weighted = 0;
+        for (int i = 0; i < RPM_BUCKETS; i++) {
+            long time = rpmByGear[gearBucket * RPM_BUCKETS + i];
+            total += time;
+            weighted += time * (i + 0.5) * RPM_STEP;
+        }
+        return (total > 0) ? weighted / total : Double.NaN;
+    }
+
+    public double getAvgThrottle() {
+        long total = 0;
+        double weighted = 0;
+        for (int i = 0; i < THROTTLE_BUCKETS; i++) {
+            total += throttle[i];
+            weighted += throttle[i] * Math.min(100.0, (i + 0.5) * THROTTLE_STEP);
+        }
+        return (total > 0) ? weighted / total : Double.NaN;
+    }
+
+    // Share of time at or above a throttle position, NaN without throttle data
+    public double getThrottleShare(int position) {
+        long total = sum(throttle, 0, THROTTLE_BUCKETS);
+        long above = sum(throttle, bucket(position, THROTTLE_STEP, THROTTLE_BUCKETS), THROTTLE_BUCKETS);
+        return (total > 0) ? (double) above / total : Double.NaN;
+    }
+
+    // Share of time leaned at or beyond an angle, NaN without lean data
+    public double getLeanShare(int angle) {
+        long total = 0;
+        long above = 0;
+        int from = bucket(angle, LEAN_STEP, LEAN_BUCKETS);
+        for (int s = 0; s < SPEED_BUCKETS; s++) {
+            total += sum(speedLean, s * LEAN_BUCKETS, (s + 1) * LEAN_BUCKETS);
+            above += sum(speedLean, s * LEAN_BUCKETS + from, (s + 1) * LEAN_BUCKETS);
+        }
+        return (total > 0) ? (double) above / total : Double.NaN;
+    }
+
+    public static int getGearBucket(String value) {
+        if (value == null) {
+            return -1;
+        }
+        switch (value) {
+            case "N":
+                return GEAR_NEUTRAL;
+            case "-":
+                return GEAR_BETWEEN;
+            case "1":
+            case "2":
+            case "3":
+            case "4":
+            case "5":
+            case "6":
+                return value.charAt(0) - '0';
+            default:
+                return -1;
+        }
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("gear", toJSON(gear));
+        json.put("rpmByGear", toJSON(rpmByGear));
+        json.put("speedLean", toJSON(speedLean));
+        json.put("throttle", toJSON(throttle));
+        return json;
+    }
+
+    public static TripHistograms fromJSON(JSONObject json) {
+        TripHistograms histograms = new TripHistograms();
+        fromJSON(json.optJSONArray("gear"), histograms.gear);
+        fromJSON(json.optJSONArray("rpmByGear"), histograms.rpmByGear);
+        fromJSON(json.optJSONArray("speedLean"), histograms.speedLean);
+        fromJSON(json.optJSONArray("throttle"), histograms.throttle);
+        return histograms;
+    }
+
+    private static int bucket(double value, int step, int buckets) {
+        if (value <= 0) {
+            return 0;
+        }
+        return (int) Math.min(buckets - 1, value / step);
+    }
+
+    private static void add(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private static long sum(long[] values, int from, int to) {
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += values[i];
+        }
+        return total;
+    }
+
+    private static JSONArray toJSON(long[] values) {
+        JSONArray array = new JSONArray();
+        for (long value : values) {
+            array.put(value);
+        }
+        return array;
+    }
+
+    // Arrays of another size come from an older layout and are left empty
+    private static void fromJSON(JSONArray array, long[] values) {
+        if (array == null || array.length() != values.length) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.optLong(i);
+        }
+    }
+}
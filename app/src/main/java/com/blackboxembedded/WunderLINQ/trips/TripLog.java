@@ -0,0 +1,223 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.util.Log;
+
+import com.blackboxembedded.WunderLINQ.MyApplication;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Layout of the CSV trip logs written by LoggingService.
+ */
+public class TripLog {
+
+    private static final String TAG = "TripLog";
+
+    private static volatile File activeLog;
+
+    public static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+    public static final String FILE_PREFIX = "WunderLINQ-TripLog-";
+    public static final String FILE_DATE_FORMAT = "yyyyMMdd-HH-mm-ss";
+    public static final String FILE_EXTENSION = ".csv";
+    // Appended to the name of a gzip compressed log
+    public static final String COMPRESSED_EXTENSION = ".gz";
+    public static final String NO_FIX = "No Fix";
+    public static final String NO_VALUE = "null";
+
+    // Column indexes
+    public static final int TIME = 0;
+    public static final int LATITUDE = 1;
+    public static final int LONGITUDE = 2;
+    public static final int ALTITUDE = 3;
+    public static final int GPS_SPEED = 4;
+    public static final int GEAR = 5;
+    public static final int ENGINE_TEMP = 6;
+    public static final int AMBIENT_TEMP = 7;
+    public static final int FRONT_PRESSURE = 8;
+    public static final int REAR_PRESSURE = 9;
+    public static final int ODOMETER = 10;
+    public static final int VOLTAGE = 11;
+    public static final int THROTTLE = 12;
+    public static final int FRONT_BRAKES = 13;
+    public static final int REAR_BRAKES = 14;
+    public static final int SHIFTS = 15;
+    public static final int VIN = 16;
+    public static final int AMBIENT_LIGHT = 17;
+    public static final int TRIP_ONE = 18;
+    public static final int TRIP_TWO = 19;
+    public static final int TRIP_AUTO = 20;
+    public static final int SPEED = 21;
+    public static final int AVG_SPEED = 22;
+    public static final int CURRENT_CONSUMPTION = 23;
+    public static final int FUEL_ECONOMY_ONE = 24;
+    public static final int FUEL_ECONOMY_TWO = 25;
+    public static final int FUEL_RANGE = 26;
+    public static final int LEAN_ANGLE = 27;
+    public static final int G_FORCE = 28;
+    public static final int BEARING = 29;
+    public static final int BAROMETRIC_PRESSURE = 30;
+    public static final int RPM = 31;
+    public static final int LEAN_ANGLE_BIKE = 32;
+    public static final int REAR_WHEEL_SPEED = 33;
+
+    public static final int COLUMN_COUNT = 34;
+
+    // Directory holding all trip logs
+    public static File getLogDirectory() {
+        File root = new File(MyApplication.getContext().getExternalFilesDir(null), "/logs/");
+        if(!root.exists()){
+            if(!root.mkdirs()){
+                Log.d(TAG,"Unable to create directory: " + root);
+            }
+        }
+        return root;
+    }
+
+    // Scratch space for edits in progress, next to the logs so renames stay on one volume
+    public static File getWorkDirectory() {
+        File root = new File(MyApplication.getContext().getExternalFilesDir(null), "/trips/");
+        if(!root.exists()){
+            if(!root.mkdirs()){
+                Log.d(TAG,"Unable to create directory: " + root);
+            }
+        }
+        return root;
+    }
+
+    // Log file name for a trip starting at the given time
+    public static String getFileName(Date date) {
+        SimpleDateFormat formatter = new SimpleDateFormat(FILE_DATE_FORMAT);
+        return FILE_PREFIX + formatter.format(date) + FILE_EXTENSION;
+    }
+
+    public static boolean isCompressed(File file) {
+        return file.getName().endsWith(COMPRESSED_EXTENSION);
+    }
+
+    public static String getMimeType(File file) {
+        return isCompressed(file) ? "application/gzip" : "text/csv";
+    }
+
+    // Open a log for reading, segments of a trip still being recorded follow on
+    public static InputStream openInput(File file) throws IOException {
+        return TripLogSegments.open(file);
+    }
+
+    // gzip data is recognized by its magic number whatever the file name
+    static InputStream decompress(InputStream stream) throws IOException {
+        InputStream in = new BufferedInputStream(stream);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    /**
+     * Cut a plain log back to its last complete row, dropping what a crash
+     * left of the row being written. Only the end of the file is read.
+     * @return true if the file was truncated
+     */
+    public static boolean repair(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            long length = raf.length();
+            byte[] buffer = new byte[4096];
+            long end = length;
+            while (end > 0) {
+                int count = (int) Math.min(buffer.length, end);
+                raf.seek(end - count);
+                raf.readFully(buffer, 0, count);
+                for (int i = count - 1; i >= 0; i--) {
+                    if (buffer[i] == '\n') {
+                        long complete = end - count + i + 1;
+                        if (complete == length) {
+                            return false;
+                        }
+                        raf.setLength(complete);
+                        return true;
+                    }
+                }
+                end -= count;
+            }
+            if (length == 0) {
+                return false;
+            }
+            raf.setLength(0);
+            return true;
+        }
+    }
+
+    // The log LoggingService is writing to, its rows are not all in the file yet
+    public static void setActiveLog(File file) {
+        activeLog = file;
+    }
+
+    // Only clears the active log if a new trip has not started since
+    public static void clearActiveLog(File file) {
+        if (file.equals(activeLog)) {
+            activeLog = null;
+        }
+    }
+
+    public static boolean isActive(File file) {
+        File active = activeLog;
+        return active != null && active.getName().equals(file.getName());
+    }
+
+    // Parse a logged value, NaN when the column is missing, empty or not available
+    public static double parseDouble(String[] row, int column) {
+        if (row == null || column >= row.length) {
+            return Double.NaN;
+        }
+        String value = row[column];
+        if (value == null || value.isEmpty() || value.equals(NO_VALUE) || value.equals(NO_FIX)) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Unit between parentheses in a header column, e.g. "Speed(kmh)"
+    public static String parseUnit(String[] header, int column, String defaultUnit) {
+        if (header == null || column >= header.length) {
+            return defaultUnit;
+        }
+        String name = header[column];
+        int start = name.indexOf("(");
+        int end = name.indexOf(")", start + 1);
+        if (start < 0 || end < 0) {
+            return defaultUnit;
+        }
+        return name.substring(start + 1, end);
+    }
+}
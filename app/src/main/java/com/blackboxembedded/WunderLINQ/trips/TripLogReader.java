@@ -0,0 +1,121 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import com.opencsv.CSVReader;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Streams the rows of a trip log one at a time instead of loading the whole
+ * file with readAll(). Compressed logs are read the same way.
+ */
+public class TripLogReader implements Closeable {
+
+    private final CSVReader reader;
+    private final SimpleDateFormat formatter = new SimpleDateFormat(TripLog.DATE_FORMAT);
+    private final ParsePosition parsePosition = new ParsePosition(0);
+    private final TripLogRecord record = new TripLogRecord();
+    private String[] header;
+    private String[] ahead;
+    private int rowIndex = 0;
+    // Rows known to end in a newline, so none was cut short
+    private boolean complete = false;
+
+    public TripLogReader(File file) throws IOException {
+        this(new InputStreamReader(TripLog.openInput(file)));
+    }
+
+    public TripLogReader(Reader in) throws IOException {
+        reader = new CSVReader(in);
+        header = reader.readNext();
+    }
+
+    /**
+     * Read complete rows following rowIndex rows already read, the header
+     * is read from the input when null.
+     */
+    TripLogReader(Reader in, String[] header, int rowIndex) throws IOException {
+        reader = new CSVReader(in);
+        this.header = (header != null) ? header : reader.readNext();
+        this.rowIndex = rowIndex;
+        complete = true;
+    }
+
+    public String[] getHeader() {
+        return header;
+    }
+
+    public String getUnit(int column, String defaultUnit) {
+        return TripLog.parseUnit(header, column, defaultUnit);
+    }
+
+    /**
+     * @return the next row, or null at the end of the log. The returned
+     * record is reused by the following call.
+     */
+    public TripLogRecord next() throws IOException {
+        String[] values = (ahead != null) ? ahead : read();
+        if (values == null) {
+            return null;
+        }
+        // One row ahead, so a last row cut short by a crash can be told apart
+        ahead = read();
+        if (ahead == null && !complete && header != null && values.length < header.length) {
+            return null;
+        }
+        record.index = rowIndex++;
+        record.values = values;
+        record.time = parseTime(values[TripLog.TIME]);
+        record.latitude = TripLog.parseDouble(values, TripLog.LATITUDE);
+        record.longitude = TripLog.parseDouble(values, TripLog.LONGITUDE);
+        record.altitude = TripLog.parseDouble(values, TripLog.ALTITUDE);
+        record.gpsSpeed = TripLog.parseDouble(values, TripLog.GPS_SPEED);
+        record.hasFix = !Double.isNaN(record.latitude) && !Double.isNaN(record.longitude);
+        return record;
+    }
+
+    private String[] read() throws IOException {
+        try {
+            return reader.readNext();
+        } catch (EOFException e) {
+            // gzip member cut short by a crash while it was appended
+            return null;
+        }
+    }
+
+    private long parseTime(String value) {
+        parsePosition.setIndex(0);
+        parsePosition.setErrorIndex(-1);
+        Date date = formatter.parse(value, parsePosition);
+        return (date == null) ? -1 : date.getTime();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+/**
+ * One data row of a trip log. The reader reuses a single instance for every
+ * row, consumers that keep values past the callback must copy them.
+ */
+public class TripLogRecord {
+
+    // Data row index, 0 is the first row after the header
+    public int index;
+    public String[] values;
+    // Milliseconds since epoch, -1 when the time column could not be parsed
+    public long time;
+    public boolean hasFix;
+    public double latitude;
+    public double longitude;
+    public double altitude;
+    public double gpsSpeed;
+
+    public void set(TripLogRecord other) {
+        index = other.index;
+        values = other.values;
+        time = other.time;
+        hasFix = other.hasFix;
+        latitude = other.latitude;
+        longitude = other.longitude;
+        altitude = other.altitude;
+        gpsSpeed = other.gpsSpeed;
+    }
+
+    public double getDouble(int column) {
+        return TripLog.parseDouble(values, column);
+    }
+
+    public String getString(int column) {
+        if (values == null || column >= values.length) {
+            return TripLog.NO_VALUE;
+        }
+        return values[column];
+    }
+}
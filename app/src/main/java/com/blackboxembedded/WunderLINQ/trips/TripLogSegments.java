@@ -0,0 +1,357 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segments of a trip log being recorded. Rows go to a plain part file in the
+ * work directory; at a size or time limit it is closed as a numbered segment,
+ * gzip compressed in the background and appended to the log as another gzip
+ * member. Readers see the log followed by the segments not yet appended, as
+ * one logical trip.
+ *
+ * Appends are journaled: the length of the log is synced to a journal file
+ * before a member is appended, and the segment is deleted only once the
+ * member is synced, so a crash at any point leaves either the segment to
+ * append again after cutting the log back, or a complete log.
+ */
+public class TripLogSegments {
+
+    private static final String TAG = "TripLogSegments";
+    private static final String PART_EXTENSION = ".part";
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final String MEMBER_EXTENSION = ".member";
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    // Held while the set of files making up a log changes and while a reader opens them
+    static final Object LOCK = new Object();
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // File the rows of an active log are written to
+    public static File getPartFile(File log) {
+        return new File(TripLog.getWorkDirectory(), log.getName() + PART_EXTENSION);
+    }
+
+    // Close the part file as a segment and compress it in the background
+    public static void closePart(final File log, int number) {
+        File part = getPartFile(log);
+        final File segment = new File(TripLog.getWorkDirectory(),
+                log.getName() + String.format("-%05d", number) + SEGMENT_EXTENSION);
+        synchronized (LOCK) {
+            if (!part.renameTo(segment)) {
+                Log.d(TAG, "Unable to close segment: " + part);
+                return;
+            }
+        }
+        executor.execute(() -> compress(segment, log));
+    }
+
+    // Run after the segments closed so far are appended
+    public static void submit(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Find the part of a recording killed less than window ms ago, so the
+     * restarted service can carry on with the same trip. The part is cut
+     * back to its last complete row.
+     * @return the log to resume, or null
+     */
+    public static File findResumable(long window) {
+        File[] list = TripLog.getWorkDirectory().listFiles();
+        if (list == null) {
+            return null;
+        }
+        File newest = null;
+        for (File file : list) {
+            if (file.getName().endsWith(PART_EXTENSION)
+                    && (newest == null || file.lastModified() > newest.lastModified())) {
+                newest = file;
+            }
+        }
+        if (newest == null || System.currentTimeMillis() - newest.lastModified() > window) {
+            return null;
+        }
+        String name = newest.getName();
+        File log = new File(TripLog.getLogDirectory(), name.substring(0, name.length() - PART_EXTENSION.length()));
+        if (!log.exists() || TripLog.isActive(log)) {
+            return null;
+        }
+        try {
+            synchronized (LOCK) {
+                TripLog.repair(newest);
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Unable to repair part: " + e.toString());
+            return null;
+        }
+        return log;
+    }
+
+    // Number for the next segment of a log, after any still waiting to be appended
+    public static int getNextSegment(File log) {
+        int next = 0;
+        for (File file : getPending(log)) {
+            String name = file.getName();
+            if (name.endsWith(SEGMENT_EXTENSION)) {
+                try {
+                    int number = Integer.parseInt(name.substring(name.lastIndexOf('-') + 1,
+                            name.length() - SEGMENT_EXTENSION.length()));
+                    next = Math.max(next, number + 1);
+                } catch (NumberFormatException e) {
+                    Log.d(TAG, "Invalid segment name: " + name);
+                }
+            }
+        }
+        return next;
+    }
+
+    // Finish or undo interrupted appends, then append segments left behind by a recording that did not close its log
+    public static void recover() {
+        executor.execute(() -> {
+            File[] list = TripLog.getWorkDirectory().listFiles();
+            if (list == null) {
+                return;
+            }
+            Arrays.sort(list);
+            for (File file : list) {
+                if (file.getName().endsWith(JOURNAL_EXTENSION)) {
+                    rollBack(file);
+                }
+            }
+            for (File file : list) {
+                String name = file.getName();
+                if (!name.endsWith(PART_EXTENSION)) {
+                    continue;
+                }
+                File log = new File(TripLog.getLogDirectory(), name.substring(0, name.length() - PART_EXTENSION.length()));
+                if (!TripLog.isActive(log)) {
+                    File segment = new File(TripLog.getWorkDirectory(), log.getName() + "-99999" + SEGMENT_EXTENSION);
+                    synchronized (LOCK) {
+                        file.renameTo(segment);
+                    }
+                }
+            }
+            list = TripLog.getWorkDirectory().listFiles();
+            if (list == null) {
+                return;
+            }
+            Arrays.sort(list);
+            for (File file : list) {
+                String name = file.getName();
+                if (name.endsWith(MEMBER_EXTENSION)) {
+                    file.delete();
+                } else if (name.endsWith(SEGMENT_EXTENSION)) {
+                    // Closed segments of a resumed trip go in ahead of the ones it closes next
+                    Log.d(TAG, "Recovering segment: " + name);
+                    compress(file, new File(TripLog.getLogDirectory(), name.substring(0, name.lastIndexOf('-'))));
+                }
+            }
+        });
+    }
+
+    // The log, then segments waiting to be appended, then the part being written
+    static InputStream open(File log) throws IOException {
+        synchronized (LOCK) {
+            // Appends after this point belong to segments opened below
+            InputStream in = TripLog.decompress(new BoundedInputStream(new FileInputStream(log), log.length()));
+            List<File> pending = getPending(log);
+            if (pending.isEmpty()) {
+                return in;
+            }
+            List<InputStream> streams = new ArrayList<>();
+            streams.add(in);
+            try {
+                for (File file : pending) {
+                    streams.add(new FileInputStream(file));
+                }
+            } catch (IOException e) {
+                for (InputStream stream : streams) {
+                    stream.close();
+                }
+                throw e;
+            }
+            return new SequenceInputStream(Collections.enumeration(streams));
+        }
+    }
+
+    static List<File> getPending(File log) {
+        List<File> pending = new ArrayList<>();
+        File[] list = TripLog.getWorkDirectory().listFiles();
+        if (list != null) {
+            Arrays.sort(list);
+            String prefix = log.getName() + "-";
+            for (File file : list) {
+                if (file.getName().startsWith(prefix) && file.getName().endsWith(SEGMENT_EXTENSION)) {
+                    pending.add(file);
+                }
+            }
+        }
+        File part = getPartFile(log);
+        if (part.exists()) {
+            pending.add(part);
+        }
+        return pending;
+    }
+
+    private static void compress(File segment, File log) {
+        if (!log.exists() || segment.length() == 0) {
+            // Trip deleted while recording, or nothing logged since the last segment
+            segment.delete();
+            return;
+        }
+        File member = new File(segment.getPath() + MEMBER_EXTENSION);
+        File journal = new File(segment.getPath() + JOURNAL_EXTENSION);
+        try {
+            // A crash mid row leaves a partial row at the end of the segment
+            TripLog.repair(segment);
+            try (InputStream in = new FileInputStream(segment);
+                 OutputStream out = new GZIPOutputStream(new FileOutputStream(member))) {
+                copy(in, out);
+            }
+            synchronized (LOCK) {
+                try (FileOutputStream out = new FileOutputStream(journal);
+                     DataOutputStream data = new DataOutputStream(out)) {
+                    data.writeLong(log.length());
+                    data.flush();
+                    out.getFD().sync();
+                }
+                try (InputStream in = new FileInputStream(member);
+                     FileOutputStream out = new FileOutputStream(log, true)) {
+                    copy(in, out);
+                    out.getFD().sync();
+                }
+                segment.delete();
+                journal.delete();
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Exception compressing segment: " + e.toString());
+        } finally {
+            member.delete();
+        }
+    }
+
+    // Undo an append that did not finish, the segment is then appended again
+    private static void rollBack(File journal) {
+        String name = journal.getName();
+        File segment = new File(journal.getParentFile(), name.substring(0, name.length() - JOURNAL_EXTENSION.length()));
+        File log = new File(TripLog.getLogDirectory(), name.substring(0, name.lastIndexOf('-')));
+        if (segment.exists() && log.exists()) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(journal));
+                 RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+                long length = in.readLong();
+                if (raf.length() > length) {
+                    Log.d(TAG, "Rolling back append to " + log.getName());
+                    raf.setLength(length);
+                }
+            } catch (IOException e) {
+                // Journal not synced, so the append had not started
+                Log.d(TAG, "Exception reading journal: " + e.toString());
+            }
+        }
+        journal.delete();
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) > 0) {
+            out.write(buffer, 0, count);
+        }
+    }
+
+    // Stops at the length the file had when opened
+    static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long length) {
+            super(in);
+            remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = super.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int count = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(Math.min(count, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
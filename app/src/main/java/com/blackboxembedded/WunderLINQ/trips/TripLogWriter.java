@@ -0,0 +1,131 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes trip log rows in the LoggingService format and summarizes them on
+ * the way out.
+ */
+public class TripLogWriter implements Closeable {
+
+    private final boolean compressed;
+    private File file;
+    private FileOutputStream stream;
+    private Writer out;
+    // Characters written to the current file
+    private long length = 0;
+    private final TripSummary summary = new TripSummary();
+
+    public TripLogWriter(File file, String[] header) throws IOException {
+        this(file, header, false);
+    }
+
+    public TripLogWriter(File file, String[] header, boolean compressed) throws IOException {
+        this(file, header, compressed, false);
+    }
+
+    private TripLogWriter(File file, String[] header, boolean compressed, boolean append) throws IOException {
+        this.file = file;
+        this.compressed = compressed;
+        out = open(file, append);
+        summary.setHeader(header);
+        if (!append) {
+            writeRow(header);
+        }
+    }
+
+    /**
+     * Carry on writing plain rows at the end of a file, without a header.
+     * The summary only covers the rows written from now on.
+     */
+    public static TripLogWriter append(File file, String[] header) throws IOException {
+        return new TripLogWriter(file, header, false, true);
+    }
+
+    public void write(TripLogRecord record) throws IOException {
+        writeRow(record.values);
+        summary.add(record);
+    }
+
+    private void writeRow(String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(values[i]);
+            length += values[i].length();
+        }
+        out.write('\n');
+        length += values.length;
+    }
+
+    /**
+     * Close the current file and carry on in another one, without a header.
+     * The summary covers the rows of every file.
+     */
+    public void roll(File next) throws IOException {
+        out.close();
+        file = next;
+        out = open(next, false);
+        length = 0;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    private Writer open(File target, boolean append) throws IOException {
+        stream = new FileOutputStream(target, append);
+        if (compressed) {
+            return new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(stream)));
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream));
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    // Flush and force the rows written so far to storage
+    public void sync() throws IOException {
+        out.flush();
+        stream.getFD().sync();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public TripSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
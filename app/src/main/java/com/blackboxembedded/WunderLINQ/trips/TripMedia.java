@@ -0,0 +1,52 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+
+/**
+ * A photo or video taken while riding, with where and when it was captured.
+ */
+public class TripMedia {
+
+    public static final int TYPE_PHOTO = 0;
+    public static final int TYPE_VIDEO = 1;
+
+    public final File file;
+    public final int type;
+    public final long captureTime;
+    // NaN when there was no location
+    public final double latitude;
+    public final double longitude;
+
+    public TripMedia(File file, int type, long captureTime, double latitude, double longitude) {
+        this.file = file;
+        this.type = type;
+        this.captureTime = captureTime;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public boolean hasLocation() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+
+    public String getMimeType() {
+        return (type == TYPE_VIDEO) ? "video/mp4" : "image/jpeg";
+    }
+}
@@ -0,0 +1,89 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.location.Location;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index of captured photos and videos, added to as PhotoService and
+ * VideoRecService save them.
+ */
+public class TripMediaDatasource {
+    private final TripDatabase dbHelper;
+    private final String sqlTable = "media";
+
+    public TripMediaDatasource(Context context) {
+        dbHelper = new TripDatabase(context);
+    }
+
+    public void close() {
+        dbHelper.close();
+    }
+
+    public void addMedia(File file, int type, long captureTime, Location location) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("file", file.getAbsolutePath());
+        values.put("type", type);
+        values.put("capture_time", captureTime);
+        if (location != null) {
+            values.put("latitude", location.getLatitude());
+            values.put("longitude", location.getLongitude());
+        }
+        db.insertWithOnConflict(sqlTable, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // Media captured between two times inclusive, oldest first, files deleted since are dropped
+    public List<TripMedia> getMedia(long startTime, long endTime) {
+        List<TripMedia> media = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor c = db.query(sqlTable, new String[] {"file", "type", "capture_time", "latitude", "longitude"},
+                "capture_time BETWEEN ? AND ?", new String[] {Long.toString(startTime), Long.toString(endTime)},
+                null, null, "capture_time");
+        try {
+            while (c.moveToNext()) {
+                File file = new File(c.getString(0));
+                if (!file.exists()) {
+                    missing.add(c.getString(0));
+                    continue;
+                }
+                media.add(new TripMedia(file, c.getInt(1), c.getLong(2),
+                        c.isNull(3) ? Double.NaN : c.getDouble(3),
+                        c.isNull(4) ? Double.NaN : c.getDouble(4)));
+            }
+        } finally {
+            c.close();
+        }
+        if (!missing.isEmpty()) {
+            SQLiteDatabase writable = dbHelper.getWritableDatabase();
+            for (String path : missing) {
+                writable.delete(sqlTable, "file=?", new String[] {path});
+            }
+        }
+        return media;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A stretch of a trip spent either moving or stopped.
+ */
+public class TripSegment {
+
+    public boolean moving;
+    public long startTime = -1;
+    public long endTime = -1;
+    public int startRow = -1;
+    public int endRow = -1;
+    // GPS distance in meters
+    public double distance = 0.0;
+    // Speeds in km/h
+    public double maxSpeed = 0.0;
+    public double speedSum = 0.0;
+    public int speedCount = 0;
+
+    public TripSegment(boolean moving) {
+        this.moving = moving;
+    }
+
+    void add(int row, long time, double speed, double distance) {
+        if (startRow < 0) {
+            startRow = row;
+            startTime = time;
+        }
+        endRow = row;
+        if (time >= 0) {
+            endTime = time;
+        }
+        this.distance += distance;
+        if (!Double.isNaN(speed)) {
+            maxSpeed = Math.max(maxSpeed, speed);
+            speedSum += speed;
+            speedCount++;
+        }
+    }
+
+    // Append a later stretch of rows to this segment
+    void append(TripSegment other) {
+        if (other.startRow < 0) {
+            return;
+        }
+        if (startRow < 0) {
+            startRow = other.startRow;
+            startTime = other.startTime;
+        }
+        endRow = other.endRow;
+        endTime = other.endTime;
+        distance += other.distance;
+        maxSpeed = Math.max(maxSpeed, other.maxSpeed);
+        speedSum += other.speedSum;
+        speedCount += other.speedCount;
+    }
+
+    void reset(boolean moving) {
+        this.moving = moving;
+        startTime = -1;
+        endTime = -1;
+        startRow = -1;
+        endRow = -1;
+        distance = 0.0;
+        maxSpeed = 0.0;
+        speedSum = 0.0;
+        speedCount = 0;
+    }
+
+    // Duration in milliseconds
+    public long getDuration() {
+        return (startTime >= 0 && endTime >= startTime) ? endTime - startTime : 0;
+    }
+
+    public double getAvgSpeed() {
+        return (speedCount > 0) ? speedSum / speedCount : 0.0;
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("moving", moving);
+        json.put("startTime", startTime);
+        json.put("endTime", endTime);
+        json.put("startRow", startRow);
+        json.put("endRow", endRow);
+        json.put("distance", distance);
+        json.put("maxSpeed", maxSpeed);
+        json.put("speedSum", speedSum);
+        json.put("speedCount", speedCount);
+        return json;
+    }
+
+    public static TripSegment fromJSON(JSONObject json) {
+        TripSegment segment = new TripSegment(json.optBoolean("moving"));
+        segment.startTime = json.optLong("startTime", -1);
+        segment.endTime = json.optLong("endTime", -1);
+        segment.startRow = json.optInt("startRow", -1);
+        segment.endRow = json.optInt("endRow", -1);
+        segment.distance = json.optDouble("distance", 0.0);
+        segment.maxSpeed = json.optDouble("maxSpeed", 0.0);
+        segment.speedSum = json.optDouble("speedSum", 0.0);
+        segment.speedCount = json.optInt("speedCount");
+        return segment;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.location.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a trip into moving and stopped segments as rows arrive. A change of
+ * state only counts once it has lasted for a dwell time, the rows seen
+ * while waiting are held aside and handed to whichever segment wins.
+ *
+ * Stillness is judged on the bike speed, then GPS speed, and when neither
+ * is logged on the position staying within a small radius.
+ */
+public class TripSegmenter {
+
+    // km/h, the gap between the two avoids flapping at walking pace
+    static final double STOP_SPEED = 3.0;
+    static final double MOVE_SPEED = 8.0;
+    // Meters, position dwell when no speed is available
+    static final double STOP_RADIUS = 30.0;
+    // Milliseconds
+    static final long STOP_DWELL = 20000;
+    static final long POSITION_DWELL = 60000;
+    static final long MOVE_DWELL = 5000;
+
+    private final List<TripSegment> segments = new ArrayList<>();
+    private TripSegment current;
+    private final TripSegment pending = new TripSegment(false);
+    private boolean pendingWithSpeed;
+    private double speedFactor = 1.0;
+
+    private double lastLatitude = Double.NaN;
+    private double lastLongitude = Double.NaN;
+    private double anchorLatitude = Double.NaN;
+    private double anchorLongitude = Double.NaN;
+    private final float[] results = new float[1];
+
+    public void setHeader(String[] header) {
+        String unit = TripLog.parseUnit(header, TripLog.SPEED, TripLog.parseUnit(header, TripLog.GPS_SPEED, "kmh"));
+        speedFactor = unit.equals("mph") ? 1.609344 : 1.0;
+    }
+
+    public void add(TripLogRecord record) {
+        double speed = record.getDouble(TripLog.SPEED);
+        if (Double.isNaN(speed)) {
+            speed = record.gpsSpeed;
+        }
+        if (!Double.isNaN(speed)) {
+            speed = speed * speedFactor;
+        }
+
+        double distance = 0.0;
+        double fromAnchor = Double.NaN;
+        if (record.hasFix) {
+            if (!Double.isNaN(lastLatitude)) {
+                Location.distanceBetween(lastLatitude, lastLongitude, record.latitude, record.longitude, results);
+                distance = results[0];
+            }
+            lastLatitude = record.latitude;
+            lastLongitude = record.longitude;
+            if (!Double.isNaN(anchorLatitude)) {
+                Location.distanceBetween(anchorLatitude, anchorLongitude, record.latitude, record.longitude, results);
+                fromAnchor = results[0];
+            }
+        }
+
+        if (current == null) {
+            current = new TripSegment(!Double.isNaN(speed) && speed >= STOP_SPEED);
+            segments.add(current);
+            setAnchor(record);
+        }
+
+        boolean changing;
+        if (!Double.isNaN(speed)) {
+            changing = current.moving ? speed < STOP_SPEED : speed > MOVE_SPEED;
+        } else if (!Double.isNaN(fromAnchor)) {
+            changing = current.moving ? fromAnchor <= STOP_RADIUS : fromAnchor > STOP_RADIUS;
+        } else {
+            changing = pending.startRow >= 0;
+        }
+
+        if (!changing) {
+            if (pending.startRow >= 0) {
+                current.append(pending);
+                pending.reset(!current.moving);
+            }
+            current.add(record.index, record.time, speed, distance);
+            if (current.moving) {
+                setAnchor(record);
+            }
+            return;
+        }
+
+        if (pending.startRow < 0) {
+            pending.reset(!current.moving);
+            pendingWithSpeed = !Double.isNaN(speed);
+        }
+        pending.add(record.index, record.time, speed, distance);
+
+        long dwell = current.moving ? (pendingWithSpeed ? STOP_DWELL : POSITION_DWELL) : MOVE_DWELL;
+        if (pending.getDuration() >= dwell) {
+            current = new TripSegment(pending.moving);
+            current.append(pending);
+            segments.add(current);
+            pending.reset(!current.moving);
+            setAnchor(record);
+        }
+    }
+
+    private void setAnchor(TripLogRecord record) {
+        if (record.hasFix) {
+            anchorLatitude = record.latitude;
+            anchorLongitude = record.longitude;
+        }
+    }
+
+    // Segments so far, rows waiting on a dwell time are counted in the last one
+    public List<TripSegment> getSegments() {
+        List<TripSegment> result = new ArrayList<>(segments);
+        if (pending.startRow >= 0 && current != null) {
+            TripSegment last = new TripSegment(current.moving);
+            last.append(current);
+            last.append(pending);
+            result.set(result.size() - 1, last);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The columns of a trip log needed for analysis, held in primitive arrays
+ * indexed by row. Missing values are NaN, speeds are in km/h.
+ */
+public class TripSeries {
+
+    private static final int INITIAL_CAPACITY = 4096;
+
+    public int size;
+    public long[] time = new long[INITIAL_CAPACITY];
+    public float[] lean = new float[INITIAL_CAPACITY];
+    public float[] speed = new float[INITIAL_CAPACITY];
+    public double[] latitude = new double[INITIAL_CAPACITY];
+    public double[] longitude = new double[INITIAL_CAPACITY];
+
+    public static TripSeries read(File file) throws IOException {
+        TripSeries series = new TripSeries();
+        try (TripLogReader reader = new TripLogReader(file)) {
+            String[] header = reader.getHeader();
+            String unit = TripLog.parseUnit(header, TripLog.SPEED, TripLog.parseUnit(header, TripLog.GPS_SPEED, "kmh"));
+            double speedFactor = unit.equals("mph") ? 1.609344 : 1.0;
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                series.add(record, speedFactor);
+            }
+        }
+        return series;
+    }
+
+    private void add(TripLogRecord record, double speedFactor) {
+        if (size == time.length) {
+            int capacity = size * 2;
+            time = Arrays.copyOf(time, capacity);
+            lean = Arrays.copyOf(lean, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            latitude = Arrays.copyOf(latitude, capacity);
+            longitude = Arrays.copyOf(longitude, capacity);
+        }
+        // Bike lean angle when logged, phone lean angle otherwise
+        double leanAngle = record.getDouble(TripLog.LEAN_ANGLE_BIKE);
+        if (Double.isNaN(leanAngle)) {
+            leanAngle = record.getDouble(TripLog.LEAN_ANGLE);
+        }
+        double rowSpeed = record.getDouble(TripLog.SPEED);
+        if (Double.isNaN(rowSpeed)) {
+            rowSpeed = record.gpsSpeed;
+        }
+        time[size] = record.time;
+        lean[size] = (float) leanAngle;
+        speed[size] = (float) (rowSpeed * speedFactor);
+        latitude[size] = record.hasFix ? record.latitude : Double.NaN;
+        longitude[size] = record.hasFix ? record.longitude : Double.NaN;
+        size++;
+    }
+}
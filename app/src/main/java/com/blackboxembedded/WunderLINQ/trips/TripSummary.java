@@ -0,0 +1,300 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.location.Location;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregate statistics of a trip log, built incrementally one row at a time
+ * so it can be produced by any streaming pass over the log.
+ */
+public class TripSummary {
+
+    public String distanceUnit = "km";
+    public String temperatureUnit = "C";
+    public String speedUnit = "kmh";
+
+    public int rows = 0;
+    public long startTime = -1;
+    public long endTime = -1;
+
+    // GPS distance in meters
+    public double gpsDistance = 0.0;
+    public double startOdometer = Double.NaN;
+    public double endOdometer = Double.NaN;
+
+    public double speedSum = 0.0;
+    public int speedCount = 0;
+    public double maxSpeed = Double.NaN;
+    public double maxLean = Double.NaN;
+
+    public double minEngineTemp = Double.NaN;
+    public double maxEngineTemp = Double.NaN;
+    public double engineTempSum = 0.0;
+    public int engineTempCount = 0;
+
+    public double minAmbientTemp = Double.NaN;
+    public double maxAmbientTemp = Double.NaN;
+    public double ambientTempSum = 0.0;
+    public int ambientTempCount = 0;
+
+    // Counters restart at zero for every logging session, merged trips add up
+    public int shifts = 0;
+    public int frontBrakes = 0;
+    public int rearBrakes = 0;
+    private int lastShifts = 0;
+    private int lastFrontBrakes = 0;
+    private int lastRearBrakes = 0;
+
+    // Stored next to the summary in the trip index
+    public TripHistograms histograms = new TripHistograms();
+
+    private final TripSegmenter segmenter = new TripSegmenter();
+    // Segments read back from the trip index
+    private List<TripSegment> segments;
+
+    private double lastLatitude = Double.NaN;
+    private double lastLongitude = Double.NaN;
+    private final float[] results = new float[1];
+
+    // Build the summary with one streaming pass over a trip log
+    public static TripSummary read(File file) throws IOException {
+        TripSummary summary = new TripSummary();
+        try (TripLogReader reader = new TripLogReader(file)) {
+            summary.setHeader(reader.getHeader());
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                summary.add(record);
+            }
+        }
+        return summary;
+    }
+
+    public void setHeader(String[] header) {
+        distanceUnit = TripLog.parseUnit(header, TripLog.ODOMETER, distanceUnit);
+        temperatureUnit = TripLog.parseUnit(header, TripLog.ENGINE_TEMP, temperatureUnit);
+        speedUnit = TripLog.parseUnit(header, TripLog.GPS_SPEED, speedUnit);
+        segmenter.setHeader(header);
+        histograms.setHeader(header);
+    }
+
+    public void add(TripLogRecord record) {
+        rows++;
+        segmenter.add(record);
+        histograms.add(record);
+        if (record.time >= 0) {
+            if (startTime < 0) {
+                startTime = record.time;
+            }
+            endTime = record.time;
+        }
+        if (record.hasFix) {
+            if (!Double.isNaN(lastLatitude)) {
+                Location.distanceBetween(lastLatitude, lastLongitude, record.latitude, record.longitude, results);
+                gpsDistance += results[0];
+            }
+            lastLatitude = record.latitude;
+            lastLongitude = record.longitude;
+            if (!Double.isNaN(record.gpsSpeed)) {
+                speedSum += record.gpsSpeed;
+                speedCount++;
+                maxSpeed = max(maxSpeed, record.gpsSpeed);
+            }
+        }
+        double engineTemp = record.getDouble(TripLog.ENGINE_TEMP);
+        if (!Double.isNaN(engineTemp)) {
+            minEngineTemp = min(minEngineTemp, engineTemp);
+            maxEngineTemp = max(maxEngineTemp, engineTemp);
+            engineTempSum += engineTemp;
+            engineTempCount++;
+        }
+        double ambientTemp = record.getDouble(TripLog.AMBIENT_TEMP);
+        if (!Double.isNaN(ambientTemp)) {
+            minAmbientTemp = min(minAmbientTemp, ambientTemp);
+            maxAmbientTemp = max(maxAmbientTemp, ambientTemp);
+            ambientTempSum += ambientTemp;
+            ambientTempCount++;
+        }
+        double odometer = record.getDouble(TripLog.ODOMETER);
+        if (!Double.isNaN(odometer)) {
+            startOdometer = min(startOdometer, odometer);
+            endOdometer = max(endOdometer, odometer);
+        }
+        double frontBrakeCount = record.getDouble(TripLog.FRONT_BRAKES);
+        if (!Double.isNaN(frontBrakeCount)) {
+            int value = (int) frontBrakeCount;
+            frontBrakes += (value >= lastFrontBrakes) ? value - lastFrontBrakes : value;
+            lastFrontBrakes = value;
+        }
+        double rearBrakeCount = record.getDouble(TripLog.REAR_BRAKES);
+        if (!Double.isNaN(rearBrakeCount)) {
+            int value = (int) rearBrakeCount;
+            rearBrakes += (value >= lastRearBrakes) ? value - lastRearBrakes : value;
+            lastRearBrakes = value;
+        }
+        double shiftCount = record.getDouble(TripLog.SHIFTS);
+        if (!Double.isNaN(shiftCount)) {
+            int value = (int) shiftCount;
+            shifts += (value >= lastShifts) ? value - lastShifts : value;
+            lastShifts = value;
+        }
+        double lean = record.getDouble(TripLog.LEAN_ANGLE_BIKE);
+        if (Double.isNaN(lean)) {
+            lean = record.getDouble(TripLog.LEAN_ANGLE);
+        }
+        if (!Double.isNaN(lean)) {
+            maxLean = max(maxLean, Math.abs(lean));
+        }
+    }
+
+    // Distance in the log distance unit, odometer when available otherwise GPS
+    public double getDistance() {
+        double distance = 0;
+        if (!Double.isNaN(startOdometer) && !Double.isNaN(endOdometer)) {
+            distance = endOdometer - startOdometer;
+        }
+        if (distance == 0 && gpsDistance != 0.0) {
+            distance = gpsDistance / 1000.0;
+        }
+        return distance;
+    }
+
+    public double getAvgSpeed() {
+        return (speedCount > 0) ? speedSum / speedCount : Double.NaN;
+    }
+
+    public double getAvgEngineTemp() {
+        return (engineTempCount > 0) ? engineTempSum / engineTempCount : 0.0;
+    }
+
+    public double getAvgAmbientTemp() {
+        return (ambientTempCount > 0) ? ambientTempSum / ambientTempCount : 0.0;
+    }
+
+    public List<TripSegment> getSegments() {
+        return (segments != null) ? segments : segmenter.getSegments();
+    }
+
+    // Milliseconds spent moving, or stopped
+    public long getTime(boolean moving) {
+        long time = 0;
+        for (TripSegment segment : getSegments()) {
+            if (segment.moving == moving) {
+                time += segment.getDuration();
+            }
+        }
+        return time;
+    }
+
+    public JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("distanceUnit", distanceUnit);
+        json.put("temperatureUnit", temperatureUnit);
+        json.put("speedUnit", speedUnit);
+        json.put("rows", rows);
+        json.put("startTime", startTime);
+        json.put("endTime", endTime);
+        json.put("gpsDistance", gpsDistance);
+        putDouble(json, "startOdometer", startOdometer);
+        putDouble(json, "endOdometer", endOdometer);
+        json.put("speedSum", speedSum);
+        json.put("speedCount", speedCount);
+        putDouble(json, "maxSpeed", maxSpeed);
+        putDouble(json, "maxLean", maxLean);
+        putDouble(json, "minEngineTemp", minEngineTemp);
+        putDouble(json, "maxEngineTemp", maxEngineTemp);
+        json.put("engineTempSum", engineTempSum);
+        json.put("engineTempCount", engineTempCount);
+        putDouble(json, "minAmbientTemp", minAmbientTemp);
+        putDouble(json, "maxAmbientTemp", maxAmbientTemp);
+        json.put("ambientTempSum", ambientTempSum);
+        json.put("ambientTempCount", ambientTempCount);
+        json.put("shifts", shifts);
+        json.put("frontBrakes", frontBrakes);
+        json.put("rearBrakes", rearBrakes);
+        JSONArray segmentsJSON = new JSONArray();
+        for (TripSegment segment : getSegments()) {
+            segmentsJSON.put(segment.toJSON());
+        }
+        json.put("segments", segmentsJSON);
+        return json;
+    }
+
+    public static TripSummary fromJSON(JSONObject json) {
+        TripSummary summary = new TripSummary();
+        summary.distanceUnit = json.optString("distanceUnit", summary.distanceUnit);
+        summary.temperatureUnit = json.optString("temperatureUnit", summary.temperatureUnit);
+        summary.speedUnit = json.optString("speedUnit", summary.speedUnit);
+        summary.rows = json.optInt("rows");
+        summary.startTime = json.optLong("startTime", -1);
+        summary.endTime = json.optLong("endTime", -1);
+        summary.gpsDistance = json.optDouble("gpsDistance", 0.0);
+        summary.startOdometer = json.optDouble("startOdometer");
+        summary.endOdometer = json.optDouble("endOdometer");
+        summary.speedSum = json.optDouble("speedSum", 0.0);
+        summary.speedCount = json.optInt("speedCount");
+        summary.maxSpeed = json.optDouble("maxSpeed");
+        summary.maxLean = json.optDouble("maxLean");
+        summary.minEngineTemp = json.optDouble("minEngineTemp");
+        summary.maxEngineTemp = json.optDouble("maxEngineTemp");
+        summary.engineTempSum = json.optDouble("engineTempSum", 0.0);
+        summary.engineTempCount = json.optInt("engineTempCount");
+        summary.minAmbientTemp = json.optDouble("minAmbientTemp");
+        summary.maxAmbientTemp = json.optDouble("maxAmbientTemp");
+        summary.ambientTempSum = json.optDouble("ambientTempSum", 0.0);
+        summary.ambientTempCount = json.optInt("ambientTempCount");
+        summary.shifts = json.optInt("shifts");
+        summary.frontBrakes = json.optInt("frontBrakes");
+        summary.rearBrakes = json.optInt("rearBrakes");
+        summary.segments = new ArrayList<>();
+        JSONArray segmentsJSON = json.optJSONArray("segments");
+        if (segmentsJSON != null) {
+            for (int i = 0; i < segmentsJSON.length(); i++) {
+                JSONObject segmentJSON = segmentsJSON.optJSONObject(i);
+                if (segmentJSON != null) {
+                    summary.segments.add(TripSegment.fromJSON(segmentJSON));
+                }
+            }
+        }
+        return summary;
+    }
+
+    // JSONObject rejects NaN, missing keys read back as NaN through optDouble()
+    static void putDouble(JSONObject json, String key, double value) throws JSONException {
+        if (!Double.isNaN(value)) {
+            json.put(key, value);
+        }
+    }
+
+    private static double min(double current, double value) {
+        return (Double.isNaN(current) || value < current) ? value : current;
+    }
+
+    private static double max(double current, double value) {
+        return (Double.isNaN(current) || value > current) ? value : current;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+WunderLINQ Client Application
+Copyright (C) 2020  Keith Conger, Black Box Embedded, LLC
+
+This program is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This program is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this program.  If not, see <https://www.gnu.org/licenses/>.
+*/
+package com.blackboxembedded.WunderLINQ.trips;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders small route thumbnails for the trip list off the UI thread. Bitmaps
+ * are cached in memory and on disk, keyed by the trip file name, size and
+ * modification time so an edited trip gets a new thumbnail.
+ */
+public class TripThumbnailLoader {
+
+    private static final String TAG = "TripThumbnail";
+    // Roughly 5m in degrees
+    private static final float MIN_STEP = 0.00005f;
+
+    public interface Callback {
+        void onThumbnail(ImageView view, Bitmap bitmap);
+    }
+
+    private static TripThumbnailLoader instance;
+
+    private final File cacheDir;
+    private final int size;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public static synchronized TripThumbnailLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new TripThumbnailLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private TripThumbnailLoader(Context context) {
+        cacheDir = new File(context.getCacheDir(), "/thumbnails/");
+        if(!cacheDir.exists()){
+            if(!cacheDir.mkdirs()){
+                Log.d(TAG,"Unable to create directory: " + cacheDir);
+            }
+        }
+        size = (int) (72 * context.getResources().getDisplayMetrics().density);
+        // Use 1/16th of the available memory for this memory cache
+        int cacheSize = (int) (Runtime.getRuntime().maxMemory() / 1024 / 16);
+        memoryCache = new LruCache<String, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, TAG);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static String getKey(File file) {
+        return file.getName() + "_" + file.length() + "_" + file.lastModified();
+    }
+
+    /**
+     * Deliver the thumbnail for a trip to the view. Views are matched by tag
+     * so recycled rows never show the thumbnail of the trip they used to hold.
+     */
+    public void load(final File file, final ImageView view, final Callback callback) {
+        final String key = getKey(file);
+        view.setTag(key);
+        // A trip still being recorded is drawn again every time
+        final boolean active = TripLog.isActive(file);
+        Bitmap bitmap = active ? null : memoryCache.get(key);
+        if (bitmap != null) {
+            callback.onThumbnail(view, bitmap);
+            return;
+        }
+        callback.onThumbnail(view, null);
+        executor.execute(() -> {
+            if (!key.equals(view.getTag())) {
+                // Scrolled away before the work started
+                return;
+            }
+            final Bitmap result = active ? render(file) : getThumbnail(file, key);
+            if (result == null) {
+                return;
+            }
+            if (!active) {
+                memoryCache.put(key, result);
+            }
+            mainHandler.post(() -> {
+                if (key.equals(view.getTag())) {
+                    callback.onThumbnail(view, result);
+                }
+            });
+        });
+    }
+
+    private Bitmap getThumbnail(File file, String key) {
+        File cached = new File(cacheDir, key + ".png");
+        if (cached.exists()) {
+            Bitmap bitmap = BitmapFactory.decodeFile(cached.getPath());
+            if (bitmap != null) {
+                return bitmap;
+            }
+        }
+        Bitmap bitmap = render(file);
+        if (bitmap != null) {
+            removeStale(file.getName());
+            try (FileOutputStream out = new FileOutputStream(cached)) {
+                bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            } catch (IOException e) {
+                Log.d(TAG, "Exception caching thumbnail: " + e.toString());
+            }
+        }
+        return bitmap;
+    }
+
+    // Drop thumbnails of earlier versions of the same trip
+    private void removeStale(String fileName) {
+        File[] list = cacheDir.listFiles();
+        if (list != null) {
+            for (File cached : list) {
+                if (cached.getName().startsWith(fileName + "_")) {
+                    cached.delete();
+                }
+            }
+        }
+    }
+
+    public void remove(File file) {
+        memoryCache.remove(getKey(file));
+        removeStale(file.getName());
+    }
+
+    // Carry a thumbnail over to a rewritten log of the same trip
+    public void move(String oldKey, File file) {
+        String key = getKey(file);
+        Bitmap bitmap = memoryCache.remove(oldKey);
+        if (bitmap != null) {
+            memoryCache.put(key, bitmap);
+        }
+        File cached = new File(cacheDir, oldKey + ".png");
+        if (cached.exists() && !cached.renameTo(new File(cacheDir, key + ".png"))) {
+            Log.d(TAG, "Unable to move thumbnail: " + cached);
+        }
+    }
+
+    private Bitmap render(File file) {
+        float[] points = new float[1024];
+        int count = 0;
+        float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        try (TripLogReader reader = new TripLogReader(file)) {
+            TripLogRecord record;
+            while ((record = reader.next()) != null) {
+                if (!record.hasFix) {
+                    continue;
+                }
+                // Equirectangular projection is plenty for a thumbnail
+                float x = (float) (record.longitude * Math.cos(Math.toRadians(record.latitude)));
+                float y = (float) -record.latitude;
+                // Skip points within a few meters of the last one, mostly stops
+                if (count > 0 && Math.abs(x - points[count * 2 - 2]) + Math.abs(y - points[count * 2 - 1]) < MIN_STEP) {
+                    continue;
+                }
+                if (count * 2 == points.length) {
+                    points = Arrays.copyOf(points, points.length * 2);
+                }
+                points[count * 2] = x;
+                points[count * 2 + 1] = y;
+                count++;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Exception reading trip: " + e.toString());
+            return null;
+        }
+        if (count < 2) {
+            return null;
+        }
+
+        float padding = size * 0.1f;
+        float span = Math.max(maxX - minX, maxY - minY);
+        float scale = (span > 0) ? (size - 2 * padding) / span : 0;
+        float offsetX = (size - (maxX - minX) * scale) / 2;
+        float offsetY = (size - (maxY - minY) * scale) / 2;
+
+        // Keep only points that land on a different pixel than the last one kept
+        Path path = new Path();
+        int lastX = Integer.MIN_VALUE;
+        int lastY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            float x = offsetX + (points[i * 2] - minX) * scale;
+            float y = offsetY + (points[i * 2 + 1] - minY) * scale;
+            if ((int) x == lastX && (int) y == lastY) {
+                continue;
+            }
+            if (lastX == Integer.MIN_VALUE) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+            lastX = (int) x;
+            lastY = (int) y;
+        }
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeWidth(Math.max(2f, size / 36f));
+        paint.setColor(Color.RED);
+        canvas.drawPath(path, paint);
+        return bitmap;
+    }
+}
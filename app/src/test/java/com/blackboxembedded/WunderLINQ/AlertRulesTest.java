@@ -0,0 +1,89 @@
+package com.blackboxembedded.WunderLINQ;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rule parsing and the duration and hysteresis state of AlertRules.
+ */
+public class AlertRulesTest {
+
+    private static long seconds(double seconds) {
+        return (long) (seconds * 1000000000L);
+    }
+
+    @Test
+    public void validate_acceptsRules() {
+        assertNull(AlertRules.validate("engine_temp > 110 for 10"));
+        assertNull(AlertRules.validate("voltage < 12.0 hysteresis 0.3"));
+        assertNull(AlertRules.validate("rear_speed / speed > 1.1 for 1"));
+        assertNull(AlertRules.validate("  RPM > 9000  \n\nspeed > 130 for 5 hysteresis 10"));
+    }
+
+    @Test
+    public void validate_rejectsRules() {
+        assertEquals("engine > 110", AlertRules.validate("engine > 110"));
+        assertEquals("vin > 1", AlertRules.validate("vin > 1"));
+        assertEquals("speed = 100", AlertRules.validate("speed = 100"));
+        assertEquals("speed >", AlertRules.validate("speed >"));
+        assertEquals("speed > fast", AlertRules.validate("speed > fast"));
+        assertEquals("speed > 100 for", AlertRules.validate("speed > 100 for"));
+        assertEquals("speed > 100 for -1", AlertRules.validate("speed > 100 for -1"));
+        assertEquals("speed > 100 after 5", AlertRules.validate("speed > 100 after 5"));
+        assertEquals("speed / wind > 1", AlertRules.validate("rpm > 1\nspeed / wind > 1"));
+    }
+
+    @Test
+    public void update_firesOnceAfterDuration() {
+        AlertRules.compile("engine_temp > 110 for 10");
+        assertFalse(AlertRules.update(0, 111, seconds(1)));
+        assertFalse(AlertRules.update(0, 115, seconds(5)));
+        assertTrue(AlertRules.update(0, 111, seconds(11)));
+        assertFalse(AlertRules.update(0, 112, seconds(30)));
+    }
+
+    @Test
+    public void update_withoutDurationFiresImmediately() {
+        AlertRules.compile("voltage < 12.0 hysteresis 0.3");
+        assertTrue(AlertRules.update(0, 11.9, seconds(1)));
+        assertFalse(AlertRules.update(0, 11.8, seconds(2)));
+    }
+
+    @Test
+    public void update_restartsDurationInsideHysteresis() {
+        AlertRules.compile("engine_temp > 110 for 10 hysteresis 2");
+        assertFalse(AlertRules.update(0, 111, seconds(1)));
+        assertFalse(AlertRules.update(0, 109, seconds(2)));
+        assertFalse(AlertRules.update(0, 111, seconds(60)));
+        assertFalse(AlertRules.update(0, 111, seconds(69)));
+        assertTrue(AlertRules.update(0, 111, seconds(70)));
+    }
+
+    @Test
+    public void update_rearmsPastHysteresis() {
+        AlertRules.compile("voltage < 12.0 hysteresis 0.3");
+        assertTrue(AlertRules.update(0, 11.9, seconds(1)));
+        // Back over the threshold but inside the band stays fired
+        assertFalse(AlertRules.update(0, 12.1, seconds(2)));
+        assertFalse(AlertRules.update(0, 11.9, seconds(3)));
+        // Past the band rearms
+        assertFalse(AlertRules.update(0, 12.3, seconds(4)));
+        assertTrue(AlertRules.update(0, 11.9, seconds(5)));
+    }
+
+    @Test
+    public void update_ignoresMissingValues() {
+        AlertRules.compile("rear_speed / speed > 1.1 for 1");
+        assertFalse(AlertRules.update(0, 1.2, seconds(1)));
+        assertFalse(AlertRules.update(0, Double.NaN, seconds(1.5)));
+        assertFalse(AlertRules.update(0, Double.POSITIVE_INFINITY, seconds(1.7)));
+        assertTrue(AlertRules.update(0, 1.2, seconds(2)));
+    }
+
+    @Test
+    public void compile_skipsInvalidLines() {
+        AlertRules.compile("speed > 100 after 5\nspeed > 100");
+        assertTrue(AlertRules.update(0, 101, seconds(1)));
+    }
+}
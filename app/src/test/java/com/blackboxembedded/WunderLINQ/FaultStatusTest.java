@@ -0,0 +1,99 @@
+package com.blackboxembedded.WunderLINQ;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bitmask updates and change events of FaultStatus.
+ */
+public class FaultStatusTest {
+
+    private final ArrayList<long[]> events = new ArrayList<>();
+    private final FaultStatus.Listener listener = new FaultStatus.Listener() {
+        @Override
+        public void onFaultsChanged(long raised, long cleared) {
+            synchronized (events) {
+                events.add(new long[]{raised, cleared});
+            }
+        }
+    };
+
+    @Before
+    public void setUp() {
+        FaultStatus.clear();
+        FaultStatus.addListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        FaultStatus.removeListener(listener);
+        FaultStatus.clear();
+    }
+
+    @Test
+    public void update_onlyChangesMaskedBits() {
+        FaultStatus.set(FaultStatus.OIL_LOW, true);
+        FaultStatus.update(FaultStatus.ABS_ERROR | FaultStatus.ASC_ERROR, FaultStatus.ABS_ERROR | FaultStatus.OIL_LOW);
+        assertEquals(FaultStatus.OIL_LOW | FaultStatus.ABS_ERROR, FaultStatus.getActive());
+        FaultStatus.update(FaultStatus.ABS_ERROR | FaultStatus.ASC_ERROR, FaultStatus.ASC_ERROR);
+        assertEquals(FaultStatus.OIL_LOW | FaultStatus.ASC_ERROR, FaultStatus.getActive());
+        assertTrue(FaultStatus.isActive(FaultStatus.ASC_ERROR));
+        assertFalse(FaultStatus.isActive(FaultStatus.ABS_ERROR));
+    }
+
+    @Test
+    public void update_reportsRaisedAndCleared() {
+        FaultStatus.update(FaultStatus.ABS_ERROR | FaultStatus.ICE_WARNING, FaultStatus.ABS_ERROR | FaultStatus.ICE_WARNING);
+        FaultStatus.update(FaultStatus.ABS_ERROR | FaultStatus.SERVICE, FaultStatus.SERVICE);
+        assertEquals(2, events.size());
+        assertArrayEquals(new long[]{FaultStatus.ABS_ERROR | FaultStatus.ICE_WARNING, 0}, events.get(0));
+        assertArrayEquals(new long[]{FaultStatus.SERVICE, FaultStatus.ABS_ERROR}, events.get(1));
+    }
+
+    @Test
+    public void update_withoutChangeSendsNoEvent() {
+        FaultStatus.set(FaultStatus.FUEL_FAULT, true);
+        FaultStatus.set(FaultStatus.FUEL_FAULT, true);
+        FaultStatus.set(FaultStatus.ABS_ERROR, false);
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void update_concurrentWritersKeepEveryBit() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int first = t * 5;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int round = 0; round < 1000; round++) {
+                        for (int bit = first; bit < first + 5; bit++) {
+                            FaultStatus.set(1L << bit, round % 2 == 0);
+                        }
+                    }
+                    for (int bit = first; bit < first + 5; bit++) {
+                        FaultStatus.set(1L << bit, true);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(FaultStatus.ALL, FaultStatus.getActive());
+        // Every change was reported exactly once, so replaying the events gives the final state
+        long replayed = 0;
+        for (long[] event : events) {
+            assertEquals(0, replayed & event[0]);
+            assertEquals(event[1], replayed & event[1]);
+            replayed = (replayed | event[0]) & ~event[1];
+        }
+        assertEquals(FaultStatus.ALL, replayed);
+    }
+}
@@ -0,0 +1,64 @@
+package com.blackboxembedded.WunderLINQ;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Leak detection of TirePressureTrend across rides that warm the tires up.
+ */
+public class TirePressureTrendTest {
+
+    private static final int TIRE = TirePressureTrend.FRONT;
+    // Hours since the epoch the simulated rides start from
+    private static final double START = 480000;
+
+    @Before
+    public void setUp() {
+        FaultStatus.clear();
+        TirePressureTrend.reset(TIRE);
+    }
+
+    @After
+    public void tearDown() {
+        TirePressureTrend.reset(TIRE);
+        FaultStatus.clear();
+    }
+
+    // An hour long ride, the tire gains 0.3 bar as it warms up
+    private static void ride(double start, double coldPressure) {
+        for (int minute = 0; minute <= 60; minute++) {
+            double warmUp = 0.3 * (1 - Math.exp(-minute / 10.0));
+            TirePressureTrend.update(TIRE, coldPressure + warmUp, start + minute / 60.0);
+        }
+    }
+
+    @Test
+    public void update_warmUpIsNotALeak() {
+        for (int day = 0; day < 5; day++) {
+            ride(START + day * 24 + 8, 2.5);
+            ride(START + day * 24 + 17, 2.5);
+        }
+        assertEquals(0.0, TirePressureTrend.getRate(TIRE), 0.001);
+        assertFalse(FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_DROPPING));
+    }
+
+    @Test
+    public void update_slowLeakRaisesFault() {
+        for (int day = 0; day < 5; day++) {
+            ride(START + day * 24 + 8, 2.5 - day * 0.2);
+            ride(START + day * 24 + 17, 2.5 - (day + 0.375) * 0.2);
+        }
+        assertTrue(TirePressureTrend.getRate(TIRE) <= -0.005);
+        assertTrue(FaultStatus.isActive(FaultStatus.FRONT_TIRE_PRESSURE_DROPPING));
+    }
+
+    @Test
+    public void getRate_unknownAfterOneColdStart() {
+        ride(START, 2.5);
+        ride(START + 12, 2.5);
+        assertTrue(Double.isNaN(TirePressureTrend.getRate(TIRE)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Time spent per bucket in TripHistograms, and merging trips.
+ */
+public class TripHistogramsTest {
+
+    private final TripLogRecord record = new TripLogRecord();
+
+    private void add(TripHistograms histograms, long time, String gear, double rpm, double throttle) {
+        String[] values = new String[TripLog.COLUMN_COUNT];
+        Arrays.fill(values, TripLog.NO_VALUE);
+        values[TripLog.GEAR] = gear;
+        values[TripLog.RPM] = String.valueOf(rpm);
+        values[TripLog.THROTTLE] = String.valueOf(throttle);
+        record.values = values;
+        record.time = time;
+        record.gpsSpeed = Double.NaN;
+        histograms.add(record);
+    }
+
+    @Test
+    public void add_countsTimeSincePreviousRow() {
+        TripHistograms histograms = new TripHistograms();
+        add(histograms, 0, "2", 3000, 10);
+        add(histograms, 1000, "2", 3000, 10);
+        add(histograms, 2000, "3", 5200, 60);
+        assertEquals(2000, histograms.getGearTime());
+        assertEquals(1000, histograms.gear[2]);
+        assertEquals(1000, histograms.gear[3]);
+        assertEquals(3250, histograms.getAvgRpm(2), 0.001);
+        assertEquals(0.5, histograms.getThrottleShare(50), 0.001);
+    }
+
+    @Test
+    public void add_skipsGapsAndUnknownGears() {
+        TripHistograms histograms = new TripHistograms();
+        add(histograms, 0, "1", 2000, 0);
+        add(histograms, TripHistograms.MAX_STEP + 1, "1", 2000, 0);
+        add(histograms, TripHistograms.MAX_STEP + 1001, "null", 2000, 0);
+        assertEquals(0, histograms.getGearTime());
+        assertTrue(Double.isNaN(histograms.getAvgRpm(1)));
+        assertEquals(1.0, histograms.getThrottleShare(0), 0.001);
+    }
+
+    @Test
+    public void merge_addsBuckets() {
+        TripHistograms first = new TripHistograms();
+        add(first, 0, "N", 1000, 0);
+        add(first, 1000, "N", 1000, 0);
+        TripHistograms second = new TripHistograms();
+        add(second, 0, "N", 1000, 0);
+        add(second, 3000, "N", 1000, 0);
+        first.merge(second);
+        assertEquals(4000, first.gear[TripHistograms.GEAR_NEUTRAL]);
+        assertEquals(4000, first.getGearTime());
+    }
+
+    @Test
+    public void getGearBucket_mapsLoggedGears() {
+        assertEquals(TripHistograms.GEAR_NEUTRAL, TripHistograms.getGearBucket("N"));
+        assertEquals(TripHistograms.GEAR_BETWEEN, TripHistograms.getGearBucket("-"));
+        assertEquals(6, TripHistograms.getGearBucket("6"));
+        assertEquals(-1, TripHistograms.getGearBucket("7"));
+        assertEquals(-1, TripHistograms.getGearBucket(null));
+    }
+}
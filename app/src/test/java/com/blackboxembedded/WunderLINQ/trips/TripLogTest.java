@@ -0,0 +1,74 @@
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * Recovery of trip logs cut off in the middle of a row.
+ */
+public class TripLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String content) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void repair_keepsCompleteLog() throws IOException {
+        File file = write("Time,Speed\n1,10\n2,20\n");
+        assertFalse(TripLog.repair(file));
+        assertEquals("Time,Speed\n1,10\n2,20\n", read(file));
+    }
+
+    @Test
+    public void repair_dropsPartialRow() throws IOException {
+        File file = write("Time,Speed\n1,10\n2,2");
+        assertTrue(TripLog.repair(file));
+        assertEquals("Time,Speed\n1,10\n", read(file));
+        assertFalse(TripLog.repair(file));
+    }
+
+    @Test
+    public void repair_findsRowEndBeforeLastBuffer() throws IOException {
+        StringBuilder partial = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            partial.append('9');
+        }
+        File file = write("Time,Speed\n1,10\n" + partial);
+        assertTrue(TripLog.repair(file));
+        assertEquals("Time,Speed\n1,10\n", read(file));
+    }
+
+    @Test
+    public void repair_emptiesLogWithoutCompleteRow() throws IOException {
+        File file = write("Time,Spe");
+        assertTrue(TripLog.repair(file));
+        assertEquals(0, file.length());
+    }
+
+    @Test
+    public void repair_leavesEmptyLog() throws IOException {
+        File file = write("");
+        assertFalse(TripLog.repair(file));
+        assertEquals(0, file.length());
+    }
+}
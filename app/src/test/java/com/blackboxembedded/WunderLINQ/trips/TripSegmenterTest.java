@@ -0,0 +1,77 @@
+package com.blackboxembedded.WunderLINQ.trips;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Moving and stopped segments found by TripSegmenter from the logged speed.
+ */
+public class TripSegmenterTest {
+
+    private final TripSegmenter segmenter = new TripSegmenter();
+    private final TripLogRecord record = new TripLogRecord();
+    private int row = 0;
+
+    // One row a second at the given speed in km/h
+    private void ride(int seconds, double speed) {
+        for (int i = 0; i < seconds; i++) {
+            String[] values = new String[TripLog.COLUMN_COUNT];
+            Arrays.fill(values, TripLog.NO_VALUE);
+            values[TripLog.SPEED] = String.valueOf(speed);
+            record.index = row;
+            record.values = values;
+            record.time = row * 1000L;
+            record.hasFix = false;
+            record.gpsSpeed = Double.NaN;
+            segmenter.add(record);
+            row++;
+        }
+    }
+
+    @Test
+    public void add_splitsAtLongStop() {
+        ride(60, 50);
+        ride(30, 0);
+        ride(60, 50);
+        List<TripSegment> segments = segmenter.getSegments();
+        assertEquals(3, segments.size());
+        assertTrue(segments.get(0).moving);
+        assertFalse(segments.get(1).moving);
+        assertTrue(segments.get(2).moving);
+        assertEquals(60, segments.get(1).startRow);
+        assertEquals(89, segments.get(1).endRow);
+    }
+
+    @Test
+    public void add_shortStopStaysMoving() {
+        ride(60, 50);
+        ride(10, 0);
+        ride(60, 50);
+        List<TripSegment> segments = segmenter.getSegments();
+        assertEquals(1, segments.size());
+        assertTrue(segments.get(0).moving);
+        assertEquals(129, segments.get(0).endRow);
+    }
+
+    @Test
+    public void add_walkingPaceDoesNotStartMoving() {
+        ride(30, 0);
+        ride(30, 5);
+        List<TripSegment> segments = segmenter.getSegments();
+        assertEquals(1, segments.size());
+        assertFalse(segments.get(0).moving);
+    }
+
+    @Test
+    public void getSegments_countsRowsWaitingOnDwell() {
+        ride(60, 50);
+        ride(10, 0);
+        List<TripSegment> segments = segmenter.getSegments();
+        assertEquals(1, segments.size());
+        assertEquals(69, segments.get(0).endRow);
+    }
+}